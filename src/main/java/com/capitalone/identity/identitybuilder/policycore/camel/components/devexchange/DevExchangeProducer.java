@@ -8,20 +8,24 @@ import com.capitalone.identity.identitybuilder.policycore.model.DevExchangeReque
 import com.capitalone.identity.identitybuilder.policycore.model.DevExchangeResponse;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.policy.OperationalAuditExecutionData;
 import com.capitalone.identity.identitybuilder.policycore.service.constants.ApplicationConstants;
+import com.capitalone.identity.identitybuilder.policycore.service.dao.DevExchangeDAO;
 import com.capitalone.identity.identitybuilder.policycore.service.util.JsonUtil;
 import com.newrelic.api.agent.Trace;
+import org.apache.camel.AsyncCallback;
 import org.apache.camel.Endpoint;
 import org.apache.camel.Exchange;
 import org.apache.camel.Message;
 import org.apache.camel.model.DataFormatDefinition;
 import org.apache.camel.model.ModelCamelContext;
 import org.apache.camel.spi.DataFormat;
-import org.apache.camel.support.DefaultProducer;
+import org.apache.camel.support.DefaultAsyncProducer;
 import org.apache.camel.util.CastUtils;
 import org.apache.camel.util.StringHelper;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.CloseableThreadContext;
+import org.apache.logging.log4j.ThreadContext;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,11 +52,14 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
 /**
  * The Policy producer.
  */
-public class DevExchangeProducer extends DefaultProducer {
+public class DevExchangeProducer extends DefaultAsyncProducer {
     public static final String HEADER_CLIENT_IP = "Client-IP";
     public static final String CUSTOM_MULTIPART_HEADER_KEY = "customMultipartContent";
     private static final Logger logger = LoggerFactory.getLogger(DevExchangeProducer.class);
@@ -78,9 +85,63 @@ public class DevExchangeProducer extends DefaultProducer {
         jackson = findJacksonDataFormat(endpoint);
     }
 
+    /**
+     * Sends the DevExchange request. When the configured {@link DevExchangeDAO} supports it, the call is made
+     * asynchronously and the exchange continues on the thread that completes the response; otherwise the blocking
+     * call is made on the current thread.
+     */
     @Override
     @Trace
-    public void process(Exchange exchange) throws Exception {
+    public boolean process(Exchange exchange, AsyncCallback callback) {
+        DevExchangeDAO devExchangeDAO = getEndpoint().getComponent().getDevExchangeDAO();
+        DevExchangeRequest dxRequest;
+        try {
+            dxRequest = prepareRequest(exchange);
+            if (!devExchangeDAO.isAsyncSupported()) {
+                handleResponse(exchange, dxRequest, invoke(exchange, () -> devExchangeDAO.invokeDxAPI(dxRequest)));
+                callback.done(true);
+                return true;
+            }
+        } catch (Exception e) {
+            exchange.setException(e);
+            callback.done(true);
+            return true;
+        }
+
+        RequestContext callerContext = RequestContextHolder.getRequestContextOrDefault();
+        Map<String, String> callerThreadContext = ThreadContext.getImmutableContext();
+        CompletableFuture<DevExchangeResponse> pending;
+        try {
+            pending = invoke(exchange, () -> devExchangeDAO.invokeDxAPIAsync(dxRequest));
+        } catch (RuntimeException e) {
+            exchange.setException(e);
+            callback.done(true);
+            return true;
+        }
+        if (pending.isDone()) {
+            completeExchange(exchange, dxRequest, pending);
+            callback.done(true);
+            return true;
+        }
+
+        pending.whenComplete((dxResponse, throwable) -> {
+            // continue routing with the request and log4j thread contexts of the thread that started the call
+            RequestContext completionContext = RequestContextHolder.getRequestContextOrDefault();
+            RequestContextHolder.put(callerContext);
+            try (CloseableThreadContext.Instance ignored = CloseableThreadContext.putAll(callerThreadContext)) {
+                completeExchange(exchange, dxRequest, pending);
+                callback.done(false);
+            } finally {
+                RequestContextHolder.put(completionContext);
+            }
+        });
+        return false;
+    }
+
+    /**
+     * Builds the DevExchange request from the exchange and records the call in the operational audit data.
+     */
+    private DevExchangeRequest prepareRequest(Exchange exchange) throws Exception {
         DevExchangeEndpoint theEndpoint = getEndpoint();
         Message message = exchange.getMessage();
         URI finalTargetUrl = createTargetUri(theEndpoint, message.getHeaders());
@@ -113,10 +174,27 @@ public class DevExchangeProducer extends DefaultProducer {
                         + theEndpoint.getServiceName() + ", target_uri: " + finalTargetUrl + ", dx_version: "
                         + theEndpoint.getDxVersion() + ", http_method: " + method.toString() + " }"));
 
-        // Submit the DX API request and handle the response.
-        DevExchangeRequest dxRequest = createDxRequest(requestBody, headers, finalTargetUrl, method, theEndpoint.getServiceName(), scheme, policyInfo);
-        DevExchangeResponse dxResponse = invoke(exchange, theEndpoint, dxRequest);
+        return createDxRequest(requestBody, headers, finalTargetUrl, method, theEndpoint.getServiceName(), scheme, policyInfo);
+    }
+
+    private void completeExchange(Exchange exchange, DevExchangeRequest dxRequest, CompletableFuture<DevExchangeResponse> completed) {
+        try {
+            handleResponse(exchange, dxRequest, completed.join());
+        } catch (CompletionException e) {
+            exchange.setException(e.getCause() != null ? e.getCause() : e);
+        } catch (Exception e) {
+            exchange.setException(e);
+        }
+    }
 
+    /**
+     * Copies the DevExchange response onto the exchange message.
+     *
+     * @throws DevExchangeException if the response status is not 2xx
+     * @throws Exception            if the response body cannot be unmarshalled
+     */
+    private void handleResponse(Exchange exchange, DevExchangeRequest dxRequest, DevExchangeResponse dxResponse) throws Exception {
+        Message message = exchange.getMessage();
         message.setHeader(PolicyConstants.HEADER_HTTPSTATUS, dxResponse.getHttpStatus());
         message.setHeader(PolicyConstants.HEADER_DXRESPONSE_HEADERS, dxResponse.getHttpHeaders().toSingleValueMap());
 
@@ -206,12 +284,11 @@ public class DevExchangeProducer extends DefaultProducer {
      * header and then overriding the current request context if needed.
      *
      * @param exchange the exchange making the request
-     * @param endpoint the Dev Exchange endpoint to invoke
-     * @param request  the request to send
-     * @return the response fromo the Dev Exchange component
+     * @param call     the call to the Dev Exchange component
+     * @return the response (or pending response) from the Dev Exchange component
      */
     @Trace
-    private DevExchangeResponse invoke(Exchange exchange, DevExchangeEndpoint endpoint, DevExchangeRequest request) {
+    private <T> T invoke(Exchange exchange, Supplier<T> call) {
         RequestContext currentContext = RequestContextHolder.getRequestContextOrDefault();
         boolean modifiedThreadLocal = false;
         try {
@@ -220,7 +297,7 @@ public class DevExchangeProducer extends DefaultProducer {
                 RequestContextHolder.put(overrideContext);
                 modifiedThreadLocal = true;
             }
-            return endpoint.getComponent().getDevExchangeDAO().invokeDxAPI(request);
+            return call.get();
         } finally {
             if (modifiedThreadLocal) {
                 RequestContextHolder.put(currentContext);
@@ -4,7 +4,9 @@ import com.capitalone.identity.identitybuilder.ClientEnvironment;
 import com.capitalone.identity.identitybuilder.configmanagement.ConfigManagementModel;
 import com.capitalone.identity.identitybuilder.model.Entity;
 import com.capitalone.identity.identitybuilder.model.EntityInfo;
+import com.capitalone.identity.identitybuilder.model.PolicyInfo;
 import com.capitalone.identity.identitybuilder.policycore.camel.external.model.ExternalItemDefinitionHolder;
+import com.capitalone.identity.identitybuilder.policycore.camel.util.HeaderUtil;
 import com.capitalone.identity.identitybuilder.policycore.configmanagement.ConfigManagementService;
 import com.capitalone.identity.identitybuilder.policycore.configmanagement.camel.ConfigManagementEndpoint;
 import com.capitalone.identity.identitybuilder.policycore.decisionengine.DecisionEngineRuntimeLoadService;
@@ -13,6 +15,7 @@ import com.capitalone.identity.identitybuilder.policycore.dmnrules.RuleDefinitio
 import com.capitalone.identity.identitybuilder.policycore.policymode.PolicyModeEndpoint;
 import com.capitalone.identity.identitybuilder.policycore.feature.property.ConfigManagementPropertySetter;
 import com.capitalone.identity.identitybuilder.policycore.schema.SchemaManager;
+import com.capitalone.identity.identitybuilder.policycore.service.PolicyExecutionPlanRegistry;
 import com.capitalone.identity.identitybuilder.policycore.service.versions.PolicyVersionService;
 import org.apache.camel.CamelContext;
 import org.apache.camel.model.*;
@@ -49,6 +52,8 @@ public class DynamicPolicyLoaderImpl implements DynamicPolicyLoader {
     private final ExternalRouteParser routeParser;
     private final SchemaManager schemaManager;
     private final ConfigManagementService configManagementService;
+    private final PolicyExecutionPlanRegistry policyExecutionPlanRegistry;
+    private final HeaderUtil headerUtil;
     private final boolean enforceDeletable;
 
     private final String environmentName;
@@ -61,6 +66,8 @@ public class DynamicPolicyLoaderImpl implements DynamicPolicyLoader {
                                    ExternalRouteParser routeParser,
                                    SchemaManager schemaManager,
                                    ConfigManagementService configManagementService,
+                                   PolicyExecutionPlanRegistry policyExecutionPlanRegistry,
+                                   HeaderUtil headerUtil,
                                    ClientEnvironment environment,
                                    @Value(" ${" + PolicyVersionService.FEATURE_FLAG_VERSION_FORWARDER_KEY + "}")
                                    boolean versionForwarderEnabled,
@@ -73,6 +80,8 @@ public class DynamicPolicyLoaderImpl implements DynamicPolicyLoader {
         this.validator = Objects.requireNonNull(validator);
         this.schemaManager = Objects.requireNonNull(schemaManager);
         this.configManagementService = Objects.requireNonNull(configManagementService);
+        this.policyExecutionPlanRegistry = Objects.requireNonNull(policyExecutionPlanRegistry);
+        this.headerUtil = Objects.requireNonNull(headerUtil);
         this.enforceDeletable = versionForwarderEnabled && ClientEnvironment.DEV == environment;
         this.environmentName = environmentName;
     }
@@ -160,6 +169,9 @@ public class DynamicPolicyLoaderImpl implements DynamicPolicyLoader {
             configManagementService.setPolicyConfiguration(identifier, newConfigManagement);
             addRouteDefinitions(context, newRoutes.getRoutes());
             newRulesOptional.ifPresent(decisionEngineRuntimeLoadService::loadRulesIntoDecisionRuntime);
+            if (entity.getInfo() instanceof PolicyInfo.Patch) {
+                policyExecutionPlanRegistry.register((PolicyInfo.Patch) entity.getInfo(), newRoutes.getRoutes());
+            }
             return UpdateTransactionResult.success();
         } catch (Exception e) {
             try {
@@ -172,6 +184,7 @@ public class DynamicPolicyLoaderImpl implements DynamicPolicyLoader {
                     removeRouteDefinitions(context, newRoutes.getRoutes());
                     previousRules.ifPresent(decisionEngineRuntimeLoadService::removeDecisionRuntime);
                 }
+                evictCachedRoutes(newRoutes.getRoutes());
 
                 // cleanup failure, internal state is compromised
                 return UpdateTransactionResult.error(e);
@@ -288,6 +301,7 @@ public class DynamicPolicyLoaderImpl implements DynamicPolicyLoader {
             if (validator.removeModel(previousRoutes.getModel())) {
                 removeRouteDefinitions(context, previousRoutes.getRoutes());
             }
+            evictCachedRoutes(previousRoutes.getRoutes());
 
             configManagementService.deletePolicyConfiguration(identifier);
             previousRules.ifPresent(decisionEngineRuntimeLoadService::removeDecisionRuntime);
@@ -298,6 +312,15 @@ public class DynamicPolicyLoaderImpl implements DynamicPolicyLoader {
         }
     }
 
+    /**
+     * Evicts the execution plans and header directives cached for the routes. Called only once the routes are
+     * removed from the context, so that a request still running through them cannot cache them again.
+     */
+    private void evictCachedRoutes(List<RouteDefinition> routes) {
+        policyExecutionPlanRegistry.evict(routes);
+        headerUtil.evictPolicyRoutes(PolicyExecutionPlanRegistry.getPolicyRouteNames(routes));
+    }
+
     public static class PolicyAddCleanupFailedException extends RuntimeException {
         public PolicyAddCleanupFailedException(Throwable originalError, Throwable rollbackError) {
             super("Suppressed rollback error during dynamic policy load/update operation", originalError);
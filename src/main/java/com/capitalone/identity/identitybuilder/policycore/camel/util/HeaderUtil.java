@@ -2,23 +2,31 @@ package com.capitalone.identity.identitybuilder.policycore.camel.util;
 
 import com.capitalone.chassis.engine.model.exception.ChassisSystemException;
 import com.capitalone.chassis.engine.model.exception.RequestValidationException;
+import com.capitalone.identity.identitybuilder.policycore.camel.PolicyConstants;
 import com.capitalone.identity.identitybuilder.policycore.model.ExecutePolicyRequest;
 import com.capitalone.identity.identitybuilder.policycore.service.constants.ApplicationConstants;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.newrelic.api.agent.NewRelic;
 import com.newrelic.api.agent.Trace;
 import org.apache.camel.Consume;
 import org.apache.camel.Exchange;
 import org.apache.camel.Header;
-import org.apache.camel.component.caffeine.lrucache.CaffeineLRUCache;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import javax.inject.Inject;
 import java.io.IOException;
 import java.io.LineNumberReader;
 import java.io.StringReader;
 import java.util.*;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -37,8 +45,14 @@ public class HeaderUtil {
 	private static final String COMMENT1 = "//";
 	private static final String COMMENT2 = "#";
 	private static final String CONTINUATION = "\\";
+
+	/** The default maximum number of compiled directive sets held across all policies. */
+	public static final long DEFAULT_DIRECTIVE_CACHE_SIZE = 2000;
+	static final String DIRECTIVE_CACHE_METRIC_PREFIX = "Custom/HeaderUtil/DirectiveCache/";
+	/** The cache scope for directives processed outside of a policy route. */
+	private static final String NO_POLICY_SCOPE = "";
 	
-	private static Map<String, List<HeaderEntry>> compiledDirectives = Collections.synchronizedMap(new CaffeineLRUCache<>(100));
+	private final Cache<DirectiveKey, DirectiveHandler[]> compiledDirectives;
 	
 	@SuppressWarnings("squid:S4784")
 	private static final Pattern RIGHT_HAND_PATTERN = Pattern.compile("(\\S*)\\s*(body|hdr)\\s*'([^']*)'");
@@ -48,6 +62,21 @@ public class HeaderUtil {
 	public enum Source { BODY, HDR }
 
 	private ObjectMapper mapper = new ObjectMapper();
+
+	public HeaderUtil() {
+		this(DEFAULT_DIRECTIVE_CACHE_SIZE);
+	}
+
+	/**
+	 * @param directiveCacheSize the maximum number of compiled directive sets held across all policies
+	 */
+	@Inject
+	public HeaderUtil(@Value("${identitybuilder.policycore.header-util.directive-cache.max-size:" + DEFAULT_DIRECTIVE_CACHE_SIZE + "}") long directiveCacheSize) {
+		compiledDirectives = Caffeine.newBuilder()
+				.maximumSize(directiveCacheSize)
+				.recordStats()
+				.build();
+	}
 	
 	/**
 	 * A Camel route that processes a set of directives to assign values to headers
@@ -71,7 +100,11 @@ public class HeaderUtil {
 	 *  
 	 * <h2>Directive Processing</h2>
 	 * When a set of directives is supplied, it is parsed into objects and added to a
-	 * bounded LRU cache to avoid having to reparse them frequently.
+	 * bounded cache to avoid having to reparse them frequently.  Each source and
+	 * parameter-list pair is compiled into a handler specialized for its action, with
+	 * header and parameter paths split and type conversions resolved ahead of time.
+	 * Cache entries are scoped to the policy route that processed them (the
+	 * <code>policyRouteName</code> header) and are dropped when that policy is unloaded.
 	 * <p>
 	 * The directives are then applied to the current header set using the following
 	 * order of processing:
@@ -189,81 +222,137 @@ public class HeaderUtil {
 			throw new IllegalArgumentException("This route requres the " + ARG1_HEADER + " header be set to define header processing");
 		}
 
-		// If we've seen this argument string before we don't have to parse and compile it again.
-		List<HeaderEntry> hds = compiledDirectives.get(directives);
-		if (hds == null) {
-			// There is a race condition that can result in redundant compilation but it is harmless.
-			hds = compileDirectives(directives);
-			compiledDirectives.put(directives, hds);
-		}
+		// If this policy has used this argument string before we don't have to parse and compile it again.
+		String scope = exchange.getIn().getHeader(PolicyConstants.HEADER_POLICYROUTENAME, NO_POLICY_SCOPE, String.class);
+		DirectiveHandler[] handlers = compiledDirectives.get(new DirectiveKey(scope, directives), key -> compileHandlers(key.directives));
 		
-		// Process each set of header directives.
-		for (HeaderEntry hd: hds) {
+		// Apply each source and parameter-list pair of each header directive.
+		for (DirectiveHandler handler : handlers) {
+			handler.apply(exchange);
+		}
+	}
+	
+	/**
+	 * Drops the compiled directives of unloaded policy routes.
+	 * 
+	 * @param policyRouteNames the names of the policy routes (no component prefix)
+	 */
+	public void evictPolicyRoutes(Collection<String> policyRouteNames) {
+		if (!policyRouteNames.isEmpty()) {
+			compiledDirectives.asMap().keySet().removeIf(key -> policyRouteNames.contains(key.scope));
+		}
+	}
+
+	/**
+	 * @return hit, miss and eviction statistics of the compiled directive cache
+	 */
+	public CacheStats getDirectiveCacheStats() {
+		return compiledDirectives.stats();
+	}
+
+	/**
+	 * @return the approximate number of compiled directive sets in the cache
+	 */
+	public long getDirectiveCacheSize() {
+		return compiledDirectives.estimatedSize();
+	}
+
+	/**
+	 * Publishes the compiled directive cache statistics as New Relic custom metrics.
+	 */
+	@Scheduled(fixedDelayString = "${identitybuilder.policycore.header-util.directive-cache.metrics-interval:60000}")
+	public void recordDirectiveCacheMetrics() {
+		CacheStats stats = compiledDirectives.stats();
+		NewRelic.recordMetric(DIRECTIVE_CACHE_METRIC_PREFIX + "Size", compiledDirectives.estimatedSize());
+		NewRelic.recordMetric(DIRECTIVE_CACHE_METRIC_PREFIX + "HitCount", stats.hitCount());
+		NewRelic.recordMetric(DIRECTIVE_CACHE_METRIC_PREFIX + "MissCount", stats.missCount());
+		NewRelic.recordMetric(DIRECTIVE_CACHE_METRIC_PREFIX + "EvictionCount", stats.evictionCount());
+	}
+	
+	/**
+	 * Parses a set of header directives and compiles each source and parameter-list
+	 * pair into a handler, in processing order.
+	 * 
+	 * @param  text the header directives
+	 * @return the compiled handlers
+	 * @throws IllegalArgumentException if the text is of an invalid format
+	 */
+	private DirectiveHandler[] compileHandlers(String text) {
+		List<DirectiveHandler> handlers = new ArrayList<>();
+		for (HeaderEntry hd : compileDirectives(text)) {
 			for (Directive d : hd.getDirectives()) {
-				processDirective(exchange, hd, d);
+				handlers.add(compileHandler(hd, (ParameterDirective) d));
 			}
 		}
+		return handlers.toArray(new DirectiveHandler[0]);
 	}
-	
+
 	/**
-	 * Process a single header directive (implemented as a separate method to please SonarQube).
+	 * Compiles a single directive into a handler that builds the map from the source
+	 * and assigns the result of the action to the header path.
 	 * 
-	 * @param exchange the exchange to modify
 	 * @param hd the header entry
-	 * @param d the directive to process
+	 * @param d the directive to compile
+	 * @return the handler applying the directive to an exchange
 	 */
 	@SuppressWarnings("unchecked")
-	private void processDirective(Exchange exchange, HeaderEntry hd, Directive d) {
-		// Invoke the proper processor according to the source type.
-		Map<String, Object> map;
-		switch (d.getSource()) {
-		case BODY:
-			map = extract(new PathMap(exchange.getIn().getBody(Map.class)),
-					((ParameterDirective) d).getParams());
-			break;
-		case HDR:
-			map = extract(new PathMap(exchange.getIn().getHeaders()),
-					((ParameterDirective) d).getParams());
-			break;
-		default:
-			map = Collections.emptyMap(); // Shouldn't get here, as all enums should be covered
+	private DirectiveHandler compileHandler(HeaderEntry hd, ParameterDirective d) {
+		Function<Exchange, Map<String, Object>> source = (d.getSource() == Source.BODY)
+				? exchange -> exchange.getIn().getBody(Map.class)
+				: exchange -> exchange.getIn().getHeaders();
+		ParameterReader[] readers = new ParameterReader[d.getParams().length];
+		for (int i = 0; i < readers.length; i++) {
+			readers[i] = new ParameterReader(d.getParams()[i]);
 		}
+		HeaderPath target = new HeaderPath(hd.getHeaderPath());
 
-		// Convert the created map based on the action.
-		Object value;
 		switch (hd.getAction()) {
 		case MAP:
-			value = map;
-			break;
+			return exchange -> target.set(exchange.getIn().getHeaders(), extract(source.apply(exchange), readers));
 		case JSON:
-			try {
-				value = mapper.writeValueAsString(map);
-			} catch (JsonProcessingException jpe) {
-				throw new ChassisSystemException(jpe.getMessage(), jpe);
-			}
-			break;
+			return exchange -> target.set(exchange.getIn().getHeaders(), toJson(extract(source.apply(exchange), readers)));
 		case VALUE:
-			value = map.isEmpty() ? null : map.values().iterator().next();
-			break;
+			if (readers.length == 1 && readers[0].isPlainValue()) {
+				// A lone plain value is the only possible map entry, so the map need not be built.
+				ParameterReader reader = readers[0];
+				return exchange -> {
+					Object value = reader.read(source.apply(exchange));
+					target.set(exchange.getIn().getHeaders(), PathMap.SPARSE_FILTER.test(value) ? value : null);
+				};
+			}
+			return exchange -> {
+				Map<String, Object> map = extract(source.apply(exchange), readers);
+				target.set(exchange.getIn().getHeaders(), map.isEmpty() ? null : map.values().iterator().next());
+			};
 		case ATTRPAIRS:
-			value = convertToNameValue(map);
-			break;
+			return exchange -> target.set(exchange.getIn().getHeaders(), convertToNameValue(extract(source.apply(exchange), readers)));
 		case MAPA:
 			// MAPA (map add) is a special case because if the header path points to an existing map
 			// we want to add the new map elements to it, not replace it.
-			Object targetMap = new PathMap(exchange.getIn().getHeaders()).get(hd.getHeaderPath());
-			if (targetMap instanceof Map) {
-				((Map<String, Object>) targetMap).putAll(map);
-				return;
-			}
-			value = map;
-			break;
+			KeyPath targetMap = new KeyPath(hd.getHeaderPath());
+			return exchange -> {
+				Map<String, Object> map = extract(source.apply(exchange), readers);
+				Object existing = targetMap.get(exchange.getIn().getHeaders());
+				if (existing instanceof Map) {
+					((Map<String, Object>) existing).putAll(map);
+				} else {
+					target.set(exchange.getIn().getHeaders(), map);
+				}
+			};
 		default:
-			value = null; // shouldn't get here, as all enums should be covered
+			throw new IllegalStateException(); // shouldn't get here, as all enums should be covered
 		}
+	}
 
-		// Set the value in the designated header, creating parent maps as needed.
-		setHeaderByPath(exchange.getIn().getHeaders(), hd.getHeaderPath(), hd.getHeaderPath(), value);
+	/**
+	 * Converts the map created from the source(s) into a JSON string.
+	 */
+	private String toJson(Map<String, Object> map) {
+		try {
+			return mapper.writeValueAsString(map);
+		} catch (JsonProcessingException jpe) {
+			throw new ChassisSystemException(jpe.getMessage(), jpe);
+		}
 	}
 	
 	/**
@@ -299,38 +388,6 @@ public class HeaderUtil {
 		}
 	}
 	
-	/**
-	 * Recursively search a tree of header <code>Map</code>s to store a value in the map.
-	 * 
-	 * @param map the current parent map (starts with the message header map)
-	 * @param originalPath the original header name path (for error messages)
-	 * @param path the remaining header name path (in dotted notation)
-	 * @param value the value to store in the target header named by <code>path</code>
-	 */
-	@SuppressWarnings("unchecked")
-	private void setHeaderByPath(Map<String, Object> map, String originalPath, String path, Object value) {
-		String[] names = path.split("\\.", 2);
-		if (names.length == 1) {
-			// We've navigated all the parent nodes now so store the value in the current map.
-			Object oldValue = map.get(names[0]);
-			if (oldValue instanceof Map && value instanceof Map) {
-				((Map<String, Object>) oldValue).putAll((Map<String, Object>) value);
-			} else {
-				map.put(names[0], value);
-			}
-		} else {
-			Object node = map.get(names[0]);
-			if (node == null) {
-				node = new TreeMap<String, Object>();
-				map.put(names[0], node);				
-			}
-			if (!(node instanceof Map)) {
-				throw new IllegalArgumentException(String.format("Cannot set policy header %s due to conflict with path component %s", originalPath, names[0]));
-			}
-			setHeaderByPath((Map<String, Object>) node, originalPath, names[1], value);
-		}
-	}
-	
 	/**
 	 * Extract specific <i>body</i> parameters to a map, allowing
 	 * type conversion and enforcement of required parameters and syntax.
@@ -339,45 +396,15 @@ public class HeaderUtil {
 	 * for the annotation syntax.
 	 * 
 	 * @param from the map containing the parameters to process
-	 * @param params the parameters to extract (may be annotated)
+	 * @param readers the compiled parameters to extract
 	 * @throws RequestValidationException if a required value is missing or a value has an invalid syntax
-	 * @see {@link com.capitalone.identity.identitybuilder.policycore.camel.util.RequestParameter RequestParameter}
-	 *      for the annotation syntax for <code>names</code>
 	 */
 	@Trace
-	@SuppressWarnings("unchecked")
-	private Map<String, Object> extract(PathMap from, RequestParameter[] params) {
-		Map<String, Object> to = new PathMap(new TreeMap<>()).filter(PathMap.SPARSE_FILTER);
-		for (RequestParameter param : params) {
-			// Values are extracted from the header using path resolution (e.g., a.b.c)
-			// We first need to see if we are flattening a map.
-			String name = param.getName();
-			boolean flattenMap = name.endsWith(".*");
-			if (flattenMap) {
-				name = name.substring(0, name.length() - 2);
-			}
-			
-			// Get the value (String, int, float, boolean, or Map<String, Object>.
-			Object value = from.get(name);
-			
-			// Figure out what the new entry will be named (rename support0.
-			String lastPathName = PathMap.pathToList(name).getLast();
-			String computedName = (param.getNewName() != null) ? param.getNewName() : lastPathName;
-			
-			// Flattened maps cannot be renamed because they are expanded and may have multiple keys.
-			if (value instanceof Map && flattenMap && param.getNewName() != null) {
-				throw new IllegalArgumentException(String.format("Value for param %s is a Map which cannot be renamed as it is flattened", param.getDeclaration()));						
-			}
-			
-			// Use the parameter directive to possibly modify the value.
-			value = param.toValue(value);
-			
-			// Accumulate values into the target map, expanding map values.
-			if (value instanceof Map && flattenMap) {
-				to.putAll((Map<String, Object>) value);
-			} else {
-				to.put(computedName, value);
-			}
+	private Map<String, Object> extract(Map<String, Object> from, ParameterReader[] readers) {
+		TreeMap<String, Object> values = new TreeMap<>();
+		PathMap to = new PathMap(values).filter(PathMap.SPARSE_FILTER);
+		for (ParameterReader reader : readers) {
+			reader.readInto(from, values, to);
 		}
 		return to;
 	}
@@ -466,6 +493,201 @@ public class HeaderUtil {
 		return list;
 	}
 			 
+	/**
+	 * Applies one compiled source and parameter-list pair of a header directive to an exchange.
+	 */
+	@FunctionalInterface
+	private interface DirectiveHandler {
+		void apply(Exchange exchange);
+	}
+
+	/**
+	 * A dotted key path split ahead of time, read with the same lenient rules as
+	 * {@link PathMap#get(Object)}. An invalid path fails when it is read, as it
+	 * does with <code>PathMap</code>.
+	 */
+	private static final class KeyPath {
+		private final String[] keys;
+		private final String error;
+		
+		KeyPath(String path) {
+			String[] pathKeys = null;
+			String pathError = null;
+			try {
+				pathKeys = PathMap.pathToList(path).toArray(new String[0]);
+			} catch (IllegalArgumentException e) {
+				pathError = e.getMessage();
+			}
+			this.keys = pathKeys;
+			this.error = pathError;
+		}
+		
+		boolean isValid() {
+			return error == null && keys.length > 0;
+		}
+		
+		String lastKey() {
+			return keys[keys.length - 1];
+		}
+		
+		@SuppressWarnings("unchecked")
+		Object get(Map<String, Object> root) {
+			if (error != null) {
+				throw new IllegalArgumentException(error);
+			}
+			if (keys.length == 0) {
+				throw new NoSuchElementException();
+			}
+			Map<String, Object> node = root;
+			for (int i = 0; i < keys.length - 1; i++) {
+				Object value = node.get(keys[i]);
+				if (!(value instanceof Map)) {
+					return null;
+				}
+				node = (Map<String, Object>) value;
+			}
+			// Like PathMap, a missing root map only fails when a parent key is looked up.
+			return (node != null) ? node.get(keys[keys.length - 1]) : null;
+		}
+	}
+
+	/**
+	 * A header path split ahead of time. Setting a value creates missing parent maps
+	 * and merges a map value into an existing map.
+	 */
+	private static final class HeaderPath {
+		private final String path;
+		private final String[] names;
+		
+		HeaderPath(String path) {
+			this.path = path;
+			this.names = path.split("\\.", -1);
+		}
+		
+		/**
+		 * Stores a value in the header named by the path, creating parent maps as needed.
+		 * 
+		 * @param map the message header map
+		 * @param value the value to store
+		 */
+		@SuppressWarnings("unchecked")
+		void set(Map<String, Object> map, Object value) {
+			for (int i = 0; i < names.length - 1; i++) {
+				Object node = map.get(names[i]);
+				if (node == null) {
+					node = new TreeMap<String, Object>();
+					map.put(names[i], node);
+				}
+				if (!(node instanceof Map)) {
+					throw new IllegalArgumentException(String.format("Cannot set policy header %s due to conflict with path component %s", path, names[i]));
+				}
+				map = (Map<String, Object>) node;
+			}
+			String name = names[names.length - 1];
+			Object oldValue = map.get(name);
+			if (oldValue instanceof Map && value instanceof Map) {
+				((Map<String, Object>) oldValue).putAll((Map<String, Object>) value);
+			} else {
+				map.put(name, value);
+			}
+		}
+	}
+
+	/**
+	 * A request parameter with its source path and target name resolved ahead of time.
+	 */
+	private static final class ParameterReader {
+		private final RequestParameter param;
+		private final KeyPath path;
+		/** Whether a map value is flattened into the target map (a name ending in ".*"). */
+		private final boolean flattenMap;
+		/** The target name, or <code>null</code> if the parameter name is invalid. */
+		private final String computedName;
+		/** Whether the target name is a path that needs the nesting of {@link PathMap#put}. */
+		private final boolean nestedName;
+		
+		ParameterReader(RequestParameter param) {
+			this.param = param;
+			String name = param.getName();
+			this.flattenMap = name.endsWith(".*");
+			this.path = new KeyPath(flattenMap ? name.substring(0, name.length() - 2) : name);
+			if (param.getNewName() != null) {
+				this.computedName = param.getNewName();
+			} else {
+				this.computedName = path.isValid() ? path.lastKey() : null;
+			}
+			this.nestedName = computedName != null && computedName.indexOf('.') >= 0;
+		}
+		
+		/**
+		 * Whether the parameter always yields a single, unnested entry in the target map.
+		 */
+		boolean isPlainValue() {
+			return !flattenMap && !nestedName;
+		}
+		
+		/**
+		 * Returns the parameter value from the source after any type conversion.
+		 */
+		Object read(Map<String, Object> from) {
+			Object value = path.get(from);
+			// Flattened maps cannot be renamed because they are expanded and may have multiple keys.
+			if (value instanceof Map && flattenMap && param.getNewName() != null) {
+				throw new IllegalArgumentException(String.format("Value for param %s is a Map which cannot be renamed as it is flattened", param.getDeclaration()));
+			}
+			return param.toValue(value);
+		}
+		
+		/**
+		 * Accumulates the parameter value into the target map, expanding flattened map values.
+		 * 
+		 * @param from the source map
+		 * @param values the target map
+		 * @param to the sparse path view of <code>values</code>
+		 */
+		@SuppressWarnings("unchecked")
+		void readInto(Map<String, Object> from, Map<String, Object> values, PathMap to) {
+			Object value = read(from);
+			if (value instanceof Map && flattenMap) {
+				values.putAll((Map<String, Object>) value);
+			} else if (nestedName) {
+				to.put(computedName, value);
+			} else if (PathMap.SPARSE_FILTER.test(value)) {
+				values.put(computedName, value);
+			}
+		}
+	}
+
+	/**
+	 * Identifies a compiled directive set by the policy route using it and the directive text.
+	 */
+	private static final class DirectiveKey {
+		final String scope;
+		final String directives;
+		
+		DirectiveKey(String scope, String directives) {
+			this.scope = scope;
+			this.directives = directives;
+		}
+		
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof DirectiveKey)) {
+				return false;
+			}
+			DirectiveKey other = (DirectiveKey) o;
+			return scope.equals(other.scope) && directives.equals(other.directives);
+		}
+		
+		@Override
+		public int hashCode() {
+			return 31 * scope.hashCode() + directives.hashCode();
+		}
+	}
+
 	/**
 	 * One or more parameter directives for a single header assignment.
 	 * 
@@ -6,6 +6,7 @@ import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.MissingResourceException;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -78,6 +79,9 @@ public class RequestParameter {
 	/** Pattern to match a name followed by options as {a:b:c=d:..}. */
 	@SuppressWarnings("squid:S4784")
 	private static final Pattern pattern = Pattern.compile("([^\\{\\}\\[\\]]+)(?:\\{(.*)\\})?");
+
+	/** Pattern to match the characters removed by the alphanum conversion. */
+	private static final Pattern NON_ALPHA_NUM = Pattern.compile("[^\\da-zA-Z]");
 	
 	/** Valid type annotation values. */
 	public enum ConversionType { INTEGER, BOOLEAN, JAVA_BOOLEAN, URL_ENCODE, ALPHA_NUM, COUNTRY_3, UPPERCASE, ENCRYPT,AES_ENCRYPT}
@@ -106,6 +110,8 @@ public class RequestParameter {
 	private String newName;
 	/** An optional type to convert field values to. */
 	private ConversionType newType = null;	
+	/** The conversion for <code>newType</code>, resolved once when the declaration is parsed. */
+	private Function<String, Object> converter = null;
 	
 	/**
 	 * This is a constructor injection hack.  During startup, Spring will see this
@@ -143,6 +149,9 @@ public class RequestParameter {
 		} else {
 			throw new IllegalArgumentException(String.format("Invalid header name \"%s\"", name));
 		}
+		if (newType != null) {
+			converter = compileConverter(newType);
+		}
 	}
 	
 	/**
@@ -239,7 +248,7 @@ public class RequestParameter {
 		
 		if (value instanceof String) {
 			// Do any necessary type conversions.
-			value = (newType != null && value instanceof String) ? resolveType((String) value) : value; 
+			value = (converter != null) ? converter.apply((String) value) : value; 
 		} else {
 			// The type conversion code only runs against string values.
 			// The schema checker should catch this but just in case, we'll check here too.
@@ -252,55 +261,75 @@ public class RequestParameter {
 	}
 	
 	/**
-	 * Returns the value after applying an optional type conversion. 
+	 * Returns the function that applies a type conversion, so that the conversion
+	 * does not have to be looked up again for each value.
 	 */
-	private Object resolveType(String value) {
-		switch (newType) {
+	private Function<String, Object> compileConverter(ConversionType type) {
+		switch (type) {
 		case BOOLEAN:
-			if("true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)) {
-				return Boolean.parseBoolean(value);
-			}
-			else {
-				throw makeException(name, String.format("Attribute \"%s\" requires a boolean value", name));
-			}
+			return this::toBoolean;
 		case JAVA_BOOLEAN:
-			return Boolean.parseBoolean(value);
+			return Boolean::parseBoolean;
 		case INTEGER:
-			try {
-				return Integer.parseInt(value);
-			} catch (NumberFormatException e) {
-				throw makeException(name, String.format("Attribute \"%s\" requires an integer value", name));
-			}
+			return this::toInteger;
 		case URL_ENCODE:
-			try {
-				return URLEncoder.encode(value, "UTF-8");
-			} catch (UnsupportedEncodingException e) {
-				throw new IllegalStateException("UTF-8 should always be supported");
-			}
+			return RequestParameter::urlEncode;
 		case ALPHA_NUM:
-			return value.replaceAll("[^\\da-zA-Z]", "");
+			return value -> NON_ALPHA_NUM.matcher(value).replaceAll("");
 		case UPPERCASE:
-			return value.toUpperCase();
+			return String::toUpperCase;
 		case COUNTRY_3:
-			try {
-				return new Locale("", value).getISO3Country();
-			} catch (MissingResourceException e) {
-				throw makeException(name, String.format("Attribute \"%s\" is not a valid ISO 3166 2-character country code", name));
-			}
+			return this::toCountry3;
 		case ENCRYPT:
-			if(cryptoUtil != null )
-				return cryptoUtil.encrypt(value);
-			else
-				throw makeException(name, String.format("CryptoUtil bean is \"%s\". It is not set to load ", cryptoUtil));
+			return value -> requireCryptoUtil().encrypt(value);
 		case AES_ENCRYPT:
-			if(cryptoUtil != null )
-				return cryptoUtil.encryptRefId(value);
-			else
-				throw makeException(name, String.format("CryptoUtil bean is \"%s\". It is not set to load ", cryptoUtil));
+			return value -> requireCryptoUtil().encryptRefId(value);
 		default:
 			throw new IllegalStateException();
 		}
 	}
+
+	private Object toBoolean(String value) {
+		if ("true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)) {
+			return Boolean.parseBoolean(value);
+		}
+		throw makeException(name, String.format("Attribute \"%s\" requires a boolean value", name));
+	}
+
+	private Object toInteger(String value) {
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			throw makeException(name, String.format("Attribute \"%s\" requires an integer value", name));
+		}
+	}
+
+	private static Object urlEncode(String value) {
+		try {
+			return URLEncoder.encode(value, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException("UTF-8 should always be supported");
+		}
+	}
+
+	private Object toCountry3(String value) {
+		try {
+			return new Locale("", value).getISO3Country();
+		} catch (MissingResourceException e) {
+			throw makeException(name, String.format("Attribute \"%s\" is not a valid ISO 3166 2-character country code", name));
+		}
+	}
+
+	/**
+	 * Returns the injected crypto utility, which is read on each use because it
+	 * may be injected after this parameter was parsed.
+	 */
+	private CryptoUtil requireCryptoUtil() {
+		if (cryptoUtil == null) {
+			throw makeException(name, String.format("CryptoUtil bean is \"%s\". It is not set to load ", cryptoUtil));
+		}
+		return cryptoUtil;
+	}
 	
 	/**
 	 * Returns an exception for an invalid attribute condition.
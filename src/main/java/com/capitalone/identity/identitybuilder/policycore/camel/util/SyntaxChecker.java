@@ -4,6 +4,7 @@ import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.time.format.ResolverStyle;
 import java.util.Arrays;
 import java.util.Collection;
@@ -35,6 +36,7 @@ import java.util.stream.Collectors;
  * <pre>
  * SyntaxChecker.NINE_DIGITS;
  * SyntaxChecker.regex("\d+", "must be one or more digits");
+ * SyntaxChecker.regex("\d+", "must be one or more digits", true);
  * SyntaxChecker.fixedValues(Arrays.asList("yes", "no"), "must be yes or no", true);
  * SyntaxChecker.fixedValues(Arrays.asList("yes", "no"), "must be yes or no (case insensitive)", false);
  * </pre>
@@ -46,6 +48,13 @@ public class SyntaxChecker {
 	/** A regular expression pattern for a YYYY-MM-DD date. */
 	@SuppressWarnings("squid:S4784")
 	private static final Pattern DATE_PATTERN = Pattern.compile("^\\d{4}-\\d{2}-\\d{2}$");
+
+	/** A strict formatter for a YYYY-MM-DD date (unlike DateFormat, it is threadsafe and can be shared). */
+	private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("uuuu-MM-dd")
+			.withResolverStyle(ResolverStyle.STRICT);
+
+	/** The first year entirely on the Gregorian calendar (GregorianCalendar switches from Julian in October 1582). */
+	private static final int FIRST_GREGORIAN_YEAR = 1583;
 	
 	/** A set of ISO-3166 2-character country codes. */
 	private static final Set<String> ISO_COUNTRIES = new HashSet<> (Arrays.asList(Locale.getISOCountries()));
@@ -94,12 +103,36 @@ public class SyntaxChecker {
 	
 	/**
 	 * Constructs a syntax checker using an arbitrary regular expression.
+	 * The expression is compiled once, when the checker is created.
 	 * 
 	 * @param regEx the regular expression to check the syntax
 	 * @param errorText a description of the validation error (e.g., "must be nine digits")
+	 * @throws java.util.regex.PatternSyntaxException if the expression is invalid
 	 */
 	public static SyntaxChecker regex(String regEx, String errorText) {
-		return new SyntaxChecker(t -> Pattern.matches(regEx, t), errorText);
+		return regex(regEx, errorText, false);
+	}
+
+	/**
+	 * Constructs a syntax checker using an arbitrary regular expression, optionally
+	 * matched with <i>re2j</i>.
+	 * <p>
+	 * The re2j engine matches in time linear to the length of the text, so it is the
+	 * safer choice for expressions supplied by policy authors.  It does not support
+	 * backreferences or lookaround.
+	 * 
+	 * @param regEx the regular expression to check the syntax
+	 * @param errorText a description of the validation error (e.g., "must be nine digits")
+	 * @param linearTime whether to match with re2j rather than <code>java.util.regex</code>
+	 * @throws IllegalArgumentException if the expression is invalid for the chosen engine
+	 */
+	public static SyntaxChecker regex(String regEx, String errorText, boolean linearTime) {
+		if (linearTime) {
+			com.google.re2j.Pattern compiled = com.google.re2j.Pattern.compile(regEx);
+			return new SyntaxChecker(t -> compiled.matcher(t).matches(), errorText);
+		}
+		Pattern compiled = Pattern.compile(regEx);
+		return new SyntaxChecker(t -> compiled.matcher(t).matches(), errorText);
 	}
 	
 	/**
@@ -174,22 +207,39 @@ public class SyntaxChecker {
 	/**
 	 * Returns whether the text supplied is a valid date of the format YYYY-MM-DD.
 	 * <p>
-	 * Using a date format with Gregorian calendar and strict parsing will ensure
-	 * that the date is a valid date (i.e., not March 41st or Feb 29th in a
-	 * non-leap-year).  Unfortunately, even the strict date format will accept any
-	 * number of digits for the year so we'll enforce 4 digits with a regular
+	 * A date is valid on the calendar of GregorianCalendar (i.e., not March 41st
+	 * or Feb 29th in a non-leap-year).  From 1583 on that calendar is the
+	 * proleptic Gregorian calendar, so those dates are checked with a shared
+	 * strict date formatter.  Earlier dates are on the Julian calendar (e.g.,
+	 * 1500-02-29 is valid, year 0000 and 1582-10-10 are not) and are checked with
+	 * a strict date format as before.  Unfortunately, neither will reject more
+	 * than 4 digits for the year so we'll enforce 4 digits with a regular
 	 * expression.
 	 * 
 	 * @return whether the text is a valid date of the format YYYY-MM-DD
 	 */
 	private static boolean dateFormatValidate(String text) {
+		if (!DATE_PATTERN.matcher(text).matches()) {
+			return false;
+		}
+		if (Integer.parseInt(text.substring(0, 4)) < FIRST_GREGORIAN_YEAR) {
+			return julianDateFormatValidate(text);
+		}
+		try {
+			return DATE_FORMAT.parse(text) != null;
+		} catch (DateTimeParseException e) {
+			return false;
+		}
+	}
+
+	private static boolean julianDateFormatValidate(String text) {
 		// Note: Unlike Pattern, DateFormat is not threadsafe so we'll make a new one each time.
 		DateFormat format = new SimpleDateFormat("yyyy-MM-dd");
 		format.setCalendar(new GregorianCalendar());
 		format.setLenient(false);
-		
+
 		try {
-			return format.parse(text) != null && DATE_PATTERN.matcher(text).matches();
+			return format.parse(text) != null;
 		} catch (ParseException e) {
 			return false;
 		}
@@ -5,6 +5,9 @@ import com.capitalone.fs.secretprovider.SecretProvider;
 import com.capitalone.fs.secretprovider.builder.IAMSecretProviderBuilder;
 import com.capitalone.fs.secretprovider.builder.PassThruSecretProviderBuilder;
 import com.capitalone.fs.secretprovider.config.SecretProviderConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.google.gson.JsonSyntaxException;
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWEHeader;
@@ -12,19 +15,20 @@ import com.nimbusds.jose.JWEObject;
 import lombok.NonNull;
 import lombok.SneakyThrows;
 import lombok.extern.log4j.Log4j2;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 
 import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.capitalone.identity.identitybuilder.policycore.crypto.DecryptUtil.createError;
 import static java.text.MessageFormat.format;
@@ -65,6 +69,10 @@ import static java.text.MessageFormat.format;
  * <br/> 3. Decryption is performed using ECHD
  * <br/>
  * </p>
+ * <p>
+ * Private keys are parsed once per kid and cached, with their ECDH decrypter, until the cache ttl elapses or the key
+ * expires, whichever comes first. Concurrent requests for a kid that is not cached fetch the key once.
+ * </p>
  */
 @Service
 @Log4j2
@@ -78,17 +86,23 @@ public class DeCryptService {
     private final String keyRotationSecretVersion;
 
 
-    private final Map<String, String> cache;
+    private final Cache<String, DecryptionKey> cache;
+
+    private final Map<SecretProviderKey, SecretProvider> iamSecretProviders = new ConcurrentHashMap<>();
 
     /**
      * keyRotationSecretVersion: property used to set the API version for {@link SecretProvider}, see: {@link #getIAMSecretProvider(String, String, String)}
      */
     public DeCryptService(Environment environment,
                           @Value("${identitybuilder.policycore.crypto-cos.keyRotationSecretVersion:v1}") String keyRotationSecretVersion,
-                          @Qualifier("decryptionPrivateKeyMap") Map<String, String> cache) {
+                          @Value("${identitybuilder.policycore.crypto.decryption.cos.private-key-cache-ttl-seconds:900}") long privateKeyCacheTtlSeconds,
+                          @Value("${identitybuilder.policycore.crypto.decryption.cos.private-key-cache-max-size:1000}") long privateKeyCacheMaxSize) {
         this.environment = environment;
         this.keyRotationSecretVersion = keyRotationSecretVersion;
-        this.cache = cache;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(privateKeyCacheMaxSize)
+                .expireAfter(new KeyExpiry(Duration.ofSeconds(privateKeyCacheTtlSeconds)))
+                .build();
         isLocalEnvTesting = Arrays.stream(environment.getActiveProfiles())
                 .map(String::toLowerCase)
                 .anyMatch(o -> o.contains("local") || o.contains("test"));
@@ -111,47 +125,45 @@ public class DeCryptService {
                 .map(JWEHeader::getKeyID)
                 .orElseThrow(createError("Unable to get Kid from encrypted payload"));
 
-        String privateKey = null;
-        // logic to fetch local cache data using kid. privateKeyMap
-        if (cache.containsKey(kid)) {
-            privateKey = cache.get(kid);
-            if (StringUtils.isBlank(privateKey)) {
-                log.error("Unable to find Private Key in Kid: {}", kid);
-            }
-            if (DecryptUtil.isExpired(privateKey)) {
-                log.error("Private Key in cache expired for Kid: {}", kid);
-                privateKey = null;
-            }
-        }
+        // logic to fetch local cache data using kid, loading the private key once on a miss
+        DecryptionKey decryptionKey = cache.get(kid, key -> loadDecryptionKey(key, config));
 
-        if (StringUtils.isBlank(privateKey)) {
-            // get private key
-            privateKey = Optional.ofNullable(getDecryptionSecretProvider(kid, config))
-                    .map(provider -> provider.getSecret(kid))
-                    .map(DecryptUtil::getDecode)
-                    .map(String::new)
-                    .orElseThrow(createError("unable to get private key from secret provider"));
-            // check if private key expired
-            if (DecryptUtil.isExpired(privateKey)) {
-                log.error("Private Key expired for Kid: {}, productId: {} ", kid, config.getProductId());
-                throw new ChassisBusinessException("Private Key Expired");
-            }
-            // add to cache
-            cache.putIfAbsent(kid, privateKey);
+        try {
+            return DecryptUtil.decryptData(decryptionKey.getDecrypter(), parsedEncryptedData);
+        } catch (JOSEException | JsonSyntaxException error) {
+            throw decryptionError(kid, config, error);
         }
+    }
 
+    private DecryptionKey loadDecryptionKey(String kid, COSRequestProperties config) {
+        // get private key
+        String privateKey = Optional.ofNullable(getDecryptionSecretProvider(kid, config))
+                .map(provider -> provider.getSecret(kid))
+                .map(DecryptUtil::getDecode)
+                .map(String::new)
+                .orElseThrow(createError("unable to get private key from secret provider"));
+        // check if private key expired
+        Instant expiresAt = DecryptUtil.getExpiry(privateKey);
+        if (Instant.now().isAfter(expiresAt)) {
+            log.error("Private Key expired for Kid: {}, productId: {} ", kid, config.getProductId());
+            throw new ChassisBusinessException("Private Key Expired");
+        }
         try {
-            return DecryptUtil.parseData(privateKey, parsedEncryptedData);
+            return new DecryptionKey(DecryptUtil.createDecrypter(privateKey), expiresAt);
         } catch (JOSEException | JsonSyntaxException | ParseException error) {
-            String message = format(
-                    "Error decrypting JWE from client: {0}, key: {1}, message: {2}",
-                    config.getProductId(),
-                    kid,
-                    error.getMessage());
-            throw new ChassisBusinessException(message, error, INVALID_PUBLIC_KEY_ID_ERROR_CODE);
+            throw decryptionError(kid, config, error);
         }
     }
 
+    private static ChassisBusinessException decryptionError(String kid, COSRequestProperties config, Exception error) {
+        String message = format(
+                "Error decrypting JWE from client: {0}, key: {1}, message: {2}",
+                config.getProductId(),
+                kid,
+                error.getMessage());
+        return new ChassisBusinessException(message, error, INVALID_PUBLIC_KEY_ID_ERROR_CODE);
+    }
+
     private SecretProvider getDecryptionSecretProvider(String kid, COSRequestProperties config) {
         String applicationName = format("{0}/{1}", config.getLockBoxId(), config.getProductId());
         SecretProvider secretprovider;
@@ -171,7 +183,13 @@ public class DeCryptService {
         return new PassThruSecretProviderBuilder().withApplicationName(applicationName).withSecrets(localKeys).build();
     }
 
+    // one provider per application, vault and role, so its vault session is reused across keys
     private SecretProvider getIAMSecretProvider(String applicationName, String secretUrl, String vaultRole) {
+        return iamSecretProviders.computeIfAbsent(new SecretProviderKey(applicationName, secretUrl, vaultRole),
+                key -> createIAMSecretProvider(applicationName, secretUrl, vaultRole));
+    }
+
+    SecretProvider createIAMSecretProvider(String applicationName, String secretUrl, String vaultRole) {
         SecretProviderConfig config = new SecretProviderConfig() {
             @Override
             public String getSecretBackend() {
@@ -186,5 +204,43 @@ public class DeCryptService {
                 .build();
     }
 
+    long getCachedKeyCount() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    @lombok.Value
+    private static class SecretProviderKey {
+        String applicationName;
+        String secretUrl;
+        String vaultRole;
+    }
+
+    /**
+     * Keeps a key for the cache ttl, or until the key expires if that is sooner.
+     */
+    static final class KeyExpiry implements Expiry<String, DecryptionKey> {
 
+        private final Duration ttl;
+
+        KeyExpiry(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        @Override
+        public long expireAfterCreate(String kid, DecryptionKey key, long currentTime) {
+            Duration untilKeyExpiry = Duration.between(Instant.now(), key.getExpiresAt());
+            return Math.max(0, (untilKeyExpiry.compareTo(ttl) < 0 ? untilKeyExpiry : ttl).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String kid, DecryptionKey key, long currentTime, long currentDuration) {
+            return expireAfterCreate(kid, key, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String kid, DecryptionKey key, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
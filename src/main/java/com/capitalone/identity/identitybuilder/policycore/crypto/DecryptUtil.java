@@ -23,6 +23,8 @@ import java.util.function.Supplier;
 @Log4j2
 public class DecryptUtil {
 
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
     private DecryptUtil() throws IllegalAccessException {
         throw new IllegalAccessException("Util method should not be instantiated");
     }
@@ -31,12 +33,18 @@ public class DecryptUtil {
         return Base64.getDecoder().decode(key);
     }
 
-    @SneakyThrows
     public static boolean isExpired(@NonNull String decodedKey) {
+        return Instant.now().isAfter(getExpiry(decodedKey));
+    }
+
+    /**
+     * @return the <code>exp</code> of the decoded key, or the epoch if it has none
+     */
+    @SneakyThrows
+    public static Instant getExpiry(@NonNull String decodedKey) {
         try {
-            JsonNode jsonParsedKey = new ObjectMapper().readTree(decodedKey);
-            Instant expiredAt = Instant.ofEpochSecond(jsonParsedKey.path("exp").asLong());
-            return Instant.now().isAfter(expiredAt);
+            JsonNode jsonParsedKey = objectMapper.readTree(decodedKey);
+            return Instant.ofEpochSecond(jsonParsedKey.path("exp").asLong());
         } catch (JsonProcessingException error) {
             log.error("unable to read decoded key: {}", error.getMessage(), error);
             throw new ChassisBusinessException(error);
@@ -45,8 +53,17 @@ public class DecryptUtil {
 
     public static String parseData(
             String privateKey, @NonNull JWEObject encryptedData) throws JOSEException, ParseException {
+        return decryptData(createDecrypter(privateKey), encryptedData);
+    }
+
+    public static ECDHDecrypter createDecrypter(String privateKey) throws JOSEException, ParseException {
         ECDHDecrypter ecdhDecrypter = new ECDHDecrypter(ECKey.parse(privateKey));
         ecdhDecrypter.getJCAContext().setContentEncryptionProvider(BouncyCastleProviderSingleton.getInstance());
+        return ecdhDecrypter;
+    }
+
+    public static String decryptData(
+            @NonNull ECDHDecrypter ecdhDecrypter, @NonNull JWEObject encryptedData) throws JOSEException {
         encryptedData.decrypt(ecdhDecrypter);
         return Optional.ofNullable(encryptedData.getPayload())
                 .map(DecryptUtil::convertToString)
@@ -0,0 +1,28 @@
+package com.capitalone.identity.identitybuilder.policycore.crypto;
+
+import com.nimbusds.jose.crypto.ECDHDecrypter;
+
+import java.time.Instant;
+
+/**
+ * A COS private key parsed once, with its expiry and a decrypter ready to use. The decrypter holds no per-message
+ * state, so one instance is shared by every decryption with the key.
+ */
+final class DecryptionKey {
+
+    private final ECDHDecrypter decrypter;
+    private final Instant expiresAt;
+
+    DecryptionKey(ECDHDecrypter decrypter, Instant expiresAt) {
+        this.decrypter = decrypter;
+        this.expiresAt = expiresAt;
+    }
+
+    ECDHDecrypter getDecrypter() {
+        return decrypter;
+    }
+
+    Instant getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -27,6 +27,7 @@ import java.util.stream.Collectors;
  * <to uri="feature-match:match?dataParameter=headerX&outputHeaderName=headerNameY&globalOverride=DISABLED/>
  * <to uri="feature-match:match?dataParameter=headerX&outputHeaderName=headerNameY&globalOverride=DEFAULT/>
  * <to uri="feature-match:match?inputSrc=headerX&criteria=regex::^(?!1\.35$|1\.36$).*&outputHeaderName=headerNameY"/>
+ * <to uri="feature-match:match?inputSrc=headerX&criteria=percent::25::featureZ&outputHeaderName=headerNameY"/>
  **/
 @UriEndpoint(
         firstVersion = "01.24.SNAPSHOT",
@@ -66,22 +67,27 @@ public class FeatureMatchEndpoint extends DefaultEndpoint {
 
     void setQueryBasedMatchParameters() {
         if (getInputSrc().size() == getCriteria().size()) {
-            queryBasedMatchParameters = Streams
+            queryBasedMatchParameters = Collections.unmodifiableList(Streams
                     .zip(getInputSrc().stream(), getCriteria().stream(), MatchArgumentHolder::new)
-                    .collect(Collectors.toList());
+                    .collect(Collectors.toList()));
         } else {
             throw new IllegalArgumentException(String.format(INVALID_ARGUMENTS_INPUT_PARAM_COUNT_PARAM,
                     getEndpointUri(), getInputSrc().size(), getCriteria().size()));
         }
     }
 
+    /**
+     * Criteria are shared by every endpoint of the component, so criteria of endpoints recreated by a policy reload
+     * are only parsed again once evicted.
+     */
     @NotNull
     Criteria loadCriteria(String rawCriteria) {
-        return Optional.ofNullable(criteriaCache.get(rawCriteria)).orElseGet(() -> {
-            Criteria parsed = CriteriaParser.parse(rawCriteria);
-            criteriaCache.put(rawCriteria, parsed);
-            return parsed;
-        });
+        Criteria criteria = criteriaCache.get(rawCriteria);
+        if (criteria == null) {
+            criteria = CriteriaParser.parse(rawCriteria);
+            criteriaCache.put(rawCriteria, criteria);
+        }
+        return criteria;
     }
 
     public List<MatchArgumentHolder> getQueryBasedMatchParameters() {
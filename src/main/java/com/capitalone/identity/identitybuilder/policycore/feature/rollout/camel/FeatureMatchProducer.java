@@ -2,16 +2,19 @@ package com.capitalone.identity.identitybuilder.policycore.feature.rollout.camel
 
 import com.capitalone.identity.identitybuilder.policycore.feature.rollout.criteria.Criteria;
 import com.capitalone.identity.identitybuilder.policycore.feature.rollout.criteria.GlobalOverride;
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Streams;
 import lombok.extern.log4j.Log4j;
 import org.apache.camel.Exchange;
 import org.apache.camel.support.DefaultProducer;
 
-import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
+/**
+ * Evaluates the criteria of a feature-match endpoint. The load time criteria are compiled once per endpoint into
+ * arrays of input headers and parsed criteria, so evaluating an exchange only reads its headers; runtime criteria
+ * from the data parameter are looked up in the component criteria cache, parsing only criteria not seen before.
+ */
 @Log4j
 public class FeatureMatchProducer extends DefaultProducer {
 
@@ -21,11 +24,25 @@ public class FeatureMatchProducer extends DefaultProducer {
 
     final GlobalOverride globalOverride;
 
+    private final String dataParameter;
+
+    private final String[] loadTimeInputHeaders;
+
+    private final Criteria[] loadTimeCriteria;
+
     public FeatureMatchProducer(FeatureMatchEndpoint endpoint) {
         super(endpoint);
         this.endpoint = endpoint;
         this.outputHeaderName = Objects.requireNonNull(endpoint.getOutputHeaderName());
         this.globalOverride = endpoint.getGlobalOverride();
+        this.dataParameter = endpoint.getDataParameter();
+        List<MatchArgumentHolder> loadTimeParameters = endpoint.getQueryBasedMatchParameters();
+        this.loadTimeInputHeaders = new String[loadTimeParameters.size()];
+        this.loadTimeCriteria = new Criteria[loadTimeParameters.size()];
+        for (int i = 0; i < loadTimeParameters.size(); i++) {
+            loadTimeInputHeaders[i] = loadTimeParameters.get(i).getInput();
+            loadTimeCriteria[i] = loadTimeParameters.get(i).getCriteria();
+        }
     }
 
     @Override
@@ -39,56 +56,60 @@ public class FeatureMatchProducer extends DefaultProducer {
         }
     }
 
+    @SuppressWarnings("unchecked")
     private boolean calculateFeatureFlagResult(Exchange exchange) {
-        List<Map<String, String>> runtimeInputParameter = Optional.ofNullable(endpoint.getDataParameter())
-                .flatMap(dataParam -> Optional.ofNullable(exchange.getIn().getHeader(dataParam, Object.class)))
-                .map(runtimeInputDataParameter -> {
-                    try {
-                        return runtimeInputDataParameter instanceof List
-                                ? (List<Map<String, String>>) runtimeInputDataParameter
-                                : ImmutableList.of((Map<String, String>) runtimeInputDataParameter);
-                    } catch (ClassCastException e) {
-                        log.error("Error", e);
-                        throw new IllegalArgumentException(String.format("Value of runtimeInputDataParameter " +
-                                "[dataParameter=%s] must be a map or list of maps", outputHeaderName), e);
-                    }
-                })
-                .orElse(Collections.emptyList());
-
-        Stream<MatchArgumentHolder> runtimeCriteria = runtimeInputParameter.stream()
-                .map(object -> {
-                    if (object.containsKey("input")) {
-                        String rawCriteria = Optional.ofNullable(object.get("criteria"))
-                                .orElseThrow(() -> new IllegalArgumentException("criteria value required"));
-                        Criteria criteria = endpoint.loadCriteria(rawCriteria);
-                        return new MatchArgumentHolder(object.get("input"), criteria);
-                    } else {
-                        throw new IllegalArgumentException("input key required");
-                    }
-                });
-
-        Stream<MatchArgumentHolder> loadTimeCriteria = endpoint.getQueryBasedMatchParameters()
-                .stream().map(holder -> {
-                    String resolvedArg = exchange.getIn().getHeader(holder.getInput(), String.class);
-                    return new MatchArgumentHolder(resolvedArg, holder.getCriteria());
-                });
-
-        return evaluate(Streams.concat(runtimeCriteria, loadTimeCriteria).collect(Collectors.toList()));
-
-    }
+        Object runtimeInputDataParameter = dataParameter != null
+                ? exchange.getIn().getHeader(dataParameter, Object.class)
+                : null;
+
+        int criteriaCount = loadTimeCriteria.length;
+        boolean match = true;
+        if (runtimeInputDataParameter instanceof List) {
+            List<Map<String, String>> runtimeInputs = (List<Map<String, String>>) runtimeInputDataParameter;
+            criteriaCount += runtimeInputs.size();
+            // every runtime input is validated, even once the result is known
+            for (Map<String, String> runtimeInput : runtimeInputs) {
+                match = isRuntimeMatch(runtimeInput) && match;
+            }
+        } else if (runtimeInputDataParameter != null) {
+            Map<String, String> runtimeInput;
+            try {
+                runtimeInput = (Map<String, String>) runtimeInputDataParameter;
+            } catch (ClassCastException e) {
+                log.error("Error", e);
+                throw new IllegalArgumentException(String.format("Value of runtimeInputDataParameter " +
+                        "[dataParameter=%s] must be a map or list of maps", outputHeaderName), e);
+            }
+            criteriaCount++;
+            match = isRuntimeMatch(runtimeInput);
+        }
 
-    private boolean evaluate(List<MatchArgumentHolder> inputs) {
-        if (inputs.isEmpty()) {
+        if (criteriaCount == 0 || !match) {
             return false;
         }
-
-        for (MatchArgumentHolder parameter : inputs) {
-            if (parameter.getInput() == null || !parameter.getCriteria().isMatch(parameter.getInput())) {
+        for (int i = 0; i < loadTimeCriteria.length; i++) {
+            String input = exchange.getIn().getHeader(loadTimeInputHeaders[i], String.class);
+            if (input == null || !loadTimeCriteria[i].isMatch(input)) {
                 return false;
             }
         }
         return true;
     }
 
-}
+    /**
+     * @throws IllegalArgumentException if the runtime input has no input or criteria
+     */
+    private boolean isRuntimeMatch(Map<String, String> runtimeInput) {
+        if (!runtimeInput.containsKey("input")) {
+            throw new IllegalArgumentException("input key required");
+        }
+        String rawCriteria = runtimeInput.get("criteria");
+        if (rawCriteria == null) {
+            throw new IllegalArgumentException("criteria value required");
+        }
+        Criteria criteria = endpoint.loadCriteria(rawCriteria);
+        String input = runtimeInput.get("input");
+        return input != null && criteria.isMatch(input);
+    }
 
+}
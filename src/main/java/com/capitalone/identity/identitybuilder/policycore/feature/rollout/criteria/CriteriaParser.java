@@ -11,6 +11,8 @@ public class CriteriaParser {
     private static final String REGEX_PREFIX = "regex::";
     private static final String PREFORMATTED_PREFIX = "preformatted::";
     private static final String LIST_PREFIX = "list::";
+    private static final String PERCENT_PREFIX = "percent::";
+    private static final String PERCENT_SUFFIX_PREFIX = "percent-suffix::";
 
     private CriteriaParser() {
         // no-op
@@ -25,7 +27,11 @@ public class CriteriaParser {
             return new RegexCriteria(Pattern.compile(rawCriteria.substring(REGEX_PREFIX.length())));
         } else if (rawCriteria.startsWith(PREFORMATTED_PREFIX)) {
             String preformatted = rawCriteria.substring(PREFORMATTED_PREFIX.length());
-            return new RegexCriteria(Pattern.compile(PreformattedRegex.valueOfLabel(preformatted).regex));
+            return PreformattedRegex.valueOfLabel(preformatted).criteria();
+        } else if (rawCriteria.startsWith(PERCENT_PREFIX)) {
+            return PercentRolloutCriteria.parse(rawCriteria.substring(PERCENT_PREFIX.length()));
+        } else if (rawCriteria.startsWith(PERCENT_SUFFIX_PREFIX)) {
+            return PercentRolloutCriteria.suffix(rawCriteria.substring(PERCENT_SUFFIX_PREFIX.length()));
         } else {
             throw new IllegalArgumentException("unrecognized input type '" + rawCriteria + "'");
         }
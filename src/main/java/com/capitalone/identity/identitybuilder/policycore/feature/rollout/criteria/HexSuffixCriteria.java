@@ -0,0 +1,65 @@
+package com.capitalone.identity.identitybuilder.policycore.feature.rollout.criteria;
+
+import com.google.re2j.Pattern;
+
+import java.util.BitSet;
+import java.util.Objects;
+
+/**
+ * Matches inputs by their last two characters, read as a lowercase hex bucket from 0 to 255. This is how the
+ * preformatted percent rollout regexes split inputs, evaluated with a table lookup instead of a regex.
+ */
+public class HexSuffixCriteria implements Criteria {
+
+    static final int BUCKET_COUNT = 256;
+
+    private final BitSet buckets;
+
+    HexSuffixCriteria(BitSet buckets) {
+        this.buckets = (BitSet) Objects.requireNonNull(buckets).clone();
+    }
+
+    /**
+     * @param suffixRegex a regex which only depends on the last two characters of its input
+     * @return the criteria matching the same lowercase hex suffixes as the regex
+     */
+    static HexSuffixCriteria fromSuffixRegex(String suffixRegex) {
+        Pattern pattern = Pattern.compile(suffixRegex);
+        BitSet buckets = new BitSet(BUCKET_COUNT);
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            if (pattern.matcher(String.format("%02x", bucket)).matches()) {
+                buckets.set(bucket);
+            }
+        }
+        return new HexSuffixCriteria(buckets);
+    }
+
+    @Override
+    public boolean isMatch(String input) {
+        int bucket = bucket(input);
+        return bucket >= 0 && buckets.get(bucket);
+    }
+
+    /**
+     * @return the bucket of the input, or -1 if it does not end with two lowercase hex characters
+     */
+    static int bucket(String input) {
+        if (input == null || input.length() < 2) {
+            return -1;
+        }
+        int high = hexValue(input.charAt(input.length() - 2));
+        int low = hexValue(input.charAt(input.length() - 1));
+        return high < 0 || low < 0 ? -1 : high << 4 | low;
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        return c >= 'a' && c <= 'f' ? c - 'a' + 10 : -1;
+    }
+
+    int size() {
+        return buckets.cardinality();
+    }
+}
@@ -2,6 +2,7 @@ package com.capitalone.identity.identitybuilder.policycore.feature.rollout.crite
 
 import org.apache.logging.log4j.util.Strings;
 
+import java.util.Collections;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -10,7 +11,7 @@ public class ListCriteria implements Criteria {
     private final Set<String> match;
 
     ListCriteria(Set<String> items) {
-        match = items.stream().filter(Strings::isNotBlank).collect(Collectors.toSet());
+        match = Collections.unmodifiableSet(items.stream().filter(Strings::isNotBlank).collect(Collectors.toSet()));
     }
 
     @Override
@@ -0,0 +1,92 @@
+package com.capitalone.identity.identitybuilder.policycore.feature.rollout.criteria;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Matches a percentage of inputs by hashing each input into one of {@link #BUCKET_COUNT} buckets with murmur3 and
+ * comparing the bucket with the rollout threshold. An input stays in or out of the rollout as long as the salt is
+ * unchanged, and raising the percentage only adds inputs. Features rolled out with different salts select
+ * independent populations, so the salt is required and should be the feature name.
+ * <p>
+ * Syntax: <code>percent::&lt;percent&gt;::&lt;salt&gt;</code>, where the percentage has at most two decimal places.
+ * <p>
+ * <code>percent-suffix::&lt;percent&gt;</code> instead matches the same inputs as
+ * <code>preformatted::&lt;percent&gt;-percentRollout</code>, by the hex suffix of the input, so a policy can move
+ * off the preformatted criteria without reassigning anyone. Only the preformatted percentages are supported.
+ */
+public class PercentRolloutCriteria implements Criteria {
+
+    static final int BUCKET_COUNT = 10_000;
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private static final String SALT_SEPARATOR = "::";
+
+    private final byte[] salt;
+
+    private final int threshold;
+
+    PercentRolloutCriteria(int threshold, String salt) {
+        if (threshold < 0 || threshold > BUCKET_COUNT) {
+            throw new IllegalArgumentException("percent rollout threshold must be between 0 and " + BUCKET_COUNT);
+        }
+        this.threshold = threshold;
+        this.salt = (Objects.requireNonNull(salt) + SALT_SEPARATOR).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param definition <code>&lt;percent&gt;::&lt;salt&gt;</code>
+     * @throws IllegalArgumentException if the percentage is invalid or the salt is missing
+     */
+    static PercentRolloutCriteria parse(String definition) {
+        int separator = definition.indexOf(SALT_SEPARATOR);
+        if (separator < 0 || definition.substring(separator + SALT_SEPARATOR.length()).trim().isEmpty()) {
+            throw new IllegalArgumentException("percent rollout '" + definition + "' requires a salt, "
+                    + "e.g. percent::<percent>::<feature name>");
+        }
+        String percent = definition.substring(0, separator).trim();
+        String salt = definition.substring(separator + SALT_SEPARATOR.length()).trim();
+        try {
+            BigDecimal buckets = new BigDecimal(percent).movePointRight(2);
+            return new PercentRolloutCriteria(buckets.intValueExact(), salt);
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new IllegalArgumentException("invalid percent rollout '" + definition + "'", e);
+        }
+    }
+
+    /**
+     * @param percent a percentage with a preformatted rollout
+     * @return the hex suffix criteria of the preformatted rollout of the percentage
+     */
+    static Criteria suffix(String percent) {
+        try {
+            PreformattedRegex preformatted = PreformattedRegex.valueOfPercent(
+                    new BigDecimal(percent.trim()).intValueExact());
+            if (preformatted == null) {
+                throw new IllegalArgumentException("no preformatted rollout for '" + percent + "'");
+            }
+            return preformatted.criteria();
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new IllegalArgumentException("invalid percent rollout '" + percent + "'", e);
+        }
+    }
+
+    @Override
+    public boolean isMatch(String input) {
+        return input != null && bucket(input) < threshold;
+    }
+
+    int bucket(String input) {
+        long hash = HASH_FUNCTION.newHasher()
+                .putBytes(salt)
+                .putString(input, StandardCharsets.UTF_8)
+                .hash()
+                .asLong();
+        return (int) Math.floorMod(hash, (long) BUCKET_COUNT);
+    }
+}
@@ -1,5 +1,7 @@
 package com.capitalone.identity.identitybuilder.policycore.feature.rollout.criteria;
 
+import com.google.re2j.Pattern;
+
 import java.util.Arrays;
 import java.util.Objects;
 
@@ -25,18 +27,44 @@ public enum PreformattedRegex {
     PERCENT_ROLLOUT_90("90-percentRollout", "(.*0[0-2]$|.*[0-2]b$|.*0[3-9]$|.*[0-5]c$|.*[0-7]d$|.*[0-9]a$|.*[0-9]e$|.*0f$|.*1[0-2]$|.*1[3-9]$|.*[1-9]f$|.*2[0-5]|.*2[6-9]$|.*3[0-8]$|.*39$|.*[3-9]b$|.*4[0-9]$|.*5[0-3]$|.*5[4-9]$|.*6[0-6]$|.*6[7-9]$|.*[6-9]c$|.*7[0-9]$|.*8[0-9]$|.*[8-9]d$|.*9[0-1]$|.*a0$|.*a[1-9]$|.*a[d-e]$|.*af$|.*b[0-3]$|.*b[4-9]$|.*ba$|.*b[c-f]$|.*c[0-6]$|.*c[7-9]$|.*c[a-b]$|.*c[d-f]$|.*d[0-9]$|.*d[a-b]$|.*dc$|.*de$|.*df$|.*e[0-9]$|.*e[a-d]$|.*ef$|.*f[a-e]$)"),
     PERCENT_ROLLOUT_95("95-percentRollout", "(.*0[0-2]$|.*[0-2]b$|.*0[3-9]$|.*[0-5]c$|.*[0-7]d$|.*[0-9]a$|.*[0-9]e$|.*0f$|.*1[0-2]$|.*1[3-9]$|.*[1-9]f$|.*2[0-5]|.*2[6-9]$|.*3[0-8]$|.*39$|.*[3-9]b$|.*4[0-9]$|.*5[0-3]$|.*5[4-9]$|.*6[0-6]$|.*6[7-9]$|.*[6-9]c$|.*7[0-9]$|.*8[0-9]$|.*[8-9]d$|.*9[0-1]$|.*9[2-9]$|.*a0$|.*a[1-9]$|.*a[d-e]$|.*af$|.*b[0-3]$|.*b[4-9]$|.*ba$|.*b[c-f]$|.*c[0-6]$|.*c[7-9]$|.*c[a-b]$|.*c[d-f]$|.*d[0-9]$|.*d[a-b]$|.*dc$|.*de$|.*df$|.*e[0-9]$|.*e[a-d]$|.*ef$|.*f[0-4]$|.*f[a-e]$)"),
     MATCH_ALL("match-all",".*");
+
+    private static final String PERCENT_ROLLOUT_SUFFIX = "-percentRollout";
+
     final String label;
     final String regex;
+    private volatile Criteria criteria;
 
     PreformattedRegex(String label, String pattern) {
         regex = Objects.requireNonNull(pattern);
         this.label = Objects.requireNonNull(label);
     }
 
+    /**
+     * @return the criteria matching the same inputs as the regex. Percent rollouts only look at the last two
+     * characters of the input, so they are evaluated as a lookup of that hex suffix.
+     */
+    Criteria criteria() {
+        Criteria result = criteria;
+        if (result == null) {
+            result = this == MATCH_ALL
+                    ? new RegexCriteria(Pattern.compile(regex))
+                    : HexSuffixCriteria.fromSuffixRegex(regex);
+            criteria = result;
+        }
+        return result;
+    }
+
     static PreformattedRegex valueOfLabel(String pattern) {
         return Arrays.stream(PreformattedRegex.values())
                 .filter(preformatted->preformatted.label.equals(pattern))
                 .findFirst().orElse(null);
     }
 
+    /**
+     * @return the percent rollout of the percentage, or <code>null</code> if there is none
+     */
+    static PreformattedRegex valueOfPercent(int percent) {
+        return valueOfLabel(percent + PERCENT_ROLLOUT_SUFFIX);
+    }
+
 }
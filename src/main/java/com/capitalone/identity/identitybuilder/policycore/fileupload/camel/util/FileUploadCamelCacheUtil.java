@@ -11,10 +11,15 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpStatus;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
@@ -32,9 +37,17 @@ public class FileUploadCamelCacheUtil {
 	@Inject
 	private ElasticCacheService cacheService;
 
+	// Longest value stored under a single key; 0 (the default) stores every value whole
+	@Value("${identitybuilder.policycore.fileupload.cache.chunk-size:0}")
+	private int chunkSize;
+
 	public static final String CACHE_VALUE = "cacheFileValue";
 	public static final String CACHE_KEY = "cacheFileKey";
 	public static final String CACHE_EXPIRATION = "cacheExpiration";
+	public static final String CACHE_STREAM = "cacheFileStream";
+	private static final String CHUNK_KEY_SEPARATOR = ":";
+	// getKeyTTL returns -2 if the key does not exist
+	private static final long KEY_NOT_EXISTS_TTL = -2;
 	private static final String ERROR_STRING = "Cache Key must be set";
 
 	private static final List<String> READ_CACHE_FAILURE_CAUSES = Stream.of("CONNECTION_ERROR", "TIMEOUT_ERROR")
@@ -45,7 +58,7 @@ public class FileUploadCamelCacheUtil {
 	/**
 	 * A direct route that reads from the Policy Cache using a given key. The value
 	 * is returned as a <code>Map&lt;String, Object&gt;</code> in the
-	 * <code>cacheValue</code> header.
+	 * <code>cacheValue</code> header. Values stored in chunks are reassembled.
 	 * <p>
 	 * Input Headers:
 	 * <dl>
@@ -65,26 +78,58 @@ public class FileUploadCamelCacheUtil {
 	@Trace
 	public void cacheRead(@Header(CACHE_KEY) String cacheKey, @Headers Map<String, Object> headers) {
 
-		if (StringUtils.isEmpty(cacheKey)) {
-			throw new IllegalArgumentException(String.format(ERROR_STRING));
+		String cacheValue = read(cacheKey);
+		if (cacheValue == null) {
+			return;
 		}
-		logger.debug("cache Key {} ", cacheKey);
-		String cacheValue = cacheService.get(cacheKey);
-
-		if (READ_CACHE_FAILURE_EXPIRED.stream().anyMatch(cacheValue.trim()::equalsIgnoreCase)) {
-			logger.info("Cache miss for cache Key {}, value was {}", cacheKey, cacheValue);
-		} else if (READ_CACHE_FAILURE_CAUSES.stream().anyMatch(cacheValue.trim()::equalsIgnoreCase)) {
-			logger.error("Cache Read failed for cache Key : {} {}", cacheKey, cacheValue);
-			throw PolicyCacheException.newReadFailedException(cacheKey);
-		} else {
+		ChunkManifest manifest = ChunkManifest.parse(cacheValue);
+		if (manifest == null) {
 			headers.put(CACHE_VALUE, cacheValue);
+			return;
 		}
+		StringBuilder assembled = new StringBuilder((int) manifest.length);
+		for (int i = 0; i < manifest.chunkCount; i++) {
+			String chunk = read(chunkKey(cacheKey, i));
+			if (chunk == null) {
+				logger.info("Cache miss for chunk {} of cache Key {}", i, cacheKey);
+				return;
+			}
+			assembled.append(chunk);
+		}
+		headers.put(CACHE_VALUE, assembled.toString());
+	}
+
+	/**
+	 * A direct route that streams the value stored for a given key, fetching one
+	 * chunk at a time instead of assembling the whole value in memory.
+	 * <p>
+	 * Output Headers:
+	 * <dl>
+	 * <dt>cacheFileStream</dt>
+	 * <dd>An <code>InputStream</code> of the UTF-8 encoded value, absent on a
+	 * cache miss. Reading fails with an <code>IOException</code> if a chunk has
+	 * expired or cannot be read.</dd>
+	 * </dl>
+	 *
+	 * @param cacheKey the key to look up in the cache
+	 */
+	@Consume("direct:cacheFileStream")
+	@Trace
+	public void cacheStream(@Header(CACHE_KEY) String cacheKey, @Headers Map<String, Object> headers) {
 
+		String cacheValue = read(cacheKey);
+		if (cacheValue == null) {
+			return;
+		}
+		ChunkManifest manifest = ChunkManifest.parse(cacheValue);
+		headers.put(CACHE_STREAM, manifest == null
+				? new ByteArrayInputStream(cacheValue.getBytes(StandardCharsets.UTF_8))
+				: new ChunkInputStream(cacheKey, manifest.chunkCount));
 	}
 
 	/**
 	 * A direct route that deletes the entry in the cache associated with a given
-	 * key.
+	 * key, along with its chunks.
 	 *
 	 * @param cacheKey the key to delete from the cache
 	 */
@@ -93,17 +138,52 @@ public class FileUploadCamelCacheUtil {
 	@Trace
 	public void cacheDelete(@Header(CACHE_KEY) String cacheKey) {
 		logger.debug("cache Key {} ", cacheKey);
+		// Only a chunked value has a first chunk key, so unchunked values skip reading the manifest
+		ChunkManifest manifest = chunkSize > 0 && cacheService.getKeyTTL(chunkKey(cacheKey, 0)) != KEY_NOT_EXISTS_TTL
+				? ChunkManifest.parse(cacheService.get(cacheKey)) : null;
 		cacheService.delete(cacheKey);
+		if (manifest != null) {
+			deleteChunks(cacheKey, manifest.chunkCount);
+		}
 	}
 
+	/**
+	 * Writes the value, split into chunks of at most the configured chunk size
+	 * when it is longer. The chunks are written first and the manifest naming
+	 * them last under the key itself, so readers never find a manifest ahead of
+	 * its chunks.
+	 *
+	 * @param cacheKey   the key to write
+	 * @param cacheValue the value to write
+	 */
 	public void populateCache(String cacheKey, String cacheValue) {
 
-		int status;
-		logger.info("cache Key {} and cache expiration {} ", cacheKey);
+		logger.info("cache Key {} and cache expiration {} ", cacheKey, CACHE_EXPIRE);
 
 		long durationMs = Duration.parse(CACHE_EXPIRE).toMillis();
 		logger.info("cache duration in millisecs {} ", durationMs);
-		status = cacheService.putWithExpiry(cacheKey, cacheValue, durationMs);
+		if (chunkSize <= 0 || cacheValue.length() <= chunkSize) {
+			put(cacheKey, cacheValue, durationMs);
+			return;
+		}
+
+		int chunkCount = (cacheValue.length() + chunkSize - 1) / chunkSize;
+		try {
+			for (int i = 0; i < chunkCount; i++) {
+				int start = i * chunkSize;
+				put(chunkKey(cacheKey, i), cacheValue.substring(start, Math.min(start + chunkSize, cacheValue.length())),
+						durationMs);
+			}
+			put(cacheKey, new ChunkManifest(chunkCount, cacheValue.length()).toString(), durationMs);
+		} catch (PolicyCacheException ex) {
+			deleteChunks(cacheKey, chunkCount);
+			throw ex;
+		}
+		logger.info("cache Key {} written in {} chunks", cacheKey, chunkCount);
+	}
+
+	private void put(String cacheKey, String cacheValue, long durationMs) {
+		int status = cacheService.putWithExpiry(cacheKey, cacheValue, durationMs);
 
 		if (status != HttpStatus.SC_OK) {
 			logger.error("Cache writing failed for {} with status {}", cacheKey, status);
@@ -111,5 +191,128 @@ public class FileUploadCamelCacheUtil {
 		}
 	}
 
+	/**
+	 * @return the value, or null on a cache miss
+	 * @throws PolicyCacheException if the cache could not be read
+	 */
+	private String read(String cacheKey) {
+
+		if (StringUtils.isEmpty(cacheKey)) {
+			throw new IllegalArgumentException(String.format(ERROR_STRING));
+		}
+		logger.debug("cache Key {} ", cacheKey);
+		String cacheValue = cacheService.get(cacheKey);
+
+		if (READ_CACHE_FAILURE_EXPIRED.stream().anyMatch(cacheValue.trim()::equalsIgnoreCase)) {
+			logger.info("Cache miss for cache Key {}, value was {}", cacheKey, cacheValue);
+			return null;
+		} else if (READ_CACHE_FAILURE_CAUSES.stream().anyMatch(cacheValue.trim()::equalsIgnoreCase)) {
+			logger.error("Cache Read failed for cache Key : {} {}", cacheKey, cacheValue);
+			throw PolicyCacheException.newReadFailedException(cacheKey);
+		}
+		return cacheValue;
+	}
+
+	private void deleteChunks(String cacheKey, int chunkCount) {
+		for (int i = 0; i < chunkCount; i++) {
+			cacheService.delete(chunkKey(cacheKey, i));
+		}
+	}
+
+	private static String chunkKey(String cacheKey, int index) {
+		return cacheKey + CHUNK_KEY_SEPARATOR + index;
+	}
+
+	/**
+	 * Value stored under the key of a chunked value, naming its chunk count and
+	 * length. The separator is outside the Base64 and JWE alphabets, so a
+	 * manifest is never mistaken for a stored document.
+	 */
+	private static final class ChunkManifest {
+
+		private static final String PREFIX = "FILE_CHUNKS:v1:";
+
+		private final int chunkCount;
+
+		private final long length;
+
+		private ChunkManifest(int chunkCount, long length) {
+			this.chunkCount = chunkCount;
+			this.length = length;
+		}
+
+		/**
+		 * @return the manifest, or null if the value is not a manifest
+		 */
+		private static ChunkManifest parse(String value) {
+			if (value == null || !value.startsWith(PREFIX)) {
+				return null;
+			}
+			String[] fields = value.substring(PREFIX.length()).split(":");
+			try {
+				return new ChunkManifest(Integer.parseInt(fields[0]), Long.parseLong(fields[1]));
+			} catch (NumberFormatException | ArrayIndexOutOfBoundsException ex) {
+				logger.error("Invalid chunk manifest {}", value);
+				return null;
+			}
+		}
+
+		@Override
+		public String toString() {
+			return PREFIX + chunkCount + ":" + length;
+		}
+	}
+
+	/**
+	 * Stream of a chunked value, reading each chunk from the cache once the
+	 * previous one is consumed
+	 */
+	private final class ChunkInputStream extends InputStream {
+
+		private final String cacheKey;
+
+		private final int chunkCount;
+
+		private int nextChunk;
+
+		private InputStream current = new ByteArrayInputStream(new byte[0]);
+
+		private ChunkInputStream(String cacheKey, int chunkCount) {
+			this.cacheKey = cacheKey;
+			this.chunkCount = chunkCount;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] single = new byte[1];
+			return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException {
+			if (length == 0) {
+				return 0;
+			}
+			int count = current.read(buffer, offset, length);
+			while (count < 0 && nextChunk < chunkCount) {
+				current = new ByteArrayInputStream(readChunk(nextChunk++).getBytes(StandardCharsets.UTF_8));
+				count = current.read(buffer, offset, length);
+			}
+			return count;
+		}
+
+		private String readChunk(int index) throws IOException {
+			String chunk;
+			try {
+				chunk = read(chunkKey(cacheKey, index));
+			} catch (PolicyCacheException ex) {
+				throw new IOException("Cache Read failed for chunk " + index + " of cache Key " + cacheKey, ex);
+			}
+			if (chunk == null) {
+				throw new IOException("Chunk " + index + " of cache Key " + cacheKey + " is missing or expired");
+			}
+			return chunk;
+		}
+	}
 
 }
@@ -1,6 +1,5 @@
 package com.capitalone.identity.identitybuilder.policycore.fileupload.rest.v1;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
@@ -8,7 +7,6 @@ import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import javax.imageio.ImageIO;
 import javax.inject.Singleton;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -23,8 +21,6 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
 import com.capitalone.chassis.engine.model.exception.ChassisSystemException;
-import com.nimbusds.jose.JWEObject;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpStatus;
 import org.glassfish.jersey.media.multipart.FormDataBodyPart;
@@ -47,6 +43,9 @@ import com.capitalone.identity.identitybuilder.policycore.fileupload.model.Fileu
 import com.capitalone.identity.identitybuilder.policycore.fileupload.onestream.CureFileuploadRawPayload;
 import com.capitalone.identity.identitybuilder.policycore.fileupload.onestream.FileuploadCureSdpListener;
 import com.capitalone.identity.identitybuilder.policycore.fileupload.service.FileUploadService;
+import com.capitalone.identity.identitybuilder.policycore.fileupload.service.util.DocumentTypeDetector;
+import com.capitalone.identity.identitybuilder.policycore.fileupload.service.util.DocumentTypeDetector.DocumentType;
+import com.capitalone.identity.identitybuilder.policycore.fileupload.service.util.DocumentTypeDetector.ImageDimensions;
 
 import io.swagger.annotations.ApiParam;
 
@@ -88,6 +87,14 @@ public class FileUploadResource extends AbstractBaseResource {
 	@Value("#{'${identitybuilder.policycore.fileupload.request-decrypt.product-id-allow-list}'}")
 	private List<String> allowListOfProdIds;
 
+	// Largest image accepted, in pixels read from the image header; 0 accepts any size
+	@Value("${identitybuilder.policycore.fileupload.image.max-pixels:0}")
+	private long maxImagePixels;
+
+	// Fully decode images, rejecting those which fail to decode, instead of only reading their headers
+	@Value("${identitybuilder.policycore.fileupload.image.strict-validation:false}")
+	private boolean strictImageValidation;
+
 	@POST
 	@Path("/upload")
 	public Response uploadImage(
@@ -124,6 +131,7 @@ public class FileUploadResource extends AbstractBaseResource {
 		// If client data from decryptFileData() returns null, no decryption occurred, so virus scan & encrypt data for upload.
 		// Otherwise, virus scan decrypted data, upload original encrypted client data w/o additional encryption.
 		if(decryptedData == null){
+			validateImage(initialRequestData);
 			response = documentUploadService.uploadDocument(initialRequestData, null);
 		} else {
 			FileuploadData decryptedPayloadData = new FileuploadData(clientCorrelationId,
@@ -133,6 +141,7 @@ public class FileUploadResource extends AbstractBaseResource {
 					productId,
 					decryptedData);
 
+			validateImage(decryptedPayloadData);
 			response = documentUploadService.uploadDocument(decryptedPayloadData, initialRequestData);
 		}
 		logger.info("file uploaded successfully and fileId {} ", response.getFileId());
@@ -146,9 +155,10 @@ public class FileUploadResource extends AbstractBaseResource {
 		String decryptedDoc;
 		byte[] document;
 
-		// Checks to determine file status & if file is encrypted with Base64 encoding
-		boolean fileCheck = validateIfFileIsImage(new ByteArrayInputStream(clientData));
-		boolean isEncryptedCheck = validateIfFileIsEncrypted(new ByteArrayInputStream(clientData));
+		// Checks to determine file status & if file is encrypted with Base64 encoding, from the leading bytes only
+		DocumentType documentType = DocumentTypeDetector.detect(clientData);
+		boolean fileCheck = documentType.isImage();
+		boolean isEncryptedCheck = documentType == DocumentType.JWE;
 
 		// If encryption is present, but product ID doesn't match known domains w/ encryption input, error out
 		if(isEncryptedCheck && (productId == null || !allowListOfProdIds.contains(productId))){
@@ -203,30 +213,33 @@ public class FileUploadResource extends AbstractBaseResource {
 		return document;
 	}
 
-	// Determine if given file is of standard file types (.jpeg, .png, etc)
-	private boolean validateIfFileIsImage(InputStream is){
-		try{
-			ImageIO.read(is).flush();
-		}catch(Exception e){
-			return false;
+	// Check image dimensions against the size limit from the image header, and fully decode the image in strict mode.
+	// The decode only runs once the header is within the limit, so an oversized image is never decompressed.
+	private void validateImage(FileuploadData fileuploadData) {
+		byte[] document = fileuploadData.getDocument();
+		DocumentType documentType = DocumentTypeDetector.detect(document);
+		if (!documentType.isImage()) {
+			return;
+		}
+		Optional<ImageDimensions> dimensions = DocumentTypeDetector.readDimensions(document, documentType);
+		if (strictImageValidation && !dimensions.isPresent()) {
+			rejectInvalidImage(fileuploadData, documentType);
+		}
+		if (maxImagePixels > 0 && dimensions.isPresent() && dimensions.get().exceeds(maxImagePixels)) {
+			logger.error("CCID: {}, image dimensions {} exceed the limit of {} pixels",
+					fileuploadData.getClientCorrelationId(), dimensions.get(), maxImagePixels);
+			publishToOneStream(fileuploadData, "image dimensions exceed the limit");
+			throw new RequestValidationException("image dimensions exceed the limit");
+		}
+		if (strictImageValidation && documentType != DocumentType.HEIC && !DocumentTypeDetector.decodes(document)) {
+			rejectInvalidImage(fileuploadData, documentType);
 		}
-		return true;
 	}
 
-	// If files are encrypted, they are also encoded, so check if encode is present in file
-	private boolean validateIfFileIsEncrypted(InputStream is) throws IOException {
-
-		String file = IOUtils.toString(is, StandardCharsets.UTF_8);
-		if(file.length() > 0){
-			try{
-				JWEObject.parse(file);
-			} catch (Exception e){
-				return false;
-			}
-		} else {
-			return false;
-		}
-		return true;
+	private void rejectInvalidImage(FileuploadData fileuploadData, DocumentType documentType) {
+		logger.error("CCID: {}, {} image is not valid", fileuploadData.getClientCorrelationId(), documentType);
+		publishToOneStream(fileuploadData, "image is not valid");
+		throw new RequestValidationException("image is not valid");
 	}
 
 	// Construct prefix to get values from variables in .properties files relevant to CoS lockbox details
@@ -296,7 +309,8 @@ public class FileUploadResource extends AbstractBaseResource {
 
 		byte[] document = null;
 		try {
-			document = IOUtils.toByteArray(is);
+			// Stop reading past the size limit; larger documents are rejected by checkDocumentSize
+			document = DocumentTypeDetector.readBounded(is, TEN_MB);
 		} catch (IOException e1) {
 			logger.error("Exception occured while converting to byteArray", e1);
 			throw new RequestValidationException("error occured while converting the image into byteArray");
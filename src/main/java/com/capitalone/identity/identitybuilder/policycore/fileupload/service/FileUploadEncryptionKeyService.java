@@ -1,5 +1,7 @@
 package com.capitalone.identity.identitybuilder.policycore.fileupload.service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.Map;
 
@@ -31,6 +33,14 @@ public class FileUploadEncryptionKeyService {
 	@Value("${identitybuilder.policycore.fileupload.krp.productId}")
 	private String publicKeyProductId;
 
+	// Deflate documents before encryption
+	@Value("${identitybuilder.policycore.fileupload.cache.compression.enabled:false}")
+	private boolean compressDocuments;
+
+	// Base64 encode the JWE once more, the format read by existing cache consumers
+	@Value("${identitybuilder.policycore.fileupload.cache.base64-wrap.enabled:true}")
+	private boolean base64WrapDocuments = true;
+
 	private final Logger logger = LogManager.getLogger(getClass());
 
 	@Autowired
@@ -60,7 +70,14 @@ public class FileUploadEncryptionKeyService {
 		DevXPublicKeyServiceResponse response = getPublicKey(productId);
 		JWTKey jwtKey = response.getKeys().get(0);
 		try {
-			encryptedData = CryptoUtil.encryptEcdh(jwtKey, document);
+			if (compressDocuments || !base64WrapDocuments) {
+				String jwe = CryptoUtil.encryptEcdhCompact(jwtKey, document, compressDocuments);
+				encryptedData = base64WrapDocuments
+						? Base64.getEncoder().encodeToString(jwe.getBytes(StandardCharsets.US_ASCII))
+						: jwe;
+			} else {
+				encryptedData = CryptoUtil.encryptEcdh(jwtKey, document);
+			}
 		} catch (IllegalArgumentException | JOSEException ex) {
 			logger.error(ERROR_STRING, ex);
 			ChassisErrorCode error =  fileuploadUtil.getChassisSystemError(ERROR_STRING);
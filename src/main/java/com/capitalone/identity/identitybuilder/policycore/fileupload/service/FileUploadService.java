@@ -1,10 +1,6 @@
 package com.capitalone.identity.identitybuilder.policycore.fileupload.service;
 
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -12,8 +8,9 @@ import org.apache.http.HttpStatus;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.stereotype.Component;
 
 import com.capitalone.chassis.engine.model.exception.ChassisSystemException;
@@ -23,12 +20,12 @@ import com.capitalone.identity.identitybuilder.policycore.fileupload.model.FileU
 import com.capitalone.identity.identitybuilder.policycore.fileupload.model.FileuploadData;
 import com.capitalone.identity.identitybuilder.policycore.fileupload.onestream.CureFileuploadRawPayload;
 import com.capitalone.identity.identitybuilder.policycore.fileupload.onestream.FileuploadCureSdpListener;
+import com.capitalone.identity.identitybuilder.policycore.fileupload.service.VirusScanScratchDirectory.ScratchFile;
 
 @Component
 @ConditionalOnProperty(value = FileUploadService.FILE_UPLOAD_ENABLED_FLAG)
 public class FileUploadService {
 
-	private static final String TEMPFILE_NAME = "TEMPFILE_";
 	private static final String DOCUMENT_FAILED_AT_VIRUS_SCAN_SERVICE = "Document failed at virus scan service";
 	private static final String FILE_UPLOAD_PROCESS_FAILED = "fileUpload process failed at encryption handling";
 	public static final String FILE_UPLOAD_ENABLED_FLAG = "identitybuilder.policycore.feature.fileupload.enabled";
@@ -50,6 +47,12 @@ public class FileUploadService {
 	@Autowired
 	private FileuploadCureSdpListener fileuploadCureSdpListener;
 
+	@Autowired
+	private VirusScanScratchDirectory scratchDirectory;
+
+	@Value("${identitybuilder.policycore.fileupload.virusscan.in-memory.enabled:false}")
+	private boolean inMemoryScanEnabled;
+
 	/**
 	 * This method is responsible for encrypting and uploading document to domain
 	 * cache
@@ -108,42 +111,31 @@ public class FileUploadService {
 	}
 
 	/**
-	 * This method is responsible for checking the virusScan
+	 * This method is responsible for checking the virusScan. The document is sent
+	 * from memory when in-memory scans are enabled or the scratch directory quota
+	 * is exhausted, and otherwise from a scratch file deleted after the scan.
 	 * 
-	 * @param byte
-	 *            [] document
+	 * @param fileuploadData
+	 *            containing the document
 	 * @return boolean isAffected
 	 */
 	private boolean isVirusAffected(FileuploadData fileuploadData) {
-		boolean isAffected = false;
-		FileOutputStream outputStream = null;
-		File file = null;
-		FileSystemResource fileResource = null;
-		if (null != fileuploadData.getDocument()) {
-			try {	    
-				file = new File(TEMPFILE_NAME + UUID.randomUUID().toString());
-				logger.info("creating temp file for scan {} ", file.toPath());
-				outputStream = new FileOutputStream(file);
-				outputStream.write(fileuploadData.getDocument());
-				fileResource = new FileSystemResource(file);
-				isAffected = scanService.isVirusAffected(fileResource);
-			} catch (Exception ex) {
-				logger.error(String.format("CCID: %s failed at virus scan",fileuploadData.getClientCorrelationId()));
-				throw new ChassisSystemException("Exception while scanning files for virus", ex);
-			} finally {
-				try {
-					if (null != outputStream && null != file) {
-						outputStream.close();
-						Files.delete(file.toPath());
-					}
-
-				} catch (IOException ex) {
-					logger.error("Exception while cleaning up the files " + ex);
-				}
+		if (null == fileuploadData.getDocument()) {
+			return false;
+		}
+		try {
+			Optional<ScratchFile> scratchFile = inMemoryScanEnabled ? Optional.empty()
+					: scratchDirectory.write(fileuploadData.getDocument());
+			if (!scratchFile.isPresent()) {
+				return scanService.isVirusAffected(new ScanDocumentResource(fileuploadData.getDocument()));
+			}
+			try (ScratchFile file = scratchFile.get()) {
+				return scanService.isVirusAffected(file.getResource());
 			}
+		} catch (Exception ex) {
+			logger.error(String.format("CCID: %s failed at virus scan",fileuploadData.getClientCorrelationId()));
+			throw new ChassisSystemException("Exception while scanning files for virus", ex);
 		}
-
-		return isAffected;
 	}
 
 	private void publishToOneStream(FileuploadData fileuploadData, String fileReferenceId, String virusScanresult, boolean isFileEncrypted, //NOSONAR
@@ -165,4 +157,22 @@ public class FileUploadService {
 		}
 	}
 
+	/**
+	 * Document sent to the scanner from memory, named like a scratch file since the
+	 * multipart part requires a file name
+	 */
+	private static final class ScanDocumentResource extends ByteArrayResource {
+
+		private final String filename = VirusScanScratchDirectory.TEMPFILE_NAME + UUID.randomUUID();
+
+		private ScanDocumentResource(byte[] document) {
+			super(document);
+		}
+
+		@Override
+		public String getFilename() {
+			return filename;
+		}
+	}
+
 }
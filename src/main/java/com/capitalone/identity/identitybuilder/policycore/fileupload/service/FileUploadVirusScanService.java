@@ -2,7 +2,7 @@ package com.capitalone.identity.identitybuilder.policycore.fileupload.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
 import com.capitalone.identity.identitybuilder.policycore.fileupload.service.dao.impl.VirusScanServiceDao;
@@ -17,12 +17,12 @@ public class FileUploadVirusScanService {
 	/**
 	 * This method is responsible for scaning the document for virus
 	 * 
-	 * @param FileSystemResource
-	 *            contains file information
+	 * @param Resource
+	 *            contains the document, on disk or in memory
 	 * 
 	 * @return boolean value
 	 */
-	public boolean isVirusAffected(FileSystemResource fs) {
+	public boolean isVirusAffected(Resource fs) {
 		return scanDao.isAffected(fs);
 	}
 
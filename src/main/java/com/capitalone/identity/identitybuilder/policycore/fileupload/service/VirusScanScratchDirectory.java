@@ -0,0 +1,211 @@
+package com.capitalone.identity.identitybuilder.policycore.fileupload.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Directory holding the documents written to disk for virus scanning. The bytes on disk are bounded by a quota and
+ * each file is deleted once its scan completes. Each instance writes to its own subdirectory of the configured
+ * directory, deleted on shutdown, so processes sharing the configured directory never delete each other's files.
+ * <p>
+ * An instance holds a lock on the {@value #LOCK_FILE_NAME} file of its subdirectory while it runs. The operating
+ * system releases the lock when the process dies, so subdirectories left behind by a killed process are deleted by
+ * the next instance to start, while those of live processes are kept.
+ */
+@Component
+@ConditionalOnProperty(value = FileUploadService.FILE_UPLOAD_ENABLED_FLAG)
+public class VirusScanScratchDirectory {
+
+	static final String TEMPFILE_NAME = "TEMPFILE_";
+	private static final String DEFAULT_DIRECTORY_NAME = "policycore-virusscan";
+	private static final String INSTANCE_DIRECTORY_PREFIX = "virusscan-";
+	static final String LOCK_FILE_NAME = "owner.lock";
+	// Subdirectories younger than this may belong to an instance that has not locked them yet
+	static final Duration LOCK_GRACE_PERIOD = Duration.ofMinutes(1);
+
+	private final Logger logger = LogManager.getLogger(getClass());
+
+	private final Path directory;
+
+	private final FileChannel lockChannel;
+
+	private final long maxBytes;
+
+	private final AtomicLong usedBytes = new AtomicLong();
+
+	/**
+	 * @param directory the directory holding the scratch directory, or blank for a directory under java.io.tmpdir
+	 * @param maxBytes  the most bytes written at once across all scans
+	 */
+	public VirusScanScratchDirectory(
+			@Value("${identitybuilder.policycore.fileupload.virusscan.scratch.directory:}") String directory,
+			@Value("${identitybuilder.policycore.fileupload.virusscan.scratch.max-bytes:104857600}") long maxBytes)
+			throws IOException {
+		Path parent = StringUtils.hasText(directory) ? Paths.get(directory)
+				: Paths.get(System.getProperty("java.io.tmpdir"), DEFAULT_DIRECTORY_NAME);
+		Files.createDirectories(parent);
+		this.directory = Files.createTempDirectory(parent, INSTANCE_DIRECTORY_PREFIX);
+		this.lockChannel = FileChannel.open(this.directory.resolve(LOCK_FILE_NAME), StandardOpenOption.CREATE_NEW,
+				StandardOpenOption.WRITE);
+		this.lockChannel.lock();
+		this.maxBytes = maxBytes;
+		deleteStaleDirectories(parent);
+	}
+
+	/**
+	 * Writes the document to a new scratch file, to be closed once scanned
+	 *
+	 * @return the scratch file, or empty if the document does not fit in the quota
+	 */
+	public Optional<ScratchFile> write(byte[] document) throws IOException {
+		long size = document.length;
+		if (usedBytes.addAndGet(size) > maxBytes) {
+			usedBytes.addAndGet(-size);
+			logger.warn("File-VirusScan: scratch directory quota of {} bytes exceeded", maxBytes);
+			return Optional.empty();
+		}
+		ScratchFile scratchFile = new ScratchFile(directory.resolve(TEMPFILE_NAME + UUID.randomUUID()), size);
+		try {
+			Files.write(scratchFile.path, document, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+		} catch (IOException | RuntimeException ex) {
+			scratchFile.close();
+			throw ex;
+		}
+		logger.info("File-VirusScan: created scratch file for scan {}", scratchFile.path);
+		return Optional.of(scratchFile);
+	}
+
+	public long getUsedBytes() {
+		return usedBytes.get();
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Deletes the scratch files still open and then this instance's scratch directory
+	 */
+	@PreDestroy
+	public void deleteScratchFiles() {
+		closeQuietly(lockChannel);
+		deleteDirectory(directory);
+	}
+
+	/**
+	 * Deletes the scratch subdirectories of instances that are no longer running: those whose lock file is not
+	 * locked, or that have no lock file once the grace period has passed.
+	 */
+	private void deleteStaleDirectories(Path parent) {
+		try (DirectoryStream<Path> directories = Files.newDirectoryStream(parent, INSTANCE_DIRECTORY_PREFIX + "*")) {
+			for (Path stale : directories) {
+				if (!stale.equals(directory) && Files.isDirectory(stale) && isStale(stale)) {
+					logger.info("File-VirusScan: deleting scratch directory {} left by a stopped instance", stale);
+					deleteDirectory(stale);
+				}
+			}
+		} catch (IOException ex) {
+			logger.error("File-VirusScan: could not list scratch directory {}", parent, ex);
+		}
+	}
+
+	private boolean isStale(Path instanceDirectory) throws IOException {
+		if (Files.getLastModifiedTime(instanceDirectory).toInstant().isAfter(Instant.now().minus(LOCK_GRACE_PERIOD))) {
+			return false;
+		}
+		Path lockFile = instanceDirectory.resolve(LOCK_FILE_NAME);
+		if (!Files.exists(lockFile)) {
+			return true;
+		}
+		try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.WRITE)) {
+			return channel.tryLock() != null;
+		} catch (OverlappingFileLockException ex) {
+			// Locked by another instance in this JVM
+			return false;
+		} catch (NoSuchFileException ex) {
+			// Deleted by its owner on shutdown
+			return false;
+		}
+	}
+
+	private void deleteDirectory(Path instanceDirectory) {
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(instanceDirectory)) {
+			for (Path file : files) {
+				deleteQuietly(file);
+			}
+		} catch (IOException ex) {
+			logger.error("File-VirusScan: could not list scratch directory {}", instanceDirectory, ex);
+		}
+		deleteQuietly(instanceDirectory);
+	}
+
+	private void closeQuietly(FileChannel channel) {
+		try {
+			channel.close();
+		} catch (IOException ex) {
+			logger.error("File-VirusScan: could not release scratch directory lock {}", directory, ex);
+		}
+	}
+
+	private void deleteQuietly(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException ex) {
+			logger.error("File-VirusScan: could not delete scratch file {}", file, ex);
+		}
+	}
+
+	/**
+	 * Document written to the scratch directory, deleted and released from the quota when closed
+	 */
+	public final class ScratchFile implements Closeable {
+
+		private final Path path;
+
+		private final long size;
+
+		private final AtomicBoolean closed = new AtomicBoolean();
+
+		private ScratchFile(Path path, long size) {
+			this.path = path;
+			this.size = size;
+		}
+
+		public FileSystemResource getResource() {
+			return new FileSystemResource(path);
+		}
+
+		@Override
+		public void close() {
+			if (closed.compareAndSet(false, true)) {
+				deleteQuietly(path);
+				usedBytes.addAndGet(-size);
+			}
+		}
+	}
+
+}
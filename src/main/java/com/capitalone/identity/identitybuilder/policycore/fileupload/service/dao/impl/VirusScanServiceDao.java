@@ -12,7 +12,7 @@ import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.*;
 import org.springframework.retry.support.RetryTemplate;
 import org.springframework.security.oauth2.client.OAuth2RestOperations;
@@ -63,14 +63,14 @@ public class VirusScanServiceDao {
 		this.webclientEnabled = webclientEnabled && prereleaseEnabled;
 	}
 
-	public boolean isAffected(FileSystemResource fs) {
+	public boolean isAffected(Resource fs) {
 		boolean isAffected = false;
 		isAffected = scanImageWithVirusScan(fs);
 		logger.info("File-VirusScan: scanned Document File Result {}", isAffected);
 		return isAffected;
 	}
 
-	private boolean scanImageWithVirusScan(FileSystemResource fs) {
+	private boolean scanImageWithVirusScan(Resource fs) {
 		boolean isAffected = false;
 		VirusScanResponse virusScanResponse = null;
 		if (virusScanEnabled) {
@@ -99,7 +99,7 @@ public class VirusScanServiceDao {
 		return isAffected;
 	}
 
-	private VirusScanResponse scanImage(FileSystemResource fs) {
+	private VirusScanResponse scanImage(Resource fs) {
 
 		MultiValueMap<String, Object> multipartFile = null;
 		VirusScanResponse virusScanResponse = null;
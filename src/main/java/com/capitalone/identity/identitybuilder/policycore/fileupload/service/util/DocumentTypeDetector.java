@@ -0,0 +1,405 @@
+package com.capitalone.identity.identitybuilder.policycore.fileupload.service.util;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.imageio.ImageIO;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+
+import com.nimbusds.jose.JWEHeader;
+import com.nimbusds.jose.util.Base64URL;
+
+import lombok.Value;
+
+/**
+ * Detects the type of an uploaded document from its leading bytes, and reads image dimensions from the image headers,
+ * without decoding the document or copying it into a String. A full decode is only run on request, by
+ * {@link #decodes(byte[])}.
+ */
+public final class DocumentTypeDetector {
+
+	/**
+	 * Number of leading bytes inspected for the document type, large enough for the protected header of a JWE
+	 */
+	public static final int PREFIX_LENGTH = 4096;
+
+	// Base64URL encoding of '{"', the start of every JOSE header
+	private static final byte[] JOSE_HEADER_PREFIX = "eyJ".getBytes(StandardCharsets.US_ASCII);
+	private static final int JWE_COMPACT_SEPARATORS = 4;
+
+	private static final byte[] FTYP = "ftyp".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] META = "meta".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] IPRP = "iprp".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] IPCO = "ipco".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] ISPE = "ispe".getBytes(StandardCharsets.US_ASCII);
+	private static final Set<String> HEIC_BRANDS = new HashSet<>(
+			Arrays.asList("heic", "heix", "heim", "heis", "hevc", "hevx"));
+
+	private static final int TIFF_IMAGE_WIDTH = 256;
+	private static final int TIFF_IMAGE_LENGTH = 257;
+	private static final int TIFF_SHORT = 3;
+
+	public enum DocumentType {
+		JPEG(true, new byte[] { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF }),
+		PNG(true, new byte[] { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' }),
+		GIF(true, new byte[] { 'G', 'I', 'F', '8' }),
+		BMP(true, new byte[] { 'B', 'M' }),
+		TIFF_LITTLE_ENDIAN(true, new byte[] { 'I', 'I', '*', 0 }),
+		TIFF_BIG_ENDIAN(true, new byte[] { 'M', 'M', 0, '*' }),
+		/**
+		 * HEIF image with HEVC coded items, detected from the brands of its ftyp box
+		 */
+		HEIC(true, null),
+		PDF(false, new byte[] { '%', 'P', 'D', 'F', '-' }),
+		/**
+		 * JWE in compact serialization, the format of client-encrypted uploads
+		 */
+		JWE(false, null),
+		UNKNOWN(false, null);
+
+		private final boolean image;
+		private final byte[] magic;
+
+		DocumentType(boolean image, byte[] magic) {
+			this.image = image;
+			this.magic = magic;
+		}
+
+		public boolean isImage() {
+			return image;
+		}
+	}
+
+	@Value
+	public static class ImageDimensions {
+		long width;
+		long height;
+
+		/**
+		 * @return the number of pixels, or {@link Long#MAX_VALUE} if it does not fit in a long
+		 */
+		public long getPixels() {
+			return pixels(width, height);
+		}
+
+		/**
+		 * @return true if the image has more than maxPixels pixels, compared without overflowing
+		 */
+		public boolean exceeds(long maxPixels) {
+			return height > 0 && width > maxPixels / height;
+		}
+	}
+
+	private DocumentTypeDetector() {
+	}
+
+	/**
+	 * Detects the document type from its magic bytes, or from its leading JWE header
+	 *
+	 * @param document the document, may be empty
+	 * @return the document type, {@link DocumentType#UNKNOWN} if not recognized
+	 */
+	public static DocumentType detect(byte[] document) {
+		if (document == null || document.length == 0) {
+			return DocumentType.UNKNOWN;
+		}
+		for (DocumentType type : DocumentType.values()) {
+			if (type.magic != null && startsWith(document, type.magic)) {
+				return type;
+			}
+		}
+		if (isHeic(document)) {
+			return DocumentType.HEIC;
+		}
+		return isJweCompactSerialization(document) ? DocumentType.JWE : DocumentType.UNKNOWN;
+	}
+
+	/**
+	 * Reads the dimensions of an image from its header, without decoding the image
+	 *
+	 * @param document the document
+	 * @param type     the document type, as detected by {@link #detect(byte[])}
+	 * @return the dimensions, or empty if the document is not an image or its header is truncated or malformed
+	 */
+	public static Optional<ImageDimensions> readDimensions(byte[] document, DocumentType type) {
+		try {
+			switch (type) {
+			case JPEG:
+				return readJpegDimensions(document);
+			case PNG:
+				return dimensions(readInt(document, 16, false), readInt(document, 20, false));
+			case GIF:
+				return dimensions(readShort(document, 6, true), readShort(document, 8, true));
+			case BMP:
+				return readBmpDimensions(document);
+			case TIFF_LITTLE_ENDIAN:
+				return readTiffDimensions(document, true);
+			case TIFF_BIG_ENDIAN:
+				return readTiffDimensions(document, false);
+			case HEIC:
+				return readHeicDimensions(document);
+			default:
+				return Optional.empty();
+			}
+		} catch (IndexOutOfBoundsException e) {
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Fully decodes the image, for strict validation. Only formats with an ImageIO reader can be decoded.
+	 *
+	 * @return true if the document decodes to an image
+	 */
+	public static boolean decodes(byte[] document) {
+		try {
+			BufferedImage image = ImageIO.read(new ByteArrayInputStream(document));
+			if (image == null) {
+				return false;
+			}
+			image.flush();
+			return true;
+		} catch (IOException | RuntimeException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Checks that the document is a JWE in compact serialization: a parseable JWE header within the leading
+	 * {@link #PREFIX_LENGTH} bytes, followed by exactly five dot-separated parts. Neither the encrypted parts nor the
+	 * rest of the document are decoded.
+	 */
+	public static boolean isJweCompactSerialization(byte[] document) {
+		if (document == null || !startsWith(document, JOSE_HEADER_PREFIX)) {
+			return false;
+		}
+		int headerEnd = indexOf(document, (byte) '.', Math.min(document.length, PREFIX_LENGTH));
+		if (headerEnd < 0) {
+			return false;
+		}
+		int separators = 0;
+		for (byte b : document) {
+			if (b == '.' && ++separators > JWE_COMPACT_SEPARATORS) {
+				return false;
+			}
+		}
+		if (separators != JWE_COMPACT_SEPARATORS) {
+			return false;
+		}
+		try {
+			JWEHeader.parse(new Base64URL(new String(document, 0, headerEnd, StandardCharsets.US_ASCII)));
+			return true;
+		} catch (ParseException | RuntimeException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Reads the stream up to one byte past the limit, so an oversized upload is detected without buffering it
+	 *
+	 * @return the bytes read, longer than maxBytes if the stream exceeds the limit
+	 */
+	public static byte[] readBounded(InputStream is, long maxBytes) throws IOException {
+		return IOUtils.toByteArray(new BoundedInputStream(is, maxBytes + 1));
+	}
+
+	// ftyp box with a HEVC image brand, as major brand or compatible brand
+	private static boolean isHeic(byte[] document) {
+		if (document.length < 16 || !matches(document, 4, FTYP)) {
+			return false;
+		}
+		long boxSize = readInt(document, 0, false);
+		int end = (int) Math.min(document.length, Math.min(boxSize, PREFIX_LENGTH));
+		for (int offset = 8; offset + 4 <= end; offset += 4) {
+			// Skip the minor version, which follows the major brand
+			if (offset != 12 && HEIC_BRANDS.contains(new String(document, offset, 4, StandardCharsets.US_ASCII))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// Start of frame segment, which follows the tables and precedes the scan
+	private static Optional<ImageDimensions> readJpegDimensions(byte[] document) {
+		int offset = 2;
+		while (offset + 4 <= document.length) {
+			if ((document[offset] & 0xFF) != 0xFF) {
+				return Optional.empty();
+			}
+			int marker = document[offset + 1] & 0xFF;
+			if (marker == 0xFF) {
+				// Fill byte
+				offset++;
+				continue;
+			}
+			if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) {
+				// Standalone markers
+				offset += 2;
+				continue;
+			}
+			if (marker == 0xD9 || marker == 0xDA) {
+				// End of image or start of scan, without a frame header
+				return Optional.empty();
+			}
+			int length = readShort(document, offset + 2, false);
+			if (marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC) {
+				return dimensions(readShort(document, offset + 7, false), readShort(document, offset + 5, false));
+			}
+			offset += 2 + length;
+		}
+		return Optional.empty();
+	}
+
+	private static Optional<ImageDimensions> readBmpDimensions(byte[] document) {
+		long headerSize = readInt(document, 14, true);
+		if (headerSize == 12) {
+			// OS/2 core header with 16-bit dimensions
+			return dimensions(readShort(document, 18, true), readShort(document, 20, true));
+		}
+		// Negative heights are top-down bitmaps
+		return dimensions((int) readInt(document, 18, true), Math.abs((int) readInt(document, 22, true)));
+	}
+
+	// ImageWidth and ImageLength tags of the first image file directory
+	private static Optional<ImageDimensions> readTiffDimensions(byte[] document, boolean littleEndian) {
+		int ifd = (int) readInt(document, 4, littleEndian);
+		int entries = readShort(document, ifd, littleEndian);
+		long width = 0;
+		long height = 0;
+		for (int i = 0; i < entries; i++) {
+			int entry = ifd + 2 + i * 12;
+			int tag = readShort(document, entry, littleEndian);
+			if (tag != TIFF_IMAGE_WIDTH && tag != TIFF_IMAGE_LENGTH) {
+				continue;
+			}
+			int fieldType = readShort(document, entry + 2, littleEndian);
+			long value = fieldType == TIFF_SHORT ? readShort(document, entry + 8, littleEndian)
+					: readInt(document, entry + 8, littleEndian);
+			if (tag == TIFF_IMAGE_WIDTH) {
+				width = value;
+			} else {
+				height = value;
+			}
+		}
+		return dimensions(width, height);
+	}
+
+	// Largest ispe property of meta/iprp/ipco: the full image rather than a tile or thumbnail
+	private static Optional<ImageDimensions> readHeicDimensions(byte[] document) {
+		int meta = findBox(document, 0, document.length, META);
+		if (meta < 0) {
+			return Optional.empty();
+		}
+		// meta is a full box, with version and flags ahead of its children
+		int iprp = findBox(document, meta + 12, boxEnd(document, meta), IPRP);
+		int ipco = iprp < 0 ? -1 : findBox(document, iprp + 8, boxEnd(document, iprp), IPCO);
+		if (ipco < 0) {
+			return Optional.empty();
+		}
+		long width = 0;
+		long height = 0;
+		int end = boxEnd(document, ipco);
+		for (int box = ipco + 8; box + 8 <= end; box = boxEnd(document, box)) {
+			if (matches(document, box + 4, ISPE)) {
+				long ispeWidth = readInt(document, box + 12, false);
+				long ispeHeight = readInt(document, box + 16, false);
+				if (pixels(ispeWidth, ispeHeight) > pixels(width, height)) {
+					width = ispeWidth;
+					height = ispeHeight;
+				}
+			}
+			if (boxEnd(document, box) <= box) {
+				break;
+			}
+		}
+		return dimensions(width, height);
+	}
+
+	private static int findBox(byte[] document, int start, int end, byte[] type) {
+		for (int box = start; box + 8 <= end; box = boxEnd(document, box)) {
+			if (matches(document, box + 4, type)) {
+				return box;
+			}
+			if (boxEnd(document, box) <= box) {
+				break;
+			}
+		}
+		return -1;
+	}
+
+	private static int boxEnd(byte[] document, int box) {
+		long size = readInt(document, box, false);
+		if (size == 0) {
+			// Box extends to the end of the file
+			return document.length;
+		}
+		return (int) Math.min(document.length, box + size);
+	}
+
+	private static long pixels(long width, long height) {
+		try {
+			return Math.multiplyExact(width, height);
+		} catch (ArithmeticException e) {
+			return Long.MAX_VALUE;
+		}
+	}
+
+	private static Optional<ImageDimensions> dimensions(long width, long height) {
+		return width > 0 && height > 0 ? Optional.of(new ImageDimensions(width, height)) : Optional.empty();
+	}
+
+	private static int readShort(byte[] document, int offset, boolean littleEndian) {
+		int b0 = document[offset] & 0xFF;
+		int b1 = document[offset + 1] & 0xFF;
+		return littleEndian ? b0 | b1 << 8 : b0 << 8 | b1;
+	}
+
+	private static long readInt(byte[] document, int offset, boolean littleEndian) {
+		long high = readShort(document, littleEndian ? offset + 2 : offset, littleEndian);
+		long low = readShort(document, littleEndian ? offset : offset + 2, littleEndian);
+		return high << 16 | low;
+	}
+
+	private static boolean matches(byte[] document, int offset, byte[] value) {
+		if (offset < 0 || offset + value.length > document.length) {
+			return false;
+		}
+		for (int i = 0; i < value.length; i++) {
+			if (document[offset + i] != value[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean startsWith(byte[] document, byte[] prefix) {
+		if (document.length < prefix.length) {
+			return false;
+		}
+		for (int i = 0; i < prefix.length; i++) {
+			if (document[i] != prefix[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int indexOf(byte[] document, byte value, int limit) {
+		for (int i = 0; i < limit; i++) {
+			if (document[i] == value) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
@@ -1,10 +1,13 @@
 package com.capitalone.identity.identitybuilder.policycore.operational_audit;
 
+import com.capitalone.chassis.engine.model.context.RequestContext;
 import com.capitalone.chassis.engine.model.context.RequestContextHolder;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.cyber.AWSHostContextCollector;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventEnricher;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventMapper;
+import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventMapperRegistry;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.OperationalError;
+import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.OperationalRequestContext;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.util.OperationalAuditPublisher;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.util.OperationalAuditUtil;
 import lombok.AllArgsConstructor;
@@ -14,11 +17,11 @@ import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import static com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventMapper.AspectEventFactory;
 
-import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Aspect which audits an operational event on any method annotated with @OperationalAudit. Recommended for
@@ -33,7 +36,7 @@ public class OperationalAuditAspect {
 
     private final OperationalEventEnricher operationalEventEnricher;
     private final OperationalAuditPublisher operationalAuditPublisher;
-    private final Map<Class<? extends AspectEventFactory>, AspectEventFactory> factories;
+    private final OperationalEventMapperRegistry operationalEventMapperRegistry;
     private final AWSHostContextCollector awsHostContextCollector;
 
     @Around("@annotation(audit)")
@@ -45,10 +48,18 @@ public class OperationalAuditAspect {
         Optional<OperationalError> throwableEventError = Optional.empty();
         final Long startTimestamp = System.currentTimeMillis();
         final String eventOperationId = UUID.randomUUID().toString();
+        boolean deferred = false;
 
         // Begin the operation
         try (final CloseableThreadContext.Instance ignored = CloseableThreadContext.put("eventOperationId", eventOperationId)) {
-            response = Optional.ofNullable(proceedingJoinPoint.proceed());
+            final Object result = proceedingJoinPoint.proceed();
+            if (result instanceof CompletableFuture) {
+                // Asynchronous operations are audited once their outcome is known
+                deferred = true;
+                return auditOnCompletion(audit, proceedingJoinPoint, (CompletableFuture<?>) result,
+                        eventOperationId, startTimestamp);
+            }
+            response = Optional.ofNullable(result);
             return response.orElse(null);
         } catch (final Throwable throwable) {
             // Populate error info based on any caught throwable
@@ -58,11 +69,36 @@ public class OperationalAuditAspect {
             throw throwable;
         } finally {
             // Audit the outcome of the operation
-            doAudit(audit, proceedingJoinPoint,
-                    response, eventOperationId, startTimestamp, throwableEventError);
+            if (!deferred) {
+                doAudit(audit, proceedingJoinPoint,
+                        response, eventOperationId, startTimestamp, throwableEventError);
+            }
         }
     }
 
+    /**
+     * Audits an asynchronous operation when its future completes. The future usually completes on a different
+     * thread, so the request context of the calling thread is restored while the event is built.
+     */
+    private CompletableFuture<?> auditOnCompletion(final OperationalAudit audit, final JoinPoint joinPoint,
+                                                   final CompletableFuture<?> result, final String eventOperationId,
+                                                   final Long startTimestamp) {
+        final RequestContext requestContext = RequestContextHolder.getRequestContextOrDefault();
+        return result.whenComplete((value, throwable) -> {
+            final RequestContext completionContext = RequestContextHolder.getRequestContextOrDefault();
+            RequestContextHolder.put(requestContext);
+            try (final CloseableThreadContext.Instance ignored = CloseableThreadContext.put("eventOperationId", eventOperationId)) {
+                final Optional<OperationalError> throwableEventError = Optional.ofNullable(throwable)
+                        .map(t -> t instanceof CompletionException && t.getCause() != null ? t.getCause() : t)
+                        .map(t -> OperationalAuditUtil.mergeThrowableInfo(OperationalError.builder().build(), Optional.of(t)));
+                doAudit(audit, joinPoint, Optional.ofNullable(value), eventOperationId, startTimestamp,
+                        throwableEventError);
+            } finally {
+                RequestContextHolder.put(completionContext);
+            }
+        });
+    }
+
     private void doAudit(final OperationalAudit audit,
                          final JoinPoint joinPoint,
                          final Optional<?> response, final String eventOperationId,
@@ -73,9 +109,7 @@ public class OperationalAuditAspect {
         // Obtain the event mapper implementation for the current audit
         final OperationalEventMapper.AspectEventFactory operationalEventMapperFactory;
         try {
-            final Class<? extends AspectEventFactory> factoryType = audit.mapperFactory();
-            final AspectEventFactory factory = factories.get(factoryType);
-            operationalEventMapperFactory = factory == null ? audit.mapperFactory().newInstance() : factory;
+            operationalEventMapperFactory = operationalEventMapperRegistry.getAspectEventFactory(audit.mapperFactory());
         } catch (Exception e) {
             log.error(String.format("Could not instantiate mapper factory of type %s. "
                     + "Cancelling audit attempt.", audit.mapperFactory()), e);
@@ -93,25 +127,28 @@ public class OperationalAuditAspect {
         }
 
         try {
-            // Populate common attributes
-            final OperationalEventEnricher.CommonAttributes commonAttributes = OperationalEventEnricher.CommonAttributes.builder()
-                    .eventType(audit.eventType())
-                    .eventOutcome(operationalEventMapper.toOperationalEventOutcome())
-                    .errorOptional(throwableError.isPresent() ? throwableError : operationalEventMapper.toOperationalError())
-                    .requestContextOptional(Optional.of(OperationalAuditUtil.getChassisRequestContext()))
-                    .eventOperationId(eventOperationId)
-                    .startTimestamp(startTimestamp)
-                    .endTimestamp(endTimestamp)
-                    .build();
-
+            // Capture the request-scoped attributes on the calling thread
+            final OperationalRequestContext requestContext = OperationalAuditUtil.getChassisRequestContext();
             final OperationalEventEnricher.CyberAttributes cyberAttributes =
                     awsHostContextCollector.setCyberAttributes(this.getClass().getName(),
                             RequestContextHolder.getRequestContextOrDefault());
 
             // Build and Publish the Event with entity-specific and common attributes combined
-            operationalAuditPublisher.publish(operationalEventEnricher.enrich(
-                    operationalEventMapper.buildWithEntitySpecificAttributes(),
-                    commonAttributes, cyberAttributes));
+            operationalAuditPublisher.submit(() -> {
+                // Populate common attributes
+                final OperationalEventEnricher.CommonAttributes commonAttributes = OperationalEventEnricher.CommonAttributes.builder()
+                        .eventType(audit.eventType())
+                        .eventOutcome(operationalEventMapper.toOperationalEventOutcome())
+                        .errorOptional(throwableError.isPresent() ? throwableError : operationalEventMapper.toOperationalError())
+                        .requestContextOptional(Optional.of(requestContext))
+                        .eventOperationId(eventOperationId)
+                        .startTimestamp(startTimestamp)
+                        .endTimestamp(endTimestamp)
+                        .build();
+                return operationalEventEnricher.enrich(
+                        operationalEventMapper.buildWithEntitySpecificAttributes(),
+                        commonAttributes, cyberAttributes);
+            });
         } catch (final RuntimeException e) {
             log.error("Caught exception during operational audit. ", e);
         }
@@ -4,7 +4,9 @@ import com.capitalone.chassis.engine.model.context.RequestContextHolder;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.cyber.AWSHostContextCollector;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventEnricher;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventMapper;
+import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventMapperRegistry;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.OperationalEventOccurred;
+import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.OperationalRequestContext;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.type.OperationalEventType;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.util.OperationalAuditPublisher;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.util.OperationalAuditUtil;
@@ -41,6 +43,7 @@ public class OperationalAuditor {
         private final OperationalEventEnricher operationalEventEnricher;
         private final OperationalAuditPublisher operationalAuditPublisher;
         private final AWSHostContextCollector awsHostContextCollector;
+        private final OperationalEventMapperRegistry operationalEventMapperRegistry;
 
         void doAudit(final OperationalEventOccurred operationalEventOccurred,
                      final Class<? extends OperationalEventMapper.NotificationEventFactory> mapperFactoryType) {
@@ -49,7 +52,7 @@ public class OperationalAuditor {
             final OperationalEventType operationalEventType = Objects.requireNonNull(operationalEventOccurred.getOperationalEventType());
             final OperationalEventMapper.NotificationEventFactory operationalEventMapperFactory;
             try {
-                operationalEventMapperFactory = mapperFactoryType.newInstance();
+                operationalEventMapperFactory = operationalEventMapperRegistry.getNotificationEventFactory(mapperFactoryType);
             } catch (final Exception e) {
                 log.error(String.format("Could not instantiate mapper factory of type %s. "
                         + "Cancelling audit attempt.", mapperFactoryType), e);
@@ -63,26 +66,30 @@ public class OperationalAuditor {
                         ". Cancelling audit attempt.", e);
                 return;
             }
-            // Populate common attributes
-            final OperationalEventEnricher.CommonAttributes commonAttributes = OperationalEventEnricher.CommonAttributes.builder()
-                    .eventType(operationalEventType)
-                    .eventOutcome(operationalEventMapper.toOperationalEventOutcome())
-                    .errorOptional(operationalEventMapper.toOperationalError())
-                    .requestContextOptional(Optional.of(OperationalAuditUtil.getChassisRequestContext()))
-                    .eventOperationId(operationalEventOccurred
-                            .getLoggerContextEventIdOptional()
-                            .map(UUID::toString).orElse(null))
-                    .startTimestamp(operationalEventOccurred.getStartTimestamp())
-                    .endTimestamp(operationalEventOccurred.getEndTimestamp())
-                    .build();
+            // Capture the request-scoped attributes on the calling thread
+            final OperationalRequestContext requestContext = OperationalAuditUtil.getChassisRequestContext();
             final OperationalEventEnricher.CyberAttributes cyberAttributes =
                     awsHostContextCollector.setCyberAttributes(this.getClass().getName(),
                             RequestContextHolder.getRequestContextOrDefault());
 
             // Build and Publish the Event with entity-specific and common attributes combined
-            operationalAuditPublisher.publish(operationalEventEnricher.enrich(
-                    operationalEventMapper.buildWithEntitySpecificAttributes(),
-                    commonAttributes, cyberAttributes));
+            operationalAuditPublisher.submit(() -> {
+                // Populate common attributes
+                final OperationalEventEnricher.CommonAttributes commonAttributes = OperationalEventEnricher.CommonAttributes.builder()
+                        .eventType(operationalEventType)
+                        .eventOutcome(operationalEventMapper.toOperationalEventOutcome())
+                        .errorOptional(operationalEventMapper.toOperationalError())
+                        .requestContextOptional(Optional.of(requestContext))
+                        .eventOperationId(operationalEventOccurred
+                                .getLoggerContextEventIdOptional()
+                                .map(UUID::toString).orElse(null))
+                        .startTimestamp(operationalEventOccurred.getStartTimestamp())
+                        .endTimestamp(operationalEventOccurred.getEndTimestamp())
+                        .build();
+                return operationalEventEnricher.enrich(
+                        operationalEventMapper.buildWithEntitySpecificAttributes(),
+                        commonAttributes, cyberAttributes);
+            });
 
         }
     }
@@ -87,27 +87,29 @@ public class PolicyEvaluatedAuditor {
                 final PolicyEvaluatedEventMapper policyEvaluatedEventMapper = policyEvaluatedEventMapperFactory.create(
                         request, executedPolicyResponse, nonResponseException);
 
-                // Populate Common Attributes
-                final OperationalEventOutcome outcome = policyEvaluatedEventMapper.toOperationalEventOutcome();
-                final Optional<OperationalError> error = policyEvaluatedEventMapper.toOperationalError();
-                final OperationalEventEnricher.CommonAttributes commonAttributes =
-                        OperationalEventEnricher.CommonAttributes.builder()
-                                .eventType(operationalEventType)
-                                .errorOptional(error)
-                                .eventOutcome(outcome)
-                                .requestContextOptional(Optional.of(operationalRequestContext))
-                                .eventOperationId(operationalRequestContext.getMessageId())
-                                .startTimestamp(startTimestamp)
-                                .endTimestamp(endTimestamp)
-                                .build();
                 final OperationalEventEnricher.CyberAttributes cyberAttributes =
                         awsHostContextCollector.setCyberAttributes(this.getClass().getName(),
                                 RequestContextHolder.getRequestContextOrDefault());
 
                 // Build and Publish the Event with entity-specific and common attributes combined
-                operationalAuditPublisher.publish(enrichmentHelper.enrich(
-                        policyEvaluatedEventMapper.buildWithEntitySpecificAttributes(),
-                        commonAttributes, cyberAttributes));
+                operationalAuditPublisher.submit(() -> {
+                    // Populate Common Attributes
+                    final OperationalEventOutcome outcome = policyEvaluatedEventMapper.toOperationalEventOutcome();
+                    final Optional<OperationalError> error = policyEvaluatedEventMapper.toOperationalError();
+                    final OperationalEventEnricher.CommonAttributes commonAttributes =
+                            OperationalEventEnricher.CommonAttributes.builder()
+                                    .eventType(operationalEventType)
+                                    .errorOptional(error)
+                                    .eventOutcome(outcome)
+                                    .requestContextOptional(Optional.of(operationalRequestContext))
+                                    .eventOperationId(operationalRequestContext.getMessageId())
+                                    .startTimestamp(startTimestamp)
+                                    .endTimestamp(endTimestamp)
+                                    .build();
+                    return enrichmentHelper.enrich(
+                            policyEvaluatedEventMapper.buildWithEntitySpecificAttributes(),
+                            commonAttributes, cyberAttributes);
+                });
             } catch (final Exception e) {
                 log.error("Operational audit failure detected.", e);
             }
@@ -125,28 +127,30 @@ public class PolicyEvaluatedAuditor {
                 final PolicyEvaluatedEventMapper policyEvaluatedEventMapper =
                         policyEvaluatedEventMapperFactory.create(policyEvaluatedRequestAudit, executedPolicyResponse, null);
 
-                // Populate Common Attributes
-                final OperationalEventOutcome eventOutcome = policyEvaluatedEventMapper.toOperationalEventOutcome();
-                final OperationalError operationalError = OperationalAuditUtil.toChassisOperationalError(
-                        chassisErrorResponse, chassisException);
-                final OperationalEventEnricher.CommonAttributes commonAttributes =
-                        OperationalEventEnricher.CommonAttributes.builder()
-                                .eventType(operationalEventType)
-                                .eventOutcome(eventOutcome)
-                                .errorOptional(Optional.of(operationalError))
-                                .requestContextOptional(Optional.of(operationalRequestContext))
-                                .eventOperationId(operationalRequestContext.getMessageId())
-                                .startTimestamp(startTimestamp)
-                                .endTimestamp(endTimestamp)
-                                .build();
                 final OperationalEventEnricher.CyberAttributes cyberAttributes =
                         awsHostContextCollector.setCyberAttributes(this.getClass().getName(),
                                 RequestContextHolder.getRequestContextOrDefault());
 
                 // Build and Publish the Event with entity-specific and common attributes combined
-                operationalAuditPublisher.publish(enrichmentHelper.enrich(
-                        policyEvaluatedEventMapper.buildWithEntitySpecificAttributes(),
-                        commonAttributes, cyberAttributes));
+                operationalAuditPublisher.submit(() -> {
+                    // Populate Common Attributes
+                    final OperationalEventOutcome eventOutcome = policyEvaluatedEventMapper.toOperationalEventOutcome();
+                    final OperationalError operationalError = OperationalAuditUtil.toChassisOperationalError(
+                            chassisErrorResponse, chassisException);
+                    final OperationalEventEnricher.CommonAttributes commonAttributes =
+                            OperationalEventEnricher.CommonAttributes.builder()
+                                    .eventType(operationalEventType)
+                                    .eventOutcome(eventOutcome)
+                                    .errorOptional(Optional.of(operationalError))
+                                    .requestContextOptional(Optional.of(operationalRequestContext))
+                                    .eventOperationId(operationalRequestContext.getMessageId())
+                                    .startTimestamp(startTimestamp)
+                                    .endTimestamp(endTimestamp)
+                                    .build();
+                    return enrichmentHelper.enrich(
+                            policyEvaluatedEventMapper.buildWithEntitySpecificAttributes(),
+                            commonAttributes, cyberAttributes);
+                });
             } catch (final Exception e) {
                 log.error("Operational audit failure detected.", e);
             }
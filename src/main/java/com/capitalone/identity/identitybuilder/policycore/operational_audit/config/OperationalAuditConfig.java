@@ -16,16 +16,24 @@ import com.capitalone.identity.identitybuilder.policycore.operational_audit.cybe
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.ChassisStatusCodeResolver;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventEnricher;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventMapper;
+import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventMapperRegistry;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.PolicyEvaluatedEventMapper;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.OperationalSystemContext;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.util.OperationalAuditPublisher;
+import com.capitalone.identity.identitybuilder.policycore.operational_audit.util.OperationalAuditQueue;
+import com.capitalone.identity.identitybuilder.policycore.operational_audit.util.OperationalAuditSpillFile;
 import com.capitalone.identity.identitybuilder.policycore.service.constants.ApplicationConstants;
 import com.google.common.base.Strings;
 import lombok.AllArgsConstructor;
+import lombok.extern.log4j.Log4j2;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.aop.framework.autoproxy.AutoProxyUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -36,10 +44,10 @@ import org.springframework.web.client.RestTemplate;
 
 import static com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventMapper.AspectEventFactory;
 
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Internal configuration utilized by operational events only.
@@ -48,6 +56,7 @@ import java.util.stream.Collectors;
 @ConditionalOnProperty("identitybuilder.policycore.operational_audit.enabled")
 @Import({DFSSpringConfig.class, ConverterConfig.class})
 @AllArgsConstructor
+@Log4j2
 class OperationalAuditConfig {
 
     private static final String CLIENT_ID_PROPERTY_NAME = "OPERATIONAL-AUDIT-CLIENT-ID";
@@ -84,17 +93,60 @@ class OperationalAuditConfig {
     private final @Value("${identitybuilder.policycore.operational_audit.preemptive_fallback:false}") Boolean preemptiveLogFallback;
     private final @Value("${identitybuilder.policycore.operational_audit.max_queue_size:100000}") Integer maxMessageQueueSize;
 
+    // Audit Queue Properties (events are built and published by audit workers instead of the request thread when enabled)
+    private final @Value("${identitybuilder.policycore.operational_audit.async.enabled:false}") Boolean asyncEnabled;
+    private final @Value("${identitybuilder.policycore.operational_audit.async.queue_capacity:10000}") Integer asyncQueueCapacity;
+    private final @Value("${identitybuilder.policycore.operational_audit.async.worker_threads:2}") Integer asyncWorkerThreads;
+    private final @Value("${identitybuilder.policycore.operational_audit.async.backpressure_policy:DROP}") OperationalAuditQueue.BackpressurePolicy asyncBackpressurePolicy;
+    private final @Value("${identitybuilder.policycore.operational_audit.async.block_timeout:100}") Long asyncBlockTimeoutMs;
+    private final @Value("${identitybuilder.policycore.operational_audit.async.spill_directory:${java.io.tmpdir}/operational-audit}") String asyncSpillDirectory;
+    private final @Value("${identitybuilder.policycore.operational_audit.async.spill_max_bytes:104857600}") Long asyncSpillMaxBytes;
+
     private final @Value("${policy.service.logs.fieldstofilter:}") String fieldsToFilter;
 
+    /**
+     * Creates the registry of mapper factories shared by the operational audit aspect and dispatcher. Every
+     * notification event factory in the mapper package is created up front.
+     */
+    @Bean
+    OperationalEventMapperRegistry operationalEventMapperRegistry(final List<AspectEventFactory> eventFactoryList) {
+        final OperationalEventMapperRegistry registry = new OperationalEventMapperRegistry(eventFactoryList);
+        registry.registerNotificationEventFactories(OperationalEventMapper.class.getPackage().getName());
+        return registry;
+    }
+
+    /**
+     * Registers the mapper factory of every @OperationalAudit method once all beans are defined, so a factory which
+     * cannot be created fails startup instead of cancelling audits at runtime.
+     */
+    @Bean
+    static SmartInitializingSingleton operationalEventMapperRegistrar(final ConfigurableListableBeanFactory beanFactory,
+                                                                      final ObjectProvider<OperationalEventMapperRegistry> registryProvider) {
+        return () -> {
+            final OperationalEventMapperRegistry registry = registryProvider.getObject();
+            for (final String beanName : beanFactory.getBeanDefinitionNames()) {
+                final Class<?> beanType = AutoProxyUtils.determineTargetClass(beanFactory, beanName);
+                if (beanType == null) {
+                    continue;
+                }
+                try {
+                    registry.registerAuditedMethods(beanType);
+                } catch (final LinkageError e) {
+                    // Methods of beans with optional dependencies missing from the classpath cannot be introspected
+                    log.debug("Skipped operational audit introspection of bean {}", beanName, e);
+                }
+            }
+            log.info("Registered {} operational event mapper factories", registry.size());
+        };
+    }
+
     @Bean
     OperationalAuditAspect operationalAuditAspect(final OperationalEventEnricher operationalEventEnricher,
             final OperationalAuditPublisher operationalAuditPublisher,
-            final List<AspectEventFactory> eventFactoryList,
+            final OperationalEventMapperRegistry operationalEventMapperRegistry,
             final @Qualifier("awsHostContextCollector") AWSHostContextCollector awsHostContextCollector) {
-        final Map<Class<? extends AspectEventFactory>, AspectEventFactory> eventFactoryMap = eventFactoryList.stream()
-                .collect(Collectors.toMap(OperationalEventMapper.AspectEventFactory::getClass, val -> val));
         return new OperationalAuditAspect(operationalEventEnricher, operationalAuditPublisher,
-                eventFactoryMap, awsHostContextCollector);
+                operationalEventMapperRegistry, awsHostContextCollector);
     }
 
     @Bean
@@ -115,13 +167,15 @@ class OperationalAuditConfig {
     OperationalAuditor.OperationalAuditDispatcher toggleableAuditDispatcher(
             final OperationalEventEnricher operationalEventEnricher,
             final OperationalAuditPublisher operationalAuditPublisher,
-            final @Qualifier("awsHostContextCollector") AWSHostContextCollector awsHostContextCollector) {
+            final @Qualifier("awsHostContextCollector") AWSHostContextCollector awsHostContextCollector,
+            final OperationalEventMapperRegistry operationalEventMapperRegistry) {
 
         // Create the audit dispatcher
         return new OperationalAuditor.OperationalAuditDispatcher(
                 operationalEventEnricher,
                 operationalAuditPublisher,
-                awsHostContextCollector);
+                awsHostContextCollector,
+                operationalEventMapperRegistry);
     }
 
     @Bean
@@ -180,7 +234,7 @@ class OperationalAuditConfig {
      *
      * @return the operational audit publisher
      */
-    @Bean
+    @Bean(destroyMethod = "close")
     OperationalAuditPublisher operationalAuditPublisher() {
         // Check for required properties
         final String missingPropertyErrorFormat = "The property, %s, could not be found on startup. This field is "
@@ -232,7 +286,19 @@ class OperationalAuditConfig {
         auditPublisher.newEntry(producerProperties);
 
         // Create the operational events audit publisher
-        return new OperationalAuditPublisher(auditPublisher, producerProperties.getSchemaName());
+        if (!asyncEnabled) {
+            return new OperationalAuditPublisher(auditPublisher, producerProperties.getSchemaName());
+        }
+        final OperationalAuditQueue.Settings queueSettings = OperationalAuditQueue.Settings.builder()
+                .capacity(asyncQueueCapacity)
+                .workerThreads(asyncWorkerThreads)
+                .backpressurePolicy(asyncBackpressurePolicy)
+                .blockTimeout(Duration.ofMillis(asyncBlockTimeoutMs))
+                .spillFile(asyncBackpressurePolicy == OperationalAuditQueue.BackpressurePolicy.SPILL
+                        ? new OperationalAuditSpillFile(Paths.get(asyncSpillDirectory), asyncSpillMaxBytes)
+                        : null)
+                .build();
+        return new OperationalAuditPublisher(auditPublisher, producerProperties.getSchemaName(), queueSettings);
     }
 
     /**
@@ -2,33 +2,34 @@ package com.capitalone.identity.identitybuilder.policycore.operational_audit.cyb
 
 import com.capitalone.chassis.engine.model.context.RequestContext;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventEnricher;
-import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.exchange_schema.OperationalProtocolHeader;
-
-import java.util.List;
-import java.util.Map;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 
 public class AWSHostContextCollector {
-    private final CyberLoggingHostContext cyberContext;
+    // Host attributes do not change for the life of the JVM, so they are resolved once on first use
+    private final Supplier<String> arn;
+    private final Supplier<String> macAddress;
     ThreadLocalContextCollector contextCollector = new ThreadLocalContextCollector();
 
     public AWSHostContextCollector(final CyberLoggingHostContext cyberLoggingContext) {
-        this.cyberContext = cyberLoggingContext;
+        this.arn = Suppliers.memoize(cyberLoggingContext::getArn);
+        this.macAddress = Suppliers.memoize(cyberLoggingContext::getMacAddress);
     }
 
 
     public OperationalEventEnricher.CyberAttributes setCyberAttributes(String methodName, RequestContext currentContext) {
-        Map<String, Object> contextMap = contextCollector.getCurrentThreadContext(methodName, currentContext);
+        final RequestHeaderIndex headers = RequestHeaderIndex.of(currentContext);
         return OperationalEventEnricher.CyberAttributes.builder()
-                .arn(cyberContext.getArn())
-                .macAddress(cyberContext.getMacAddress())
+                .arn(arn.get())
+                .macAddress(macAddress.get())
                 .threadId(String.valueOf(Thread.currentThread().getId()))
-                .clientIpAddress(String.valueOf(contextMap.get("client_ip_address")))
-                .protocolHeaders((List<OperationalProtocolHeader>) contextMap.get("protocol_headers"))
-                .processId((String) contextMap.get("process_id"))
-                .userId((String) contextMap.get("user_id"))
-                .sessionId((String) contextMap.get("session_id"))
-                .messageId((String) contextMap.get("request_id"))
-                .protocolType((String) contextMap.get("protocol_type"))
+                .clientIpAddress(String.valueOf(contextCollector.getClientIpAddress(currentContext, headers)))
+                .protocolHeaders(headers.getProtocolHeaders())
+                .processId(contextCollector.getProcessId(headers, methodName))
+                .userId(contextCollector.getUserId(currentContext))
+                .sessionId(contextCollector.getSessionId(currentContext, headers))
+                .messageId(contextCollector.getMessageId(currentContext))
+                .protocolType(contextCollector.getProtocolType(headers))
                 .build();
 
     }
@@ -0,0 +1,88 @@
+package com.capitalone.identity.identitybuilder.policycore.operational_audit.cyber;
+
+import com.capitalone.chassis.engine.model.context.RequestContext;
+import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.exchange_schema.OperationalProtocolHeader;
+import com.capitalone.identity.identitybuilder.policycore.operational_audit.util.OperationalAuditUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.util.CollectionUtils;
+
+import java.util.*;
+
+/**
+ * Case-insensitive, immutable view of the request headers of a chassis request context, along with the protocol
+ * headers audited for them. The view is built once per request and shared by every audit of that request, instead of
+ * scanning the headers on each lookup. It is only reachable through the request context it was built for, and is
+ * dropped once that context is garbage collected.
+ */
+final class RequestHeaderIndex {
+
+    private static final RequestHeaderIndex EMPTY = new RequestHeaderIndex(Collections.emptyMap());
+
+    // Index of each live request context, compared by identity and never outliving the context
+    private static final Cache<RequestContext, RequestHeaderIndex> BY_CONTEXT = Caffeine.newBuilder().weakKeys().build();
+
+    private final Map<String, List<String>> source;
+    private final int sourceSize;
+    private final Map<String, List<String>> headers;
+    private final List<OperationalProtocolHeader> protocolHeaders;
+
+    private RequestHeaderIndex(final Map<String, List<String>> source) {
+        this.source = source;
+        this.sourceSize = source.size();
+        final Map<String, List<String>> index = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        final List<OperationalProtocolHeader> audited = new ArrayList<>();
+        // note on getAllRequestHeaders: only included if chassis.request.copy.headers property is set to true.
+        for (final Map.Entry<String, List<String>> header : source.entrySet()) {
+            if (header.getKey() == null || CollectionUtils.isEmpty(header.getValue())) {
+                continue;
+            }
+            index.computeIfAbsent(header.getKey(), k -> new ArrayList<>()).addAll(header.getValue());
+            for (final String value : header.getValue()) {
+                audited.add(new OperationalProtocolHeader(header.getKey(),
+                        OperationalAuditUtil.headerValueStopGap(value)));
+            }
+        }
+        index.replaceAll((name, values) -> Collections.unmodifiableList(values));
+        this.headers = Collections.unmodifiableMap(index);
+        this.protocolHeaders = Collections.unmodifiableList(audited);
+    }
+
+    /**
+     * @return the index of the request headers of the context, reused while the context holds the same headers
+     */
+    static RequestHeaderIndex of(final RequestContext context) {
+        final Map<String, List<String>> source = context.getAllRequestHeaders();
+        if (source == null || source.isEmpty()) {
+            return EMPTY;
+        }
+        RequestHeaderIndex index = BY_CONTEXT.getIfPresent(context);
+        if (index == null || index.source != source || index.sourceSize != source.size()) {
+            index = new RequestHeaderIndex(source);
+            BY_CONTEXT.put(context, index);
+        }
+        return index;
+    }
+
+    /**
+     * @return every value of the header, in request order, or an empty list
+     */
+    List<String> getAll(final String name) {
+        return headers.getOrDefault(name, Collections.emptyList());
+    }
+
+    /**
+     * @return the first value of the header
+     */
+    Optional<String> getFirst(final String name) {
+        final List<String> values = getAll(name);
+        return values.isEmpty() ? Optional.empty() : Optional.ofNullable(values.get(0));
+    }
+
+    /**
+     * @return the audited protocol headers, one per header value
+     */
+    List<OperationalProtocolHeader> getProtocolHeaders() {
+        return protocolHeaders;
+    }
+}
@@ -2,73 +2,52 @@ package com.capitalone.identity.identitybuilder.policycore.operational_audit.cyb
 
 
 import com.capitalone.chassis.engine.model.context.RequestContext;
-import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.exchange_schema.OperationalProtocolHeader;
-import com.capitalone.identity.identitybuilder.policycore.operational_audit.util.OperationalAuditUtil;
 import com.capitalone.identity.identitybuilder.policycore.service.constants.ApplicationConstants;
-import org.apache.commons.lang3.StringUtils;
-import org.springframework.util.CollectionUtils;
 
 import java.time.Instant;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.HashMap;
+import java.util.Map;
 
 import static com.capitalone.chassis.engine.model.constants.Constants.UNDEFINED;
 
 public class ThreadLocalContextCollector {
 
     public Map<String, Object> getCurrentThreadContext(String methodName, RequestContext currentContext) {
+        RequestHeaderIndex headers = RequestHeaderIndex.of(currentContext);
         HashMap<String, Object> contextMap = new HashMap<>();
-        contextMap.put("protocol_headers", getProtocolHeaders(currentContext));
-        contextMap.put("process_id", getProcessId(currentContext, methodName));
-        contextMap.put("client_ip_address", getClientIpAddress(currentContext));
+        contextMap.put("protocol_headers", headers.getProtocolHeaders());
+        contextMap.put("process_id", getProcessId(headers, methodName));
+        contextMap.put("client_ip_address", getClientIpAddress(currentContext, headers));
         contextMap.put("user_id", getUserId(currentContext));
-        contextMap.put("session_id", getSessionId(currentContext));
+        contextMap.put("session_id", getSessionId(currentContext, headers));
         contextMap.put("request_id", getMessageId(currentContext));
-        contextMap.put("protocol_type", getProtocolType(currentContext));
+        contextMap.put("protocol_type", getProtocolType(headers));
         return contextMap;
     }
 
-
-    private List<OperationalProtocolHeader> getProtocolHeaders(RequestContext context) {
-        List<OperationalProtocolHeader> headers = new ArrayList<>();
-
-        // note on getAllRequestHeaders: only included if chassis.request.copy.headers property is set to true.
-        for (Map.Entry<String, List<String>> header : context.getAllRequestHeaders().entrySet()) {
-            if (!CollectionUtils.isEmpty(header.getValue())) {
-                for (String value : header.getValue()) {
-                    OperationalProtocolHeader protocolHeader = new OperationalProtocolHeader(header.getKey(),
-                            OperationalAuditUtil.headerValueStopGap(value));
-                    headers.add(protocolHeader);
-                }
-            }
-        }
-
-        return headers;
-    }
-
-    private String getUserId(RequestContext context) {
+    String getUserId(RequestContext context) {
         return context.getUserId();
     }
 
-    private String getClientIpAddress(RequestContext context) {
-        return getHeaderCaseInsensitive(context, "X-Forwarded-For").orElse(context.getClientIP());
+    String getClientIpAddress(RequestContext context, RequestHeaderIndex headers) {
+        return headers.getFirst("X-Forwarded-For").orElse(context.getClientIP());
     }
 
-    private String getProtocolType(RequestContext context) {
+    String getProtocolType(RequestHeaderIndex headers) {
         // FROM CHASSIS' CyberLoggingMapEventStreamDataBuilder
         // The X-Forwarded-Proto (XFP) header is a de-facto standard header for identifying the protocol (HTTP or HTTPS) that a client used to connect to your proxy or load balancer.
         // See also: https://docs.aws.amazon.com/elasticloadbalancing/latest/classic/x-forwarded-headers.html
-        List<String> headers = getHeadersCaseInsensitive(context, "X-Forwarded-Proto");
-        if (headers.isEmpty()) {
-            return "";
-        }
-        return headers.get(0);
+        return headers.getFirst("X-Forwarded-Proto").orElse("");
     }
 
     //Used for messageId in Chassis?
     @SuppressWarnings({"squid:S1172", "WeakerAccess", "unused"})
     protected String getCorrelationId(RequestContext context) {
-        return UNDEFINED.equals(context.getCorrelationId()) ? getHeaderCaseInsensitive(context,
+        return getCorrelationId(context, RequestHeaderIndex.of(context));
+    }
+
+    private String getCorrelationId(RequestContext context, RequestHeaderIndex headers) {
+        return UNDEFINED.equals(context.getCorrelationId()) ? headers.getFirst(
                 ApplicationConstants.CLIENT_CORRELATION_ID).orElse(UNDEFINED) : context.getCorrelationId();
     }
 
@@ -78,27 +57,19 @@ public class ThreadLocalContextCollector {
         return context.getMessageId();
     }
 
-    private String getProcessId(RequestContext context, String methodCall) {
-        return getHeaderCaseInsensitive(context, "x-process-id").orElse(methodCall);
+    String getProcessId(RequestHeaderIndex headers, String methodCall) {
+        return headers.getFirst("x-process-id").orElse(methodCall);
     }
 
     protected String getSessionId(RequestContext context) {
+        return getSessionId(context, RequestHeaderIndex.of(context));
+    }
+
+    String getSessionId(RequestContext context, RequestHeaderIndex headers) {
         return String.format("%s~%s~%s~%s",
-                getCorrelationId(context),
+                getCorrelationId(context, headers),
                 getMessageId(context),
                 Thread.currentThread().getId(), Instant.now().toEpochMilli());
     }
 
-
-    private List<String> getHeadersCaseInsensitive(RequestContext context, String key) {
-        return context.getAllRequestHeaders().entrySet().stream()
-                .filter(kvp -> StringUtils.equalsIgnoreCase(kvp.getKey(), key))
-                .flatMap(kvp -> kvp.getValue().stream())
-                .collect(Collectors.toList());
-    }
-
-    private Optional<String> getHeaderCaseInsensitive(RequestContext context, String key) {
-        return getHeadersCaseInsensitive(context, key).stream().findFirst();
-    }
-
 }
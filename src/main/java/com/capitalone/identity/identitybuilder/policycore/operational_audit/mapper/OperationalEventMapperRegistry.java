@@ -0,0 +1,126 @@
+package com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper;
+
+import com.capitalone.identity.identitybuilder.policycore.operational_audit.OperationalAudit;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventMapper.AspectEventFactory;
+import static com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventMapper.NotificationEventFactory;
+
+/**
+ * Registry of the operational event mapper factories referenced by @OperationalAudit annotations and operational
+ * auditor calls, keyed by factory type. Each factory is created once, either when registered on startup or on its
+ * first lookup, so audits never instantiate factories reflectively on the request path. Registering a factory which
+ * cannot be instantiated fails immediately, whereas lookups of unregistered factories fall back to lazy registration.
+ */
+@Log4j2
+public class OperationalEventMapperRegistry {
+
+    private final Map<Class<? extends AspectEventFactory>, AspectEventFactory> aspectEventFactories =
+            new ConcurrentHashMap<>();
+    private final Map<Class<? extends NotificationEventFactory>, NotificationEventFactory> notificationEventFactories =
+            new ConcurrentHashMap<>();
+
+    /**
+     * @param aspectEventFactoryBeans aspect event factories managed by spring, used in place of new instances
+     */
+    public OperationalEventMapperRegistry(final @NonNull Collection<? extends AspectEventFactory> aspectEventFactoryBeans) {
+        aspectEventFactoryBeans.forEach(factory -> aspectEventFactories.put(factory.getClass(), factory));
+    }
+
+    /**
+     * Registers the mapper factories of every @OperationalAudit method declared by the type or its superclasses
+     *
+     * @throws IllegalStateException if a referenced factory cannot be instantiated
+     */
+    public void registerAuditedMethods(final @NonNull Class<?> type) {
+        ReflectionUtils.doWithMethods(ClassUtils.getUserClass(type), method -> {
+            final OperationalAudit audit = method.getAnnotation(OperationalAudit.class);
+            if (audit != null) {
+                registerAspectEventFactory(audit.mapperFactory());
+            }
+        });
+    }
+
+    /**
+     * Registers every public, concrete notification event factory found in the package or its subpackages
+     *
+     * @throws IllegalStateException if a factory cannot be loaded or instantiated
+     */
+    public void registerNotificationEventFactories(final @NonNull String basePackage) {
+        final ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AssignableTypeFilter(NotificationEventFactory.class));
+        for (final BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+            final Class<?> type;
+            try {
+                type = ClassUtils.forName(candidate.getBeanClassName(), getClass().getClassLoader());
+            } catch (final ClassNotFoundException | LinkageError e) {
+                throw new IllegalStateException("Could not load mapper factory " + candidate.getBeanClassName(), e);
+            }
+            if (Modifier.isPublic(type.getModifiers())) {
+                registerNotificationEventFactory(type.asSubclass(NotificationEventFactory.class));
+            }
+        }
+    }
+
+    /**
+     * @throws IllegalStateException if the factory cannot be instantiated
+     */
+    public void registerAspectEventFactory(final @NonNull Class<? extends AspectEventFactory> factoryType) {
+        aspectEventFactories.computeIfAbsent(factoryType, OperationalEventMapperRegistry::instantiate);
+    }
+
+    /**
+     * @throws IllegalStateException if the factory cannot be instantiated
+     */
+    public void registerNotificationEventFactory(final @NonNull Class<? extends NotificationEventFactory> factoryType) {
+        notificationEventFactories.computeIfAbsent(factoryType, OperationalEventMapperRegistry::instantiate);
+    }
+
+    /**
+     * @return the registered factory, registered now if this is its first lookup
+     * @throws IllegalStateException if the factory is not registered and cannot be instantiated
+     */
+    public @NonNull AspectEventFactory getAspectEventFactory(final @NonNull Class<? extends AspectEventFactory> factoryType) {
+        final AspectEventFactory factory = aspectEventFactories.get(factoryType);
+        return factory != null ? factory : aspectEventFactories.computeIfAbsent(factoryType, this::instantiateOnLookup);
+    }
+
+    /**
+     * @return the registered factory, registered now if this is its first lookup
+     * @throws IllegalStateException if the factory is not registered and cannot be instantiated
+     */
+    public @NonNull NotificationEventFactory getNotificationEventFactory(
+            final @NonNull Class<? extends NotificationEventFactory> factoryType) {
+        final NotificationEventFactory factory = notificationEventFactories.get(factoryType);
+        return factory != null ? factory : notificationEventFactories.computeIfAbsent(factoryType, this::instantiateOnLookup);
+    }
+
+    public int size() {
+        return aspectEventFactories.size() + notificationEventFactories.size();
+    }
+
+    private <T> T instantiateOnLookup(final Class<? extends T> factoryType) {
+        log.warn("Mapper factory {} was not registered on startup and is registered on first use.", factoryType);
+        return instantiate(factoryType);
+    }
+
+    private static <T> T instantiate(final Class<? extends T> factoryType) {
+        try {
+            return factoryType.getDeclaredConstructor().newInstance();
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalStateException(String.format("Could not instantiate mapper factory of type %s. Mapper "
+                    + "factories must be spring beans or have an accessible no-argument constructor.", factoryType), e);
+        }
+    }
+}
@@ -3,27 +3,90 @@ package com.capitalone.identity.identitybuilder.policycore.operational_audit.uti
 import com.capitalone.identity.identitybuilder.audit.models.AuditEvent;
 import com.capitalone.identity.identitybuilder.audit.sdpv4.AuditPublisher;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.OperationalEvent;
-import lombok.AllArgsConstructor;
 import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.lang.Nullable;
+
+import java.util.function.Supplier;
 
 /**
  * Audit publisher for operational events
  */
-@AllArgsConstructor
+@Log4j2
 public class OperationalAuditPublisher {
 
     private final @NonNull AuditPublisher auditPublisher;
     private final @NonNull String schemaName;
+    private final @Nullable OperationalAuditQueue auditQueue;
+
+    /**
+     * Creates a publisher which builds and publishes submitted events on the submitting thread
+     */
+    public OperationalAuditPublisher(final @NonNull AuditPublisher auditPublisher, final @NonNull String schemaName) {
+        this.auditPublisher = auditPublisher;
+        this.schemaName = schemaName;
+        this.auditQueue = null;
+    }
+
+    /**
+     * Creates a publisher which builds and publishes submitted events on the workers of an {@link OperationalAuditQueue}
+     */
+    public OperationalAuditPublisher(final @NonNull AuditPublisher auditPublisher, final @NonNull String schemaName,
+                                     final @NonNull OperationalAuditQueue.Settings queueSettings) {
+        this.auditPublisher = auditPublisher;
+        this.schemaName = schemaName;
+        this.auditQueue = new OperationalAuditQueue(queueSettings, this::publish, this::publishMessage);
+    }
 
     /**
      * Publishes an operational audit event to onestream
      * @param operationalAuditEvent the operational audit event
      */
     public void publish(final OperationalEvent operationalAuditEvent) {
+        publishMessage(operationalAuditEvent);
+    }
+
+    /**
+     * Builds and publishes an operational audit event, on an audit worker if the audit queue is enabled. The supplier
+     * may run after the audited call has returned, so request-scoped values it needs must be captured beforehand; the
+     * chassis request context is restored while it runs. Never throws.
+     * @param operationalAuditEventSupplier builds the event, or returns <code>null</code> to cancel the audit
+     */
+    public void submit(final @NonNull Supplier<OperationalEvent> operationalAuditEventSupplier) {
+        if (auditQueue != null) {
+            auditQueue.submit(operationalAuditEventSupplier);
+            return;
+        }
+        try {
+            final OperationalEvent operationalAuditEvent = operationalAuditEventSupplier.get();
+            if (operationalAuditEvent != null) {
+                publish(operationalAuditEvent);
+            }
+        } catch (final RuntimeException e) {
+            log.error("Caught exception during operational audit. ", e);
+        }
+    }
+
+    /**
+     * @return the audit queue, or <code>null</code> if events are published on the submitting thread
+     */
+    public @Nullable OperationalAuditQueue getAuditQueue() {
+        return auditQueue;
+    }
+
+    /**
+     * Publishes the queued events and stops the audit workers
+     */
+    public void close() {
+        if (auditQueue != null) {
+            auditQueue.close();
+        }
+    }
 
+    private void publishMessage(final Object message) {
         // Build the event envelope
         final AuditEvent event = AuditEvent.builder()
-                .message(operationalAuditEvent)
+                .message(message)
                 .schemaName(schemaName)
                 .build();
         // Publish
@@ -0,0 +1,262 @@
+package com.capitalone.identity.identitybuilder.policycore.operational_audit.util;
+
+import com.capitalone.chassis.engine.model.context.RequestContext;
+import com.capitalone.chassis.engine.model.context.RequestContextHolder;
+import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.OperationalEvent;
+import com.newrelic.api.agent.NewRelic;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.log4j.Log4j2;
+import org.apache.logging.log4j.ThreadContext;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-process queue which builds and publishes operational events on dedicated worker threads.
+ * <p>
+ * Audit tasks are submitted from the request thread with their request-scoped state already captured; the chassis
+ * request context and the log4j thread context of the submitting thread are restored on the worker while the event
+ * is built. When the queue is full the {@link BackpressurePolicy} decides whether the event is dropped, whether the
+ * submitting thread waits for room, or whether the event is built on the submitting thread and spilled to disk, to be
+ * published by the workers once the queue has drained.
+ */
+@Log4j2
+public class OperationalAuditQueue {
+
+    static final String METRIC_PREFIX = "Custom/OperationalAudit/Queue/";
+
+    private static final long IDLE_POLL_MS = 500;
+
+    public enum BackpressurePolicy {
+        /**
+         * Discard the event
+         */
+        DROP,
+        /**
+         * Wait up to the block timeout for room in the queue, then discard the event
+         */
+        BLOCK,
+        /**
+         * Build the event on the submitting thread and append it to the spill file. The file write happens
+         * synchronously on the submitting thread, so under sustained overload request latency includes a disk
+         * append per audited event.
+         */
+        SPILL
+    }
+
+    @Value
+    @Builder
+    public static class Settings {
+        @Builder.Default int capacity = 10_000;
+        @Builder.Default int workerThreads = 2;
+        @Builder.Default @NonNull BackpressurePolicy backpressurePolicy = BackpressurePolicy.DROP;
+        @Builder.Default @NonNull Duration blockTimeout = Duration.ofMillis(100);
+        @Builder.Default @NonNull Duration shutdownTimeout = Duration.ofSeconds(5);
+        @Nullable OperationalAuditSpillFile spillFile;
+    }
+
+    private final Settings settings;
+    private final BlockingQueue<Task> queue;
+    private final Consumer<OperationalEvent> publisher;
+    private final Consumer<Map<String, Object>> spilledEventPublisher;
+    private final List<Thread> workers = new ArrayList<>();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong spilledCount = new AtomicLong();
+    private volatile boolean running = true;
+
+    /**
+     * @param settings              queue settings; a spill file is required by {@link BackpressurePolicy#SPILL}
+     * @param publisher             publishes an event built by a worker
+     * @param spilledEventPublisher publishes an event read back from the spill file
+     */
+    public OperationalAuditQueue(final @NonNull Settings settings,
+                                 final @NonNull Consumer<OperationalEvent> publisher,
+                                 final @NonNull Consumer<Map<String, Object>> spilledEventPublisher) {
+        if (settings.getBackpressurePolicy() == BackpressurePolicy.SPILL && settings.getSpillFile() == null) {
+            throw new IllegalArgumentException("A spill file is required by the SPILL backpressure policy");
+        }
+        this.settings = settings;
+        this.queue = new ArrayBlockingQueue<>(settings.getCapacity());
+        this.publisher = publisher;
+        this.spilledEventPublisher = spilledEventPublisher;
+        for (int i = 0; i < settings.getWorkerThreads(); i++) {
+            final Thread worker = new Thread(this::work, "operational-audit-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Queues an event for publication. Never throws; failures to build or publish the event are logged by the
+     * worker.
+     *
+     * @param eventSupplier builds the event, or returns <code>null</code> to cancel the audit
+     */
+    public void submit(final @NonNull Supplier<OperationalEvent> eventSupplier) {
+        final Task task = new Task(eventSupplier, RequestContextHolder.getRequestContextOrDefault(),
+                ThreadContext.getImmutableContext());
+        if (running && queue.offer(task)) {
+            return;
+        }
+        switch (settings.getBackpressurePolicy()) {
+            case BLOCK:
+                if (running && offer(task)) {
+                    return;
+                }
+                drop();
+                break;
+            case SPILL:
+                spill(task);
+                break;
+            default:
+                drop();
+        }
+    }
+
+    private boolean offer(final Task task) {
+        try {
+            return queue.offer(task, settings.getBlockTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void drop() {
+        final long dropped = droppedCount.incrementAndGet();
+        NewRelic.incrementCounter(METRIC_PREFIX + "Dropped");
+        // Log the first drop and then every thousandth to avoid flooding the logs under sustained overload
+        if (dropped % 1000 == 1) {
+            log.warn("Operational audit queue is full, {} events dropped so far", dropped);
+        }
+    }
+
+    private void spill(final Task task) {
+        final OperationalEvent event = task.build();
+        if (event == null) {
+            return;
+        }
+        if (settings.getSpillFile().append(event)) {
+            spilledCount.incrementAndGet();
+            NewRelic.incrementCounter(METRIC_PREFIX + "Spilled");
+        } else {
+            drop();
+        }
+    }
+
+    private void work() {
+        while (running || !queue.isEmpty()) {
+            final Task task;
+            try {
+                task = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+            } catch (final InterruptedException e) {
+                if (!running) {
+                    break;
+                }
+                continue;
+            }
+            if (task != null) {
+                task.run(publisher);
+            } else if (settings.getSpillFile() != null) {
+                drainSpillFile();
+            }
+        }
+    }
+
+    private void drainSpillFile() {
+        try {
+            settings.getSpillFile().drain(spilledEventPublisher);
+        } catch (final RuntimeException e) {
+            log.error("Caught exception while publishing spilled operational audits.", e);
+        }
+    }
+
+    /**
+     * Stops accepting events and waits up to the shutdown timeout for the queued events to be published
+     */
+    public void close() {
+        running = false;
+        final long deadline = System.nanoTime() + settings.getShutdownTimeout().toNanos();
+        for (final Thread worker : workers) {
+            try {
+                worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        workers.forEach(Thread::interrupt);
+        if (!queue.isEmpty()) {
+            log.warn("Operational audit queue closed with {} events unpublished", queue.size());
+        }
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getSpilledCount() {
+        return spilledCount.get();
+    }
+
+    private static final class Task {
+        private final Supplier<OperationalEvent> eventSupplier;
+        private final RequestContext requestContext;
+        private final Map<String, String> threadContext;
+
+        private Task(final Supplier<OperationalEvent> eventSupplier, final RequestContext requestContext,
+                     final Map<String, String> threadContext) {
+            this.eventSupplier = eventSupplier;
+            this.requestContext = requestContext;
+            this.threadContext = threadContext;
+        }
+
+        /**
+         * Builds the event with the context of the submitting thread restored
+         */
+        private OperationalEvent build() {
+            final RequestContext currentContext = RequestContextHolder.getRequestContextOrDefault();
+            final Map<String, String> currentThreadContext = ThreadContext.getImmutableContext();
+            RequestContextHolder.put(requestContext);
+            ThreadContext.putAll(threadContext);
+            try {
+                return eventSupplier.get();
+            } catch (final RuntimeException e) {
+                log.error("Caught exception during operational audit. ", e);
+                return null;
+            } finally {
+                ThreadContext.clearMap();
+                ThreadContext.putAll(currentThreadContext);
+                RequestContextHolder.put(currentContext);
+            }
+        }
+
+        private void run(final Consumer<OperationalEvent> publisher) {
+            final OperationalEvent event = build();
+            if (event == null) {
+                return;
+            }
+            try {
+                publisher.accept(event);
+            } catch (final RuntimeException e) {
+                log.error("Caught exception during operational audit. ", e);
+            }
+        }
+    }
+}
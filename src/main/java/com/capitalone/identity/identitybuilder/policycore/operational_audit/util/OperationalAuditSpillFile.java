@@ -0,0 +1,178 @@
+package com.capitalone.identity.identitybuilder.policycore.operational_audit.util;
+
+import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.OperationalEvent;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Append-only file of operational events that did not fit in the {@link OperationalAuditQueue}, one JSON event per
+ * line. Spilled events are read back as JSON objects, which serialize to the same message as the original event.
+ * <p>
+ * While a file is drained the number of lines already handed to the publisher is recorded in a progress file, so a
+ * drain interrupted by a crash resumes after the last published event instead of publishing the file again.
+ */
+@Log4j2
+public class OperationalAuditSpillFile {
+
+    private static final ObjectWriter EVENT_WRITER = new ObjectMapper().writer();
+    private static final ObjectReader EVENT_READER = new ObjectMapper().readerFor(new TypeReference<Map<String, Object>>() {});
+
+    private final Path file;
+    private final Path drainingFile;
+    private final Path progressFile;
+    private final long maxBytes;
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    /**
+     * @param directory directory of the spill file, created if missing
+     * @param maxBytes  size past which further events are rejected until the file has been drained
+     */
+    public OperationalAuditSpillFile(final @NonNull Path directory, final long maxBytes) {
+        try {
+            Files.createDirectories(directory);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Could not create operational audit spill directory " + directory, e);
+        }
+        this.file = directory.resolve("operational-audit.spill");
+        this.drainingFile = directory.resolve("operational-audit.spill.draining");
+        this.progressFile = directory.resolve("operational-audit.spill.draining.progress");
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return false if the event could not be written or the file is full
+     */
+    public synchronized boolean append(final @NonNull OperationalEvent event) {
+        try {
+            if (Files.exists(file) && Files.size(file) >= maxBytes) {
+                return false;
+            }
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write(EVENT_WRITER.writeValueAsString(event));
+                writer.write('\n');
+            }
+            return true;
+        } catch (final IOException e) {
+            log.error("Could not spill operational audit event.", e);
+            return false;
+        }
+    }
+
+    /**
+     * Hands every spilled event to the publisher and removes them from disk. Events spilled meanwhile are kept for
+     * the next drain. A leftover file from an interrupted drain, including one from a previous run, is drained first,
+     * starting after its last published event. An event the publisher fails on is logged and skipped, as events
+     * built by the queue workers are. Only one caller drains at a time; concurrent callers return immediately.
+     */
+    public void drain(final @NonNull Consumer<Map<String, Object>> publisher) {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            drainFile(publisher);
+        } finally {
+            draining.set(false);
+        }
+    }
+
+    private void drainFile(final Consumer<Map<String, Object>> publisher) {
+        synchronized (this) {
+            try {
+                if (!Files.exists(drainingFile)) {
+                    if (!Files.exists(file)) {
+                        return;
+                    }
+                    // progress of a previous draining file does not apply to the new one
+                    Files.deleteIfExists(progressFile);
+                    Files.move(file, drainingFile, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } catch (final IOException e) {
+                log.error("Could not read spilled operational audit events.", e);
+                return;
+            }
+        }
+        try (BufferedReader reader = Files.newBufferedReader(drainingFile, StandardCharsets.UTF_8);
+             FileChannel progress = FileChannel.open(progressFile, StandardOpenOption.CREATE,
+                     StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final long published = readProgress(progress);
+            long lineCount = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (++lineCount <= published) {
+                    continue;
+                }
+                if (!line.isEmpty()) {
+                    publishLine(line, publisher);
+                }
+                writeProgress(progress, lineCount);
+            }
+        } catch (final IOException e) {
+            log.error("Could not read spilled operational audit events.", e);
+            return;
+        }
+        try {
+            Files.deleteIfExists(drainingFile);
+            Files.deleteIfExists(progressFile);
+        } catch (final IOException e) {
+            log.error("Could not delete drained operational audit spill file.", e);
+        }
+    }
+
+    private static long readProgress(final FileChannel progress) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        while (buffer.hasRemaining() && progress.read(buffer, buffer.position()) > 0) {
+            // read until the count is complete or the file ends
+        }
+        return buffer.hasRemaining() ? 0 : buffer.getLong(0);
+    }
+
+    private static void writeProgress(final FileChannel progress, final long lineCount) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(0, lineCount);
+        while (buffer.hasRemaining()) {
+            progress.write(buffer, buffer.position());
+        }
+    }
+
+    private static void publishLine(final String line, final Consumer<Map<String, Object>> publisher) {
+        final Map<String, Object> event;
+        try {
+            event = EVENT_READER.readValue(line);
+        } catch (final IOException e) {
+            log.error("Discarding unreadable spilled operational audit event.", e);
+            return;
+        }
+        try {
+            publisher.accept(event);
+        } catch (final RuntimeException e) {
+            log.error("Caught exception while publishing spilled operational audit event.", e);
+        }
+    }
+
+    public synchronized long sizeInBytes() {
+        try {
+            return Files.exists(file) ? Files.size(file) : 0;
+        } catch (final IOException e) {
+            return 0;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.capitalone.identity.identitybuilder.policycore.rest.config;
 
 import com.capitalone.identity.identitybuilder.policycore.rest.config.filewatcher.FileWatcherReloadStrategy;
 import com.capitalone.identity.identitybuilder.policycore.schema.SchemaManager;
+import com.capitalone.identity.identitybuilder.policycore.service.PolicyExecutionPlanRegistry;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.camel.CamelContext;
 import org.apache.camel.component.jackson.JacksonDataFormat;
@@ -45,12 +46,16 @@ public class SpringConfig {
 
 	private final SchemaManager schemaManager;
 
+	private final PolicyExecutionPlanRegistry policyExecutionPlanRegistry;
+
 	/**
 	 * Implicit injection via constructor
 	 * @param schemaManager used to invalidate schema cache on FileWatcher change
+	 * @param policyExecutionPlanRegistry used to invalidate policy execution plans on FileWatcher change
 	 */
-	public SpringConfig(SchemaManager schemaManager) {
+	public SpringConfig(SchemaManager schemaManager, @Lazy PolicyExecutionPlanRegistry policyExecutionPlanRegistry) {
 		this.schemaManager = schemaManager;
+		this.policyExecutionPlanRegistry = policyExecutionPlanRegistry;
 	}
 
 	/**
@@ -87,6 +92,7 @@ public class SpringConfig {
 							public void onReloadXml(CamelContext camelContext, String name, InputStream resource) {
 								super.onReloadXml(camelContext, name, resource);
 								schemaManager.purgeCache();
+								policyExecutionPlanRegistry.clear();
 							}
 						}
 						FileWatcherReloadStrategy strategy = new CustomFileWatcherReloadStrategy(path, true);
@@ -0,0 +1,217 @@
+package com.capitalone.identity.identitybuilder.policycore.service;
+
+import com.capitalone.identity.identitybuilder.model.PolicyInfo;
+import com.capitalone.identity.identitybuilder.policycore.abac.model.PolicyAuthResource;
+import com.capitalone.identity.identitybuilder.policycore.schema.SchemaManager;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.base.Suppliers;
+import com.networknt.schema.ValidationMessage;
+import lombok.NonNull;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Endpoint;
+import org.apache.camel.Exchange;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.model.RouteDefinition;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Holds one immutable {@link PolicyExecutionPlan} per policy step route so that the policy execution hot path does
+ * not have to rebuild route names, re-resolve endpoints or open producer templates for every request.
+ * <p>
+ * Plans are built eagerly by the dynamic policy loader when routes are added and removed again when the
+ * corresponding routes are deleted. Routes that were loaded by other means (e.g. static route resources) are
+ * resolved lazily on first use.
+ */
+@Component
+public class PolicyExecutionPlanRegistry {
+
+    static final String POLICY_SCHEME = "policy:";
+
+    private static final Logger logger = LogManager.getLogger(PolicyExecutionPlanRegistry.class.getName());
+
+    private final CamelContext camelContext;
+    private final SchemaManager schemaManager;
+    private final Map<String, PolicyExecutionPlan> plans = new ConcurrentHashMap<>();
+
+    private volatile ProducerTemplate producerTemplate;
+
+    public PolicyExecutionPlanRegistry(CamelContext camelContext, SchemaManager schemaManager) {
+        this.camelContext = Objects.requireNonNull(camelContext);
+        this.schemaManager = Objects.requireNonNull(schemaManager);
+    }
+
+    /**
+     * Returns the execution plan for a policy step, building it if this is the first request for the route.
+     *
+     * @param policyInfo the resolved policy version
+     * @param stepName   the step to execute, or <code>null</code> for the initial step
+     * @return the execution plan, or <code>null</code> if no policy route exists for the step
+     */
+    @Nullable
+    public PolicyExecutionPlan getPlan(PolicyInfo.Patch policyInfo, @Nullable String stepName) {
+        String policyRouteName = PolicyService.getPolicyRouteName(policyInfo, stepName);
+        PolicyExecutionPlan plan = plans.get(policyRouteName);
+        if (plan == null) {
+            Endpoint endpoint = camelContext.hasEndpoint(POLICY_SCHEME + policyRouteName);
+            if (endpoint == null) {
+                return null;
+            }
+            plan = plans.computeIfAbsent(policyRouteName, name -> createPlan(name, endpoint,
+                    new PolicyAuthResource(policyInfo.getPolicyShortName(), policyInfo.getPolicyVersion())));
+        }
+        return plan;
+    }
+
+    /**
+     * Builds plans for the policy step routes contained in the supplied route definitions. Failures are logged and
+     * left for the lazy lookup in {@link #getPlan(PolicyInfo.Patch, String)} to report at request time.
+     *
+     * @param policyInfo the policy version owning the routes
+     * @param routes     newly added route definitions
+     */
+    public void register(PolicyInfo.Patch policyInfo, Collection<RouteDefinition> routes) {
+        for (String policyRouteName : getPolicyRouteNames(routes)) {
+            try {
+                Endpoint endpoint = camelContext.hasEndpoint(POLICY_SCHEME + policyRouteName);
+                if (endpoint != null) {
+                    plans.put(policyRouteName, createPlan(policyRouteName, endpoint,
+                            new PolicyAuthResource(policyInfo.getPolicyShortName(), policyInfo.getPolicyVersion())));
+                }
+            } catch (RuntimeException e) {
+                logger.warn(String.format("Unable to prebuild execution plan [route=%s]", policyRouteName), e);
+            }
+        }
+    }
+
+    /**
+     * Drops plans for the policy step routes contained in the supplied route definitions.
+     *
+     * @param routes route definitions that are about to be, or have been, removed
+     */
+    public void evict(Collection<RouteDefinition> routes) {
+        getPolicyRouteNames(routes).forEach(plans::remove);
+    }
+
+    /**
+     * Drops all plans; used by CustomFileWatcherReloadStrategy
+     */
+    public void clear() {
+        plans.clear();
+    }
+
+    @PreDestroy
+    public synchronized void close() throws Exception {
+        if (producerTemplate != null) {
+            producerTemplate.close();
+            producerTemplate = null;
+        }
+    }
+
+    private PolicyExecutionPlan createPlan(String policyRouteName, Endpoint endpoint, PolicyAuthResource authResource) {
+        return new PolicyExecutionPlan(policyRouteName, endpoint, getProducerTemplate(), authResource,
+                Suppliers.memoize(() -> schemaManager.getEntry(policyRouteName)));
+    }
+
+    private ProducerTemplate getProducerTemplate() {
+        ProducerTemplate template = producerTemplate;
+        if (template == null) {
+            synchronized (this) {
+                template = producerTemplate;
+                if (template == null) {
+                    template = camelContext.createProducerTemplate();
+                    producerTemplate = template;
+                }
+            }
+        }
+        return template;
+    }
+
+    /**
+     * @param routes route definitions of a policy
+     * @return the names (no component prefix) of the policy step routes among the definitions
+     */
+    public static Set<String> getPolicyRouteNames(Collection<RouteDefinition> routes) {
+        Set<String> names = new HashSet<>();
+        for (RouteDefinition route : routes) {
+            String uri = route.getInput() != null ? route.getInput().getEndpointUri() : null;
+            if (uri != null && uri.startsWith(POLICY_SCHEME)) {
+                names.add(uri.substring(POLICY_SCHEME.length()));
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Immutable, precomputed view of everything needed to invoke one policy step route.
+     */
+    public static final class PolicyExecutionPlan {
+        private final String policyRouteName;
+        private final Endpoint endpoint;
+        private final ProducerTemplate producerTemplate;
+        private final PolicyAuthResource authResource;
+        private final Supplier<SchemaManager.Entry> schemaEntry;
+
+        PolicyExecutionPlan(@NonNull String policyRouteName, @NonNull Endpoint endpoint,
+                            @NonNull ProducerTemplate producerTemplate, @NonNull PolicyAuthResource authResource,
+                            @NonNull Supplier<SchemaManager.Entry> schemaEntry) {
+            this.policyRouteName = policyRouteName;
+            this.endpoint = endpoint;
+            this.producerTemplate = producerTemplate;
+            this.authResource = authResource;
+            this.schemaEntry = schemaEntry;
+        }
+
+        /**
+         * @return the route name (no component prefix)
+         */
+        public String getPolicyRouteName() {
+            return policyRouteName;
+        }
+
+        /**
+         * @return the fully qualified endpoint uri of the policy route
+         */
+        public String getPolicyFullyQualifiedName() {
+            return POLICY_SCHEME + policyRouteName;
+        }
+
+        /**
+         * @return the ABAC resource key used to authorize this policy version
+         */
+        public PolicyAuthResource getAuthResource() {
+            return authResource;
+        }
+
+        /**
+         * Validates a request body against the step schema. The schema is compiled on first use and reused by
+         * subsequent requests; failures to load it are not cached.
+         *
+         * @param policyBody the root of the request tree to be validated
+         * @return validation error messages or an empty <i>Set</i> if successful
+         */
+        public Set<ValidationMessage> validate(JsonNode policyBody) {
+            return schemaEntry.get().getSchema().validate(policyBody);
+        }
+
+        /**
+         * Sends the exchange to the resolved policy endpoint using the shared, pooled producer.
+         *
+         * @param exchange the active exchange
+         */
+        public void send(Exchange exchange) {
+            producerTemplate.send(endpoint, exchange);
+        }
+    }
+}
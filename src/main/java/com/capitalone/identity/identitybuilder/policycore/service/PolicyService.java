@@ -32,6 +32,7 @@ import com.capitalone.identity.identitybuilder.policycore.operational_audit.mode
 import com.capitalone.identity.identitybuilder.policycore.policytopolicy.camel.PolicyFailureException;
 import com.capitalone.identity.identitybuilder.policycore.policytopolicy.camel.PolicyToPolicyException;
 import com.capitalone.identity.identitybuilder.policycore.schema.SchemaManager;
+import com.capitalone.identity.identitybuilder.policycore.service.cache.CachedPolicyState;
 import com.capitalone.identity.identitybuilder.policycore.service.exception.CustomPolicyException;
 import com.capitalone.identity.identitybuilder.policycore.service.exception.DownstreamException;
 import com.capitalone.identity.identitybuilder.policycore.service.exception.PolicyCacheException;
@@ -50,7 +51,6 @@ import lombok.NonNull;
 import org.apache.camel.CamelContext;
 import org.apache.camel.Exchange;
 import org.apache.camel.Message;
-import org.apache.camel.ProducerTemplate;
 import org.apache.camel.support.DefaultExchange;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
@@ -62,9 +62,7 @@ import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
 import java.io.Serializable;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.Set;
@@ -230,45 +228,45 @@ public class PolicyService {
     public static class PolicyExecutionHelper {
 
         private final boolean isSuppressDeveloperText;
-        private final SchemaManager schemaManager;
         private final CamelContext camelContext;
         private final ProcessMetadataHelper processMetadataHelper;
         private final CamelCacheUtil camelCacheUtil;
         private final AuthorizationEnforcer<PolicyAuthSubject, PolicyAuthResource, PolicyAuthAction> authorizationEnforcer;
         private final boolean isAbacFeatureEnabled;
         private final PolicyVersionService policyVersionService;
+        private final PolicyExecutionPlanRegistry policyExecutionPlanRegistry;
 
         private final boolean mockFeatureEnabled;
 
         public PolicyExecutionHelper( //NOSONAR
                                       @Value("${identitybuilder.policycore.service.errors.suppress-developer-text:false}") boolean isSuppressDeveloperText,
-                                      SchemaManager schemaManager,
                                       CamelContext camelContext,
                                       ProcessMetadataHelper processMetadataHelper,
                                       @Autowired(required = false) CamelCacheUtil camelCacheUtil,
                                       AuthorizationEnforcer<PolicyAuthSubject, PolicyAuthResource, PolicyAuthAction> authorizationEnforcer,
                                       @Value("${identitybuilder.policycore.feature.abac-enforcement.enabled}") boolean isABACFeatureEnabled,
                                       PolicyVersionService policyVersionService,
+                                      PolicyExecutionPlanRegistry policyExecutionPlanRegistry,
                                       @Value("${identitybuilder.policycore.feature.mock-mode.enabled: false}") boolean mockFeatureEnabled,
                                       @Value("${ENVIRONMENT_NAME:UNK}") String environmentName) {
             this.isSuppressDeveloperText = isSuppressDeveloperText;
-            this.schemaManager = schemaManager;
             this.camelContext = camelContext;
             this.processMetadataHelper = processMetadataHelper;
             this.camelCacheUtil = camelCacheUtil;
             this.authorizationEnforcer = authorizationEnforcer;
             this.isAbacFeatureEnabled = isABACFeatureEnabled;
             this.policyVersionService = policyVersionService;
+            this.policyExecutionPlanRegistry = policyExecutionPlanRegistry;
             this.mockFeatureEnabled = !environmentName.toLowerCase().contains("prod") && mockFeatureEnabled;
         }
 
         @Nullable
-        private AbacResponse getAbacResponse(String clientId, String policyName, String policyVersion,
+        private AbacResponse getAbacResponse(String clientId, PolicyAuthResource policyAuthResource,
                                              PolicyAuthAction policyAuthAction) {
             if (isAbacFeatureEnabled) {
                 return authorizationEnforcer.authorize(
                         new PolicyAuthSubject(clientId),
-                        new PolicyAuthResource(policyName, policyVersion),
+                        policyAuthResource,
                         policyAuthAction);
             } else {
                 return null;
@@ -321,8 +319,13 @@ public class PolicyService {
             } else {
                 throw new IllegalArgumentException("policyRequestType=" + policyRequestType);
             }
-            AbacResponse abacResponse = getAbacResponse(policyRequest.getClientId(), policyInfo.getPolicyShortName(),
-                    policyVersion, policyAuthAction);
+            // execution plan is resolved once per policy step route; null when the route is not loaded
+            final PolicyExecutionPlanRegistry.PolicyExecutionPlan plan =
+                    policyExecutionPlanRegistry.getPlan(policyInfo, policyRequest.getStep());
+            final PolicyAuthResource policyAuthResource = plan != null ? plan.getAuthResource()
+                    : new PolicyAuthResource(policyInfo.getPolicyShortName(), policyVersion);
+            AbacResponse abacResponse = getAbacResponse(policyRequest.getClientId(), policyAuthResource,
+                    policyAuthAction);
             response.setAbacResponse(abacResponse);
             try {
                 enforceNonNullAbacResponse(abacResponse);
@@ -343,17 +346,15 @@ public class PolicyService {
                 message.setHeader(PolicyConstants.HEADER_POLICYSTATE, policyRequest.getPolicyState());
             }
 
-            String policyRouteName = getPolicyRouteName(policyInfo, policyRequest.getStep());
-            String policyFullyQualifiedName = "policy:" + policyRouteName;
-
-            if (camelContext.hasEndpoint(policyFullyQualifiedName) == null) {
-                return response.setResult(
-                        new Result.SystemError(new NotFoundException("Unknown policy: " + policyRouteName))).build();
+            if (plan == null) {
+                return response.setResult(new Result.SystemError(new NotFoundException(
+                        "Unknown policy: " + getPolicyRouteName(policyInfo, policyRequest.getStep())))).build();
             }
+            String policyRouteName = plan.getPolicyRouteName();
 
             Map<String, Serializable> policyParams = policyRequest.getRequestBody();
             JsonNode policyBody = objectMapper.valueToTree(policyParams);
-            Set<ValidationMessage> schemaErrors = schemaManager.validate(policyRouteName, policyBody);
+            Set<ValidationMessage> schemaErrors = plan.validate(policyBody);
 
             if (!schemaErrors.isEmpty()) {
                 PolicyResponse invalidSchemaResponse = PolicyResponse.builder().policyStatus(PolicyStatus.INVALID)
@@ -387,7 +388,7 @@ public class PolicyService {
             setPolicyInfoExchangeProperties(policyRequest.getPolicyName(), policyVersion, exchange);
 
             // Invoke the camel route and fill in the response.
-            ErrorInfo errorInfo = invokeCamel(policyFullyQualifiedName, exchange);
+            ErrorInfo errorInfo = invokeCamel(plan, exchange);
             response.setExecutionData(OperationalAuditExecutionData.fromMessage(message));
             response.setMockModeConfig(exchange.getProperty(MOCK_MODE_CONFIG, null, Boolean.class));
             if (errorInfo == null) {
@@ -494,18 +495,15 @@ public class PolicyService {
         /**
          * Invoke a Camel route endpoint with exception handling.
          *
-         * @param route    the endpoint of the route to invoke
+         * @param plan     the execution plan of the route to invoke
          * @param exchange the active exchange
          * @return the error info corresponding to any policy exception,
          * or <code>null</code> if no exception was reported
          */
         @Trace
-        private ErrorInfo invokeCamel(String route, Exchange exchange) {
-            try (ProducerTemplate template = camelContext.createProducerTemplate()) {
-                template.send(route, exchange);
-            } catch (IOException e) {
-                throw new IllegalStateException("Unable to create ProducerTemplate", e);
-            }
+        private ErrorInfo invokeCamel(PolicyExecutionPlanRegistry.PolicyExecutionPlan plan, Exchange exchange) {
+            plan.send(exchange);
+            String route = plan.getPolicyFullyQualifiedName();
 
             // If the exchange reports an exception, return an appropriate API error.
             ErrorInfo errorInfo = null;
@@ -562,18 +560,19 @@ public class PolicyService {
                 throw new ChassisSystemException(String.format(MISSING_CACHE_PROPERTY, ENABLE_CACHE_PROPERTY));
             }
             resourceId = PathParamUtil.cleanParameter(resourceId);
-            // Retrieve the policy state and step expiration from the cache
-            PolicyState policyState = cacheService.retrieveFromCache(resourceId);
-            LocalDateTime stepExpiration = cacheService.getStepExpiration(resourceId);
+            // Retrieve the policy state and step expiration together; the remote cache is read with a GET and, only
+            // when the state was found, a TTL query, while a near-cache hit needs no remote call
+            CachedPolicyState cachedPolicyState = cacheService.retrieveWithExpiration(resourceId);
 
-            if (policyState == null || stepExpiration == null) {
+            if (cachedPolicyState == null) {
                 // if resourceId was not found in the cache; it is considered missing/expired.
                 throw new NotFoundException(String.format(RESOURCE_ID_NOT_FOUND, resourceId));
             }
 
+            PolicyState policyState = cachedPolicyState.getPolicyState();
             ProcessMetadata processMetadata = new ProcessMetadata();
             processMetadata.setResourceId(resourceId);
-            processMetadata.setStepExpiration(cacheService.getStepExpiration(resourceId));
+            processMetadata.setStepExpiration(cachedPolicyState.getStepExpiration());
             processMetadata.setAvailableNextSteps(policyState.getAvailableNextSteps());
             processMetadata.setStepsCompleted(policyState.getStepsCompleted());
             processMetadata.setPolicyName(policyState.getPolicyName());
@@ -586,7 +585,7 @@ public class PolicyService {
     }
 
     @Trace
-    private static String getPolicyRouteName(PolicyInfo.Patch version, String stepName) {
+    static String getPolicyRouteName(PolicyInfo.Patch version, String stepName) {
 
         StringBuilder policyRouteName = new StringBuilder(version.getPolicyShortName()).append("_").append(version.getPolicyPatchVersionString());
 
@@ -4,12 +4,15 @@ import com.capitalone.chassis.engine.annotations.logging.Log;
 import com.capitalone.chassis.engine.model.context.RequestContextHolder;
 import com.capitalone.dsd.elasticache.client.cluster.ElasticCacheService;
 import com.capitalone.identity.identitybuilder.policycore.model.PolicyState;
+import com.capitalone.identity.identitybuilder.policycore.service.cache.CachedPolicyState;
+import com.capitalone.identity.identitybuilder.policycore.service.cache.PolicyStateCodec;
+import com.capitalone.identity.identitybuilder.policycore.service.cache.PolicyStateReadResult;
 import com.capitalone.identity.identitybuilder.policycore.service.constants.ApplicationConstants;
 import com.capitalone.identity.identitybuilder.policycore.service.exception.PolicyCacheException;
-import com.capitalone.identity.identitybuilder.policycore.service.util.ApplicationUtil;
 import org.apache.http.HttpStatus;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
@@ -17,9 +20,6 @@ import javax.inject.Named;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Named
 @Log
@@ -29,30 +29,45 @@ public class PolicyStateCacheService {
 
     private final ElasticCacheService elasticCacheService;
 
-    private final ApplicationUtil applicationUtil;
+    private final PolicyStateCodec codec;
 
-    private static final Logger logger = LogManager.getLogger(PolicyStateCacheService.class.getName());
+    private final PolicyStateNearCache nearCache;
 
-    private static final List<String> READ_CACHE_INTERNAL_FAILURE_CAUSES = Stream.of("CONNECTION_ERROR", "TIMEOUT_ERROR").collect(Collectors.toList());
-    private static final List<String> READ_CACHE_MISS_FAILURE_CAUSES = Stream.of("KEY_NOT_FOUND", "TOKEN_EXPIRED").collect(Collectors.toList());
+    private static final Logger logger = LogManager.getLogger(PolicyStateCacheService.class.getName());
 
-    public PolicyStateCacheService(ElasticCacheService elasticCacheService, ApplicationUtil applicationUtil) {
+    @Autowired
+    public PolicyStateCacheService(ElasticCacheService elasticCacheService, PolicyStateCodec codec,
+                                   @Autowired(required = false) PolicyStateNearCache nearCache) {
         this.elasticCacheService = elasticCacheService;
-        this.applicationUtil = applicationUtil;
+        this.codec = codec;
+        this.nearCache = nearCache;
+    }
+
+    public PolicyStateCacheService(ElasticCacheService elasticCacheService, PolicyStateCodec codec) {
+        this(elasticCacheService, codec, null);
     }
 
     public void populateCache(String resourceId, PolicyState policyState, String cacheExpiration) {
-        String value = applicationUtil.convertObjectToString(policyState);
+        String value = codec.encode(policyState);
         int status;
+        long durationMs = PolicyStateNearCache.NO_EXPIRY;
         if (cacheExpiration == null) {
             status = elasticCacheService.put(resourceId, value);
         } else {
-            long durationMs = Duration.parse(cacheExpiration).toMillis();
+            durationMs = Duration.parse(cacheExpiration).toMillis();
             if (durationMs <= 0) {
                 throw new IllegalArgumentException(String.format(ApplicationConstants.NEGATIVE_CACHE_EXPIRATION, cacheExpiration));
             }
             status = elasticCacheService.putWithExpiry(resourceId, value, durationMs);
         }
+        if (nearCache != null) {
+            // write-through on success; on failure the remote value is unknown so the local copy must go
+            if (status == HttpStatus.SC_OK) {
+                nearCache.put(resourceId, value, durationMs);
+            } else {
+                nearCache.invalidate(resourceId);
+            }
+        }
         if (status != HttpStatus.SC_OK) {
             logger.error("Cache Write failed for resource id {} with status {}. CCID: {}", resourceId, status,
                     RequestContextHolder.getRequestContextOrDefault().getCorrelationId());
@@ -60,26 +75,87 @@ public class PolicyStateCacheService {
         }
     }
 
+    /**
+     * Reads the policy state for a resource id.
+     *
+     * @param resourceId the process id
+     * @return the state, or <code>null</code> if the entry is missing or expired
+     * @throws PolicyCacheException if the cache could not be read
+     */
     public PolicyState retrieveFromCache(String resourceId) {
+        PolicyStateReadResult result = read(resourceId);
+        switch (result.getStatus()) {
+            case HIT:
+                return result.getPolicyState();
+            case MISS:
+                // This will be handled at Policy Service layer as expired resource
+                return null;
+            default:
+                throw PolicyCacheException.newReadFailedException(resourceId);
+        }
+    }
+
+    /**
+     * Reads the policy state for a resource id without mapping misses or failures to <code>null</code> or
+     * exceptions.
+     *
+     * @param resourceId the process id
+     * @return the typed read result
+     */
+    public PolicyStateReadResult read(String resourceId) {
+        PolicyStateNearCache.Entry nearEntry = nearCache != null ? nearCache.get(resourceId) : null;
+        if (nearEntry != null) {
+            return PolicyStateReadResult.hit(codec.decode(nearEntry.getValue()));
+        }
+
         String dataStr = elasticCacheService.get(resourceId);
-        PolicyState policyState = null;
+        switch (PolicyStateReadResult.classify(dataStr)) {
+            case MISS:
+                logger.info("Cache Miss for resource id {} with status {}", resourceId, dataStr);
+                return PolicyStateReadResult.miss(dataStr);
+            case FAILURE:
+                logger.error("Cache Read failed for resource id {} response from eCache was {}. CCID: {}", resourceId, dataStr,
+                        RequestContextHolder.getRequestContextOrDefault().getCorrelationId());
+                return PolicyStateReadResult.failure(dataStr);
+            default:
+                PolicyState policyState = codec.decode(dataStr);
+                logger.debug("Cache details {} for resource id {}", policyState, resourceId);
+                return PolicyStateReadResult.hit(policyState);
+        }
+    }
 
-        if (READ_CACHE_MISS_FAILURE_CAUSES.stream().anyMatch(dataStr.trim()::equalsIgnoreCase)) {
-            logger.info("Cache Miss for resource id {} with status {}", resourceId, dataStr);
-            // This will be handled at Policy Service layer as expired resource
-        } else if (READ_CACHE_INTERNAL_FAILURE_CAUSES.stream().anyMatch(dataStr.trim()::equalsIgnoreCase)) {
-            logger.error("Cache Read failed for resource id {} response from eCache was {}. CCID: {}", resourceId, dataStr,
-                    RequestContextHolder.getRequestContextOrDefault().getCorrelationId());
-            throw PolicyCacheException.newReadFailedException(resourceId);
-        } else {
-            policyState = applicationUtil.convertStringToPolicyState(dataStr);
-            logger.debug("Cache details {} for resource id {}", policyState, resourceId);
+    /**
+     * Reads the policy state for a resource id together with its step expiration.
+     * <p>
+     * A near-cache hit is served without contacting the remote cache; otherwise the value is read first and the
+     * remaining time-to-live is only requested when the value was found.
+     *
+     * @param resourceId the process id
+     * @return the state and its expiration, or <code>null</code> if the entry is missing or expired
+     * @throws PolicyCacheException if the cache could not be read
+     */
+    public CachedPolicyState retrieveWithExpiration(String resourceId) {
+        PolicyStateNearCache.Entry nearEntry = nearCache != null ? nearCache.get(resourceId) : null;
+        if (nearEntry != null) {
+            return new CachedPolicyState(codec.decode(nearEntry.getValue()),
+                    toStepExpiration(nearCache.getRemainingTtlSeconds(nearEntry)));
+        }
+
+        PolicyState policyState = retrieveFromCache(resourceId);
+        if (policyState == null) {
+            return null;
         }
-        return policyState;
+        // the key may have expired between the two reads
+        LocalDateTime stepExpiration = toStepExpiration(elasticCacheService.getKeyTTL(resourceId));
+        return stepExpiration != null ? new CachedPolicyState(policyState, stepExpiration) : null;
     }
 
     public LocalDateTime getStepExpiration(String resourceId) {
-        long ttl = elasticCacheService.getKeyTTL(resourceId);
+        PolicyStateNearCache.Entry nearEntry = nearCache != null ? nearCache.get(resourceId) : null;
+        return toStepExpiration(nearEntry != null ? nearCache.getRemainingTtlSeconds(nearEntry) : elasticCacheService.getKeyTTL(resourceId));
+    }
+
+    private static LocalDateTime toStepExpiration(long ttl) {
         // getKeyTTL returns -1 if the key exists but has no associated expire
         if (ttl == -1) {
             return LocalDateTime.MAX;
@@ -93,6 +169,9 @@ public class PolicyStateCacheService {
     }
 
     public void deleteFromCache(String resourceId) {
+        if (nearCache != null) {
+            nearCache.invalidate(resourceId);
+        }
         int deleteCountStatus = elasticCacheService.delete(resourceId);
         if (deleteCountStatus != HttpStatus.SC_OK) {
             logger.info("Cache delete failed for resource id : {}", resourceId);
@@ -0,0 +1,140 @@
+package com.capitalone.identity.identitybuilder.policycore.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional, bounded in-process cache that sits in front of the shared policy state cache (Redis).
+ * <p>
+ * Entries are written through by {@link PolicyStateCacheService} after a successful remote write and are
+ * invalidated when the remote entry is deleted. Each entry expires no later than its remote counterpart and no
+ * later than the configured maximum time-to-live.
+ * <p>
+ * The near-cache does not observe writes made by other instances. It should only be enabled when multi-step
+ * requests for a process are routed to the instance that wrote the previous step (session affinity), and the
+ * maximum time-to-live bounds how long a stale entry can be served otherwise.
+ */
+@Component
+@ConditionalOnProperty(PolicyStateNearCache.ENABLED_PROPERTY)
+public class PolicyStateNearCache {
+
+    public static final String ENABLED_PROPERTY = "identitybuilder.policycore.feature.policy-state-near-cache.enabled";
+
+    /**
+     * Expiry marker for entries that were written to the remote cache without an expiration.
+     */
+    static final long NO_EXPIRY = -1;
+
+    private final Cache<String, Entry> cache;
+    private final Ticker ticker;
+    private final long maxTtlNanos;
+
+    public PolicyStateNearCache(
+            @Value("${identitybuilder.policycore.feature.policy-state-near-cache.max-size:10000}") long maxSize,
+            @Value("${identitybuilder.policycore.feature.policy-state-near-cache.max-ttl:PT15M}") String maxTtl) {
+        this(maxSize, Duration.parse(maxTtl), Ticker.systemTicker());
+    }
+
+    PolicyStateNearCache(long maxSize, @NonNull Duration maxTtl, @NonNull Ticker ticker) {
+        if (maxTtl.isNegative() || maxTtl.isZero()) {
+            throw new IllegalArgumentException("Near-cache max-ttl must be positive: " + maxTtl);
+        }
+        this.ticker = ticker;
+        this.maxTtlNanos = maxTtl.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .ticker(ticker)
+                .expireAfter(new EntryExpiry())
+                .build();
+    }
+
+    /**
+     * Stores an encoded policy state.
+     *
+     * @param resourceId the process id
+     * @param value      the value as written to the remote cache
+     * @param ttlMs      the remote time-to-live in milliseconds, or {@link #NO_EXPIRY}
+     */
+    public void put(String resourceId, String value, long ttlMs) {
+        if (ttlMs == NO_EXPIRY) {
+            cache.put(resourceId, new Entry(value, false, 0));
+        } else {
+            cache.put(resourceId, new Entry(value, true, ticker.read() + TimeUnit.MILLISECONDS.toNanos(ttlMs)));
+        }
+    }
+
+    /**
+     * @param resourceId the process id
+     * @return the cached entry, or <code>null</code> if it is not present locally
+     */
+    public Entry get(String resourceId) {
+        return cache.getIfPresent(resourceId);
+    }
+
+    public void invalidate(String resourceId) {
+        cache.invalidate(resourceId);
+    }
+
+    /**
+     * @param entry a cached entry
+     * @return remaining remote time-to-live of the entry in seconds (truncated), or {@link #NO_EXPIRY}
+     */
+    public long getRemainingTtlSeconds(Entry entry) {
+        if (!entry.expiring) {
+            return NO_EXPIRY;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toSeconds(entry.expiresAtNanos - ticker.read()));
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * An encoded policy state together with the time its remote counterpart expires.
+     */
+    public static final class Entry {
+        private final String value;
+        private final boolean expiring;
+        private final long expiresAtNanos;
+
+        Entry(String value, boolean expiring, long expiresAtNanos) {
+            this.value = value;
+            this.expiring = expiring;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+
+    private final class EntryExpiry implements Expiry<String, Entry> {
+        @Override
+        public long expireAfterCreate(String key, Entry entry, long currentTime) {
+            if (!entry.expiring) {
+                return maxTtlNanos;
+            }
+            return Math.min(maxTtlNanos, Math.max(0, entry.expiresAtNanos - currentTime));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
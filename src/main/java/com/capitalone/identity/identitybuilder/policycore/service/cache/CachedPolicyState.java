@@ -0,0 +1,22 @@
+package com.capitalone.identity.identitybuilder.policycore.service.cache;
+
+import com.capitalone.identity.identitybuilder.policycore.model.PolicyState;
+import lombok.NonNull;
+
+import java.time.LocalDateTime;
+
+/**
+ * A policy state read from the cache together with the time its entry expires.
+ */
+@lombok.Value
+public class CachedPolicyState {
+
+    @NonNull
+    PolicyState policyState;
+
+    /**
+     * Expiration of the cache entry, or {@link LocalDateTime#MAX} if the entry does not expire.
+     */
+    @NonNull
+    LocalDateTime stepExpiration;
+}
@@ -0,0 +1,52 @@
+package com.capitalone.identity.identitybuilder.policycore.service.cache;
+
+import com.capitalone.chassis.engine.model.exception.ChassisSystemException;
+import com.capitalone.identity.identitybuilder.policycore.model.PolicyState;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Legacy codec that stores policy state as a plain JSON document. This is the default until every instance
+ * sharing a cache is able to read the binary format.
+ * <p>
+ * Values written by {@link SmilePolicyStateCodec} are still decoded, so the codec can be switched back to JSON
+ * while binary values are live in the cache.
+ */
+@Component
+@ConditionalOnProperty(name = PolicyStateCodec.CODEC_PROPERTY, havingValue = "json", matchIfMissing = true)
+public class JsonPolicyStateCodec implements PolicyStateCodec {
+
+    private static final Logger logger = LogManager.getLogger(JsonPolicyStateCodec.class.getName());
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectWriter writer = objectMapper.writerFor(PolicyState.class);
+    private static final ObjectReader reader = objectMapper.readerFor(PolicyState.class);
+
+    @Override
+    public String encode(PolicyState policyState) {
+        try {
+            return writer.writeValueAsString(policyState);
+        } catch (Exception e) {
+            logger.error("Error converting the object to string..", e);
+            throw new ChassisSystemException("Error converting the object to string", e);
+        }
+    }
+
+    @Override
+    public PolicyState decode(String value) {
+        if (SmilePolicyStateCodec.isSmile(value)) {
+            return SmilePolicyStateCodec.readSmile(value);
+        }
+        try {
+            return reader.readValue(value);
+        } catch (Exception e) {
+            logger.error("Error converting the string to Map object..", e);
+            throw new ChassisSystemException("Error converting the string to Map object", e);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.capitalone.identity.identitybuilder.policycore.service.cache;
+
+import com.capitalone.identity.identitybuilder.policycore.model.PolicyState;
+
+/**
+ * Converts {@link PolicyState} objects to and from the string values stored in the policy state cache.
+ * <p>
+ * Implementations must be able to decode every format written by earlier releases so that the encoding can be
+ * changed while values written by the previous release are still live in the cache.
+ */
+public interface PolicyStateCodec {
+
+    String CODEC_PROPERTY = "identitybuilder.policycore.feature.policy-state-codec";
+
+    /**
+     * @param policyState the state to encode
+     * @return the cache value
+     */
+    String encode(PolicyState policyState);
+
+    /**
+     * @param value a cache value written by this or any earlier codec
+     * @return the decoded state
+     */
+    PolicyState decode(String value);
+}
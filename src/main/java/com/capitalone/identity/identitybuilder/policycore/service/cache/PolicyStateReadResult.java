@@ -0,0 +1,76 @@
+package com.capitalone.identity.identitybuilder.policycore.service.cache;
+
+import com.capitalone.identity.identitybuilder.policycore.model.PolicyState;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Typed outcome of a policy state cache read.
+ * <p>
+ * The cache client reports misses and failures in-band as sentinel strings; {@link #classify(String)} is the
+ * single place those sentinels are recognized so callers can switch on {@link Status} instead of comparing
+ * strings.
+ */
+@lombok.Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class PolicyStateReadResult {
+
+    public enum Status {
+        /** The key was found and the value decoded */
+        HIT,
+        /** The key does not exist or has expired */
+        MISS,
+        /** The cache could not be reached */
+        FAILURE
+    }
+
+    private static final Map<String, Status> SENTINELS = Map.of(
+            "KEY_NOT_FOUND", Status.MISS,
+            "TOKEN_EXPIRED", Status.MISS,
+            "CONNECTION_ERROR", Status.FAILURE,
+            "TIMEOUT_ERROR", Status.FAILURE);
+
+    /** Longest sentinel (plus surrounding whitespace); longer values are never compared. */
+    private static final int MAX_SENTINEL_LENGTH = 32;
+
+    @NonNull
+    Status status;
+
+    PolicyState policyState;
+
+    /**
+     * The raw sentinel reported by the cache client for {@link Status#MISS} and {@link Status#FAILURE}.
+     */
+    String cause;
+
+    public static PolicyStateReadResult hit(@NonNull PolicyState policyState) {
+        return new PolicyStateReadResult(Status.HIT, policyState, null);
+    }
+
+    public static PolicyStateReadResult miss(String cause) {
+        return new PolicyStateReadResult(Status.MISS, null, cause);
+    }
+
+    public static PolicyStateReadResult failure(String cause) {
+        return new PolicyStateReadResult(Status.FAILURE, null, cause);
+    }
+
+    /**
+     * @param rawValue value returned by the cache client
+     * @return {@link Status#MISS} or {@link Status#FAILURE} when the value is a client sentinel, or
+     * {@link Status#HIT} when it is a stored value that should be decoded
+     */
+    public static Status classify(String rawValue) {
+        if (rawValue == null) {
+            return Status.MISS;
+        }
+        if (rawValue.length() > MAX_SENTINEL_LENGTH) {
+            return Status.HIT;
+        }
+        return SENTINELS.getOrDefault(rawValue.trim().toUpperCase(Locale.ROOT), Status.HIT);
+    }
+}
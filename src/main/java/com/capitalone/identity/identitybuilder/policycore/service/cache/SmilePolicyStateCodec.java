@@ -0,0 +1,104 @@
+package com.capitalone.identity.identitybuilder.policycore.service.cache;
+
+import com.capitalone.chassis.engine.model.exception.ChassisSystemException;
+import com.capitalone.identity.identitybuilder.policycore.model.PolicyState;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compact binary codec based on Jackson's Smile format.
+ * <p>
+ * The cache client only stores strings, so the binary document is Base64 encoded behind a short header that
+ * identifies the format version and whether the payload is gzip compressed:
+ * <pre>
+ * PS1S:&lt;base64(smile)&gt;
+ * PS1Z:&lt;base64(gzip(smile))&gt;
+ * </pre>
+ * Values without a header are legacy JSON documents and are decoded with {@link JsonPolicyStateCodec}.
+ */
+@Component
+@ConditionalOnProperty(name = PolicyStateCodec.CODEC_PROPERTY, havingValue = "smile")
+public class SmilePolicyStateCodec implements PolicyStateCodec {
+
+    static final String HEADER_SMILE = "PS1S:";
+    static final String HEADER_SMILE_GZIP = "PS1Z:";
+    static final int HEADER_LENGTH = 5;
+
+    /**
+     * Payloads at or above this many bytes are compressed; small states do not benefit from it.
+     */
+    static final int COMPRESSION_THRESHOLD = 512;
+
+    private static final Logger logger = LogManager.getLogger(SmilePolicyStateCodec.class.getName());
+
+    private static final ObjectMapper objectMapper = new ObjectMapper(new SmileFactory()
+            .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES));
+    private static final ObjectWriter writer = objectMapper.writerFor(PolicyState.class);
+    private static final ObjectReader reader = objectMapper.readerFor(PolicyState.class);
+
+    private final JsonPolicyStateCodec legacyCodec = new JsonPolicyStateCodec();
+
+    @Override
+    public String encode(PolicyState policyState) {
+        try {
+            byte[] smile = writer.writeValueAsBytes(policyState);
+            Base64.Encoder encoder = Base64.getEncoder();
+            if (smile.length < COMPRESSION_THRESHOLD) {
+                return HEADER_SMILE + encoder.encodeToString(smile);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream(smile.length / 2);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(smile);
+            }
+            return HEADER_SMILE_GZIP + encoder.encodeToString(out.toByteArray());
+        } catch (Exception e) {
+            logger.error("Error converting the object to string..", e);
+            throw new ChassisSystemException("Error converting the object to string", e);
+        }
+    }
+
+    @Override
+    public PolicyState decode(String value) {
+        return isSmile(value) ? readSmile(value) : legacyCodec.decode(value);
+    }
+
+    /**
+     * @return whether the cache value carries one of the Smile headers
+     */
+    static boolean isSmile(String value) {
+        return value.startsWith(HEADER_SMILE) || value.startsWith(HEADER_SMILE_GZIP);
+    }
+
+    /**
+     * @param value a cache value for which {@link #isSmile(String)} holds
+     */
+    static PolicyState readSmile(String value) {
+        try {
+            byte[] payload = Base64.getDecoder().decode(value.substring(HEADER_LENGTH));
+            if (!value.startsWith(HEADER_SMILE_GZIP)) {
+                return reader.readValue(payload);
+            }
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+                return reader.readValue(in);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Error converting the string to Map object..", e);
+            throw new ChassisSystemException("Error converting the string to Map object", e);
+        }
+    }
+}
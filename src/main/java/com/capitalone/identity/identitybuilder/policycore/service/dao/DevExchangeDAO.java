@@ -3,10 +3,39 @@ package com.capitalone.identity.identitybuilder.policycore.service.dao;
 import com.capitalone.identity.identitybuilder.policycore.model.DevExchangeRequest;
 import com.capitalone.identity.identitybuilder.policycore.model.DevExchangeResponse;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface DevExchangeDAO   {
 	
 	DevExchangeResponse invokeDxAPI (DevExchangeRequest devexchangeRequest);
 
+	/**
+	 * @return <code>true</code> if {@link #invokeDxAPIAsync(DevExchangeRequest)} can be used by callers
+	 */
+	default boolean isAsyncSupported() {
+		return false;
+	}
+
+	/**
+	 * Invokes the DevExchange API without holding the calling thread for the downstream latency. The returned
+	 * future completes with the same response {@link #invokeDxAPI(DevExchangeRequest)} would have returned.
+	 * <p>
+	 * Unless {@link #isAsyncSupported()} is <code>true</code>, this calls {@link #invokeDxAPI(DevExchangeRequest)}
+	 * on the calling thread and returns it as a completed future, or a failed one if the call throws.
+	 *
+	 * @param devexchangeRequest the request to send
+	 * @return the pending response
+	 */
+	default CompletableFuture<DevExchangeResponse> invokeDxAPIAsync(DevExchangeRequest devexchangeRequest) {
+		try {
+			return CompletableFuture.completedFuture(invokeDxAPI(devexchangeRequest));
+		} catch (RuntimeException e) {
+			CompletableFuture<DevExchangeResponse> failed = new CompletableFuture<>();
+			failed.completeExceptionally(e);
+			return failed;
+		}
+	}
+
 }
 
 
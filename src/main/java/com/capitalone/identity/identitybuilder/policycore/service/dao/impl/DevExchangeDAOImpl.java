@@ -18,7 +18,6 @@ import com.newrelic.api.agent.Trace;
 import lombok.SneakyThrows;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
 import org.springframework.http.*;
 import org.springframework.security.oauth2.client.OAuth2RestTemplate;
@@ -31,8 +30,6 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.TreeMap;
 
-import static com.capitalone.identity.identitybuilder.policycore.service.constants.ApplicationConstants.CLIENT_PROPS_MASK_PREFIX;
-
 /**
  * This class exists because of audit requirements to log outgoing DevExchange calls.
  *
@@ -47,24 +44,25 @@ public class DevExchangeDAOImpl extends AbstractBaseService implements DevExchan
 
     public static final ObjectMapper objectMapper = new ObjectMapper();
 
-    @Value("${logs.fieldstofilter}")
-    private String fieldsToFilter;
-
     @Autowired
     private PartnerTokenGeneratorFactory tokenGeneratorFactory;
 
     private final Environment env;
+    private final DevExchangeFieldMasks fieldMasks;
     private final LogSetting logSetting = LogSetting.fromProperty();
 
     /**
      * Implicit injection via constructor
      *
      * @param devExchangeRestTemplateFactory updates OAuth2RestTemplate based on service/timeout
-     * @param env                            gets fields to filter based on application property
+     * @param env                            gets active profiles for request logging
+     * @param fieldMasks                     resolves the fields masked in the audited response
      */
-    public DevExchangeDAOImpl(DevExchangeRestTemplateFactory devExchangeRestTemplateFactory, Environment env) {
+    public DevExchangeDAOImpl(DevExchangeRestTemplateFactory devExchangeRestTemplateFactory, Environment env,
+                              DevExchangeFieldMasks fieldMasks) {
         this.devExchangeRestTemplateFactory = devExchangeRestTemplateFactory;
         this.env = env;
+        this.fieldMasks = fieldMasks;
     }
 
     @Override
@@ -130,7 +128,7 @@ public class DevExchangeDAOImpl extends AbstractBaseService implements DevExchan
         dxResponse.setHttpStatus(httpStatus);
         dxResponse.setHttpHeaders(headers != null ? headers : new HttpHeaders());
         dxResponse.setDxResponse(responseStr);
-        filterFields(dxResponse, responseStr);
+        filterFields(dxResponse, responseStr, devexchangeRequest.getServiceName());
         return dxResponse;
     }
 
@@ -151,16 +149,8 @@ public class DevExchangeDAOImpl extends AbstractBaseService implements DevExchan
     }
 
     @Trace
-    private void filterFields(DevExchangeResponse dxResponse, String responseStr) {
-        //TODO: Replace with new client id set by devexchange in new header work
-        String clientPropId2Mask = CLIENT_PROPS_MASK_PREFIX;
-        String clientProps2Mask = env.getProperty(clientPropId2Mask);
-        logger.debug("clientPropsId2Mask: {}, clientProps2Mask: {}", clientPropId2Mask, clientProps2Mask);
-        if (StringUtils.isNotBlank(clientProps2Mask)) {
-            fieldsToFilter += clientProps2Mask;
-        }
-        logger.debug("fieldsToFilter: {}", fieldsToFilter);
-        dxResponse.setDxResponseAudit(JsonUtil.getFilteredResponse(responseStr, fieldsToFilter, "dxService"));
+    private void filterFields(DevExchangeResponse dxResponse, String responseStr, String serviceName) {
+        dxResponse.setDxResponseAudit(JsonUtil.getMaskedResponse(responseStr, fieldMasks.getMasker(serviceName), "dxService"));
         logger.debug("dxResponse With Audit fields: {}", dxResponse.getDxResponseAudit());
     }
 
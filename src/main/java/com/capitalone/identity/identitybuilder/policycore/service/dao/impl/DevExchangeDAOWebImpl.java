@@ -3,6 +3,8 @@ package com.capitalone.identity.identitybuilder.policycore.service.dao.impl;
 import com.capitalone.chassis.cal1_5.builder.Cal1_5EventStreamDataBuilder;
 import com.capitalone.chassis.engine.annotations.stream.EventStream;
 import com.capitalone.chassis.engine.core.base.AbstractBaseService;
+import com.capitalone.chassis.engine.model.context.RequestContext;
+import com.capitalone.chassis.engine.model.context.RequestContextHolder;
 import com.capitalone.identity.identitybuilder.policycore.feature.prerelease.PreRelease;
 import com.capitalone.identity.identitybuilder.policycore.model.DevExchangeRequest;
 import com.capitalone.identity.identitybuilder.policycore.model.DevExchangeResponse;
@@ -16,6 +18,8 @@ import com.capitalone.identity.identitybuilder.policycore.service.util.JsonUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.newrelic.api.agent.Trace;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.CloseableThreadContext;
+import org.apache.logging.log4j.ThreadContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -29,13 +33,16 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientException;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.Arrays;
 import java.util.Map;
 import java.util.Optional;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
-import static com.capitalone.identity.identitybuilder.policycore.service.constants.ApplicationConstants.CLIENT_PROPS_MASK_PREFIX;
 import static com.capitalone.identity.identitybuilder.policycore.service.dao.impl.DevExchangeDAOImpl.reformatJSON;
 
 /**
@@ -56,26 +63,35 @@ public class DevExchangeDAOWebImpl extends AbstractBaseService implements DevExc
 
     public static final String WEB_CLIENT_ENABLED_FLAG = "identity.identitybuilder.policycore.service.webclient.enabled";
 
+    public static final String ASYNC_ENABLED_FLAG = "identitybuilder.policycore.feature.devexchange.async.enabled";
+
     public static final ObjectMapper objectMapper = new ObjectMapper();
 
-    @Value("${logs.fieldstofilter}")
-    private String fieldsToFilter;
+    @Value("${" + ASYNC_ENABLED_FLAG + ":false}")
+    private boolean asyncEnabled;
 
     @Autowired
     private PartnerTokenWebClientGeneratorFactory tokenGeneratorFactory;
 
     private final Environment env;
+    private final DevExchangeFieldMasks fieldMasks;
+    private final DevExchangeDownstreamCallAudit downstreamCallAudit;
     private final DevExchangeDAOImpl.LogSetting logSetting = DevExchangeDAOImpl.LogSetting.fromProperty();
 
     /**
      * Implicit injection via constructor
      *
      * @param devExchangeWebClientFactory updates OAuth2RestTemplate based on service/timeout
-     * @param env                         gets fields to filter based on application property
+     * @param env                         gets active profiles for request logging
+     * @param fieldMasks                  resolves the fields masked in the audited response
+     * @param downstreamCallAudit         emits the event stream audit of asynchronous calls
      */
-    public DevExchangeDAOWebImpl(DevExchangeWebClientFactory devExchangeWebClientFactory, Environment env) {
+    public DevExchangeDAOWebImpl(DevExchangeWebClientFactory devExchangeWebClientFactory, Environment env,
+                                 DevExchangeFieldMasks fieldMasks, DevExchangeDownstreamCallAudit downstreamCallAudit) {
         this.devExchangeWebClientFactory = devExchangeWebClientFactory;
         this.env = env;
+        this.fieldMasks = fieldMasks;
+        this.downstreamCallAudit = downstreamCallAudit;
     }
 
     @Override
@@ -84,25 +100,88 @@ public class DevExchangeDAOWebImpl extends AbstractBaseService implements DevExc
             @EventStream.CustomEventStream(type = EventStream.EventStreamType.AUDIT, emitters = "sdpv3", eventStreamDataBuilder = Cal1_5EventStreamDataBuilder.BUILDER_TYPE)})
     @Trace
     public DevExchangeResponse invokeDxAPI(DevExchangeRequest devexchangeRequest) {
-        DevExchangeResponse dxResponse = new DevExchangeResponse();
+        try {
+            WebClient webClient = prepareExchange(devexchangeRequest);
+            long start = System.currentTimeMillis();
+            return toDxResponse(devexchangeRequest, callExchange(webClient, devexchangeRequest).block(), start);
+        } catch (WebClientException ex) {
+            return toDxResponse(devexchangeRequest, ex);
+        }
+    }
+
+    @Override
+    public boolean isAsyncSupported() {
+        return asyncEnabled;
+    }
+
+    /**
+     * Non-blocking variant of {@link #invokeDxAPI(DevExchangeRequest)}. The downstream call is made on the
+     * WebClient's event loop and the response is mapped on a worker scheduler, so neither the calling thread nor
+     * the event loop is held while the response is processed by the caller.
+     * <p>
+     * The operational audit and the chassis event stream audit are published when the returned future completes.
+     * The response is mapped and audited with the request context and log4j thread context of the calling thread.
+     */
+    @Override
+    @OperationalAudit(eventType = OperationalEventType.PIP_EVALUATED, mapperFactory = PipEvaluatedEventMapper.Factory.class)
+    @Trace
+    public CompletableFuture<DevExchangeResponse> invokeDxAPIAsync(DevExchangeRequest devexchangeRequest) {
+        WebClient webClient;
+        try {
+            webClient = prepareExchange(devexchangeRequest);
+        } catch (WebClientException ex) {
+            return CompletableFuture.completedFuture(
+                    downstreamCallAudit.audit(devexchangeRequest, toDxResponse(devexchangeRequest, ex)));
+        }
+        RequestContext requestContext = RequestContextHolder.getRequestContextOrDefault();
+        Map<String, String> threadContext = ThreadContext.getImmutableContext();
+        long start = System.currentTimeMillis();
+        return Mono.defer(() -> callExchange(webClient, devexchangeRequest))
+                .publishOn(Schedulers.boundedElastic())
+                .map(response -> withCallerContext(requestContext, threadContext, () ->
+                        downstreamCallAudit.audit(devexchangeRequest, toDxResponse(devexchangeRequest, response, start))))
+                .onErrorResume(WebClientException.class, ex -> Mono.fromSupplier(() -> withCallerContext(requestContext,
+                        threadContext, () -> downstreamCallAudit.audit(devexchangeRequest, toDxResponse(devexchangeRequest, ex)))))
+                .toFuture();
+    }
+
+    /**
+     * Runs the action with the request context and log4j thread context of the calling thread, restoring those of
+     * the current thread afterwards.
+     */
+    private static <T> T withCallerContext(RequestContext requestContext, Map<String, String> threadContext,
+                                           Supplier<T> action) {
+        RequestContext completionContext = RequestContextHolder.getRequestContextOrDefault();
+        RequestContextHolder.put(requestContext);
+        try (CloseableThreadContext.Instance ignored = CloseableThreadContext.putAll(threadContext)) {
+            return action.get();
+        } finally {
+            RequestContextHolder.put(completionContext);
+        }
+    }
+
+    private WebClient prepareExchange(DevExchangeRequest devexchangeRequest) {
+        generatePartnerToken(devexchangeRequest);
+        WebClient webClient = devExchangeWebClientFactory.getDevExchangeWebClient(devexchangeRequest.getServiceName(), devexchangeRequest.getScheme());
+        if (logger.isInfoEnabled() && logSetting != DevExchangeDAOImpl.LogSetting.OFF) {
+            logRequestAsCurl(devexchangeRequest);
+        }
+        return webClient;
+    }
+
+    private DevExchangeResponse toDxResponse(DevExchangeRequest devexchangeRequest, ResponseEntity<String> response, long start) {
+        timeRequest(start, response);
+        String responseStr = StringUtils.isNotBlank(response.getBody()) ? response.getBody() : "{}";
+        return toDxResponse(devexchangeRequest, response.getStatusCodeValue(), response.getHeaders(), responseStr);
+    }
+
+    private DevExchangeResponse toDxResponse(DevExchangeRequest devexchangeRequest, WebClientException exception) {
         String correlationId = (null != devexchangeRequest.getHttpHeaders()) ? devexchangeRequest.getHttpHeaders().getFirst(ApplicationConstants.CLIENT_CORRELATION_ID) : StringUtils.EMPTY;
         String responseStr;
         int httpStatus;
         HttpHeaders headers = null;
-        try {
-            generatePartnerToken(devexchangeRequest);
-            WebClient webClient = devExchangeWebClientFactory.getDevExchangeWebClient(devexchangeRequest.getServiceName(), devexchangeRequest.getScheme());
-            if (logger.isInfoEnabled() && logSetting != DevExchangeDAOImpl.LogSetting.OFF) {
-                logRequestAsCurl(devexchangeRequest);
-            }
-
-            long start = System.currentTimeMillis();
-            ResponseEntity<String> response = callExchange(webClient, devexchangeRequest);
-            timeRequest(start, response);
-            responseStr = StringUtils.isNotBlank(response.getBody()) ? response.getBody() : "{}";
-            httpStatus = response.getStatusCodeValue();
-            headers = response.getHeaders();
-        } catch (WebClientResponseException ex) {
+        if (exception instanceof WebClientResponseException) {
+            WebClientResponseException ex = (WebClientResponseException) exception;
             headers = ex.getHeaders();
             httpStatus = ex.getRawStatusCode();
             String serviceName = devexchangeRequest.getServiceName();
@@ -125,37 +204,38 @@ public class DevExchangeDAOWebImpl extends AbstractBaseService implements DevExc
 
                 responseStr = exceptionResponseBodyString;
             }
-
-
-        } catch (WebClientException ex) {
+        } else {
             // Make sure this is JSON
             String serviceName = devexchangeRequest.getServiceName();
             logger.error(String.format("BACKEND SERVICE UNAVAILABLE: %s CorrelationId: %s",
                             serviceName, correlationId),
-                    ex);
+                    exception);
             httpStatus = HttpStatus.SERVICE_UNAVAILABLE.value();
             responseStr = DevExchangeDAOImpl.errorInfoToString(
                     new ErrorInfo("200003", String.format("System is not available: %s Exception Cause: %s",
-                            serviceName, exceptionCause(ex)), null));
+                            serviceName, exceptionCause(exception)), null));
         }
+        return toDxResponse(devexchangeRequest, httpStatus, headers, responseStr);
+    }
 
+    private DevExchangeResponse toDxResponse(DevExchangeRequest devexchangeRequest, int httpStatus, HttpHeaders headers, String responseStr) {
+        DevExchangeResponse dxResponse = new DevExchangeResponse();
         dxResponse.setHttpStatus(httpStatus);
         dxResponse.setHttpHeaders(headers != null ? headers : new HttpHeaders());
         dxResponse.setDxResponse(responseStr);
-        filterFields(dxResponse, responseStr);
+        filterFields(dxResponse, responseStr, devexchangeRequest.getServiceName());
         return dxResponse;
     }
 
     @Trace
-    private ResponseEntity<String> callExchange(WebClient webClient, DevExchangeRequest devExchangeRequest) {
+    private Mono<ResponseEntity<String>> callExchange(WebClient webClient, DevExchangeRequest devExchangeRequest) {
         return webClient
                 .method(devExchangeRequest.getHttpMethod())
                 .uri(devExchangeRequest.getUri())
                 .headers(httpHeaders -> httpHeaders.addAll(devExchangeRequest.getHttpHeaders()))
                 .bodyValue(devExchangeRequest.getRequestBody())
                 .retrieve()
-                .toEntity(String.class)
-                .block();
+                .toEntity(String.class);
     }
 
 
@@ -168,15 +248,8 @@ public class DevExchangeDAOWebImpl extends AbstractBaseService implements DevExc
     }
 
     @Trace
-    private void filterFields(DevExchangeResponse dxResponse, String responseStr) {
-        String clientPropId2Mask = CLIENT_PROPS_MASK_PREFIX;
-        String clientProps2Mask = env.getProperty(clientPropId2Mask);
-        logger.debug("clientPropsId2Mask: {}, clientProps2Mask: {}", clientPropId2Mask, clientProps2Mask);
-        if (StringUtils.isNotBlank(clientProps2Mask)) {
-            fieldsToFilter += clientProps2Mask;
-        }
-        logger.debug("fieldsToFilter: {}", fieldsToFilter);
-        dxResponse.setDxResponseAudit(JsonUtil.getFilteredResponse(responseStr, fieldsToFilter, "dxService"));
+    private void filterFields(DevExchangeResponse dxResponse, String responseStr, String serviceName) {
+        dxResponse.setDxResponseAudit(JsonUtil.getMaskedResponse(responseStr, fieldMasks.getMasker(serviceName), "dxService"));
         logger.debug("dxResponse With Audit fields: {}", dxResponse.getDxResponseAudit());
     }
 
@@ -0,0 +1,29 @@
+package com.capitalone.identity.identitybuilder.policycore.service.dao.impl;
+
+import com.capitalone.chassis.cal1_5.builder.Cal1_5EventStreamDataBuilder;
+import com.capitalone.chassis.engine.annotations.stream.EventStream;
+import com.capitalone.chassis.engine.core.base.AbstractBaseService;
+import com.capitalone.identity.identitybuilder.policycore.model.DevExchangeRequest;
+import com.capitalone.identity.identitybuilder.policycore.model.DevExchangeResponse;
+import com.capitalone.identity.identitybuilder.policycore.service.constants.ApplicationConstants;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Emits the chassis event stream audit of a DevExchange call once its response is available. Blocking calls are
+ * audited by the {@link EventStream} annotation of <code>invokeDxAPI</code>; asynchronous calls complete after that
+ * method would have returned, so they pass their request and response through this bean instead.
+ */
+@Component
+@ConditionalOnProperty(value = DevExchangeDAOWebImpl.WEB_CLIENT_ENABLED_FLAG)
+public class DevExchangeDownstreamCallAudit extends AbstractBaseService {
+
+    /**
+     * @return the response, unchanged
+     */
+    @EventStream(eventName = ApplicationConstants.POLICY_CORE_DOWNSTREAM_API_CALL, customEventStreams = {
+            @EventStream.CustomEventStream(type = EventStream.EventStreamType.AUDIT, emitters = "sdpv3", eventStreamDataBuilder = Cal1_5EventStreamDataBuilder.BUILDER_TYPE)})
+    public DevExchangeResponse audit(DevExchangeRequest devexchangeRequest, DevExchangeResponse dxResponse) {
+        return dxResponse;
+    }
+}
@@ -0,0 +1,92 @@
+package com.capitalone.identity.identitybuilder.policycore.service.dao.impl;
+
+import com.capitalone.identity.identitybuilder.policycore.service.constants.ApplicationConstants;
+import com.capitalone.identity.identitybuilder.policycore.service.util.JsonFieldMasker;
+import com.newrelic.api.agent.NewRelic;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the fields masked in the audited copy of DevExchange responses.
+ * <p>
+ * The masked fields of a service are the global <code>logs.fieldstofilter</code> list, the fields listed under
+ * {@value ApplicationConstants#CLIENT_PROPS_MASK_PREFIX} and the fields listed under
+ * {@value ApplicationConstants#CLIENT_PROPS_MASK_PREFIX}<i>serviceName</i>. They are resolved into an immutable
+ * {@link JsonFieldMasker} the first time a service is called and reused until the configuration is refreshed.
+ */
+@Component
+public class DevExchangeFieldMasks {
+
+    // Recorded once per service each time its masker is resolved, under FIELD_COUNT_METRIC/serviceName
+    static final String FIELD_COUNT_METRIC = "Custom/DevExchange/AuditMaskedFieldCount";
+    static final String NO_SERVICE_NAME = "none";
+
+    private static final Logger logger = LogManager.getLogger(DevExchangeFieldMasks.class);
+
+    private final Environment env;
+    private final String fieldsToFilter;
+    private final Map<String, JsonFieldMasker> maskers = new ConcurrentHashMap<>();
+
+    public DevExchangeFieldMasks(Environment env, @Value("${logs.fieldstofilter}") String fieldsToFilter) {
+        this.env = env;
+        this.fieldsToFilter = fieldsToFilter;
+    }
+
+    /**
+     * @param serviceName the DevExchange service name, may be <code>null</code>
+     * @return the masker for the service
+     */
+    public JsonFieldMasker getMasker(String serviceName) {
+        return maskers.computeIfAbsent(StringUtils.defaultString(serviceName), this::resolve);
+    }
+
+    /**
+     * Discards the resolved maskers so the next call of each service reads the current configuration.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void refresh() {
+        maskers.clear();
+    }
+
+    /**
+     * @return the number of services with a resolved masker
+     */
+    public int size() {
+        return maskers.size();
+    }
+
+    private JsonFieldMasker resolve(String serviceName) {
+        List<String> fields = new ArrayList<>();
+        addFields(fields, fieldsToFilter);
+        addFields(fields, env.getProperty(ApplicationConstants.CLIENT_PROPS_MASK_PREFIX));
+        if (!serviceName.isEmpty()) {
+            addFields(fields, env.getProperty(ApplicationConstants.CLIENT_PROPS_MASK_PREFIX + serviceName));
+        }
+        JsonFieldMasker masker = JsonFieldMasker.of(fields);
+        logger.debug("DevExchange audit fields for service '{}': {}", serviceName, masker.getFieldNames());
+        NewRelic.recordMetric(getFieldCountMetric(serviceName), masker.getFieldNames().size());
+        return masker;
+    }
+
+    static String getFieldCountMetric(String serviceName) {
+        return FIELD_COUNT_METRIC + "/" + (serviceName.isEmpty() ? NO_SERVICE_NAME : serviceName);
+    }
+
+    private static void addFields(List<String> fields, String commaSeparated) {
+        if (StringUtils.isNotBlank(commaSeparated)) {
+            fields.addAll(Arrays.asList(commaSeparated.split(",")));
+        }
+    }
+}
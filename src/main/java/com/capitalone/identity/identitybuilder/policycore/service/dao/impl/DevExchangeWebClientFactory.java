@@ -2,6 +2,7 @@ package com.capitalone.identity.identitybuilder.policycore.service.dao.impl;
 
 import com.capitalone.chassis.engine.consumerservices.common.servicelocator.EndpointLocator;
 import com.capitalone.chassis.engine.consumerservices.common.servicelocator.model.EndpointProperties;
+import com.newrelic.api.agent.NewRelic;
 import io.netty.channel.ChannelOption;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import io.netty.handler.timeout.WriteTimeoutHandler;
@@ -9,21 +10,47 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
 import org.springframework.http.client.reactive.ClientHttpConnector;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
 
 import javax.annotation.PostConstruct;
-import java.util.HashMap;
+import javax.annotation.PreDestroy;
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Creates and caches one {@link WebClient} per scheme and DevExchange service.
+ * <p>
+ * Connections are pooled by {@link ConnectionProvider}s configured under {@value #POOL_PROPERTY_PREFIX}, with the
+ * reactor-netty defaults for any setting left unset. Services
+ * without settings of their own under <code>services.&lt;serviceName&gt;.</code> share the default pool; a service
+ * with its own settings gets a dedicated pool, so hot services cannot starve the others of connections. Setting
+ * <code>event-loop-threads</code> runs all DevExchange clients on one dedicated event loop group instead of the
+ * reactor-netty global one.
+ */
 @Component
 @ConditionalOnProperty(value = DevExchangeDAOWebImpl.WEB_CLIENT_ENABLED_FLAG)
 public class DevExchangeWebClientFactory {
+
+	public static final String POOL_PROPERTY_PREFIX = "identitybuilder.policycore.feature.devexchange.pool.";
+
+	static final String SHARED_POOL_NAME = "devexchange";
+
+	static final String POOL_METRIC_PREFIX = "Custom/DevExchange/ConnectionPool/";
+
 	@Value("${security.oauth2.client.partnerAccessTokenUri:}")
 	private String partnerAccessTokenUri;
 
@@ -31,41 +58,70 @@ public class DevExchangeWebClientFactory {
 
 	private final int defaultRequestTimeout;
 
-	private EndpointLocator chassisEndpointlocator;
-	private Map<String, Integer> requestTimeoutMap;
-	private Map<String, Integer> connectionTimeoutMap;
-	private Map<String, WebClient> requestFactoryMap;
+	private final EndpointLocator chassisEndpointlocator;
+	private final Environment env;
+	private final Map<String, WebClient> requestFactoryMap = new ConcurrentHashMap<>();
+	private final Map<String, ConnectionProvider> connectionProviders = new ConcurrentHashMap<>();
+	private final Map<String, ConnectionPoolMetrics> poolMetrics = new ConcurrentHashMap<>();
+
+	private final WebClient devexWebclient;
+	private final WebClient pdxWebClient;
 
-	private WebClient devexWebclient;
-	private WebClient pdxWebClient;
+	private LoopResources loopResources;
 
 	@Autowired
 	public DevExchangeWebClientFactory(@Qualifier("devexWebClient") WebClient devexWebclient,@Qualifier("pdxWebClient") WebClient pdxWebClient, @Qualifier("chassisFileServiceLocator") EndpointLocator chassisEndpointlocator,
-									   @Value("${chassis.servicelocator.default.connectTimeout}") int connectionTimeout, @Value("${chassis.servicelocator.default.requestTimeout}") int requestTimeout) {
+									   @Value("${chassis.servicelocator.default.connectTimeout}") int connectionTimeout, @Value("${chassis.servicelocator.default.requestTimeout}") int requestTimeout,
+									   Environment env) {
 		this.devexWebclient = devexWebclient;
 		this.pdxWebClient = pdxWebClient;
 		this.chassisEndpointlocator = chassisEndpointlocator;
 		this.defaultConnectionTimeout = connectionTimeout;
 		this.defaultRequestTimeout = requestTimeout;
+		this.env = env;
 	}
 
 	@PostConstruct
 	void init() {
-		connectionTimeoutMap = new HashMap<>();
-		requestTimeoutMap = new HashMap<>();
-		requestFactoryMap = new HashMap<>();
+		int eventLoopThreads = env.getProperty(POOL_PROPERTY_PREFIX + "event-loop-threads", Integer.class, 0);
+		if (eventLoopThreads > 0) {
+			loopResources = LoopResources.create(SHARED_POOL_NAME, eventLoopThreads, true);
+		}
 	}
 
-	public WebClient getDevExchangeWebClient(String serviceName, String scheme) {
-		String key = scheme+"-"+serviceName;
-		WebClient webClient = requestFactoryMap.get(key);
-		if (webClient != null) {
-			return webClient;
+	@PreDestroy
+	void destroy() {
+		connectionProviders.values().forEach(ConnectionProvider::dispose);
+		poolMetrics.clear();
+		if (loopResources != null) {
+			loopResources.dispose();
 		}
+	}
 
-		webClient = createWebClientForService(serviceName, scheme);
-		requestFactoryMap.put(key, webClient);
-		return webClient;
+	public WebClient getDevExchangeWebClient(String serviceName, String scheme) {
+		return requestFactoryMap.computeIfAbsent(scheme + "-" + serviceName,
+				key -> createWebClientForService(serviceName, scheme));
+	}
+
+	/**
+	 * @return the live metrics of every connection pool, keyed by pool name, remote address and pool id
+	 */
+	public Map<String, ConnectionPoolMetrics> getPoolMetrics() {
+		return Collections.unmodifiableMap(poolMetrics);
+	}
+
+	/**
+	 * Publishes the connection pool gauges as New Relic custom metrics.
+	 */
+	@Scheduled(fixedDelayString = "${" + POOL_PROPERTY_PREFIX + "metrics-interval:60000}")
+	public void recordPoolMetrics() {
+		poolMetrics.forEach((key, metrics) -> {
+			String prefix = POOL_METRIC_PREFIX + key + "/";
+			NewRelic.recordMetric(prefix + "Acquired", metrics.acquiredSize());
+			NewRelic.recordMetric(prefix + "Idle", metrics.idleSize());
+			NewRelic.recordMetric(prefix + "Allocated", metrics.allocatedSize());
+			NewRelic.recordMetric(prefix + "PendingAcquire", metrics.pendingAcquireSize());
+		});
 	}
 
 	private WebClient createWebClientForService(String serviceName, String scheme) {
@@ -75,12 +131,12 @@ public class DevExchangeWebClientFactory {
 		}
 
 		WebClient webClient = "dx".equalsIgnoreCase(scheme) ? devexWebclient:pdxWebClient;
-		ClientHttpConnector connector = createHttpConnector(serviceName, scheme);
+		ClientHttpConnector connector = createHttpConnector(serviceName);
 
 		return webClient.mutate().clientConnector(connector).build();
 	}
 
-	private ClientHttpConnector createHttpConnector(String serviceName, String scheme){
+	private ClientHttpConnector createHttpConnector(String serviceName){
 		int connectionTimeout;
 		int requestTimeout;
 
@@ -94,18 +150,112 @@ public class DevExchangeWebClientFactory {
 			requestTimeout = epProperties.get().getRequestTimeout();
 		}
 
-		// Timeout connection maps per service. Static values required for connection handler lambdas
-		String key = scheme+"-"+serviceName;
-		requestTimeoutMap.put(key, requestTimeout);
-		connectionTimeoutMap.put(key, connectionTimeout);
+		PoolSettings poolSettings = getPoolSettings(serviceName);
+		ConnectionProvider connectionProvider = connectionProviders.computeIfAbsent(poolSettings.getName(),
+				name -> createConnectionProvider(poolSettings));
 
-		HttpClient httpClient = HttpClient.create()
+		HttpClient httpClient = HttpClient.create(connectionProvider)
 				.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectionTimeout)
 				.doOnConnected(conn ->
-						conn.addHandlerLast(new ReadTimeoutHandler(requestTimeoutMap.get(key), TimeUnit.MILLISECONDS))
-								.addHandlerLast(new WriteTimeoutHandler(connectionTimeoutMap.get(key), TimeUnit.MILLISECONDS)));
+						conn.addHandlerLast(new ReadTimeoutHandler(requestTimeout, TimeUnit.MILLISECONDS))
+								.addHandlerLast(new WriteTimeoutHandler(connectionTimeout, TimeUnit.MILLISECONDS)));
+		if (loopResources != null) {
+			httpClient = httpClient.runOn(loopResources);
+		}
 
 		return new ReactorClientHttpConnector(httpClient);
 	}
-}
 
+	/**
+	 * Resolves the pool settings of a service. A setting missing under <code>services.&lt;serviceName&gt;.</code>
+	 * falls back to the default pool setting.
+	 *
+	 * @param serviceName the DevExchange service name
+	 * @return the settings of the service's dedicated pool, or of the shared pool if it has no settings of its own
+	 */
+	PoolSettings getPoolSettings(String serviceName) {
+		PoolSettings defaults = new PoolSettings(SHARED_POOL_NAME,
+				env.getProperty(POOL_PROPERTY_PREFIX + "max-connections", Integer.class),
+				env.getProperty(POOL_PROPERTY_PREFIX + "pending-acquire-max-count", Integer.class),
+				getDuration(POOL_PROPERTY_PREFIX + "max-idle-time"),
+				getDuration(POOL_PROPERTY_PREFIX + "max-life-time"),
+				Optional.ofNullable(getDuration(POOL_PROPERTY_PREFIX + "eviction-interval")).orElse(Duration.ZERO));
+
+		String servicePrefix = POOL_PROPERTY_PREFIX + "services." + serviceName + ".";
+		Integer maxConnections = env.getProperty(servicePrefix + "max-connections", Integer.class);
+		Integer pendingAcquireMaxCount = env.getProperty(servicePrefix + "pending-acquire-max-count", Integer.class);
+		Duration maxIdleTime = getDuration(servicePrefix + "max-idle-time");
+		Duration maxLifeTime = getDuration(servicePrefix + "max-life-time");
+		if (maxConnections == null && pendingAcquireMaxCount == null && maxIdleTime == null && maxLifeTime == null) {
+			return defaults;
+		}
+		return new PoolSettings(SHARED_POOL_NAME + "-" + serviceName,
+				maxConnections != null ? maxConnections : defaults.getMaxConnections(),
+				pendingAcquireMaxCount != null ? pendingAcquireMaxCount : defaults.getPendingAcquireMaxCount(),
+				maxIdleTime != null ? maxIdleTime : defaults.getMaxIdleTime(),
+				maxLifeTime != null ? maxLifeTime : defaults.getMaxLifeTime(),
+				defaults.getEvictionInterval());
+	}
+
+	/**
+	 * @return the ISO-8601 duration property, or <code>null</code> if it is not set
+	 */
+	private Duration getDuration(String property) {
+		String value = env.getProperty(property);
+		return value == null || value.isBlank() ? null : Duration.parse(value);
+	}
+
+	private ConnectionProvider createConnectionProvider(PoolSettings settings) {
+		ConnectionProvider.Builder builder = ConnectionProvider.builder(settings.getName())
+				.evictInBackground(settings.getEvictionInterval())
+				.metrics(true, PoolMetricsRegistrar::new);
+		if (settings.getMaxConnections() != null) {
+			builder.maxConnections(settings.getMaxConnections());
+		}
+		if (settings.getPendingAcquireMaxCount() != null) {
+			builder.pendingAcquireMaxCount(settings.getPendingAcquireMaxCount());
+		}
+		if (settings.getMaxIdleTime() != null) {
+			builder.maxIdleTime(settings.getMaxIdleTime());
+		}
+		if (settings.getMaxLifeTime() != null) {
+			builder.maxLifeTime(settings.getMaxLifeTime());
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Tracks the metrics of each pool reactor-netty creates per remote address, until the pool is disposed. The pool
+	 * id keeps pools of the same name and address apart.
+	 */
+	final class PoolMetricsRegistrar implements ConnectionProvider.MeterRegistrar {
+
+		@Override
+		public void registerMetrics(String poolName, String id, SocketAddress remoteAddress, ConnectionPoolMetrics metrics) {
+			poolMetrics.put(poolMetricsKey(poolName, id, remoteAddress), metrics);
+		}
+
+		@Override
+		public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+			poolMetrics.remove(poolMetricsKey(poolName, id, remoteAddress));
+		}
+	}
+
+	static String poolMetricsKey(String poolName, String id, SocketAddress remoteAddress) {
+		return poolName + "/" + remoteAddress + "/" + id;
+	}
+
+	/**
+	 * Connection pool settings. <code>null</code> connection limits leave the reactor-netty defaults in place, and
+	 * <code>null</code> idle and life times mean connections are not evicted for age.
+	 */
+	@lombok.Value
+	static class PoolSettings {
+		String name;
+		Integer maxConnections;
+		Integer pendingAcquireMaxCount;
+		Duration maxIdleTime;
+		Duration maxLifeTime;
+		Duration evictionInterval;
+	}
+}
@@ -0,0 +1,103 @@
+package com.capitalone.identity.identitybuilder.policycore.service.jws;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Bounded store of validation JWKs by kid.
+ * <p>
+ * A missing kid is loaded once however many threads ask for it at the same time. Entries expire a fixed time after
+ * they were written, which should be longer than the lifetime of a key pair, so keys that were rotated out are
+ * dropped once no token can use them any more. Kids that are still in use are reloaded in the background after the
+ * refresh interval while the current value keeps being served; if the reload finds nothing the current value is
+ * kept.
+ */
+final class JwkStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final LoadingCache<String, String> cache;
+
+    /**
+     * @param loader            returns the JWK for a kid, or <code>null</code> if there is none
+     * @param maxSize           maximum number of kids
+     * @param expireAfterWrite  time after which an entry is dropped
+     * @param refreshAfterWrite time after which an entry in use is reloaded
+     * @param pinned            values that are never reloaded
+     */
+    JwkStore(Function<String, String> loader, long maxSize, Duration expireAfterWrite, Duration refreshAfterWrite,
+             Predicate<String> pinned) {
+        this(loader, maxSize, expireAfterWrite, refreshAfterWrite, pinned, Ticker.systemTicker(), null);
+    }
+
+    JwkStore(Function<String, String> loader, long maxSize, Duration expireAfterWrite, Duration refreshAfterWrite,
+             Predicate<String> pinned, Ticker ticker, Executor executor) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .refreshAfterWrite(refreshAfterWrite)
+                .ticker(ticker)
+                .recordStats();
+        if (executor != null) {
+            builder.executor(executor);
+        }
+        this.cache = builder.build(new CacheLoader<>() {
+            @Override
+            public String load(String kid) {
+                return loader.apply(kid);
+            }
+
+            @Override
+            public String reload(String kid, String oldValue) {
+                if (pinned.test(oldValue)) {
+                    return oldValue;
+                }
+                try {
+                    String jwk = loader.apply(kid);
+                    return jwk != null ? jwk : oldValue;
+                } catch (RuntimeException e) {
+                    logger.warn("JWK refresh failed for kid: {}", kid, e);
+                    return oldValue;
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the JWK for the kid, loading it if needed, or <code>null</code> if there is none
+     */
+    String get(String kid) {
+        return cache.get(kid);
+    }
+
+    String getIfPresent(String kid) {
+        return cache.getIfPresent(kid);
+    }
+
+    void put(String kid, String jwk) {
+        cache.put(kid, jwk);
+    }
+
+    long size() {
+        return cache.estimatedSize();
+    }
+
+    CacheStats stats() {
+        return cache.stats();
+    }
+
+    void cleanUp() {
+        cache.cleanUp();
+    }
+}
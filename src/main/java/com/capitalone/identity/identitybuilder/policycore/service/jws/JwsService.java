@@ -4,8 +4,10 @@ import com.capitalone.chassis.engine.model.exception.ChassisBusinessException;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.event_models.JwkValidated;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.event_models.JwkValidated_Publisher;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.newrelic.api.agent.NewRelic;
 import com.nimbusds.jose.*;
 import com.nimbusds.jose.crypto.RSASSASigner;
 import com.nimbusds.jose.crypto.RSASSAVerifier;
@@ -18,15 +20,17 @@ import net.minidev.json.JSONObject;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.lang.invoke.MethodHandles;
 import java.text.ParseException;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 import static com.capitalone.identity.identitybuilder.policycore.service.jws.JWTExtractionException.JwsExceptionType.*;
 import static java.time.Instant.now;
@@ -39,7 +43,6 @@ public class JwsService {
     private static final String IAT = "iat";
     private static final String EXP = "exp";
     private static final String JWK_EXCHANGE_EXCEPTION = "JWK_EXCHANGE_EXCEPTION";
-    private static final String PARSE_EXCEPTION_RESPONSE = "PARSE_EXCEPTION";
     private static final String JWT_INVALID_KEY_RESPONSE = "JWTInvalidKeyResponse";
     private static final String PROCESS_ID = "processID";
     private static final String JWT_KEY_PAIR_NOT_VALID = "JWT Key Pair is not valid";
@@ -78,22 +81,72 @@ public class JwsService {
     static final String OTHER_CLIENT_ERROR_SERVER_RESPONSE = "Request fo r%s failed with client error. Server response: %s";
     static final String SERVER_ERROR = "Not able to retrieve key for kid: %s, server response : %s";
     public static final String NOT_ABLE_TO_RETRIEVE_KEY_FOR_KID = "Not able to retrieve key for kid: %s";
-    private final Map<String, String> kidToJWK = new ConcurrentHashMap<>();
 
     static final String EMPTY_TOKEN_EXP_TIME = "jwtTokenExpTimeInSecond is empty, setting it to default value {} second";
     static final String TOKEN_EXP_TIME_BELOW_LOWER_BOUND = "jwtTokenExpTimeInSecond is below threshold {} seconds, setting it to {} seconds";
     static final String TOKEN_EXP_TIME_ABOVE_UPPER_BOUND = "jwtTokenExpTimeInSecond is above threshold {} seconds, setting it to {} seconds";
     static final String PRODUCT_ID = "productId";
 
-    private JwtKeyModel jwtKeyModel = null;
+    static final Duration DEFAULT_VERIFIER_TTL = Duration.ofMinutes(10);
+    static final Duration DEFAULT_UNKNOWN_KID_TTL = Duration.ofMinutes(1);
+    static final Duration DEFAULT_JWK_EXPIRE_AFTER_WRITE = Duration.ofDays(8);
+    static final Duration DEFAULT_JWK_REFRESH_AFTER_WRITE = Duration.ofHours(1);
+    private static final long MAX_CACHED_KIDS = 1000;
+    static final String JWK_STORE_METRIC_PREFIX = "Custom/Jws/JwkStore/";
+
+    /**
+     * Current key pair with its prebuilt signer, replaced as a whole on rotation
+     */
+    private volatile SigningKey signingKey = null;
 
     private final JwtPublicKeyRetrievalService jwtPublicKeyRetrievalService;
 
     private final JwkValidated_Publisher jwkValidatedPublisher;
 
+    /**
+     * Validation JWKs by kid, loaded from the exchange or stored by {@link #storeJwkToMap(String, String)}
+     */
+    private final JwkStore jwkStore;
+
+    /**
+     * Signature verifiers by kid, together with the JWK they were built from
+     */
+    private final Cache<String, KidVerifier> verifiers;
+
+    /**
+     * Kids the exchange had no JWK for; tokens with these kids are rejected without another lookup
+     */
+    private final Cache<String, Boolean> unknownKids;
+
     public JwsService(JwtPublicKeyRetrievalService jwtPublicKeyRetrievalService, JwkValidated_Publisher jwkValidatedPublisher) {
+        this(jwtPublicKeyRetrievalService, jwkValidatedPublisher, DEFAULT_VERIFIER_TTL.toString(), DEFAULT_UNKNOWN_KID_TTL.toString(),
+                MAX_CACHED_KIDS, DEFAULT_JWK_EXPIRE_AFTER_WRITE.toString(), DEFAULT_JWK_REFRESH_AFTER_WRITE.toString());
+    }
+
+    /**
+     * @param jwkExpireAfterWrite  time after which a stored JWK is dropped; the default is longer than the key pair
+     *                             lifetime of {@link DynamicJWTKeyPairManager}
+     * @param jwkRefreshAfterWrite time after which a JWK still in use is reloaded from the exchange in the background
+     */
+    @Autowired
+    public JwsService(JwtPublicKeyRetrievalService jwtPublicKeyRetrievalService, JwkValidated_Publisher jwkValidatedPublisher,
+                      @Value("${identity.identitybuilder.policycore.crypto.jwt.verifier-cache.ttl:PT10M}") String verifierTtl,
+                      @Value("${identity.identitybuilder.policycore.crypto.jwt.unknown-kid-cache.ttl:PT1M}") String unknownKidTtl,
+                      @Value("${identity.identitybuilder.policycore.crypto.jwt.jwk-store.max-size:1000}") long jwkStoreMaxSize,
+                      @Value("${identity.identitybuilder.policycore.crypto.jwt.jwk-store.expire-after-write:P8D}") String jwkExpireAfterWrite,
+                      @Value("${identity.identitybuilder.policycore.crypto.jwt.jwk-store.refresh-after-write:PT1H}") String jwkRefreshAfterWrite) {
         this.jwtPublicKeyRetrievalService = jwtPublicKeyRetrievalService;
         this.jwkValidatedPublisher = jwkValidatedPublisher;
+        this.jwkStore = new JwkStore(this::loadJwk, jwkStoreMaxSize, Duration.parse(jwkExpireAfterWrite),
+                Duration.parse(jwkRefreshAfterWrite), JWT_PUBLIC_KEY_EXPIRED_STRING::equals);
+        this.verifiers = Caffeine.newBuilder()
+                .maximumSize(MAX_CACHED_KIDS)
+                .expireAfterWrite(Duration.parse(verifierTtl))
+                .build();
+        this.unknownKids = Caffeine.newBuilder()
+                .maximumSize(MAX_CACHED_KIDS)
+                .expireAfterWrite(Duration.parse(unknownKidTtl))
+                .build();
     }
 
     public JwsServiceValidationResponse validate(String jwtToken,String expectedProductId, boolean validateProductId){
@@ -101,13 +154,10 @@ public class JwsService {
             throw new JWTExtractionException(JWT_NULL_TOKEN);
         }
 
-        String payload = getJwtPayload(jwtToken);
-        if (PARSE_EXCEPTION_RESPONSE.equals(payload)){
-            throw new JWTExtractionException(JWT_MALFORMED_TOKEN);
-        }
+        JwsToken token = parseToken(jwtToken);
         Map<String, String> jwtPayload;
         try {
-            jwtPayload = getPayloadAsMap(payload);
+            jwtPayload = token.getClaims();
 
             if (!validateIssuedAt(jwtPayload.get(IAT))){
                 throw new JWTExtractionException(JWS_INVALID_CLAIMS);
@@ -121,12 +171,12 @@ public class JwsService {
             throw new JWTExtractionException(JWT_MALFORMED_TOKEN);
         }
 
-        String kid = parseKeyId(jwtToken);
+        String kid = token.getKeyId();
 
-        if (null != kid && !JWT_INVALID_KEY_RESPONSE.equals(kid)) {
+        if (null != kid) {
             String jwk = getJWK(kid);
             jwkValidCheck(kid, jwk, expectedProductId, validateProductId);
-            if (verifyTokenSignature(jwk, jwtToken)) {
+            if (verifyTokenSignature(kid, jwk, token)) {
                 return response();
             } else {
                 logger.error("Token signature is not valid");
@@ -178,7 +228,7 @@ public class JwsService {
         }
         if(!verifyJwkNotExpired(jsonObject)){
             // invalid the public key
-            kidToJWK.put(kid, JWT_PUBLIC_KEY_EXPIRED_STRING);
+            jwkStore.put(kid, JWT_PUBLIC_KEY_EXPIRED_STRING);
             logger.error(JWK_FOR_KID_IS_EXPIRED_ERROR_MESSAGE,kid);
             exceptionType = JWT_PUBLIC_KEY_EXPIRED;
             jwkValidatedPublisher.publishEvent(new JwkValidated(String.format(JWK_FOR_KID_IS_EXPIRED, kid),exceptionType,
@@ -190,18 +240,50 @@ public class JwsService {
 
     }
 
-    @Nullable
     private String getJWK(String kid) {
-        String jwk = kidToJWK.get(kid);
-        if (null == jwk) {
-            JwtPublicKeyRetrievalResponse jwtPublicKeyRetrievalResponse = jwtPublicKeyRetrievalService.fetchJwtPublicKey(kid);
-            if(jwtPublicKeyRetrievalResponse.getJwk()==null){
-                return JWK_EXCHANGE_EXCEPTION;
-            }
-            jwk = jwtPublicKeyRetrievalResponse.getJwk();
-            kidToJWK.put(kid, jwk);
+        String jwk = jwkStore.get(kid);
+        return jwk != null ? jwk : JWK_EXCHANGE_EXCEPTION;
+    }
+
+    @Nullable
+    private String loadJwk(String kid) {
+        if (unknownKids.getIfPresent(kid) != null) {
+            return null;
         }
-        return jwk;
+        JwtPublicKeyRetrievalResponse jwtPublicKeyRetrievalResponse = jwtPublicKeyRetrievalService.fetchJwtPublicKey(kid);
+        if (jwtPublicKeyRetrievalResponse == null || jwtPublicKeyRetrievalResponse.getJwk() == null) {
+            unknownKids.put(kid, Boolean.TRUE);
+            return null;
+        }
+        return jwtPublicKeyRetrievalResponse.getJwk();
+    }
+
+    /**
+     * @return the stored JWK for the kid, without loading it
+     */
+    @Nullable
+    String getStoredJwk(String kid) {
+        return jwkStore.getIfPresent(kid);
+    }
+
+    /**
+     * @return hit, miss, load and eviction statistics of the JWK store
+     */
+    public CacheStats getJwkStoreStats() {
+        return jwkStore.stats();
+    }
+
+    /**
+     * Publishes the JWK store statistics as New Relic custom metrics.
+     */
+    @Scheduled(fixedDelayString = "${identity.identitybuilder.policycore.crypto.jwt.jwk-store.metrics-interval:60000}")
+    public void recordJwkStoreMetrics() {
+        CacheStats stats = jwkStore.stats();
+        NewRelic.recordMetric(JWK_STORE_METRIC_PREFIX + "Size", jwkStore.size());
+        NewRelic.recordMetric(JWK_STORE_METRIC_PREFIX + "HitCount", stats.hitCount());
+        NewRelic.recordMetric(JWK_STORE_METRIC_PREFIX + "MissCount", stats.missCount());
+        NewRelic.recordMetric(JWK_STORE_METRIC_PREFIX + "EvictionCount", stats.evictionCount());
+        NewRelic.recordMetric(JWK_STORE_METRIC_PREFIX + "LoadFailureCount", stats.loadFailureCount());
     }
 
     String parseKeyId(String aToken) {
@@ -236,25 +318,50 @@ public class JwsService {
     }
 
     boolean verifyTokenSignature(String jwk, String aToken) {
-        RSAKey rsaKey;
-        JWSObject parsedJWS;
-        JWSVerifier verifier;
         try {
-            rsaKey = JWK.parse(jwk).toRSAKey();
-            verifier = new RSASSAVerifier(rsaKey);
-            parsedJWS = JWSObject.parse(aToken);
-            return parsedJWS.verify(verifier);
+            return JWSObject.parse(aToken).verify(createVerifier(jwk));
+        } catch (ParseException | JOSEException e) {
+            logger.error("Error during JWK parse", e);
+            return false;
+        }
+    }
+
+    /**
+     * Verifies the token signature with the cached verifier for the kid. The verifier is rebuilt when it expires or
+     * when the JWK stored for the kid changes.
+     */
+    boolean verifyTokenSignature(String kid, String jwk, JwsToken token) {
+        try {
+            KidVerifier cached = verifiers.getIfPresent(kid);
+            if (cached == null || !cached.jwk.equals(jwk)) {
+                cached = new KidVerifier(jwk, createVerifier(jwk));
+                verifiers.put(kid, cached);
+            }
+            return token.getJwsObject().verify(cached.verifier);
         } catch (ParseException | JOSEException e) {
             logger.error("Error during JWK parse", e);
             return false;
         }
     }
 
+    private static JWSVerifier createVerifier(String jwk) throws ParseException, JOSEException {
+        return new RSASSAVerifier(JWK.parse(jwk).toRSAKey());
+    }
+
+    private static JwsToken parseToken(String jwt) {
+        try {
+            return JwsToken.parse(jwt);
+        } catch (JWTExtractionException e) {
+            logger.error("Error occurred during JWT parse");
+            throw e;
+        }
+    }
+
     public Map<String, String> extractFields(String jwt, List<String> fields) {
         Map<String, String> jwtPayload = new HashMap<>();
-        String payload = getJwtPayload(jwt);
+        JwsToken token = parseToken(jwt);
         try {
-            jwtPayload = getPayloadAsMap(payload);
+            jwtPayload = token.getClaims();
         } catch (Exception e){
             logger.error("Error during JWT parse", e);
             throw new JWTExtractionException(JWT_MALFORMED_TOKEN);
@@ -267,18 +374,11 @@ public class JwsService {
     }
 
     String getJwtPayload(String jwt) {
-        JWSObject jwsObject;
-        try {
-            jwsObject = JWSObject.parse(jwt);
-        } catch (ParseException e) {
-            logger.error("Error occurred during JWT parse", e);
-            throw new JWTExtractionException(JWT_MALFORMED_TOKEN);
-        }
-        return jwsObject.getPayload().toString();
+        return parseToken(jwt).getPayload();
     }
 
     public Map<String, String> getPayloadAsMap(String payload) throws JsonProcessingException {
-        return new ObjectMapper().readValue(payload, new TypeReference<Map<String, String>>() {});
+        return JwsToken.readClaims(payload);
     }
 
     public static int getJwtTokenExpTimeUpperBound(){
@@ -286,11 +386,11 @@ public class JwsService {
     }
 
     public String generate(String processId, Map<String,String> jwtAdditionalPayload, String tokenValidTime){
-        JwtKeyModel currentKeyModel = jwtKeyModel;
-        if(jwtKeyModel==null){
+        SigningKey currentSigningKey = signingKey;
+        if(currentSigningKey==null){
             throw new ChassisBusinessException(JWT_KEY_PAIR_NOT_VALID);
         }
-        if(isKeyPairExpired(currentKeyModel.getKeyPairExp())){
+        if(isKeyPairExpired(currentSigningKey.keyModel.getKeyPairExp())){
             throw new ChassisBusinessException(JWT_KEY_PAIR_EXPIRED);
         }
 
@@ -299,22 +399,16 @@ public class JwsService {
         }
         long tokenExpTime = tokenValidTime==null? JWT_TOKEN_EXP_TIME_UPPER_BOUND : Long.parseLong(tokenValidTime);
 
-        return createSignedJWT(processId,jwtAdditionalPayload,tokenExpTime, currentKeyModel);
+        return createSignedJWT(processId,jwtAdditionalPayload,tokenExpTime, currentSigningKey);
     }
 
 
-    private String createSignedJWT(String processId, Map<String, String> jwtAdditionalPayload, long tokenExpTime, JwtKeyModel currentKeyModel){
+    private String createSignedJWT(String processId, Map<String, String> jwtAdditionalPayload, long tokenExpTime, SigningKey currentSigningKey){
         try {
-            RSAKey jwtPrivateKey = currentKeyModel.getJwtKeyPair();
-            JWSSigner signer = new RSASSASigner(jwtPrivateKey);
             JWTClaimsSet claimsSet = buildClaims(processId,jwtAdditionalPayload, tokenExpTime);
 
-            SignedJWT signedJWT = new SignedJWT(
-                    new JWSHeader.Builder(JWSAlgorithm.RS256)
-                            .keyID(currentKeyModel.getKeyPairKid())
-                            .build(),
-                            claimsSet);
-            signedJWT.sign(signer);
+            SignedJWT signedJWT = new SignedJWT(currentSigningKey.header, claimsSet);
+            signedJWT.sign(currentSigningKey.signer);
             logger.info(SIGNED_JWT_IS_CREATED_SUCCESSFULLY);
             return signedJWT.serialize();
         }catch(JOSEException error){
@@ -322,18 +416,25 @@ public class JwsService {
         }
     }
 
-    // store the jwk to local map
+    // store the jwk to the local key store
     public void storeJwkToMap(String kid, String jwk){
-        kidToJWK.put(kid,jwk);
+        jwkStore.put(kid,jwk);
+        unknownKids.invalidate(kid);
         logger.info(JWT_SUCCESSFULLY_STORED_KEY_PAIR);
     }
 
-    // store the key pair into memory
+    // store the key pair into memory, together with the signer and header used for every token until the next rotation
     public void storeKeyModel(JwtKeyModel jwtKeyModel){
-        this.jwtKeyModel = jwtKeyModel;
+        this.signingKey = new SigningKey(jwtKeyModel);
         logger.info(JWT_SUCCESSFULLY_STORED_KEY_PAIR);
     }
 
+    @Nullable
+    JwtKeyModel getKeyModel() {
+        SigningKey currentSigningKey = signingKey;
+        return currentSigningKey != null ? currentSigningKey.keyModel : null;
+    }
+
 
     private JWTClaimsSet buildClaims(@NotNull String processId, Map<String,String> jwtAdditionalPayload, long tokenExpTime){
         JWTClaimsSet.Builder resultBuilder = new JWTClaimsSet.Builder();
@@ -363,4 +464,37 @@ public class JwsService {
         Instant expiredAt = Instant.ofEpochSecond(keyPairExp);
         return Instant.now().isAfter(expiredAt);
     }
+
+    /**
+     * A key pair with the signer and header built from it. The signer is thread-safe and the header is immutable, so
+     * both are shared by every token signed with the key pair.
+     */
+    private static final class SigningKey {
+        private final JwtKeyModel keyModel;
+        private final JWSSigner signer;
+        private final JWSHeader header;
+
+        private SigningKey(JwtKeyModel keyModel) {
+            RSAKey jwtPrivateKey = keyModel.getJwtKeyPair();
+            try {
+                this.signer = new RSASSASigner(jwtPrivateKey);
+            } catch (JOSEException error) {
+                throw new ChassisBusinessException(error.getMessage());
+            }
+            this.keyModel = keyModel;
+            this.header = new JWSHeader.Builder(JWSAlgorithm.RS256)
+                    .keyID(keyModel.getKeyPairKid())
+                    .build();
+        }
+    }
+
+    private static final class KidVerifier {
+        private final String jwk;
+        private final JWSVerifier verifier;
+
+        private KidVerifier(String jwk, JWSVerifier verifier) {
+            this.jwk = jwk;
+            this.verifier = verifier;
+        }
+    }
 }
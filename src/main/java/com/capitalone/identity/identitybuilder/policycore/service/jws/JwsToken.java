@@ -0,0 +1,73 @@
+package com.capitalone.identity.identitybuilder.policycore.service.jws;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.nimbusds.jose.JWSObject;
+
+import java.text.ParseException;
+import java.util.Map;
+
+import static com.capitalone.identity.identitybuilder.policycore.service.jws.JWTExtractionException.JwsExceptionType.JWT_MALFORMED_TOKEN;
+
+/**
+ * A compact JWS parsed once for validation: the header, the payload claims and the signing input are all taken from
+ * the same parse.
+ */
+public final class JwsToken {
+
+    private static final ObjectReader CLAIMS_READER = new ObjectMapper().readerFor(new TypeReference<Map<String, String>>() {});
+
+    private final JWSObject jwsObject;
+
+    private Map<String, String> claims;
+
+    private JwsToken(JWSObject jwsObject) {
+        this.jwsObject = jwsObject;
+    }
+
+    /**
+     * @param token the compact serialized JWS
+     * @return the parsed token
+     * @throws JWTExtractionException with {@link JWTExtractionException.JwsExceptionType#JWT_MALFORMED_TOKEN} if the
+     *                                token is not a JWS
+     */
+    public static JwsToken parse(String token) {
+        try {
+            return new JwsToken(JWSObject.parse(token));
+        } catch (ParseException e) {
+            throw new JWTExtractionException(JWT_MALFORMED_TOKEN);
+        }
+    }
+
+    /**
+     * @return the <code>kid</code> header, or <code>null</code> if it is not present
+     */
+    public String getKeyId() {
+        return jwsObject.getHeader().getKeyID();
+    }
+
+    public String getPayload() {
+        return jwsObject.getPayload().toString();
+    }
+
+    /**
+     * @return the payload claims as strings, read on first access
+     * @throws JsonProcessingException if the payload is not a JSON object of scalar values
+     */
+    public Map<String, String> getClaims() throws JsonProcessingException {
+        if (claims == null) {
+            claims = readClaims(getPayload());
+        }
+        return claims;
+    }
+
+    JWSObject getJwsObject() {
+        return jwsObject;
+    }
+
+    static Map<String, String> readClaims(String payload) throws JsonProcessingException {
+        return CLAIMS_READER.readValue(payload);
+    }
+}
@@ -3,6 +3,7 @@ package com.capitalone.identity.identitybuilder.policycore.service.util;
 import com.capitalone.api.security.CryptoSerializerDeserializer;
 import com.capitalone.dsd.utilities.crypto.lib.pki.PKIEncryption;
 import com.capitalone.dsd.utilities.crypto.lib.pkiaes.PKIAESEncryption;
+import com.nimbusds.jose.CompressionAlgorithm;
 import com.nimbusds.jose.EncryptionMethod;
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWEAlgorithm;
@@ -211,9 +212,9 @@ public class CryptoUtil {
      */
     static public String encryptEcdh(JWTKey jwtkey, Object payload) throws JOSEException, IllegalArgumentException {
     	if (payload instanceof String) {
-    	    return encryptEcdh(jwtkey, new Payload((String) payload));
+    	    return encryptEcdh(jwtkey, new Payload((String) payload), false);
     	} else if (payload instanceof byte[]) {
-    		String output = encryptEcdh(jwtkey, new Payload((byte[]) payload));
+    		String output = encryptEcdh(jwtkey, new Payload((byte[]) payload), false);
     	    String base64Image = Base64.getEncoder().encodeToString(output.getBytes());
     	    return base64Image;
     	} else {
@@ -221,15 +222,29 @@ public class CryptoUtil {
     	}
     }
 
+    /**
+     * Encrypts a byte[] payload without the Base64 wrapping applied by {@link #encryptEcdh(JWTKey, Object)}
+     * 
+     * @param jwtKey	key containing x, y, kid values
+     * @param payload	The payload that will be encrypted
+     * @param compress	Deflates the payload before encryption, signalled to the recipient by the zip header
+     * @return	Returns the JWE compact serialization of the payload
+     * @throws JOSEException	Error has occurred in the encryption process
+     */
+    public static String encryptEcdhCompact(JWTKey jwtKey, byte[] payload, boolean compress) throws JOSEException {
+    	return encryptEcdh(jwtKey, new Payload(payload), compress);
+    }
+
     /**
 	 * This method is responsible for encrypting a String payload
 	 * 
 	 * @param jwtKey    key containing x, y, kid values
 	 * @param payload   A field containing a Payload object which contains either a string or byte[]
+	 * @param compress  Whether the payload is deflated before encryption
 	 * @return A ciphertext of the payload
      * @throws JOSEException	Error has occurred in the encryption process
 	 */
-	static private String encryptEcdh(JWTKey jwtKey, Payload payload) throws JOSEException {
+	static private String encryptEcdh(JWTKey jwtKey, Payload payload, boolean compress) throws JOSEException {
     	
 		Base64URL xUrl = new Base64URL(jwtKey.getX());
 		Base64URL yUrl = new Base64URL(jwtKey.getY());
@@ -238,6 +253,7 @@ public class CryptoUtil {
 		ECKey eckey = new ECKey.Builder(Curve.P_521, xUrl, yUrl).algorithm(JWEAlgorithm.parse(alg)).keyID(jwtKey.getKid())
 				.build();
 		JWEHeader header = new JWEHeader.Builder(JWEAlgorithm.ECDH_ES, EncryptionMethod.A256GCM).keyID(jwtKey.getKid())
+				.compressionAlgorithm(compress ? CompressionAlgorithm.DEF : null)
 				.build();
 
 		JWEObject jweObject = new JWEObject(header, payload);
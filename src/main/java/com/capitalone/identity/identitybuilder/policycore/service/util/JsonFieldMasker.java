@@ -0,0 +1,156 @@
+package com.capitalone.identity.identitybuilder.policycore.service.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Masks the values of configured field names in JSON documents.
+ * <p>
+ * The document is copied token by token from a parser to a generator in a single pass; no tree is built. The value
+ * of every field whose name matches (case-insensitively) is replaced by {@link #MASK}, whatever its type. Instances
+ * are immutable and safe to share between threads.
+ */
+public final class JsonFieldMasker {
+
+    public static final String MASK = "XXXXXX";
+
+    private static final JsonFieldMasker NONE = new JsonFieldMasker(Collections.emptySet());
+
+    /**
+     * Lower-case field names
+     */
+    private final Set<String> fieldNames;
+
+    private JsonFieldMasker(Set<String> fieldNames) {
+        this.fieldNames = fieldNames;
+    }
+
+    /**
+     * @param fieldsToFilter comma separated field names, may be <code>null</code>
+     * @return a masker for the given field names
+     */
+    public static JsonFieldMasker of(String fieldsToFilter) {
+        if (fieldsToFilter == null || fieldsToFilter.trim().isEmpty()) {
+            return NONE;
+        }
+        return of(Arrays.asList(fieldsToFilter.split(",")));
+    }
+
+    /**
+     * @param fieldsToFilter field names, blank entries are ignored
+     * @return a masker for the given field names
+     */
+    public static JsonFieldMasker of(Collection<String> fieldsToFilter) {
+        Set<String> names = fieldsToFilter.stream()
+                .filter(Objects::nonNull)
+                .map(name -> name.trim().toLowerCase(Locale.ROOT))
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toSet());
+        return names.isEmpty() ? NONE : new JsonFieldMasker(Collections.unmodifiableSet(names));
+    }
+
+    /**
+     * @return the lower-case field names whose values are masked
+     */
+    public Set<String> getFieldNames() {
+        return fieldNames;
+    }
+
+    public boolean isEmpty() {
+        return fieldNames.isEmpty();
+    }
+
+    /**
+     * Returns a compact copy of a JSON document with the configured fields masked. Only the first value in the
+     * input is read.
+     *
+     * @param json    the JSON document
+     * @param factory the factory used to create the parser and generator
+     * @return the masked document, or an empty string if the input contains no value
+     * @throws IOException if the input is not valid JSON
+     */
+    public String mask(String json, JsonFactory factory) throws IOException {
+        try (JsonParser parser = factory.createParser(json)) {
+            return mask(parser, factory, json.length());
+        }
+    }
+
+    /**
+     * Serializes a value and returns it as compact JSON with the configured fields masked. The value is serialized
+     * into a token buffer, not a tree.
+     *
+     * @param value  the value to serialize
+     * @param mapper the mapper used to serialize the value
+     * @return the masked document
+     * @throws IOException if the value cannot be serialized
+     */
+    public String mask(Object value, ObjectMapper mapper) throws IOException {
+        TokenBuffer buffer = new TokenBuffer(mapper, false);
+        mapper.writeValue(buffer, value);
+        try (JsonParser parser = buffer.asParser()) {
+            return mask(parser, mapper.getFactory(), 128);
+        }
+    }
+
+    private String mask(JsonParser parser, JsonFactory factory, int sizeHint) throws IOException {
+        StringWriter writer = new StringWriter(sizeHint);
+        try (JsonGenerator generator = factory.createGenerator(writer)) {
+            copy(parser, generator);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Copies the next value from the parser to the generator, masking configured fields on the way.
+     */
+    void copy(JsonParser parser, JsonGenerator generator) throws IOException {
+        JsonToken token = parser.nextToken();
+        while (token != null) {
+            if (token == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                generator.writeFieldName(name);
+                if (isMasked(name)) {
+                    parser.nextToken();
+                    parser.skipChildren();
+                    generator.writeString(MASK);
+                }
+            } else {
+                generator.copyCurrentEvent(parser);
+            }
+            if (parser.getParsingContext().inRoot()) {
+                // the root value is complete
+                return;
+            }
+            token = parser.nextToken();
+        }
+    }
+
+    private boolean isMasked(String name) {
+        if (fieldNames.isEmpty()) {
+            return false;
+        }
+        if (fieldNames.contains(name)) {
+            return true;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (Character.isUpperCase(name.charAt(i))) {
+                return fieldNames.contains(name.toLowerCase(Locale.ROOT));
+            }
+        }
+        return false;
+    }
+}
@@ -5,13 +5,12 @@ import com.capitalone.chassis.engine.model.exception.ChassisSystemException;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.jayway.jsonpath.JsonPath;
 import com.newrelic.api.agent.Trace;
 import org.apache.commons.lang3.StringUtils;
@@ -19,7 +18,6 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
-import java.util.*;
 
 /**
  * 
@@ -30,8 +28,10 @@ import java.util.*;
 @Profile
 public final class JsonUtil {
 
-	private static List<String> fieldsToRemove;
 	private static final ObjectMapper objectMapper = new ObjectMapper();
+	private static final Cache<String, JsonFieldMasker> fieldMaskers = Caffeine.newBuilder()
+			.maximumSize(64)
+			.build();
 
 	static {
 		objectMapper.disable(SerializationFeature.INDENT_OUTPUT);
@@ -77,64 +77,60 @@ public final class JsonUtil {
 	 */
 	@Trace
 	public static String getFilteredResponse(String jsonData, String fieldsToFilter, String serviceName) {
+		return getMaskedResponse(jsonData, getFieldMasker(fieldsToFilter), serviceName);
+	}
+
+	/**
+	 * Receives JSON string and returns the same after masking the values of the
+	 * fields known to the masker
+	 *
+	 * @param jsonData    the JSON document
+	 * @param fieldMasker the precompiled field set
+	 * @param serviceName service name used for logging
+	 * @return the masked document, or <code>jsonData</code> if it is not JSON
+	 */
+	@Trace
+	public static String getMaskedResponse(String jsonData, JsonFieldMasker fieldMasker, String serviceName) {
 		if (StringUtils.isBlank(jsonData)) {
 			return jsonData;
-		} else {
-			JsonNode rootNode = null;
-			try {
-				rootNode = objectMapper.readTree(jsonData);
-			} catch (IOException e) {
-				logger.debug("Masterbuilder Backend API : {} response {} is not json", serviceName, jsonData);
-				// Suppress the exception no impact because of error in
-				// filtering
-				return jsonData;
-			}
-			return convertJsonNodeToMaskedString(fieldsToFilter, rootNode);
 		}
-	}
-
-	private static String convertJsonNodeToMaskedString(String fieldsToFilter, JsonNode rootNode) {
-		if (rootNode != null && StringUtils.isNotBlank(fieldsToFilter)) {
-			fieldsToRemove = Arrays.asList(fieldsToFilter.toLowerCase().split("\\s*,\\s*"));
-			maskPIIData(rootNode);
-			return rootNode.toString();
-		} else {
-			return null != rootNode ? rootNode.toString() : StringUtils.EMPTY;
+		try {
+			return fieldMasker.mask(jsonData, objectMapper.getFactory());
+		} catch (IOException e) {
+			logger.debug("Masterbuilder Backend API : {} response {} is not json", serviceName, jsonData);
+			// Suppress the exception no impact because of error in
+			// filtering
+			return jsonData;
 		}
 	}
 
 	public static String getFilteredResponse(Object jsonData, String fieldsToFilter) {
+		return getMaskedResponse(jsonData, getFieldMasker(fieldsToFilter));
+	}
+
+	public static String getMaskedResponse(Object jsonData, JsonFieldMasker fieldMasker) {
 		if (jsonData == null)
 			return null;
-		JsonNode rootNode = objectMapper.valueToTree(jsonData);
-		return convertJsonNodeToMaskedString(fieldsToFilter, rootNode);
+		try {
+			return fieldMasker.mask(jsonData, objectMapper);
+		} catch (IOException e) {
+			throw new IllegalArgumentException(e.getMessage(), e);
+		}
 	}
 
-	private static JsonNode maskPIIData(JsonNode node) {
-
-		if (node instanceof ObjectNode) {
-			ObjectNode object = (ObjectNode) node;
-			Iterator<Map.Entry<String, JsonNode>> fieldsIterator = object.fields();
-			while (fieldsIterator.hasNext()) {
-				Map.Entry<String, JsonNode> innerField = fieldsIterator.next();
-				if(fieldsToRemove.contains(innerField.getKey().toLowerCase())) {
-					try {
-						innerField.setValue(objectMapper.readTree("\"XXXXXX\""));
-					} catch (Exception ex) {
-						logger.error("Exception occurred while masking the attributes from Downstream response:{}", ex);
-					}
-				} else if (innerField.getValue() instanceof ObjectNode || innerField.getValue() instanceof ArrayNode) {
-					maskPIIData(innerField.getValue());
-				}
-			}
-		} else if (node instanceof ArrayNode) {
-			// Do masking for each element of arraynode too
-			ArrayNode arrayNode = (ArrayNode) node;
-			for (JsonNode node2 : arrayNode) {
-				maskPIIData(node2);
-			}
+	/**
+	 * Returns the precompiled masker for a comma separated list of field names.
+	 * Maskers are cached, so callers passing the same configuration string do
+	 * not recompile it on every call.
+	 *
+	 * @param fieldsToFilter comma separated field names, may be <code>null</code>
+	 * @return the masker
+	 */
+	public static JsonFieldMasker getFieldMasker(String fieldsToFilter) {
+		if (StringUtils.isBlank(fieldsToFilter)) {
+			return JsonFieldMasker.of((String) null);
 		}
-		return node;
+		return fieldMaskers.get(fieldsToFilter, JsonFieldMasker::of);
 	}
 }
 
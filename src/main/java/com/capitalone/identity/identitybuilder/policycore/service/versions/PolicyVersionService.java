@@ -3,8 +3,6 @@ package com.capitalone.identity.identitybuilder.policycore.service.versions;
 import com.capitalone.identity.identitybuilder.model.EntityActivationStatus;
 import com.capitalone.identity.identitybuilder.model.PolicyInfo;
 import lombok.Builder;
-import org.apache.commons.collections4.MultiValuedMap;
-import org.apache.commons.collections4.multimap.HashSetValuedHashMap;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -12,14 +10,20 @@ import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+/**
+ * Resolves requested policy versions (major.minor, major.minor.patch, or major when version forwarding is enabled)
+ * to the loaded policy patch that should serve the request.
+ * <p>
+ * Writes happen during dynamic policy loads and are serialized; each write publishes a new immutable
+ * {@link Snapshot} with every resolution precomputed. Request threads only dereference the current snapshot,
+ * so reads never lock and never observe a partially applied update.
+ */
 @Component
 public class PolicyVersionService {
 
     public static final String FEATURE_FLAG_VERSION_FORWARDER_KEY = "identitybuilder.policycore.feature.version-forwarder.enabled";
 
-    private final Map<PolicyDataObject, EntityActivationStatus> policyStatusMap = new HashMap<>();
-
-    private final MultiValuedMap<String, PolicyDataObject> policyVersionMap = new HashSetValuedHashMap<>();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
 
     private final boolean isFeatureEnabled;
 
@@ -28,31 +32,19 @@ public class PolicyVersionService {
     }
 
     public PolicyInfo.Patch getPolicyVersion(String policyShortName, String version) {
+        final Snapshot current = snapshot;
         if (version.contains(".")) {
-            return policyVersionMap.get(policyShortName + version).stream()
-                    .max(Comparator.comparingInt(PolicyDataObject::getPolicyPatchVersion))
-                    .filter(policy -> {
-                        EntityActivationStatus status = policyStatusMap.get(policy);
-                        return status == EntityActivationStatus.ACTIVE || status == EntityActivationStatus.AVAILABLE;
-                    })
-                    .orElse(null);
+            return current.getByVersion(policyShortName, version);
         } else if (isFeatureEnabled) {
             final int majorVersion = Integer.parseInt(version);
-            return policyVersionMap.get(policyShortName + majorVersion).stream()
-                    .collect(Collectors.groupingBy(PolicyDataObject::getPolicyMinorVersion))
-                    .values().stream()
-                    .map(patches -> patches.stream().max(Comparator.comparingInt(PolicyDataObject::getPolicyPatchVersion)))
-                    .flatMap(patch -> patch.map(Stream::of).orElseGet(Stream::empty))
-                    .filter(entry -> policyStatusMap.get(entry) == EntityActivationStatus.ACTIVE)
-                    .max(Comparator.comparingInt(PolicyDataObject::getPolicyMinorVersion))
-                    .orElse(null);
+            return current.getByMajorVersion(policyShortName, majorVersion);
         } else {
             return null;
         }
     }
 
-    public void set(PolicyInfo.Patch policy, EntityActivationStatus policyActivationStatus) {
-        policyStatusMap.keySet().stream()
+    public synchronized void set(PolicyInfo.Patch policy, EntityActivationStatus policyActivationStatus) {
+        snapshot.statuses.keySet().stream()
                 .filter(loadedPolicy -> loadedPolicy.getPolicyShortName().equals(policy.getPolicyShortName()))
                 .filter(matchingShortPolicyName -> !matchingShortPolicyName.getPolicyFullName().equals(policy.getPolicyFullName()))
                 .findAny()
@@ -63,21 +55,93 @@ public class PolicyVersionService {
                     throw new IllegalArgumentException(msg);
                 });
 
-        PolicyDataObject policyDataObject = PolicyDataObject.create(policy);
-        policyStatusMap.put(policyDataObject, policyActivationStatus);
-        policyVersionMap.get(policy.getPolicyShortName() + policy.getPolicyVersion()).add(policyDataObject);
-        policyVersionMap.get(policy.getPolicyShortName() + policy.getPolicyMajorVersion()).add(policyDataObject);
-        policyVersionMap.get(policy.getPolicyShortName() + policy.getPolicyPatchVersionString()).add(policyDataObject);
+        final Map<PolicyDataObject, EntityActivationStatus> statuses = new HashMap<>(snapshot.statuses);
+        statuses.put(PolicyDataObject.create(policy), policyActivationStatus);
+        snapshot = Snapshot.create(statuses);
+    }
 
+    public synchronized void remove(PolicyInfo.Patch policy) {
+        final PolicyDataObject policyDataObject = PolicyDataObject.create(policy);
+        if (snapshot.statuses.containsKey(policyDataObject)) {
+            final Map<PolicyDataObject, EntityActivationStatus> statuses = new HashMap<>(snapshot.statuses);
+            statuses.remove(policyDataObject);
+            snapshot = Snapshot.create(statuses);
+        }
     }
 
-    public void remove(PolicyInfo.Patch policy) {
-        PolicyDataObject policyDataObject = PolicyDataObject.create(policy);
-        policyStatusMap.remove(policyDataObject);
-        policyVersionMap.get(policy.getPolicyShortName() + policy.getPolicyVersion()).remove(policyDataObject);
-        policyVersionMap.get(policy.getPolicyShortName() + policy.getPolicyMajorVersion()).remove(policyDataObject);
-        policyVersionMap.get(policy.getPolicyShortName() + policy.getPolicyPatchVersionString()).remove(policyDataObject);
+    /**
+     * Immutable version index. Resolutions are keyed by policy short name and then by the requested version so
+     * lookups do not need to build composite keys.
+     */
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+
+        private final Map<PolicyDataObject, EntityActivationStatus> statuses;
+        private final Map<String, Map<String, PolicyInfo.Patch>> byVersion;
+        private final Map<String, Map<Integer, PolicyInfo.Patch>> byMajorVersion;
+
+        private Snapshot(Map<PolicyDataObject, EntityActivationStatus> statuses,
+                         Map<String, Map<String, PolicyInfo.Patch>> byVersion,
+                         Map<String, Map<Integer, PolicyInfo.Patch>> byMajorVersion) {
+            this.statuses = statuses;
+            this.byVersion = byVersion;
+            this.byMajorVersion = byMajorVersion;
+        }
+
+        PolicyInfo.Patch getByVersion(String policyShortName, String version) {
+            final Map<String, PolicyInfo.Patch> versions = byVersion.get(policyShortName);
+            return versions == null ? null : versions.get(version);
+        }
 
+        PolicyInfo.Patch getByMajorVersion(String policyShortName, int majorVersion) {
+            final Map<Integer, PolicyInfo.Patch> versions = byMajorVersion.get(policyShortName);
+            return versions == null ? null : versions.get(majorVersion);
+        }
+
+        static Snapshot create(Map<PolicyDataObject, EntityActivationStatus> statuses) {
+            final Map<String, Map<String, List<PolicyDataObject>>> versionGroups = new HashMap<>();
+            final Map<String, Map<Integer, List<PolicyDataObject>>> majorGroups = new HashMap<>();
+            for (PolicyDataObject policy : statuses.keySet()) {
+                final Map<String, List<PolicyDataObject>> policyVersions =
+                        versionGroups.computeIfAbsent(policy.getPolicyShortName(), key -> new HashMap<>());
+                policyVersions.computeIfAbsent(policy.getPolicyVersion(), key -> new ArrayList<>()).add(policy);
+                policyVersions.computeIfAbsent(policy.getPolicyPatchVersionString(), key -> new ArrayList<>()).add(policy);
+                majorGroups.computeIfAbsent(policy.getPolicyShortName(), key -> new HashMap<>())
+                        .computeIfAbsent(policy.getPolicyMajorVersion(), key -> new ArrayList<>()).add(policy);
+            }
+
+            final Map<String, Map<String, PolicyInfo.Patch>> byVersion = new HashMap<>();
+            versionGroups.forEach((shortName, versions) -> {
+                final Map<String, PolicyInfo.Patch> resolved = new HashMap<>();
+                versions.forEach((version, patches) -> patches.stream()
+                        .max(Comparator.comparingInt(PolicyDataObject::getPolicyPatchVersion))
+                        .filter(policy -> {
+                            EntityActivationStatus status = statuses.get(policy);
+                            return status == EntityActivationStatus.ACTIVE || status == EntityActivationStatus.AVAILABLE;
+                        })
+                        .ifPresent(policy -> resolved.put(version, policy)));
+                byVersion.put(shortName, Collections.unmodifiableMap(resolved));
+            });
+
+            final Map<String, Map<Integer, PolicyInfo.Patch>> byMajorVersion = new HashMap<>();
+            majorGroups.forEach((shortName, majorVersions) -> {
+                final Map<Integer, PolicyInfo.Patch> resolved = new HashMap<>();
+                majorVersions.forEach((majorVersion, patches) -> patches.stream()
+                        .collect(Collectors.groupingBy(PolicyDataObject::getPolicyMinorVersion))
+                        .values().stream()
+                        .map(minorPatches -> minorPatches.stream().max(Comparator.comparingInt(PolicyDataObject::getPolicyPatchVersion)))
+                        .flatMap(patch -> patch.map(Stream::of).orElseGet(Stream::empty))
+                        .filter(entry -> statuses.get(entry) == EntityActivationStatus.ACTIVE)
+                        .max(Comparator.comparingInt(PolicyDataObject::getPolicyMinorVersion))
+                        .ifPresent(policy -> resolved.put(majorVersion, policy)));
+                byMajorVersion.put(shortName, Collections.unmodifiableMap(resolved));
+            });
+
+            return new Snapshot(Collections.unmodifiableMap(statuses),
+                    Collections.unmodifiableMap(byVersion),
+                    Collections.unmodifiableMap(byMajorVersion));
+        }
     }
 
     @lombok.Value
@@ -33,6 +33,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.test.annotation.DirtiesContext;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 import static org.apache.camel.test.junit5.TestSupport.assertIsInstanceOf;
 import static org.junit.jupiter.api.Assertions.*;
@@ -623,6 +624,52 @@ public class DevExchangeProducerTest {
         expectedOperationalAuditHeaderData(ex, "https://www.google.com/foo/bar", "1", "POST");
     }
 
+    @Test
+    @DirtiesContext
+    void testAsyncInvocation() throws InterruptedException {
+        DevExchangeDAO devExchangeDAO = mock(DevExchangeDAO.class);
+        when(devExchangeDAO.isAsyncSupported()).thenReturn(true);
+        when(devExchangeDAO.invokeDxAPIAsync(any(DevExchangeRequest.class))).thenAnswer(invocation ->
+                CompletableFuture.supplyAsync(() -> {
+                    DevExchangeResponse dxResponse = new DevExchangeResponse();
+                    dxResponse.setDxResponse(RESPONSE_BODY);
+                    dxResponse.setHttpStatus(HttpStatus.OK.value());
+                    dxResponse.setHttpHeaders(new HttpHeaders());
+                    return dxResponse;
+                }));
+        devExchangeComponent.setDevExchangeDAO(devExchangeDAO);
+
+        mockEndpoint.expectedMessagesMatches(TEST_HASH_MAP);
+        mockEndpoint.expectedHeaderReceived(PolicyConstants.HEADER_HTTPSTATUS, HttpStatus.OK.value());
+        template.sendBodyAndHeaders("direct:post", REQUEST_BODY_STRING, HEADERS);
+        mockEndpoint.assertIsSatisfied();
+        verify(devExchangeDAO, never()).invokeDxAPI(any());
+        expectedOperationalAuditHeaderData(mockEndpoint, "https://www.google.com/foo/bar", "1", "POST");
+    }
+
+    @Test
+    @DirtiesContext
+    void testAsyncInvocationErrorStatus() {
+        DevExchangeDAO devExchangeDAO = mock(DevExchangeDAO.class);
+        when(devExchangeDAO.isAsyncSupported()).thenReturn(true);
+        when(devExchangeDAO.invokeDxAPIAsync(any(DevExchangeRequest.class))).thenAnswer(invocation ->
+                CompletableFuture.supplyAsync(() -> {
+                    DevExchangeResponse dxResponse = new DevExchangeResponse();
+                    dxResponse.setDxResponse(RESPONSE_BODY);
+                    dxResponse.setHttpStatus(HttpStatus.NOT_FOUND.value());
+                    dxResponse.setHttpHeaders(new HttpHeaders());
+                    return dxResponse;
+                }));
+        devExchangeComponent.setDevExchangeDAO(devExchangeDAO);
+
+        Exchange ex = new DefaultExchange(camelContext);
+        ex.getIn().setBody(REQUEST_BODY_STRING);
+        ex.getIn().setHeaders(HEADERS);
+        template.send("direct:post", ex);
+        assertIsInstanceOf(DevExchangeException.class, ex.getException());
+        assertEquals(HttpStatus.NOT_FOUND.value(), ex.getMessage().getHeader(PolicyConstants.HEADER_HTTPSTATUS));
+    }
+
     @Configuration
     public static class ContextConfigCamel {
         @Bean
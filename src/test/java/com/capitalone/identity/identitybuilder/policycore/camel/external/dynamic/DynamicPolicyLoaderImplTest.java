@@ -4,11 +4,13 @@ import com.capitalone.identity.identitybuilder.ClientEnvironment;
 import com.capitalone.identity.identitybuilder.configmanagement.ConfigManagementModel;
 import com.capitalone.identity.identitybuilder.model.*;
 import com.capitalone.identity.identitybuilder.policycore.camel.external.model.ExternalItemDefinitionHolder;
+import com.capitalone.identity.identitybuilder.policycore.camel.util.HeaderUtil;
 import com.capitalone.identity.identitybuilder.policycore.configmanagement.ConfigManagementService;
 import com.capitalone.identity.identitybuilder.policycore.decisionengine.DecisionEngineRuntimeLoadService;
 import com.capitalone.identity.identitybuilder.policycore.decisionengine.LoadRuleException;
 import com.capitalone.identity.identitybuilder.policycore.dmnrules.RuleDefinitionModelGroup;
 import com.capitalone.identity.identitybuilder.policycore.schema.SchemaManager;
+import com.capitalone.identity.identitybuilder.policycore.service.PolicyExecutionPlanRegistry;
 import org.apache.camel.CamelContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -55,12 +57,18 @@ class DynamicPolicyLoaderImplTest {
     @Mock
     SchemaManager schemaManager;
 
+    @Mock
+    PolicyExecutionPlanRegistry policyExecutionPlanRegistry;
+
+    @Mock
+    HeaderUtil headerUtil;
+
     @Spy
     ConfigManagementService configManagementService = Mockito.spy(new ConfigManagementService());
 
     @BeforeEach
     void setUp() {
-        loader = new DynamicPolicyLoaderImpl(context, decisionEngineDynamic, policyValidator, routeParser, schemaManager, configManagementService, null, false, null);
+        loader = new DynamicPolicyLoaderImpl(context, decisionEngineDynamic, policyValidator, routeParser, schemaManager, configManagementService, policyExecutionPlanRegistry, headerUtil, null, false, null);
     }
 
     void setUpAddMocks() {
@@ -233,7 +241,7 @@ class DynamicPolicyLoaderImplTest {
     void add_success_enforceDelete() {
         setUpAddMocks();
         setUpEntityMock();
-        loader = new DynamicPolicyLoaderImpl(context, decisionEngineDynamic, policyValidator, routeParser, schemaManager, configManagementService, ClientEnvironment.DEV, true, null);
+        loader = new DynamicPolicyLoaderImpl(context, decisionEngineDynamic, policyValidator, routeParser, schemaManager, configManagementService, policyExecutionPlanRegistry, headerUtil, ClientEnvironment.DEV, true, null);
         when(policyValidator.removeModel(any())).thenReturn(true);
 
         try (MockedStatic<DynamicPolicyHelper> mocked = mockStatic(DynamicPolicyHelper.class)) {
@@ -304,6 +312,8 @@ class DynamicPolicyLoaderImplTest {
             UpdateTransactionResult update = loader.delete(entityInfo);
 
             verify(schemaManager, only()).purgeCache();
+            verify(policyExecutionPlanRegistry).evict(any());
+            verify(headerUtil).evictPolicyRoutes(Collections.emptySet());
             assertEquals(UpdateTransactionResult.Status.SUCCESS, update.getStatus());
         }
     }
@@ -0,0 +1,210 @@
+package com.capitalone.identity.identitybuilder.policycore.camel.util;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the compiled directive handlers of {@link HeaderUtil} leave exactly the same headers and body,
+ * or fail with exactly the same exception, as the directive interpreter they replaced.
+ */
+public class HeaderUtilDifferentialTest {
+
+	private static final CamelContext camelContext = new DefaultCamelContext();
+
+	private final HeaderUtil compiled = new HeaderUtil();
+	private final InterpretedHeaderUtil interpreted = new InterpretedHeaderUtil();
+
+	static Stream<String> directives() {
+		return Stream.of(
+				// value action
+				"foo value body 'string'",
+				"foo value body 'blank'",
+				"foo value body 'empty'",
+				"foo value body 'missing'",
+				"foo value body 'map'",
+				"foo value body 'map.*'",
+				"foo value body 'map.nested.deep'",
+				"foo value body 'string.deep'",
+				"foo value body 'integer{type=i}'",
+				"foo value body 'number{type=i}'",
+				"foo value body 'number{type=i:rename=count}'",
+				"foo value body 'notbool{type=b}'",
+				"foo value body 'bool{type=boolean}'",
+				"foo value body 'phone{type=alphanum:rename=digits}'",
+				"foo value body 'country{type=country3}'",
+				"foo value body 'string{rename=a.b}'",
+				"foo value body 'string{rename=a.}'",
+				"foo value body 'blank{rename=a.b}'",
+				"foo value body 'a..b'",
+				"foo value body '.'",
+				"foo value body '.*'",
+				"foo value body 'string' body 'integer'",
+				"foo value body 'string' hdr 'scalar'",
+				// header paths
+				"foo.bar.xyz value body 'string'",
+				"scalar.bar value body 'string'",
+				"existing.a.b value body 'string'",
+				"foo..bar value body 'string'",
+				"foo. value body 'string'",
+				".foo value body 'string'",
+				"EXISTING map body 'string'",
+				// map action
+				"foo map body 'string, blank, empty, integer, list, map, map.*, missing'",
+				"foo map body 'map.*{rename=x}'",
+				"foo map body 'string.*{rename=x}, list.*'",
+				"foo map body 'string{rename=a.b}, integer{rename=a.c}'",
+				"foo map body 'string{rename=s.t}, integer{rename=s.t.u}'",
+				"foo map body 'string, map.nested.*'",
+				"existing map body 'string'",
+				"scalar map body 'string'",
+				"foo map body 'string' body 'integer'",
+				"foo map body 'string'\nfoo.string value body 'integer'",
+				"foo.string value body 'string'\nfoo map body 'integer'",
+				"foo map hdr 'hdrMap.x{type=b}, hdrMap.y, hdrMap.z.*, scalar, EXISTING.a'",
+				"foo value hdr 'HDRMAP.x'",
+				// mapa action
+				"existing mapa body 'string'",
+				"existing mapa body 'map.*'",
+				"scalar mapa body 'string'",
+				"fresh.path mapa body 'string'",
+				"foo..x mapa body 'string'",
+				"foo map body 'string'\nfoo mapa body 'integer'",
+				// json and attrpairs actions
+				"foo json body 'string, integer, list, map'",
+				"foo json body 'string, object'",
+				"foo json body 'missing'",
+				"foo attrpairs body 'string, integer, map'",
+				"foo attrpairs body 'map.*'",
+				"foo attrpairs body 'missing'",
+				// directive syntax
+				"foo value body 'string' \\\n   hdr 'scalar'\n# comment\n// comment\nbar map body 'map.*'",
+				"\n  \nfoo map body 'string' \\\n  \\",
+				"",
+				"foo value body 'string, integer'",
+				"foo bar body 'string'",
+				"foo map xyz 'string'",
+				"foo map body 'string' extra body 'integer'",
+				"foo map",
+				"foo map body ''",
+				"foo map body 'bad{x}'");
+	}
+
+	@ParameterizedTest
+	@MethodSource("directives")
+	void testSameResultAsInterpreter(String directives) {
+		Object expected = run(interpreted::process, newExchange(true), directives);
+		// The second run uses the cached handlers.
+		assertEquals(expected, run(compiled::process, newExchange(true), directives));
+		assertEquals(expected, run(compiled::process, newExchange(true), directives));
+	}
+
+	@ParameterizedTest
+	@MethodSource("directives")
+	void testSameResultAsInterpreterWithoutBody(String directives) {
+		Object expected = run(interpreted::process, newExchange(false), directives);
+		assertEquals(expected, run(compiled::process, newExchange(false), directives));
+	}
+
+	@Test
+	void testSameResultForManyDirectivesInOneSet() {
+		StringBuilder directives = new StringBuilder();
+		directives().filter(d -> !d.contains("\n") && !d.isEmpty()).forEach(d -> directives.append("\n").append(d));
+		// Directives that fail on their own are left out.
+		String text = Arrays.stream(directives.toString().split("\n"))
+				.filter(d -> run(interpreted::process, newExchange(true), d) instanceof List)
+				.reduce("", (a, b) -> a + "\n" + b);
+		Object expected = run(interpreted::process, newExchange(true), text);
+		assertEquals(expected, run(compiled::process, newExchange(true), text));
+	}
+
+	/**
+	 * Processes the directives and returns either the normalized headers and body,
+	 * or a description of the exception.
+	 */
+	private static Object run(Processor processor, Exchange exchange, String directives) {
+		try {
+			processor.process(exchange, directives);
+		} catch (NullPointerException e) {
+			// Helpful NPE messages describe the failing expression, which differs between implementations.
+			return e.getClass().getName();
+		} catch (RuntimeException e) {
+			return e.getClass().getName() + ": " + e.getMessage();
+		}
+		return Arrays.asList(normalize(exchange.getIn().getHeaders()), normalize(exchange.getIn().getBody()));
+	}
+
+	/**
+	 * Copies a value with its maps and lists replaced by values that compare by content, keeping the
+	 * original map classes (e.g., <code>PathMap</code> compares by identity).
+	 */
+	private static Object normalize(Object value) {
+		if (value instanceof Map) {
+			Map<Object, Object> entries = new HashMap<>();
+			((Map<?, ?>) value).forEach((k, v) -> entries.put(k, normalize(v)));
+			return Arrays.asList(value.getClass().getName(), entries);
+		} else if (value instanceof List) {
+			List<Object> items = new ArrayList<>();
+			((List<?>) value).forEach(v -> items.add(normalize(v)));
+			return items;
+		} else if (value != null && value.getClass() == Object.class) {
+			return Object.class.getName();
+		}
+		return value;
+	}
+
+	private static Exchange newExchange(boolean withBody) {
+		Map<String, Object> nested = new HashMap<>();
+		nested.put("deep", "deep-value");
+		nested.put("empty", "");
+
+		Map<String, Object> map = new HashMap<>();
+		map.put("map1", "map1-value");
+		map.put("map2", 2);
+		map.put("nested", nested);
+
+		Map<String, Object> body = new HashMap<>();
+		body.put("string", "string-value");
+		body.put("blank", "   ");
+		body.put("empty", "");
+		body.put("integer", 42);
+		body.put("number", "1234");
+		body.put("bool", "TRUE");
+		body.put("notbool", "yes");
+		body.put("phone", "(703) 555-1212");
+		body.put("country", "us");
+		body.put("list", new ArrayList<>(Arrays.asList("l0", 1)));
+		body.put("map", map);
+		body.put("object", new Object());
+
+		Map<String, Object> hdrZ = new HashMap<>();
+		hdrZ.put("z1", "z1-value");
+		Map<String, Object> hdrMap = new HashMap<>();
+		hdrMap.put("x", "false");
+		hdrMap.put("y", "");
+		hdrMap.put("z", hdrZ);
+		Map<String, Object> existing = new HashMap<>();
+		existing.put("a", 1);
+
+		Exchange exchange = new DefaultExchange(camelContext);
+		exchange.getIn().setHeader("hdrMap", hdrMap);
+		exchange.getIn().setHeader("existing", existing);
+		exchange.getIn().setHeader("scalar", "scalar-value");
+		exchange.getIn().setBody(withBody ? body : null);
+		return exchange;
+	}
+
+	@FunctionalInterface
+	private interface Processor {
+		void process(Exchange exchange, String directives);
+	}
+}
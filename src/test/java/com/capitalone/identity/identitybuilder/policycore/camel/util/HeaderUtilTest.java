@@ -2,6 +2,7 @@ package com.capitalone.identity.identitybuilder.policycore.camel.util;
 
 import com.capitalone.chassis.engine.model.exception.ChassisSystemException;
 import com.capitalone.chassis.engine.model.exception.RequestValidationException;
+import com.capitalone.identity.identitybuilder.policycore.camel.PolicyConstants;
 import com.capitalone.identity.identitybuilder.policycore.camel.routes.PolicyTestSupportPolicyExchange;
 import com.capitalone.identity.identitybuilder.policycore.utils.CamelSpringBootContextAwareTest;
 import com.capitalone.identity.identitybuilder.policycore.utils.XmlDslCamelTestContextConfiguration;
@@ -320,6 +321,49 @@ public class HeaderUtilTest implements PolicyTestSupportPolicyExchange {
 		assertThrows(IllegalArgumentException.class, ()  -> consumer.process(exchange, "foo map xyz 'string, integer'"));
 	}
 
+	@Test
+	public void testDirectiveCacheStats() {
+		consumer.process(exchange, "foo value body 'string'");
+		consumer.process(exchange, "foo value body 'string'");
+		consumer.process(exchange, "bar value body 'integer'");
+		assertEquals(1, consumer.getDirectiveCacheStats().hitCount());
+		assertEquals(2, consumer.getDirectiveCacheStats().missCount());
+		assertEquals(params.get("integer"), headers.get("bar"));
+	}
+
+	@Test
+	public void testDirectiveCacheInvalidDirectiveNotCached() {
+		assertThrows(IllegalArgumentException.class, () -> consumer.process(exchange, "foo bar body 'string'"));
+		assertThrows(IllegalArgumentException.class, () -> consumer.process(exchange, "foo bar body 'string'"));
+		assertEquals(0, consumer.getDirectiveCacheSize());
+	}
+
+	@Test
+	public void testDirectiveCacheScopedPerPolicy() {
+		String directives = "foo value body 'string'";
+		headers.put(PolicyConstants.HEADER_POLICYROUTENAME, "policyA_1.0");
+		consumer.process(exchange, directives);
+		headers.put(PolicyConstants.HEADER_POLICYROUTENAME, "policyB_1.0");
+		consumer.process(exchange, directives);
+		assertEquals(2, consumer.getDirectiveCacheSize());
+
+		consumer.evictPolicyRoutes(Collections.singleton("policyA_1.0"));
+		assertEquals(1, consumer.getDirectiveCacheSize());
+		consumer.process(exchange, directives);
+		assertEquals(1, consumer.getDirectiveCacheStats().hitCount());
+		assertEquals(params.get("string"), headers.get("foo"));
+	}
+
+	@Test
+	public void testDirectiveCacheBounded() {
+		consumer = new HeaderUtil(1);
+		consumer.process(exchange, "foo value body 'string'");
+		consumer.process(exchange, "bar value body 'integer'");
+		consumer.process(exchange, "baz value body 'boolean'");
+		assertEquals(params.get("boolean"), headers.get("baz"));
+		assertEquals(3, consumer.getDirectiveCacheStats().missCount());
+	}
+
 
 	@Configuration
 	public static class ContextConfig extends XmlDslCamelTestContextConfiguration {
@@ -0,0 +1,369 @@
+package com.capitalone.identity.identitybuilder.policycore.camel.util;
+
+import com.capitalone.chassis.engine.model.exception.ChassisSystemException;
+import com.capitalone.identity.identitybuilder.policycore.camel.util.HeaderUtil.Action;
+import com.capitalone.identity.identitybuilder.policycore.camel.util.HeaderUtil.Source;
+import com.capitalone.identity.identitybuilder.policycore.service.constants.ApplicationConstants;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.camel.Exchange;
+
+import java.io.IOException;
+import java.io.LineNumberReader;
+import java.io.StringReader;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The directive interpreter that {@link HeaderUtil} used before directives were compiled into handlers,
+ * kept as the reference implementation for differential tests. Directives are parsed on every call.
+ */
+class InterpretedHeaderUtil {
+
+	private static final String COMMENT1 = "//";
+	private static final String COMMENT2 = "#";
+	private static final String CONTINUATION = "\\";
+
+	@SuppressWarnings("squid:S4784")
+	private static final Pattern RIGHT_HAND_PATTERN = Pattern.compile("(\\S*)\\s*(body|hdr)\\s*'([^']*)'");
+
+	private ObjectMapper mapper = new ObjectMapper();
+
+	public void process(Exchange exchange, String directives) {
+		if (directives == null) {
+			throw new IllegalArgumentException("This route requres the " + HeaderUtil.ARG1_HEADER + " header be set to define header processing");
+		}
+		for (HeaderEntry hd: compileDirectives(directives)) {
+			for (Directive d : hd.getDirectives()) {
+				processDirective(exchange, hd, d);
+			}
+		}
+	}
+
+	/**
+	 * Process a single header directive (implemented as a separate method to please SonarQube).
+	 * 
+	 * @param exchange the exchange to modify
+	 * @param hd the header entry
+	 * @param d the directive to process
+	 */
+	@SuppressWarnings("unchecked")
+	private void processDirective(Exchange exchange, HeaderEntry hd, Directive d) {
+		// Invoke the proper processor according to the source type.
+		Map<String, Object> map;
+		switch (d.getSource()) {
+		case BODY:
+			map = extract(new PathMap(exchange.getIn().getBody(Map.class)),
+					((ParameterDirective) d).getParams());
+			break;
+		case HDR:
+			map = extract(new PathMap(exchange.getIn().getHeaders()),
+					((ParameterDirective) d).getParams());
+			break;
+		default:
+			map = Collections.emptyMap(); // Shouldn't get here, as all enums should be covered
+		}
+
+		// Convert the created map based on the action.
+		Object value;
+		switch (hd.getAction()) {
+		case MAP:
+			value = map;
+			break;
+		case JSON:
+			try {
+				value = mapper.writeValueAsString(map);
+			} catch (JsonProcessingException jpe) {
+				throw new ChassisSystemException(jpe.getMessage(), jpe);
+			}
+			break;
+		case VALUE:
+			value = map.isEmpty() ? null : map.values().iterator().next();
+			break;
+		case ATTRPAIRS:
+			value = convertToNameValue(map);
+			break;
+		case MAPA:
+			// MAPA (map add) is a special case because if the header path points to an existing map
+			// we want to add the new map elements to it, not replace it.
+			Object targetMap = new PathMap(exchange.getIn().getHeaders()).get(hd.getHeaderPath());
+			if (targetMap instanceof Map) {
+				((Map<String, Object>) targetMap).putAll(map);
+				return;
+			}
+			value = map;
+			break;
+		default:
+			value = null; // shouldn't get here, as all enums should be covered
+		}
+
+		// Set the value in the designated header, creating parent maps as needed.
+		setHeaderByPath(exchange.getIn().getHeaders(), hd.getHeaderPath(), hd.getHeaderPath(), value);
+	}
+	
+	/**
+	 * Converts a first-level map into an JSON array where each
+	 * key and value are grouped into their own maps as separate entries.
+	 * <p>
+	 * So an input map of
+	 * <pre>{ foo="bar", count=1 }</pre>
+	 * will result in an output list of
+	 * <pre>[ { attributeName="foo", attributeValue="bar" },
+	 *  { attributeName="count", attributeValue="1" } ]</pre>, expressed as
+	 * a string.
+	 * 
+	 * @param  input the input map to convert
+	 * @return a JSON String containing an array of attributeNames and attributeValues pairs
+	 */
+	private String convertToNameValue(Map<String, Object> input) {
+		// Build the list of maps, one for each name/value pair.
+		List<Map<String, Object>> list = new ArrayList<>(input.size());
+	    for (Map.Entry<String, Object> entry : input.entrySet()) {
+	        Map<String, Object> map = new TreeMap<>();
+	        map.put(ApplicationConstants.ATTRIBUTE_NAME, entry.getKey());
+	        map.put(ApplicationConstants.ATTRIBUTE_VALUE, entry.getValue().toString());
+	        list.add(map);
+	    }
+	    
+	    // Convert it to a JSON string before returning.
+		try {
+			return mapper.writeValueAsString(list);
+		} catch (JsonProcessingException e) {
+			// This shouldn't happen but we have to cover all the bases.
+			throw new ChassisSystemException(e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * Recursively search a tree of header <code>Map</code>s to store a value in the map.
+	 * 
+	 * @param map the current parent map (starts with the message header map)
+	 * @param originalPath the original header name path (for error messages)
+	 * @param path the remaining header name path (in dotted notation)
+	 * @param value the value to store in the target header named by <code>path</code>
+	 */
+	@SuppressWarnings("unchecked")
+	private void setHeaderByPath(Map<String, Object> map, String originalPath, String path, Object value) {
+		String[] names = path.split("\\.", 2);
+		if (names.length == 1) {
+			// We've navigated all the parent nodes now so store the value in the current map.
+			Object oldValue = map.get(names[0]);
+			if (oldValue instanceof Map && value instanceof Map) {
+				((Map<String, Object>) oldValue).putAll((Map<String, Object>) value);
+			} else {
+				map.put(names[0], value);
+			}
+		} else {
+			Object node = map.get(names[0]);
+			if (node == null) {
+				node = new TreeMap<String, Object>();
+				map.put(names[0], node);				
+			}
+			if (!(node instanceof Map)) {
+				throw new IllegalArgumentException(String.format("Cannot set policy header %s due to conflict with path component %s", originalPath, names[0]));
+			}
+			setHeaderByPath((Map<String, Object>) node, originalPath, names[1], value);
+		}
+	}
+	
+	/**
+	 * Extract specific <i>body</i> parameters to a map, allowing
+	 * type conversion and enforcement of required parameters and syntax.
+	 * <p>
+	 * See {@link com.capitalone.identity.identitybuilder.policycore.camel.util.RequestParameter RequestParameter}
+	 * for the annotation syntax.
+	 * 
+	 * @param from the map containing the parameters to process
+	 * @param params the parameters to extract (may be annotated)
+	 * @throws RequestValidationException if a required value is missing or a value has an invalid syntax
+	 * @see {@link com.capitalone.identity.identitybuilder.policycore.camel.util.RequestParameter RequestParameter}
+	 *      for the annotation syntax for <code>names</code>
+	 */
+	@SuppressWarnings("unchecked")
+	private Map<String, Object> extract(PathMap from, RequestParameter[] params) {
+		Map<String, Object> to = new PathMap(new TreeMap<>()).filter(PathMap.SPARSE_FILTER);
+		for (RequestParameter param : params) {
+			// Values are extracted from the header using path resolution (e.g., a.b.c)
+			// We first need to see if we are flattening a map.
+			String name = param.getName();
+			boolean flattenMap = name.endsWith(".*");
+			if (flattenMap) {
+				name = name.substring(0, name.length() - 2);
+			}
+			
+			// Get the value (String, int, float, boolean, or Map<String, Object>.
+			Object value = from.get(name);
+			
+			// Figure out what the new entry will be named (rename support0.
+			String lastPathName = PathMap.pathToList(name).getLast();
+			String computedName = (param.getNewName() != null) ? param.getNewName() : lastPathName;
+			
+			// Flattened maps cannot be renamed because they are expanded and may have multiple keys.
+			if (value instanceof Map && flattenMap && param.getNewName() != null) {
+				throw new IllegalArgumentException(String.format("Value for param %s is a Map which cannot be renamed as it is flattened", param.getDeclaration()));						
+			}
+			
+			// Use the parameter directive to possibly modify the value.
+			value = param.toValue(value);
+			
+			// Accumulate values into the target map, expanding map values.
+			if (value instanceof Map && flattenMap) {
+				to.putAll((Map<String, Object>) value);
+			} else {
+				to.put(computedName, value);
+			}
+		}
+		return to;
+	}
+	
+	/**
+	 * Parses and compiles a set of header directives for repeated use.
+	 * 
+	 * @param  text the header directives
+	 * @return the compiled directives
+	 * @throws IllegalArgumentException if the text is of an invalid format
+	 */
+	private List<HeaderEntry> compileDirectives(String text) {
+		List<HeaderEntry> list = new ArrayList<>();
+
+		try (LineNumberReader reader = new LineNumberReader(new StringReader(text))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith(COMMENT1) || line.startsWith(COMMENT2)) {
+					continue;
+				}
+
+				int startingLine = reader.getLineNumber();
+				// Continued lines are merged together before parsing.
+				while (line.endsWith(CONTINUATION)) {
+					// Get the next line (or EOF) and append it.
+					String nextLine = reader.readLine();
+					if (nextLine == null) {
+						break;
+					}
+					line = line.substring(0, line.length() - 2) + " " + nextLine.trim();
+				}
+
+				// Get the header, operator, and any directives.
+				String[] parts = line.split("\\s+", 3);
+				if (parts.length != 3) {
+					throw new IllegalArgumentException(String.format("Invalid directive format at line %d", startingLine));
+				}
+				String headerName = parts[0];
+				Action action = Action.valueOf(parts[1].toUpperCase());
+
+				// Scan for directives and build a list of them.
+				List<Directive> dList = buildDirectiveList(action, startingLine, parts[2]);
+				
+				list.add(new HeaderEntry(headerName, action, dList));
+			}
+			return list;
+		} catch (IOException e) {
+			// Should never get here because we can't get an IO error reading a string.
+			throw new IllegalArgumentException("Invalid directive", e);
+		}
+	}
+	
+	/**
+	 * Parses a directive list string into a list of directive objects.
+	 * 
+	 * @param action the action being taken
+	 * @param startingLine the line the directive starts at
+	 * @param text the directive list string
+	 * @return a list of directive objects parsed from <code>text</code> (may be empty)
+	 */
+	private List<Directive> buildDirectiveList(Action action, int startingLine, String text) {
+		List<Directive> list = new ArrayList<>();
+		Matcher m = RIGHT_HAND_PATTERN.matcher(text);
+		boolean found = false;
+		while (m.find()) {
+			// The first capture group makes sure there isn't an extra token
+			// before the source.  This could be due to multiple header directives
+			// are accidentally placed on the same line.
+			if (!m.group(1).isEmpty()) {
+				throw new IllegalArgumentException(String.format("Invalid directive source \"%s\" at line %d", m.group(1), startingLine));				
+			}
+			found = true;
+			Source source = Source.valueOf(m.group(2).toUpperCase());
+			
+			String[] fieldList = TestTypeConverters.toStringArray(m.group(3));
+			if (fieldList.length > 1 && action == Action.VALUE) {
+				throw new IllegalArgumentException(String.format("Invalid directive field names at line %d: multiple field names for single value operator", startingLine));
+			}
+			
+			list.add(new ParameterDirective(source, RequestParameter.fromArray(fieldList)));
+		}
+		if (!found) {
+			throw new IllegalArgumentException(String.format("Invalid directive source \"%s\" at line %d", text, startingLine));
+		}
+		return list;
+	}
+			 
+	/**
+	 * One or more parameter directives for a single header assignment.
+	 * 
+	 * @author oqu271
+	 */
+	private static class HeaderEntry {
+		String headerPath;
+		Action action;
+		List<Directive> directives;
+		
+		public HeaderEntry(String headerPath, Action action, List<Directive> directives) {
+			this.headerPath = headerPath;
+			this.action = action;
+			this.directives = directives;
+		}
+		
+		public String getHeaderPath() {
+			return headerPath;
+		}
+
+		public Action getAction() {
+			return action;
+		}
+
+		public List<Directive> getDirectives() {
+			return directives;
+		}
+	}
+
+	/**
+	 * A tagging interface to handle the different types of directives.
+	 *
+	 * @author oqu271
+	 */
+	private static interface Directive {
+		public Source getSource();
+	}
+	
+	/**
+	 * Represents a single compiled parameter directive.
+	 * 
+	 * @author oqu271
+	 */
+	private static class ParameterDirective implements Directive {
+		Source source;
+		RequestParameter[] params;
+		
+		public ParameterDirective(Source source, RequestParameter[] params) {
+			this.source = source;
+			this.params = params;
+		}
+		
+		public Source getSource() {
+			return source;
+		}
+
+		public RequestParameter[] getParams() {
+			return params;
+		}
+		
+		@Override
+		public String toString() {
+			return source.toString().toLowerCase() + " " + Arrays.toString(params);
+		}
+	}
+}
@@ -292,6 +292,22 @@ public class RequestParameterTest {
 		assertEquals(cipherText, new RequestParameter("foo{type=aesencrypt}").toValue("bar"));
 	}
 
+	@Test
+	public void testEncryptCryptoUtilInjectedAfterParsing() {
+		String cipherText = "fake-encrypted-ciphertext";
+		when(cryptoUtil.encrypt(anyString())).thenReturn(cipherText);
+		RequestParameter param = new RequestParameter("foo{type=encrypt}");
+		new RequestParameter(cryptoUtil);
+		assertEquals(cipherText, param.toValue("bar"));
+	}
+
+	@Test
+	public void testToValueReusedParameter() {
+		RequestParameter param = new RequestParameter("foo{type=alphanum}");
+		assertEquals("7035551212", param.toValue("(703) 555-1212"));
+		assertEquals("abc123", param.toValue("a-b-c 1.2.3"));
+	}
+
 	private void checkItem(RequestParameter f, String name, ConversionType type) {
 		assertEquals(name, f.getName());
 		assertEquals(type, f.getConversionType());
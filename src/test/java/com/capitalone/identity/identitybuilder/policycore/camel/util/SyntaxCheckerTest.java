@@ -8,6 +8,7 @@ import java.util.regex.Pattern;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class SyntaxCheckerTest {
 
@@ -30,6 +31,30 @@ public class SyntaxCheckerTest {
 		assertEquals("must be numeric", c.getErrorText());
 	}
 
+	@Test
+	public void testRegexLinearTime() {
+		SyntaxChecker c = SyntaxChecker.regex("[0-9]*", "must be numeric", true);
+		assertEquals(true, c.matches("123456"));
+		assertFalse(c.matches("123x56"));
+		assertFalse(c.matches("(a+)+b"));
+		assertEquals("must be numeric", c.getErrorText());
+	}
+
+	@Test
+	public void testRegexLinearTimeNoBacktracking() {
+		SyntaxChecker c = SyntaxChecker.regex("(a+)+b", "must end in b", true);
+		assertFalse(c.matches("aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaac"));
+		assertEquals(true, c.matches("aaab"));
+	}
+
+	@Test
+	public void testRegexInvalidAtCreation() {
+		assertThrows(IllegalArgumentException.class, () -> SyntaxChecker.regex("[0-9", "must be numeric"));
+		assertThrows(IllegalArgumentException.class, () -> SyntaxChecker.regex("[0-9", "must be numeric", true));
+		// Backreferences are not supported for linear time matching.
+		assertThrows(IllegalArgumentException.class, () -> SyntaxChecker.regex("(a)\\1", "must repeat", true));
+	}
+
 	@Test
 	public void testFixedValuesCaseSensitive() {
 		SyntaxChecker c = SyntaxChecker.fixedValues(Arrays.asList("yes", "no", "maybe"), "must be one of yes, no, maybe", true);
@@ -117,6 +142,22 @@ public class SyntaxCheckerTest {
 		assertEquals("must be a valid YYYY-MM-DD date", c.getErrorText());
 	}
 
+	@Test
+	public void testDateBeforeGregorianCalendar() {
+		SyntaxChecker c = SyntaxChecker.YYYYMMDD_DATE;
+
+		// Dates before October 15th 1582 are on the Julian calendar, as with GregorianCalendar.
+		assertEquals(true, c.matches("1500-02-29"));
+		assertEquals(true, c.matches("1582-10-04"));
+		assertEquals(true, c.matches("1582-10-15"));
+		assertEquals(true, c.matches("1600-02-29"));
+		assertEquals(true, c.matches("0001-01-01"));
+		assertFalse(c.matches("1582-10-10"));
+		assertFalse(c.matches("1501-02-29"));
+		assertFalse(c.matches("1700-02-29"));
+		assertFalse(c.matches("0000-01-01"));
+	}
+
 	@Test
 	public void testCountry2() {
 		SyntaxChecker c = SyntaxChecker.COUNTRY_2;
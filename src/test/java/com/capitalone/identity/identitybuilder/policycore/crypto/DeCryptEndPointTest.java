@@ -4,7 +4,6 @@ import org.apache.camel.Component;
 import org.apache.camel.Processor;
 import org.apache.camel.Producer;
 import org.apache.camel.test.spring.junit5.CamelSpringTestSupport;
-import org.apache.commons.collections4.map.PassiveExpiringMap;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
@@ -13,10 +12,6 @@ import org.springframework.context.annotation.AnnotationConfigApplicationContext
 import org.springframework.context.support.AbstractApplicationContext;
 import org.springframework.core.env.Environment;
 
-import java.util.Collections;
-import java.util.Map;
-import java.util.concurrent.TimeUnit;
-
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
 
@@ -30,9 +25,8 @@ class DeCryptEndPointTest extends CamelSpringTestSupport {
     void createProducerTest() {
         Component component = new DecryptionComponent();
 
-        Map<String, String> cache = Collections.synchronizedMap(new PassiveExpiringMap<>(900, TimeUnit.SECONDS));
         when(environment.getActiveProfiles()).thenReturn(new String[]{"local"});
-        Processor processor = new DeCryptProcessor(new DeCryptService(environment, "v1", cache));
+        Processor processor = new DeCryptProcessor(new DeCryptService(environment, "v1", 900, 1000));
         endpoint = new DeCryptEndPoint("url", component, processor);
         Producer producer = endpoint.createProducer();
         assertEquals("url", producer.getEndpoint().getEndpointUri());
@@ -45,9 +39,8 @@ class DeCryptEndPointTest extends CamelSpringTestSupport {
     @Test
     void createConsumerTest() {
         Component component = new DecryptionComponent();
-        Map<String, String> cache = Collections.synchronizedMap(new PassiveExpiringMap<>(900, TimeUnit.SECONDS));
         when(environment.getActiveProfiles()).thenReturn(new String[]{"local"});
-        Processor processor = new DeCryptProcessor(new DeCryptService(environment, "v1", cache));
+        Processor processor = new DeCryptProcessor(new DeCryptService(environment, "v1", 900, 1000));
         endpoint = new DeCryptEndPoint("url", component, processor);
         assertThrows(UnsupportedOperationException.class, () -> endpoint.createConsumer(processor));
     }
@@ -1,10 +1,19 @@
 package com.capitalone.identity.identitybuilder.policycore.crypto;
 
 import com.capitalone.chassis.engine.model.exception.ChassisBusinessException;
+import com.capitalone.fs.secretprovider.SecretProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.EncryptionMethod;
 import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWEAlgorithm;
 import com.nimbusds.jose.JWEHeader;
 import com.nimbusds.jose.JWEObject;
 import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.ECDHDecrypter;
+import com.nimbusds.jose.crypto.ECDHEncrypter;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -13,17 +22,34 @@ import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 @SpringBootTest(classes = {DeCryptService.class}, properties = "lockBoxId/productId/kid=test")
 @ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 class DeCryptServiceTest {
 
     @Autowired
@@ -47,8 +73,9 @@ class DeCryptServiceTest {
                         JWEObject.class)) {
             jwe.when(() -> JWEObject.parse(any())).thenReturn(new JWEObject(header, payload));
             utility.when(() -> DecryptUtil.getDecode(any())).thenReturn("test".getBytes());
-            utility.when(() -> DecryptUtil.isExpired(any())).thenReturn(false);
-            utility.when(() -> DecryptUtil.parseData(anyString(), any())).thenReturn("data");
+            utility.when(() -> DecryptUtil.getExpiry(any())).thenReturn(Instant.now().plusSeconds(3600));
+            utility.when(() -> DecryptUtil.createDecrypter(anyString())).thenReturn(mock(ECDHDecrypter.class));
+            utility.when(() -> DecryptUtil.decryptData(any(), any())).thenReturn("data");
             // execute
             String test = service.decrypt("test", config);
 
@@ -76,8 +103,7 @@ class DeCryptServiceTest {
 
             jwe.when(() -> JWEObject.parse(any())).thenReturn(new JWEObject(header, payload));
             utility.when(() -> DecryptUtil.getDecode(any())).thenReturn("test".getBytes());
-            utility.when(() -> DecryptUtil.isExpired(any())).thenReturn(true);
-            utility.when(() -> DecryptUtil.parseData(anyString(), any())).thenReturn("data");
+            utility.when(() -> DecryptUtil.getExpiry(any())).thenReturn(Instant.now().minusSeconds(60));
             // execute and test
             assertThrows(ChassisBusinessException.class, () -> service.decrypt("test", config));
 
@@ -102,8 +128,9 @@ class DeCryptServiceTest {
                         JWEObject.class)) {
             jwe.when(() -> JWEObject.parse(any())).thenReturn(new JWEObject(header, payload));
             utility.when(() -> DecryptUtil.getDecode(any())).thenReturn("test".getBytes());
-            utility.when(() -> DecryptUtil.isExpired(any())).thenReturn(false);
-            utility.when(() -> DecryptUtil.parseData(anyString(), any()))
+            utility.when(() -> DecryptUtil.getExpiry(any())).thenReturn(Instant.now().plusSeconds(3600));
+            utility.when(() -> DecryptUtil.createDecrypter(anyString())).thenReturn(mock(ECDHDecrypter.class));
+            utility.when(() -> DecryptUtil.decryptData(any(), any()))
                     .thenThrow(new JOSEException("Error parse data"));
             // execute and test
             assertThrows(ChassisBusinessException.class, () -> service.decrypt("test", config));
@@ -128,4 +155,125 @@ class DeCryptServiceTest {
 
         }
     }
-}
\ No newline at end of file
+
+    @SneakyThrows
+    @Test
+    void decryptTestKeyLoadedOnce() {
+        // prepare
+        COSRequestProperties config = COSRequestProperties.builder()
+                .lockBoxId("lockBoxId")
+                .productId("productId")
+                .vaultAddress("vaultAddress")
+                .vaultRole("vaultRole")
+                .build();
+        JWEHeader header = mock(JWEHeader.class);
+        Payload payload = mock(Payload.class);
+        when(header.getKeyID()).thenReturn("kid");
+        try (MockedStatic<DecryptUtil> utility = mockStatic(DecryptUtil.class); MockedStatic<JWEObject> jwe =
+                mockStatic(
+                        JWEObject.class)) {
+            jwe.when(() -> JWEObject.parse(any())).thenReturn(new JWEObject(header, payload));
+            utility.when(() -> DecryptUtil.getDecode(any())).thenReturn("test".getBytes());
+            utility.when(() -> DecryptUtil.getExpiry(any())).thenReturn(Instant.now().plusSeconds(3600));
+            utility.when(() -> DecryptUtil.createDecrypter(anyString())).thenReturn(mock(ECDHDecrypter.class));
+            utility.when(() -> DecryptUtil.decryptData(any(), any())).thenReturn("data");
+            // execute
+            service.decrypt("test", config);
+            service.decrypt("test", config);
+
+            // test
+            utility.verify(() -> DecryptUtil.getDecode(any()), times(1));
+            utility.verify(() -> DecryptUtil.createDecrypter(anyString()), times(1));
+            utility.verify(() -> DecryptUtil.decryptData(any(), any()), times(2));
+        }
+    }
+
+    @SneakyThrows
+    @Test
+    void decryptTestSecretProviderReused() {
+        // prepare
+        Map<String, ECKey> keys = new HashMap<>();
+        keys.put("kid1", new ECKeyGenerator(Curve.P_256).keyID("kid1").generate());
+        keys.put("kid2", new ECKeyGenerator(Curve.P_256).keyID("kid2").generate());
+        SecretProvider provider = mock(SecretProvider.class);
+        when(provider.getSecret(anyString())).thenAnswer(invocation -> encodeSecret(keys.get(invocation.<String>getArgument(0))));
+        DeCryptService iamService = spy(new DeCryptService(new MockEnvironment(), "v1", 900, 1000));
+        doReturn(provider).when(iamService).createIAMSecretProvider(anyString(), anyString(), anyString());
+        COSRequestProperties config = COSRequestProperties.builder()
+                .lockBoxId("lockBoxId")
+                .productId("productId")
+                .vaultAddress("vaultAddress")
+                .vaultRole("vaultRole")
+                .build();
+
+        // execute and test
+        String expected = Base64.getEncoder().encodeToString("payload".getBytes(StandardCharsets.UTF_8));
+        assertEquals(expected, iamService.decrypt(encrypt(keys.get("kid1"), "payload"), config));
+        assertEquals(expected, iamService.decrypt(encrypt(keys.get("kid2"), "payload"), config));
+        assertEquals(expected, iamService.decrypt(encrypt(keys.get("kid1"), "payload"), config));
+        assertEquals(2, iamService.getCachedKeyCount());
+        verify(iamService, times(1)).createIAMSecretProvider("lockBoxId/productId", "vaultAddress", "vaultRole");
+        verify(provider, times(2)).getSecret(anyString());
+    }
+
+    @SneakyThrows
+    @Test
+    void decryptTestConcurrentMissLoadsOnce() {
+        // prepare
+        ECKey key = new ECKeyGenerator(Curve.P_256).keyID("kid").generate();
+        AtomicInteger loads = new AtomicInteger();
+        SecretProvider provider = mock(SecretProvider.class);
+        when(provider.getSecret("kid")).thenAnswer(invocation -> {
+            loads.incrementAndGet();
+            Thread.sleep(100);
+            return encodeSecret(key);
+        });
+        DeCryptService iamService = spy(new DeCryptService(new MockEnvironment(), "v1", 900, 1000));
+        doReturn(provider).when(iamService).createIAMSecretProvider(anyString(), anyString(), anyString());
+        COSRequestProperties config = COSRequestProperties.builder()
+                .lockBoxId("lockBoxId")
+                .productId("productId")
+                .vaultAddress("vaultAddress")
+                .vaultRole("vaultRole")
+                .build();
+        String encryptedData = encrypt(key, "payload");
+
+        // execute
+        List<CompletableFuture<String>> futures = IntStream.range(0, 8)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> iamService.decrypt(encryptedData, config)))
+                .collect(Collectors.toList());
+        for (CompletableFuture<String> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+
+        // test
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void keyExpiryTest() {
+        DeCryptService.KeyExpiry expiry = new DeCryptService.KeyExpiry(Duration.ofMinutes(15));
+
+        long untilKeyExpiry = expiry.expireAfterCreate("kid", new DecryptionKey(null, Instant.now().plusSeconds(60)), 0);
+        assertTrue(untilKeyExpiry > 0 && untilKeyExpiry <= Duration.ofSeconds(60).toNanos());
+        assertEquals(Duration.ofMinutes(15).toNanos(),
+                expiry.expireAfterCreate("kid", new DecryptionKey(null, Instant.now().plus(Duration.ofDays(1))), 0));
+        assertEquals(0, expiry.expireAfterCreate("kid", new DecryptionKey(null, Instant.now().minusSeconds(1)), 0));
+    }
+
+    @SneakyThrows
+    private static String encodeSecret(ECKey key) {
+        Map<String, Object> json = new HashMap<>(key.toJSONObject());
+        json.put("exp", Instant.now().plus(Duration.ofDays(1)).getEpochSecond());
+        return Base64.getEncoder().encodeToString(new ObjectMapper().writeValueAsBytes(json));
+    }
+
+    @SneakyThrows
+    private static String encrypt(ECKey key, String payload) {
+        JWEObject jweObject = new JWEObject(
+                new JWEHeader.Builder(JWEAlgorithm.ECDH_ES, EncryptionMethod.A256GCM).keyID(key.getKeyID()).build(),
+                new Payload(payload));
+        jweObject.encrypt(new ECDHEncrypter(key.toECPublicKey()));
+        return jweObject.serialize();
+    }
+}
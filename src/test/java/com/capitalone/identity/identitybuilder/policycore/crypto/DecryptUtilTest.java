@@ -9,6 +9,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
+import java.time.Instant;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -51,4 +52,10 @@ class DecryptUtilTest {
         boolean expired = DecryptUtil.isExpired("{\"test\":  \"1661312826\"}");
         assertTrue(expired);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getExpiryTest() {
+        assertEquals(Instant.ofEpochSecond(1661312826L), DecryptUtil.getExpiry("{\"exp\":  \"1661312826\"}"));
+        assertEquals(Instant.EPOCH, DecryptUtil.getExpiry("{\"test\":  \"1661312826\"}"));
+    }
+}
@@ -55,6 +55,22 @@ class FeatureMatchComponentTest {
         assertThrows(IllegalArgumentException.class, () -> endpoint.setDataParameter(null));
     }
 
+    @Test
+    void testRecreatedEndpointReusesParsedCriteria() throws Exception {
+        String testInput = "feature-match://match?inputSrc=headerABC&criteria=list::foo&outputHeaderName=headerXYZ";
+        URI uri = URI.create(testInput);
+
+        FeatureMatchEndpoint endpoint = (FeatureMatchEndpoint) component.createEndpoint(testInput, uri.getHost(),
+                URISupport.parseParameters(uri));
+        FeatureMatchEndpoint recreated = (FeatureMatchEndpoint) component.createEndpoint(testInput, uri.getHost(),
+                URISupport.parseParameters(uri));
+
+        assertNotSame(endpoint, recreated);
+        assertSame(endpoint.getQueryBasedMatchParameters().get(0).getCriteria(),
+                recreated.getQueryBasedMatchParameters().get(0).getCriteria());
+        assertThrows(UnsupportedOperationException.class, () -> endpoint.getQueryBasedMatchParameters().clear());
+    }
+
     @ParameterizedTest
     @ValueSource(strings = {
             "feature-match://match?dataParameter=headerABC&outputHeaderName=headerXYZ",
@@ -88,6 +88,8 @@ class FeatureMatchProducerTest {
             "{\"criteria\": \"list::foo,bar,baz\"}",
             "{\"input\": \"test\", \"criteria\": null}",
             "{\"input\": \"test\", \"criteria\": \"xyz::foo,bar,baz\"}",
+            // later inputs are validated even once an earlier input does not match
+            "[{\"input\": \"fo\", \"criteria\": \"list::foo\"}, {\"input\": \"test\"}]",
     })
     @DirtiesContext
     void testRouteWithMalformedRuntimeInputDateParameterShouldThrowException(String testInputRaw) throws Exception {
@@ -108,6 +110,7 @@ class FeatureMatchProducerTest {
             // blank input passes if criteria allows
             "{\"input\": \"\", \"criteria\": \"regex::^()$\"}",
             "{\"input\": \"01\", \"criteria\": \"preformatted::50-percentRollout\"}",
+            "{\"input\": \"01\", \"criteria\": \"percent::100::featureX\"}",
     })
     @DirtiesContext
     void testRouteProcessesRuntimeInputsExpectedTrueResult(String testInputRaw) throws Exception {
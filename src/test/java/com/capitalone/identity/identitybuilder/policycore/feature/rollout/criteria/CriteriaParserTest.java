@@ -19,6 +19,8 @@ class CriteriaParserTest {
             "preformatted::match-all",
             "preformatted::match-all   ",
             "   preformatted::match-all",
+            "percent::100::feature",
+            "percent::100::feature  ",
     })
     void checkParse(String input) {
         Criteria parse = CriteriaParser.parse(input);
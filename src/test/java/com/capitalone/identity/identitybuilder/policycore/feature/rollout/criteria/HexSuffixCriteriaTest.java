@@ -0,0 +1,75 @@
+package com.capitalone.identity.identitybuilder.policycore.feature.rollout.criteria;
+
+import com.google.re2j.Pattern;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HexSuffixCriteriaTest {
+
+    @ParameterizedTest
+    @EnumSource(PreformattedRegex.class)
+    void matchesPreformattedRegex(PreformattedRegex preformatted) {
+        RegexCriteria regex = new RegexCriteria(Pattern.compile(preformatted.regex));
+        Criteria criteria = preformatted.criteria();
+
+        List<String> inputs = new ArrayList<>();
+        for (int bucket = 0; bucket < HexSuffixCriteria.BUCKET_COUNT; bucket++) {
+            String suffix = String.format("%02x", bucket);
+            inputs.add(suffix);
+            inputs.add("prefix-" + suffix);
+            inputs.add(suffix.toUpperCase());
+        }
+        for (int i = 0; i < 1000; i++) {
+            inputs.add(UUID.nameUUIDFromBytes(Integer.toString(i).getBytes()).toString());
+        }
+        inputs.add("");
+        inputs.add("0");
+        inputs.add("a");
+        inputs.add("0g");
+        inputs.add("g0");
+        inputs.add("0-");
+        inputs.add(null);
+
+        for (String input : inputs) {
+            assertEquals(regex.isMatch(input), criteria.isMatch(input), preformatted + " for input " + input);
+        }
+    }
+
+    @Test
+    void rolloutsGrowInFivePercentSteps() {
+        HexSuffixCriteria previous = null;
+        for (PreformattedRegex preformatted : PreformattedRegex.values()) {
+            if (preformatted == PreformattedRegex.MATCH_ALL) {
+                continue;
+            }
+            HexSuffixCriteria criteria = (HexSuffixCriteria) preformatted.criteria();
+            if (previous != null) {
+                assertTrue(criteria.size() > previous.size(), preformatted.label);
+            }
+            previous = criteria;
+        }
+    }
+
+    @Test
+    void criteriaCreatedOnce() {
+        assertSame(PreformattedRegex.PERCENT_ROLLOUT_50.criteria(), PreformattedRegex.PERCENT_ROLLOUT_50.criteria());
+    }
+
+    @Test
+    void bucket() {
+        assertEquals(0, HexSuffixCriteria.bucket("00"));
+        assertEquals(255, HexSuffixCriteria.bucket("abcff"));
+        assertEquals(0x3a, HexSuffixCriteria.bucket("3a"));
+        assertEquals(-1, HexSuffixCriteria.bucket("3A"));
+        assertEquals(-1, HexSuffixCriteria.bucket("f"));
+        assertEquals(-1, HexSuffixCriteria.bucket(null));
+    }
+
+}
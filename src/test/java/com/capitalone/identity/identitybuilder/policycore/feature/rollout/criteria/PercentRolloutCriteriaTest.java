@@ -0,0 +1,110 @@
+package com.capitalone.identity.identitybuilder.policycore.feature.rollout.criteria;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PercentRolloutCriteriaTest {
+
+    private static String key(int i) {
+        // note: UUID is generated in repeatable way, so these tests are deterministic
+        return UUID.nameUUIDFromBytes(Integer.toString(i).getBytes()).toString();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"5", "12.5", "25", "50", "75", "95"})
+    void matchesPercentOfInputs(String percent) {
+        int totalTests = 10000;
+        PercentRolloutCriteria criteria = PercentRolloutCriteria.parse(percent + "::feature");
+
+        int matchCount = 0;
+        for (int i = 0; i < totalTests; i++) {
+            matchCount += criteria.isMatch(key(i)) ? 1 : 0;
+        }
+
+        double actual = 100 * (double) matchCount / totalTests;
+        double expected = Double.parseDouble(percent);
+        assertTrue(Math.abs(actual - expected) < 1.5,
+                String.format("Actual match percent %s is out of expected range of %s", actual, expected));
+    }
+
+    @Test
+    void raisingPercentOnlyAddsInputs() {
+        PercentRolloutCriteria low = PercentRolloutCriteria.parse("10::feature");
+        PercentRolloutCriteria high = PercentRolloutCriteria.parse("30::feature");
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(!low.isMatch(key(i)) || high.isMatch(key(i)));
+        }
+    }
+
+    @Test
+    void saltsSelectIndependentPopulations() {
+        PercentRolloutCriteria featureA = PercentRolloutCriteria.parse("50::featureA");
+        PercentRolloutCriteria featureASameSalt = PercentRolloutCriteria.parse(" 50 :: featureA ");
+        PercentRolloutCriteria featureB = PercentRolloutCriteria.parse("50::featureB");
+
+        int agreements = 0;
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(featureA.isMatch(key(i)), featureASameSalt.isMatch(key(i)));
+            agreements += featureA.isMatch(key(i)) == featureB.isMatch(key(i)) ? 1 : 0;
+        }
+        assertTrue(agreements > 400 && agreements < 600, "agreements: " + agreements);
+    }
+
+    @Test
+    void bounds() {
+        PercentRolloutCriteria none = PercentRolloutCriteria.parse("0::feature");
+        PercentRolloutCriteria all = PercentRolloutCriteria.parse("100::feature");
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(none.isMatch(key(i)));
+            assertTrue(all.isMatch(key(i)));
+        }
+        assertFalse(all.isMatch(null));
+        assertTrue(all.isMatch(""));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "abc::feature", "-1::feature", "100.01::feature", "12.345::feature", "::salt",
+            "50", "50::", "50::  "})
+    void invalidPercent(String definition) {
+        assertThrows(IllegalArgumentException.class, () -> PercentRolloutCriteria.parse(definition));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"5", "10", "25", "50", "50.0", "95"})
+    void suffixMatchesPreformattedRollout(String percent) {
+        Criteria preformatted = CriteriaParser.parse("preformatted::" + new BigDecimal(percent).intValueExact()
+                + "-percentRollout");
+        Criteria criteria = CriteriaParser.parse("percent-suffix::" + percent);
+        assertSame(preformatted, criteria);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(preformatted.isMatch(key(i)), criteria.isMatch(key(i)));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "12.5", "100", "-5", "abc", ""})
+    void suffixInvalidPercent(String percent) {
+        assertThrows(IllegalArgumentException.class, () -> PercentRolloutCriteria.suffix(percent));
+    }
+
+    @Test
+    void hexIsAnOrdinarySalt() {
+        assertTrue(CriteriaParser.parse("percent::50::hex") instanceof PercentRolloutCriteria);
+    }
+
+    @Test
+    void parsedFromCriteria() {
+        Criteria criteria = CriteriaParser.parse("percent::50::featureA");
+        PercentRolloutCriteria expected = PercentRolloutCriteria.parse("50::featureA");
+        for (int i = 0; i < 100; i++) {
+            assertEquals(expected.isMatch(key(i)), criteria.isMatch(key(i)));
+        }
+    }
+
+}
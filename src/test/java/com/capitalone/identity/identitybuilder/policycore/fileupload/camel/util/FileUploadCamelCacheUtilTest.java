@@ -8,12 +8,20 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -91,4 +99,131 @@ public class FileUploadCamelCacheUtilTest {
 		assertThrows(PolicyCacheException.class, () -> fileUploadCamelCacheUtil.populateCache(CACHE_KEY, CACHE_VALUE));
 	}
 
+	@Test
+	void testPopulateCache_chunked() {
+		Map<String, String> cache = useInMemoryCache(4);
+		fileUploadCamelCacheUtil.populateCache(CACHE_KEY, "0123456789");
+
+		assertEquals(4, cache.size());
+		assertEquals("0123", cache.get(CACHE_KEY + ":0"));
+		assertEquals("4567", cache.get(CACHE_KEY + ":1"));
+		assertEquals("89", cache.get(CACHE_KEY + ":2"));
+		assertEquals("FILE_CHUNKS:v1:3:10", cache.get(CACHE_KEY));
+
+		fileUploadCamelCacheUtil.cacheRead(CACHE_KEY, headers);
+		assertEquals("0123456789", headers.get(CACHE_VALUE));
+	}
+
+	@Test
+	void testPopulateCache_shortValueNotChunked() {
+		Map<String, String> cache = useInMemoryCache(4);
+		fileUploadCamelCacheUtil.populateCache(CACHE_KEY, "0123");
+
+		assertEquals(1, cache.size());
+		assertEquals("0123", cache.get(CACHE_KEY));
+	}
+
+	@Test
+	void testPopulateCache_chunkWriteFailureDeletesChunks() {
+		Map<String, String> cache = useInMemoryCache(4);
+		when(cacheService.putWithExpiry(eq(CACHE_KEY + ":1"), anyString(), anyLong())).thenReturn(HttpStatus.SC_BAD_REQUEST);
+
+		assertThrows(PolicyCacheException.class, () -> fileUploadCamelCacheUtil.populateCache(CACHE_KEY, "0123456789"));
+		assertTrue(cache.isEmpty());
+	}
+
+	@Test
+	void testCacheRead_chunkExpired() {
+		Map<String, String> cache = useInMemoryCache(4);
+		fileUploadCamelCacheUtil.populateCache(CACHE_KEY, "0123456789");
+		cache.remove(CACHE_KEY + ":2");
+
+		fileUploadCamelCacheUtil.cacheRead(CACHE_KEY, headers);
+		assertFalse(headers.containsKey(CACHE_VALUE));
+	}
+
+	@Test
+	void testCacheStream() throws IOException {
+		Map<String, String> cache = useInMemoryCache(4);
+		fileUploadCamelCacheUtil.populateCache(CACHE_KEY, "0123456789");
+		fileUploadCamelCacheUtil.cacheStream(CACHE_KEY, headers);
+
+		try (InputStream stream = (InputStream) headers.get(FileUploadCamelCacheUtil.CACHE_STREAM)) {
+			assertEquals('0', stream.read());
+			// Chunks are read once the stream reaches them
+			verify(cacheService, never()).get(CACHE_KEY + ":1");
+			assertEquals("123456789", new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+			assertEquals(-1, stream.read());
+		}
+
+		fileUploadCamelCacheUtil.populateCache("single", "0123");
+		fileUploadCamelCacheUtil.cacheStream("single", headers);
+		try (InputStream stream = (InputStream) headers.get(FileUploadCamelCacheUtil.CACHE_STREAM)) {
+			assertEquals("0123", new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+		}
+		assertEquals(5, cache.size());
+	}
+
+	@Test
+	void testCacheStream_chunkExpired() {
+		Map<String, String> cache = useInMemoryCache(4);
+		fileUploadCamelCacheUtil.populateCache(CACHE_KEY, "0123456789");
+		cache.remove(CACHE_KEY + ":1");
+		fileUploadCamelCacheUtil.cacheStream(CACHE_KEY, headers);
+
+		InputStream stream = (InputStream) headers.get(FileUploadCamelCacheUtil.CACHE_STREAM);
+		assertThrows(IOException.class, stream::readAllBytes);
+	}
+
+	@Test
+	void testCacheStream_keyNotFound() {
+		useInMemoryCache(4);
+		fileUploadCamelCacheUtil.cacheStream(CACHE_KEY, headers);
+		assertFalse(headers.containsKey(FileUploadCamelCacheUtil.CACHE_STREAM));
+	}
+
+	@Test
+	void testCacheDelete_chunked() {
+		Map<String, String> cache = useInMemoryCache(4);
+		fileUploadCamelCacheUtil.populateCache(CACHE_KEY, "0123456789");
+
+		fileUploadCamelCacheUtil.cacheDelete(CACHE_KEY);
+		assertTrue(cache.isEmpty());
+	}
+
+	@Test
+	void testCacheDelete_chunkingEnabledUnchunkedValue() {
+		Map<String, String> cache = useInMemoryCache(4);
+		fileUploadCamelCacheUtil.populateCache(CACHE_KEY, "012");
+
+		fileUploadCamelCacheUtil.cacheDelete(CACHE_KEY);
+		assertTrue(cache.isEmpty());
+		verify(cacheService, never()).get(anyString());
+	}
+
+	@Test
+	void testCacheDelete_chunkingDisabled() {
+		fileUploadCamelCacheUtil.cacheDelete(CACHE_KEY);
+		verify(cacheService, never()).getKeyTTL(anyString());
+		verify(cacheService, never()).get(anyString());
+	}
+
+	private Map<String, String> useInMemoryCache(int chunkSize) {
+		ReflectionTestUtils.setField(fileUploadCamelCacheUtil, "chunkSize", chunkSize);
+		Map<String, String> cache = new HashMap<>();
+		lenient().when(cacheService.putWithExpiry(anyString(), anyString(), eq(CACHE_EXPIRATION_MS))).then(invocation -> {
+			cache.put(invocation.getArgument(0), invocation.getArgument(1));
+			return HttpStatus.SC_OK;
+		});
+		lenient().when(cacheService.get(anyString()))
+				.then(invocation -> cache.getOrDefault(invocation.<String>getArgument(0), "KEY_NOT_FOUND"));
+		lenient().when(cacheService.delete(anyString())).then(invocation -> {
+			cache.remove(invocation.<String>getArgument(0));
+			return HttpStatus.SC_OK;
+		});
+		lenient().when(cacheService.getKeyTTL(anyString()))
+				.then(invocation -> cache.containsKey(invocation.<String>getArgument(0)) ? CACHE_EXPIRATION_MS / 1000 : -2L);
+		return cache;
+	}
+
 }
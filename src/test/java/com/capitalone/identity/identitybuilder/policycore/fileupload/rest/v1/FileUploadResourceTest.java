@@ -3,6 +3,7 @@ package com.capitalone.identity.identitybuilder.policycore.fileupload.rest.v1;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
@@ -32,6 +33,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -39,6 +41,7 @@ import com.capitalone.chassis.engine.model.exception.RequestValidationException;
 import com.capitalone.identity.identitybuilder.policycore.fileupload.model.FileUploadResponse;
 import com.capitalone.identity.identitybuilder.policycore.fileupload.onestream.FileuploadCureSdpListener;
 import com.capitalone.identity.identitybuilder.policycore.fileupload.service.FileUploadService;
+import com.capitalone.identity.identitybuilder.policycore.fileupload.service.util.DocumentTypeDetector;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.env.Environment;
 import org.springframework.test.util.ReflectionTestUtils;
@@ -179,6 +182,15 @@ public class FileUploadResourceTest {
 						httpResponse));
 	}
 
+	@Test
+	public void test_uploadImage_image_size_greater_than_10_not_fully_read() {
+		ByteArrayInputStream oversized = new ByteArrayInputStream(new byte[11 * 1024 * 1024]);
+		assertThrows(RequestValidationException.class,
+				() -> fileUploadResource.uploadImage(CLIENT_CORRELATION_ID, CUSTOMER_IP_ADDRESS, CHANNEL_TYPE, X_UPSTREAM_ENV, PRODUCT_ID,
+						oversized, formDataContentDisposition, body, httpRequest, httpResponse));
+		assertTrue(oversized.available() > 0);
+	}
+
 	@Test
 	public void test_upload_invalid_encrypted_file_on_upstream_env() throws IOException {
 		ReflectionTestUtils.setField(fileUploadResource, "domainIdentifier", "identitybuilder.verification.domain");
@@ -225,6 +237,44 @@ public class FileUploadResourceTest {
 				formDataContentDisposition, body, httpRequest, httpResponse));
 	}
 
+	@Test
+	public void test_upload_image_exceeds_max_pixels() {
+		ReflectionTestUtils.setField(fileUploadResource, "maxImagePixels", 0L);
+		byte[] stream = Base64.getDecoder().decode("R0lGODlhAQABAIABAP///wAAACH5BAEKAAEALAAAAAABAAEAAAICTAEAOw==");
+		// 1x1 GIF accepted when the limit is disabled, rejected below its single pixel
+		when(fileUploadServices.uploadDocument(any(), any())).thenReturn(fileUploadResponse);
+		assertNotNull(fileUploadResource.uploadImage(CLIENT_CORRELATION_ID, CUSTOMER_IP_ADDRESS, CHANNEL_TYPE, X_UPSTREAM_ENV, PRODUCT_ID, new ByteArrayInputStream(stream),
+				formDataContentDisposition, body, httpRequest, httpResponse));
+		stream[6] = 2;
+		ReflectionTestUtils.setField(fileUploadResource, "maxImagePixels", 1L);
+		assertThrows(RequestValidationException.class,
+				() -> fileUploadResource.uploadImage(CLIENT_CORRELATION_ID, CUSTOMER_IP_ADDRESS, CHANNEL_TYPE, X_UPSTREAM_ENV, PRODUCT_ID,
+						new ByteArrayInputStream(stream), formDataContentDisposition, body, httpRequest, httpResponse));
+	}
+
+	@Test
+	public void test_upload_image_exceeds_max_pixels_not_decoded() {
+		byte[] stream = Base64.getDecoder().decode("R0lGODlhAQABAIABAP///wAAACH5BAEKAAEALAAAAAABAAEAAAICTAEAOw==");
+		stream[6] = 2;
+		ReflectionTestUtils.setField(fileUploadResource, "strictImageValidation", true);
+		ReflectionTestUtils.setField(fileUploadResource, "maxImagePixels", 1L);
+		try (MockedStatic<DocumentTypeDetector> detector = Mockito.mockStatic(DocumentTypeDetector.class, Mockito.CALLS_REAL_METHODS)) {
+			assertThrows(RequestValidationException.class,
+					() -> fileUploadResource.uploadImage(CLIENT_CORRELATION_ID, CUSTOMER_IP_ADDRESS, CHANNEL_TYPE, X_UPSTREAM_ENV, PRODUCT_ID,
+							new ByteArrayInputStream(stream), formDataContentDisposition, body, httpRequest, httpResponse));
+			detector.verify(() -> DocumentTypeDetector.decodes(any()), Mockito.never());
+		}
+	}
+
+	@Test
+	public void test_upload_truncated_image_strict_validation() {
+		byte[] stream = Arrays.copyOf(Base64.getDecoder().decode("R0lGODlhAQABAIABAP///wAAACH5BAEKAAEALAAAAAABAAEAAAICTAEAOw=="), 8);
+		ReflectionTestUtils.setField(fileUploadResource, "strictImageValidation", true);
+		assertThrows(RequestValidationException.class,
+				() -> fileUploadResource.uploadImage(CLIENT_CORRELATION_ID, CUSTOMER_IP_ADDRESS, CHANNEL_TYPE, X_UPSTREAM_ENV, PRODUCT_ID,
+						new ByteArrayInputStream(stream), formDataContentDisposition, body, httpRequest, httpResponse));
+	}
+
 	@Test
 	public void test_upload_decryption_failure() throws IOException {
 		ReflectionTestUtils.setField(fileUploadResource, "domainIdentifier", "identitybuilder.verification.domain");
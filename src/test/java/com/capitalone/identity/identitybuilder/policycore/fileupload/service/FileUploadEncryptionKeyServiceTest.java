@@ -6,7 +6,9 @@ import com.capitalone.identity.identitybuilder.policycore.fileupload.service.dao
 import com.capitalone.identity.identitybuilder.policycore.fileupload.service.util.FileuploadUtil;
 import com.capitalone.identity.identitybuilder.policycore.service.util.CryptoUtil;
 import com.capitalone.identity.identitybuilder.policycore.service.util.JWTKey;
+import com.nimbusds.jose.CompressionAlgorithm;
 import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWEObject;
 import org.apache.commons.collections4.map.PassiveExpiringMap;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -28,12 +30,17 @@ import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.lenient;
@@ -175,6 +182,27 @@ public class FileUploadEncryptionKeyServiceTest {
 	}
 
 	@SuppressWarnings("deprecation")
+	@Test
+	public void testEncryptDocument_compressed() throws ParseException {
+		byte[] data = ANY_STRING_YOU_WANT.getBytes();
+		ReflectionTestUtils.setField(fileUploadEncryptionKeyService, "compressDocuments", true);
+
+		String wrapped = fileUploadEncryptionKeyService.encryptDocument(T2V_IVR_PRODUCT, data);
+		JWEObject jwe = JWEObject.parse(new String(Base64.getDecoder().decode(wrapped), StandardCharsets.US_ASCII));
+		assertEquals(CompressionAlgorithm.DEF, jwe.getHeader().getCompressionAlgorithm());
+
+		ReflectionTestUtils.setField(fileUploadEncryptionKeyService, "base64WrapDocuments", false);
+		String compact = fileUploadEncryptionKeyService.encryptDocument(T2V_IVR_PRODUCT, data);
+		assertEquals(CompressionAlgorithm.DEF, JWEObject.parse(compact).getHeader().getCompressionAlgorithm());
+	}
+
+	@Test
+	public void testEncryptDocument_notWrapped() throws ParseException {
+		ReflectionTestUtils.setField(fileUploadEncryptionKeyService, "base64WrapDocuments", false);
+		String compact = fileUploadEncryptionKeyService.encryptDocument(T2V_IVR_PRODUCT, ANY_STRING_YOU_WANT.getBytes());
+		assertNull(JWEObject.parse(compact).getHeader().getCompressionAlgorithm());
+	}
+
 	@ParameterizedTest
 	@ValueSource(booleans = {true, false})
 	void testEncryptDocument_withEmptyPublicKeyExpiry(boolean webclientEnabled) throws IllegalArgumentException, JOSEException {
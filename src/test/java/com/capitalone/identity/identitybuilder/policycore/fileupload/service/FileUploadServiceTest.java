@@ -1,19 +1,32 @@
 package com.capitalone.identity.identitybuilder.policycore.fileupload.service;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.StreamUtils;
 
 import com.capitalone.chassis.engine.model.exception.ChassisSystemException;
 import com.capitalone.chassis.engine.model.exception.RequestValidationException;
@@ -67,10 +80,17 @@ public class FileUploadServiceTest {
 
 	private FileuploadData encryptedFileUploadData;
 
+	@TempDir
+	Path scratchPath;
+
+	private VirusScanScratchDirectory scratchDirectory;
+
 	@BeforeEach
-	public void setup() {
+	public void setup() throws IOException {
 		fileuploadData = new FileuploadData(clientCorrelationId,customerIpAddress,channelType, xUpstreamEnv, T2V_IVR_PRODUCT, document);
 		encryptedFileUploadData = new FileuploadData(clientCorrelationId,customerIpAddress,channelType, xUpstreamEnv, T2V_IVR_PRODUCT, encDocument);
+		scratchDirectory = new VirusScanScratchDirectory(scratchPath.toString(), 1024);
+		ReflectionTestUtils.setField(fileUploadService, "scratchDirectory", scratchDirectory);
 	}
 
 	@Test
@@ -107,4 +127,93 @@ public class FileUploadServiceTest {
 		assertNotNull(fileUploadService.uploadDocument(encryptedFileUploadData,fileuploadData));
 	}
 
+	@Test
+	void testDocumentUpload_scannedFromScratchFile() throws IOException {
+		StubVirusScanner scanner = new StubVirusScanner();
+		when(scanService.isVirusAffected(Mockito.any())).then(invocation -> scanner.scan(invocation.getArgument(0)));
+		assertNotNull(fileUploadService.uploadDocument(fileuploadData, null));
+
+		assertTrue(scanner.scanned.get(0) instanceof FileSystemResource);
+		assertEquals(ANY_STRING_YOU_WANT, scanner.contents.get(0));
+		assertEquals(0, scratchDirectory.getUsedBytes());
+		assertEmpty(scratchPath);
+	}
+
+	@Test
+	void testDocumentUpload_scannedInMemory() throws IOException {
+		ReflectionTestUtils.setField(fileUploadService, "inMemoryScanEnabled", true);
+		StubVirusScanner scanner = new StubVirusScanner();
+		when(scanService.isVirusAffected(Mockito.any())).then(invocation -> scanner.scan(invocation.getArgument(0)));
+		assertNotNull(fileUploadService.uploadDocument(fileuploadData, null));
+
+		assertFalse(scanner.scanned.get(0) instanceof FileSystemResource);
+		assertNotNull(scanner.scanned.get(0).getFilename());
+		assertEquals(ANY_STRING_YOU_WANT, scanner.contents.get(0));
+		assertTrue(scanner.filesDuringScan.isEmpty());
+	}
+
+	@Test
+	void testDocumentUpload_quotaExceededScannedInMemory() throws IOException {
+		FileuploadData largeDocument = new FileuploadData(clientCorrelationId, customerIpAddress, channelType, xUpstreamEnv,
+				T2V_IVR_PRODUCT, new byte[2048]);
+		StubVirusScanner scanner = new StubVirusScanner();
+		when(scanService.isVirusAffected(Mockito.any())).then(invocation -> scanner.scan(invocation.getArgument(0)));
+		assertNotNull(fileUploadService.uploadDocument(largeDocument, null));
+
+		assertFalse(scanner.scanned.get(0) instanceof FileSystemResource);
+		assertTrue(scanner.filesDuringScan.isEmpty());
+	}
+
+	@Test
+	void testDocumentUpload_infectedScratchFileDeleted() throws IOException {
+		FileuploadData infected = new FileuploadData(clientCorrelationId, customerIpAddress, channelType, xUpstreamEnv,
+				T2V_IVR_PRODUCT, StubVirusScanner.INFECTED.getBytes(StandardCharsets.UTF_8));
+		StubVirusScanner scanner = new StubVirusScanner();
+		when(scanService.isVirusAffected(Mockito.any())).then(invocation -> scanner.scan(invocation.getArgument(0)));
+		assertThrows(RequestValidationException.class, () -> fileUploadService.uploadDocument(infected, null));
+
+		assertEquals(1, scanner.filesDuringScan.size());
+		assertEquals(0, scratchDirectory.getUsedBytes());
+		assertEmpty(scratchPath);
+	}
+
+	@Test
+	void testDocumentUpload_scanErrorScratchFileDeleted() throws IOException {
+		when(scanService.isVirusAffected(Mockito.any())).thenThrow(ChassisSystemException.class);
+		assertThrows(ChassisSystemException.class, () -> fileUploadService.uploadDocument(fileuploadData, null));
+
+		assertEquals(0, scratchDirectory.getUsedBytes());
+		assertEmpty(scratchPath);
+	}
+
+	private static void assertEmpty(Path directory) throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			assertEquals(0, files.count());
+		}
+	}
+
+	/**
+	 * Local stand-in for the virus scan service, reporting documents containing the marker as infected
+	 */
+	private class StubVirusScanner {
+
+		static final String INFECTED = "EICAR-STANDARD-ANTIVIRUS-TEST-FILE";
+
+		final List<Resource> scanned = new ArrayList<>();
+
+		final List<String> contents = new ArrayList<>();
+
+		final List<Path> filesDuringScan = new ArrayList<>();
+
+		boolean scan(Resource resource) throws IOException {
+			try (Stream<Path> files = Files.list(scratchPath)) {
+				files.forEach(filesDuringScan::add);
+			}
+			String content = new String(StreamUtils.copyToByteArray(resource.getInputStream()), StandardCharsets.UTF_8);
+			scanned.add(resource);
+			contents.add(content);
+			return content.contains(INFECTED);
+		}
+	}
+
 }
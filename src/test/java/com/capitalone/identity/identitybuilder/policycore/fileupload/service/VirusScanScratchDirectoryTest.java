@@ -0,0 +1,121 @@
+package com.capitalone.identity.identitybuilder.policycore.fileupload.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.capitalone.identity.identitybuilder.policycore.fileupload.service.VirusScanScratchDirectory.ScratchFile;
+
+public class VirusScanScratchDirectoryTest {
+
+	@TempDir
+	Path scratchPath;
+
+	@Test
+	void testWriteAndClose() throws IOException {
+		VirusScanScratchDirectory scratchDirectory = new VirusScanScratchDirectory(scratchPath.toString(), 10);
+		Optional<ScratchFile> scratchFile = scratchDirectory.write(new byte[] { 1, 2, 3 });
+
+		assertTrue(scratchFile.isPresent());
+		Path file = scratchFile.get().getResource().getFile().toPath();
+		assertEquals(scratchDirectory.getDirectory(), file.getParent());
+		assertEquals(scratchPath, file.getParent().getParent());
+		assertArrayEquals(new byte[] { 1, 2, 3 }, Files.readAllBytes(file));
+		assertEquals(3, scratchDirectory.getUsedBytes());
+
+		scratchFile.get().close();
+		scratchFile.get().close();
+		assertFalse(Files.exists(file));
+		assertEquals(0, scratchDirectory.getUsedBytes());
+	}
+
+	@Test
+	void testQuotaExceeded() throws IOException {
+		VirusScanScratchDirectory scratchDirectory = new VirusScanScratchDirectory(scratchPath.toString(), 10);
+		Optional<ScratchFile> first = scratchDirectory.write(new byte[6]);
+
+		assertTrue(first.isPresent());
+		assertFalse(scratchDirectory.write(new byte[6]).isPresent());
+		assertEquals(6, scratchDirectory.getUsedBytes());
+
+		first.get().close();
+		assertTrue(scratchDirectory.write(new byte[6]).isPresent());
+	}
+
+	@Test
+	void testOtherProcessFilesKept() throws IOException {
+		Path shared = Files.createFile(scratchPath.resolve(VirusScanScratchDirectory.TEMPFILE_NAME + "shared"));
+		VirusScanScratchDirectory other = new VirusScanScratchDirectory(scratchPath.toString(), 10);
+		Path otherFile = other.write(new byte[1]).get().getResource().getFile().toPath();
+
+		VirusScanScratchDirectory scratchDirectory = new VirusScanScratchDirectory(scratchPath.toString(), 10);
+		assertNotEquals(other.getDirectory(), scratchDirectory.getDirectory());
+		scratchDirectory.write(new byte[1]);
+		scratchDirectory.deleteScratchFiles();
+
+		assertFalse(Files.exists(scratchDirectory.getDirectory()));
+		assertTrue(Files.exists(shared));
+		assertTrue(Files.exists(otherFile));
+		try (Stream<Path> files = Files.list(scratchPath)) {
+			assertEquals(2, files.count());
+		}
+	}
+
+	@Test
+	void testStoppedInstanceDirectoriesDeleted() throws IOException {
+		FileTime old = FileTime.from(Instant.now().minus(VirusScanScratchDirectory.LOCK_GRACE_PERIOD).minusSeconds(60));
+		Path unlocked = Files.createDirectory(scratchPath.resolve("virusscan-unlocked"));
+		Files.createFile(unlocked.resolve(VirusScanScratchDirectory.LOCK_FILE_NAME));
+		Files.createFile(unlocked.resolve(VirusScanScratchDirectory.TEMPFILE_NAME + "stale"));
+		Files.setLastModifiedTime(unlocked, old);
+		Path noLock = Files.createDirectory(scratchPath.resolve("virusscan-nolock"));
+		Files.createFile(noLock.resolve(VirusScanScratchDirectory.TEMPFILE_NAME + "stale"));
+		Files.setLastModifiedTime(noLock, old);
+		Path recent = Files.createDirectory(scratchPath.resolve("virusscan-recent"));
+		Path unrelated = Files.createDirectory(scratchPath.resolve("unrelated"));
+		Files.setLastModifiedTime(unrelated, old);
+
+		VirusScanScratchDirectory live = new VirusScanScratchDirectory(scratchPath.toString(), 10);
+		Path liveFile = live.write(new byte[1]).get().getResource().getFile().toPath();
+		Files.setLastModifiedTime(live.getDirectory(), old);
+
+		assertFalse(Files.exists(unlocked));
+		assertFalse(Files.exists(noLock));
+		assertTrue(Files.exists(recent));
+		assertTrue(Files.exists(unrelated));
+
+		VirusScanScratchDirectory scratchDirectory = new VirusScanScratchDirectory(scratchPath.toString(), 10);
+		assertTrue(Files.exists(liveFile));
+
+		live.deleteScratchFiles();
+		scratchDirectory.deleteScratchFiles();
+	}
+
+	@Test
+	void testDefaultDirectory() throws IOException {
+		VirusScanScratchDirectory scratchDirectory = new VirusScanScratchDirectory("", 10);
+		try {
+			assertEquals(Paths.get(System.getProperty("java.io.tmpdir"), "policycore-virusscan"),
+					scratchDirectory.getDirectory().getParent());
+			assertTrue(Files.isDirectory(scratchDirectory.getDirectory()));
+		} finally {
+			scratchDirectory.deleteScratchFiles();
+		}
+		assertFalse(Files.exists(scratchDirectory.getDirectory()));
+	}
+
+}
@@ -0,0 +1,162 @@
+package com.capitalone.identity.identitybuilder.policycore.fileupload.service.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+import com.capitalone.identity.identitybuilder.policycore.fileupload.service.util.DocumentTypeDetector.DocumentType;
+import com.capitalone.identity.identitybuilder.policycore.fileupload.service.util.DocumentTypeDetector.ImageDimensions;
+
+public class DocumentTypeDetectorTest {
+
+	private static final String ENCRYPTED_TEST_DATA = "eyJraWQiOiIxYjdhMDYxYy0wZTA0LTQwZjAtOTM3NS1kMDFhYTFkN2QzMTciLCJhbGciOiJFQ0RILUVTIiwiZW5jIjoiQTI1NkdDTSIsImVwayI6eyJ5IjoiWWo0YUpZYVQ0SjZIUGdDaFJ3TTdXU1I2X3JpYi1FSWJuVl9vLXRmR0VDbFh1T19TNHVUbDlBbURFdVFiNUtkRENvTmdDcmlWZWwwY0JjY19qU0hTMXl3IiwieCI6IkFMTnNOdVRYVF80NVhjQlpzQlVHTjlqZXV5RjZ5MHlCMDk0dkdWdHpjYWo5aHh1MmwyLS13RlNEZnpqUEEwSWtjRm03LTUtNEhLSTk2VElGbUNTQWQwaWUiLCJrdHkiOiJFQyIsImNydiI6IlAtNTIxIn19..iXH98LPjEW-IG_cq.a2wdWgy46sATQNXuNNM5BQ.FgZc6jBKTMeBdL-Km1tWEQ";
+	// {"alg":"RS256"}, a JWS header
+	private static final String JWS_HEADER = "eyJhbGciOiJSUzI1NiJ9";
+
+	@Test
+	void testDetectImages() {
+		byte[] gif = Base64.getDecoder().decode("R0lGODlhAQABAIABAP///wAAACH5BAEKAAEALAAAAAABAAEAAAICTAEAOw==");
+		assertEquals(DocumentType.GIF, DocumentTypeDetector.detect(gif));
+		assertEquals(DocumentType.JPEG, DocumentTypeDetector.detect(new byte[] { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0 }));
+		assertEquals(DocumentType.PNG, DocumentTypeDetector.detect(new byte[] { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0 }));
+		assertEquals(DocumentType.TIFF_LITTLE_ENDIAN, DocumentTypeDetector.detect(new byte[] { 'I', 'I', '*', 0, 8, 0, 0, 0 }));
+		assertEquals(DocumentType.TIFF_BIG_ENDIAN, DocumentTypeDetector.detect(new byte[] { 'M', 'M', 0, '*', 0, 0, 0, 8 }));
+		assertTrue(DocumentTypeDetector.detect(gif).isImage());
+	}
+
+	@Test
+	void testDetectJwe() {
+		assertEquals(DocumentType.JWE, DocumentTypeDetector.detect(ENCRYPTED_TEST_DATA.getBytes(StandardCharsets.UTF_8)));
+		assertFalse(DocumentType.JWE.isImage());
+	}
+
+	@Test
+	void testDetectInvalidJwe() {
+		// Missing a part
+		assertFalse(DocumentTypeDetector.isJweCompactSerialization(
+				ENCRYPTED_TEST_DATA.substring(0, ENCRYPTED_TEST_DATA.lastIndexOf('.')).getBytes(StandardCharsets.UTF_8)));
+		// Extra part
+		assertFalse(DocumentTypeDetector.isJweCompactSerialization((ENCRYPTED_TEST_DATA + ".").getBytes(StandardCharsets.UTF_8)));
+		// Not a JWE header
+		assertFalse(DocumentTypeDetector.isJweCompactSerialization((JWS_HEADER + "....").getBytes(StandardCharsets.UTF_8)));
+		// Header not terminated within the prefix
+		byte[] longHeader = new byte[DocumentTypeDetector.PREFIX_LENGTH + 8];
+		System.arraycopy("eyJ".getBytes(StandardCharsets.US_ASCII), 0, longHeader, 0, 3);
+		assertFalse(DocumentTypeDetector.isJweCompactSerialization(longHeader));
+	}
+
+	@Test
+	void testDetectUnknown() {
+		assertEquals(DocumentType.UNKNOWN, DocumentTypeDetector.detect("test data".getBytes(StandardCharsets.UTF_8)));
+		assertEquals(DocumentType.UNKNOWN, DocumentTypeDetector.detect(new byte[0]));
+		assertEquals(DocumentType.UNKNOWN, DocumentTypeDetector.detect(null));
+	}
+
+	@Test
+	void testReadBounded() throws IOException {
+		ByteArrayInputStream is = new ByteArrayInputStream(new byte[100]);
+		assertEquals(11, DocumentTypeDetector.readBounded(is, 10).length);
+		assertEquals(89, is.available());
+		assertEquals(5, DocumentTypeDetector.readBounded(new ByteArrayInputStream(new byte[5]), 10).length);
+	}
+
+	@Test
+	void testReadDimensions() throws IOException {
+		for (String format : Arrays.asList("png", "jpeg", "bmp", "tiff")) {
+			byte[] image = writeImage(format, 3, 2);
+			DocumentType type = DocumentTypeDetector.detect(image);
+			assertTrue(type.isImage(), format);
+			assertEquals(Optional.of(new ImageDimensions(3, 2)), DocumentTypeDetector.readDimensions(image, type), format);
+		}
+		byte[] gif = Base64.getDecoder().decode("R0lGODlhAQABAIABAP///wAAACH5BAEKAAEALAAAAAABAAEAAAICTAEAOw==");
+		assertEquals(Optional.of(new ImageDimensions(1, 1)), DocumentTypeDetector.readDimensions(gif, DocumentType.GIF));
+	}
+
+	@Test
+	void testReadDimensionsTruncated() throws IOException {
+		byte[] png = Arrays.copyOf(writeImage("png", 3, 2), 18);
+		assertEquals(Optional.empty(), DocumentTypeDetector.readDimensions(png, DocumentType.PNG));
+		byte[] jpeg = Arrays.copyOf(writeImage("jpeg", 3, 2), 20);
+		assertEquals(Optional.empty(), DocumentTypeDetector.readDimensions(jpeg, DocumentType.JPEG));
+		assertEquals(Optional.empty(), DocumentTypeDetector.readDimensions(png, DocumentType.PDF));
+	}
+
+	@Test
+	void testHeic() throws IOException {
+		ByteArrayOutputStream ipco = new ByteArrayOutputStream();
+		ipco.write(box("ispe", new byte[] { 0, 0, 0, 0, 0, 0, 2, 0, 0, 0, 1, 0 }));
+		ipco.write(box("ispe", new byte[] { 0, 0, 0, 0, 0, 0, 0x0F, (byte) 0xC0, 0, 0, 0x0B, (byte) 0xD0 }));
+		ByteArrayOutputStream meta = new ByteArrayOutputStream();
+		meta.write(new byte[4]);
+		meta.write(box("hdlr", new byte[8]));
+		meta.write(box("iprp", box("ipco", ipco.toByteArray())));
+		ByteArrayOutputStream heic = new ByteArrayOutputStream();
+		heic.write(box("ftyp", "mif1\0\0\0\0mif1heic".getBytes(StandardCharsets.US_ASCII)));
+		heic.write(box("meta", meta.toByteArray()));
+		byte[] document = heic.toByteArray();
+
+		assertEquals(DocumentType.HEIC, DocumentTypeDetector.detect(document));
+		assertEquals(Optional.of(new ImageDimensions(4032, 3024)), DocumentTypeDetector.readDimensions(document, DocumentType.HEIC));
+
+		byte[] avif = box("ftyp", "avif\0\0\0\0mif1avif".getBytes(StandardCharsets.US_ASCII));
+		assertEquals(DocumentType.UNKNOWN, DocumentTypeDetector.detect(avif));
+	}
+
+	@Test
+	void testPixelsWithoutOverflow() {
+		ImageDimensions small = new ImageDimensions(4032, 3024);
+		assertEquals(4032L * 3024L, small.getPixels());
+		assertFalse(small.exceeds(4032L * 3024L));
+		assertTrue(small.exceeds(4032L * 3024L - 1));
+
+		// 32-bit header values whose product overflows a long
+		ImageDimensions huge = new ImageDimensions(0xFFFFFFFFL, 0xFFFFFFFFL);
+		assertTrue(huge.getPixels() > 0);
+		assertTrue(huge.exceeds(Long.MAX_VALUE - 1));
+		ImageDimensions overflow = new ImageDimensions(Long.MAX_VALUE / 2, 4);
+		assertEquals(Long.MAX_VALUE, overflow.getPixels());
+		assertTrue(overflow.exceeds(100_000_000L));
+	}
+
+	@Test
+	void testDetectPdf() {
+		assertEquals(DocumentType.PDF, DocumentTypeDetector.detect("%PDF-1.7\n".getBytes(StandardCharsets.US_ASCII)));
+		assertFalse(DocumentType.PDF.isImage());
+	}
+
+	@Test
+	void testDecodes() throws IOException {
+		byte[] png = writeImage("png", 3, 2);
+		assertTrue(DocumentTypeDetector.decodes(png));
+		assertFalse(DocumentTypeDetector.decodes(Arrays.copyOf(png, 40)));
+		assertFalse(DocumentTypeDetector.decodes("test data".getBytes(StandardCharsets.UTF_8)));
+	}
+
+	static byte[] writeImage(String format, int width, int height) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertTrue(ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), format, out), format);
+		return out.toByteArray();
+	}
+
+	private static byte[] box(String type, byte[] payload) {
+		return ByteBuffer.allocate(8 + payload.length)
+				.putInt(8 + payload.length)
+				.put(type.getBytes(StandardCharsets.US_ASCII))
+				.put(payload)
+				.array();
+	}
+}
@@ -15,6 +15,7 @@ import com.capitalone.identity.identitybuilder.policycore.operational_audit.cybe
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.DecisionEvaluatedEventMapper;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventEnricher;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventMapper;
+import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventMapperRegistry;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.*;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.util.MockHostContext;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.util.OperationalAuditPublisher;
@@ -27,13 +28,13 @@ import org.kie.dmn.api.core.DMNResult;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventMapper.AspectEventFactory;
 
 class DecisionEvaluatedAuditTest {
 
@@ -61,13 +62,13 @@ class DecisionEvaluatedAuditTest {
         ProducerProperties producerProperties = Mockito.mock(ProducerProperties.class);
         Mockito.lenient().when(producerProperties.getSchemaName()).thenReturn("testSchema");
         operationalSystemContext = Mockito.mock(OperationalSystemContext.class);
-        Map<Class<? extends AspectEventFactory>, AspectEventFactory> factoryMap = new HashMap<>();
-        factoryMap.put(DecisionEvaluatedEventMapper.Factory.class, new DecisionEvaluatedEventMapper.Factory(true, true));
+        final OperationalEventMapperRegistry operationalEventMapperRegistry = new OperationalEventMapperRegistry(
+                Collections.singletonList(new DecisionEvaluatedEventMapper.Factory(true, true)));
 
         operationalAuditAspect = new OperationalAuditAspect(
                 new OperationalEventEnricher(operationalSystemContext, true),
                 new OperationalAuditPublisher(auditPublisher, producerProperties.getSchemaName()),
-                factoryMap, mockAWSHostContextCollector);
+                operationalEventMapperRegistry, mockAWSHostContextCollector);
 
         // Initialize the argument captor used for verification
         auditEventArgumentCaptor = ArgumentCaptor.forClass(AuditEvent.class);
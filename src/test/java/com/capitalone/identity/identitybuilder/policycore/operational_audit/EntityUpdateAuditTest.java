@@ -11,6 +11,7 @@ import com.capitalone.identity.identitybuilder.policycore.camel.external.dynamic
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.cyber.AWSHostContextCollector;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.EntityUpdateEventMapper;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventEnricher;
+import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventMapperRegistry;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.*;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.configstore.EntityUpdateEventOccurred;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.configstore.OperationalConfigStoreMetadata;
@@ -25,6 +26,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Set;
 
@@ -81,7 +83,8 @@ public class EntityUpdateAuditTest {
                 new OperationalAuditor.OperationalAuditDispatcher(
                         new OperationalEventEnricher(operationalSystemContext, true),
                         new OperationalAuditPublisher(auditPublisher, producerProperties.getSchemaName()),
-                        mockAWSHostContextCollector));
+                        mockAWSHostContextCollector,
+                        new OperationalEventMapperRegistry(Collections.emptyList())));
 
         // Initialize the argument captor used for verification
         auditEventArgumentCaptor = ArgumentCaptor.forClass(AuditEvent.class);
@@ -7,6 +7,7 @@ import com.capitalone.identity.identitybuilder.audit.sdpv4.ProducerProperties;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.cyber.AWSHostContextCollector;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.ExceptionInterceptedEventMapper;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventEnricher;
+import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventMapperRegistry;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.OperationalEvent;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.OperationalSystemContext;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.event_models.ExceptionIntercepted;
@@ -78,7 +79,8 @@ public class ExceptionInterceptedAuditTest {
                 new OperationalAuditor.OperationalAuditDispatcher(
                         new OperationalEventEnricher(operationalSystemContext, false),
                         new OperationalAuditPublisher(auditPublisher, producerProperties.getSchemaName()),
-                        mockAWSHostContextCollector));
+                        mockAWSHostContextCollector,
+                        new OperationalEventMapperRegistry(Collections.emptyList())));
         exceptionPublisher = new ExceptionInterceptedEventMapper.ExceptionInterceptPublisher(operationalAuditor);
         auditEventArgumentCaptor = ArgumentCaptor.forClass(AuditEvent.class);
         Mockito.when(mockRequestContext.getStringHeaders()).thenReturn(requestHeaders);
@@ -6,6 +6,7 @@ import com.capitalone.identity.identitybuilder.audit.sdpv4.ProducerProperties;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.cyber.AWSHostContextCollector;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.HealthCheckEvaluatedMapper;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventEnricher;
+import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventMapperRegistry;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.OperationalEvent;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.OperationalSystemContext;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.event_models.HealthCheckEvaluated;
@@ -24,6 +25,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.test.context.ContextConfiguration;
 
+import java.util.Collections;
 import java.util.Objects;
 
 @ContextConfiguration(classes = {
@@ -49,7 +51,8 @@ public class HealthCheckEvaluatedAuditTest {
                 new OperationalAuditor.OperationalAuditDispatcher(
                         new OperationalEventEnricher(operationalSystemContext, true),
                         new OperationalAuditPublisher(auditPublisher, producerProperties.getSchemaName()),
-                        mockAWSHostContextCollector));
+                        mockAWSHostContextCollector,
+                        new OperationalEventMapperRegistry(Collections.emptyList())));
         healthPublisher = new HealthCheckEvaluatedMapper.HealthCheckPublisher(operationalAuditor);
         auditEventArgumentCaptor = ArgumentCaptor.forClass(AuditEvent.class);
     }
@@ -6,6 +6,7 @@ import com.capitalone.identity.identitybuilder.audit.sdpv4.ProducerProperties;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.cyber.AWSHostContextCollector;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.JwkValidatedEventMapper;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventEnricher;
+import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventMapperRegistry;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.OperationalEvent;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.OperationalSystemContext;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.event_models.JwkValidated;
@@ -24,6 +25,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.test.context.ContextConfiguration;
 
+import java.util.Collections;
 import java.util.Objects;
 
 
@@ -50,7 +52,8 @@ class JwkValidatedAuditTest {
                 new OperationalAuditor.OperationalAuditDispatcher(
                         new OperationalEventEnricher(operationalSystemContext, true),
                         new OperationalAuditPublisher(auditPublisher, producerProperties.getSchemaName()),
-                        mockAWSHostContextCollector));
+                        mockAWSHostContextCollector,
+                        new OperationalEventMapperRegistry(Collections.emptyList())));
         jwkValidatedPublisher = new JwkValidatedEventMapper.JwkValidationPublisher(operationalAuditor);
         auditEventArgumentCaptor = ArgumentCaptor.forClass(AuditEvent.class);
     }
@@ -5,6 +5,7 @@ import com.capitalone.identity.identitybuilder.audit.sdpv4.AuditPublisher;
 import com.capitalone.identity.identitybuilder.audit.sdpv4.ProducerProperties;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.cyber.AWSHostContextCollector;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventEnricher;
+import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventMapperRegistry;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.*;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.util.MockHostContext;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.util.OperationalAuditPublisher;
@@ -18,7 +19,7 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
-import java.util.HashMap;
+import java.util.Collections;
 
 import static org.mockito.ArgumentMatchers.any;
 
@@ -54,7 +55,7 @@ class JwtPublicKeyRequestedAuditTest {
         operationalAuditAspect = new OperationalAuditAspect(
                 new OperationalEventEnricher(operationalSystemContext, true),
                 new OperationalAuditPublisher(auditPublisher, producerProperties.getSchemaName()),
-                new HashMap<>(), mockAWSHostContextCollector);
+                new OperationalEventMapperRegistry(Collections.emptyList()), mockAWSHostContextCollector);
 
         testKeyRetrievalService = Mockito.mock(JwtPublicKeyRetrievalService.class);
 
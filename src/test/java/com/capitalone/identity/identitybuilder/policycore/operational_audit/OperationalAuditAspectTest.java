@@ -3,6 +3,7 @@ package com.capitalone.identity.identitybuilder.policycore.operational_audit;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.cyber.AWSHostContextCollector;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventEnricher;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventMapper;
+import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventMapperRegistry;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.OperationalError;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.OperationalEvent;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.OperationalEventOutcome;
@@ -17,8 +18,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.mockito.ArgumentMatchers.any;
 
@@ -40,10 +43,11 @@ class OperationalAuditAspectTest {
         // Mocked dependencies
         final OperationalEventEnricher operationalEventEnricher = Mockito.mock(OperationalEventEnricher.class);
         operationalAuditPublisher = Mockito.mock(OperationalAuditPublisher.class);
+        Mockito.doCallRealMethod().when(operationalAuditPublisher).submit(any());
 
         // Instantiate aspect and register annotated example with it
         final OperationalAuditAspect aspect = new OperationalAuditAspect(operationalEventEnricher,
-                operationalAuditPublisher, new HashMap<>(), mockAWSHostContextCollector);
+                operationalAuditPublisher, new OperationalEventMapperRegistry(Collections.emptyList()), mockAWSHostContextCollector);
         Mockito.when(operationalEventEnricher.enrich(any(), any(), any())).thenReturn(OPERATIONAL_EVENT_EXPECTED);
         annotatedExample = OperationalAuditTestUtil.registerWithAspect(new AnnotatedExample(), aspect);
     }
@@ -108,6 +112,35 @@ class OperationalAuditAspectTest {
         Assertions.assertSame(OUTPUT_EXPECTED, outputActual);
     }
 
+    @Test
+    void asyncSuccessAuditedOnCompletion() {
+        // Arrange
+        final CompletableFuture<Object> pending = new CompletableFuture<>();
+
+        // Act
+        final CompletableFuture<Object> outputActual = annotatedExample.runAsync(pending);
+
+        // Assert
+        Mockito.verifyNoInteractions(operationalAuditPublisher);
+        pending.complete(OUTPUT_EXPECTED);
+        Assertions.assertSame(OUTPUT_EXPECTED, outputActual.join());
+        Mockito.verify(operationalAuditPublisher).publish(OPERATIONAL_EVENT_EXPECTED);
+    }
+
+    @Test
+    void asyncFailureAuditedOnCompletion() {
+        // Arrange
+        final CompletableFuture<Object> pending = new CompletableFuture<>();
+
+        // Act
+        final CompletableFuture<Object> outputActual = annotatedExample.runAsync(pending);
+        pending.completeExceptionally(new IllegalStateException("test"));
+
+        // Assert
+        Assertions.assertThrows(CompletionException.class, outputActual::join);
+        Mockito.verify(operationalAuditPublisher).publish(OPERATIONAL_EVENT_EXPECTED);
+    }
+
     /**
      * Supporting Test-Only Example of Aspect Usage
      */
@@ -138,6 +171,11 @@ class OperationalAuditAspectTest {
         Object runNoArgs() {
             return OUTPUT_EXPECTED;
         }
+
+        @OperationalAudit(eventType = OperationalEventType.POLICY_EVALUATED, mapperFactory = ExampleMapper.SuccessFactory.class)
+        CompletableFuture<Object> runAsync(final CompletableFuture<Object> pending) {
+            return pending;
+        }
     }
 
     /**
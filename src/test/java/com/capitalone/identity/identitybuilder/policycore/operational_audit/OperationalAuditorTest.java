@@ -3,6 +3,7 @@ package com.capitalone.identity.identitybuilder.policycore.operational_audit;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.cyber.AWSHostContextCollector;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventEnricher;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventMapper;
+import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventMapperRegistry;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.*;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.type.OperationalEventType;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.util.MockHostContext;
@@ -13,6 +14,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.util.Collections;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -40,8 +42,10 @@ class OperationalAuditorTest {
     void setup() {
         operationalEventEnricher = Mockito.mock(OperationalEventEnricher.class);
         operationalAuditPublisher = Mockito.mock(OperationalAuditPublisher.class);
+        Mockito.doCallRealMethod().when(operationalAuditPublisher).submit(any());
         operationalAuditDispatcher = new OperationalAuditor.OperationalAuditDispatcher(
-                operationalEventEnricher, operationalAuditPublisher, mockAWSHostContextCollector);
+                operationalEventEnricher, operationalAuditPublisher, mockAWSHostContextCollector,
+                new OperationalEventMapperRegistry(Collections.emptyList()));
         operationalAuditor = new OperationalAuditor(operationalAuditDispatcher);
         Mockito.when(operationalEventEnricher.enrich(any(), any(), any())).thenReturn(OPERATIONAL_EVENT_EXPECTED);
     }
@@ -7,6 +7,7 @@ import com.capitalone.identity.identitybuilder.policycore.model.DevExchangeReque
 import com.capitalone.identity.identitybuilder.policycore.model.DevExchangeResponse;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.cyber.AWSHostContextCollector;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventEnricher;
+import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventMapperRegistry;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.*;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.OperationalError;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.OperationalEvent;
@@ -30,7 +31,6 @@ import org.springframework.http.HttpMethod;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 
 import static com.capitalone.identity.identitybuilder.policycore.operational_audit.util.AuditTestConstants.*;
 
@@ -61,7 +61,7 @@ class PipEvaluatedAuditTest {
         operationalAuditAspect = new OperationalAuditAspect(
                 new OperationalEventEnricher(operationalSystemContext, true),
                 new OperationalAuditPublisher(auditPublisher, producerProperties.getSchemaName()),
-                new HashMap<>(), mockAWSHostContextCollector);
+                new OperationalEventMapperRegistry(Collections.emptyList()), mockAWSHostContextCollector);
 
         // Initialize the test only object
         testOnlyPipEvaluator = Mockito.mock(DevExchangeDAOImpl.class);
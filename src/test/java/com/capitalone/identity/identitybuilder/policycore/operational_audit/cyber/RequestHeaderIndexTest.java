@@ -0,0 +1,87 @@
+package com.capitalone.identity.identitybuilder.policycore.operational_audit.cyber;
+
+import com.capitalone.chassis.engine.model.context.RequestContext;
+import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.exchange_schema.OperationalProtocolHeader;
+import com.capitalone.identity.identitybuilder.policycore.operational_audit.util.OperationalAuditUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestHeaderIndexTest {
+
+    private final Map<String, List<String>> headersMap = new LinkedHashMap<>();
+    private RequestContext requestContext;
+
+    @BeforeEach
+    void setup() {
+        requestContext = Mockito.mock(RequestContext.class);
+        Mockito.when(requestContext.getAllRequestHeaders()).thenReturn(headersMap);
+        headersMap.put("X-Forwarded-For", Arrays.asList("10.0.0.1", "10.0.0.2"));
+        headersMap.put("Empty-Header", Collections.emptyList());
+    }
+
+    @Test
+    void lookupsCaseInsensitive() {
+        final RequestHeaderIndex index = RequestHeaderIndex.of(requestContext);
+        assertEquals(Arrays.asList("10.0.0.1", "10.0.0.2"), index.getAll("x-forwarded-for"));
+        assertEquals(Optional.of("10.0.0.1"), index.getFirst("X-FORWARDED-FOR"));
+        assertEquals(Optional.empty(), index.getFirst("Empty-Header"));
+        assertEquals(Optional.empty(), index.getFirst("missing"));
+    }
+
+    @Test
+    void protocolHeadersOnePerValue() {
+        final List<OperationalProtocolHeader> protocolHeaders = RequestHeaderIndex.of(requestContext).getProtocolHeaders();
+        assertEquals(Arrays.asList(
+                new OperationalProtocolHeader("X-Forwarded-For", OperationalAuditUtil.headerValueStopGap("10.0.0.1")),
+                new OperationalProtocolHeader("X-Forwarded-For", OperationalAuditUtil.headerValueStopGap("10.0.0.2"))),
+                protocolHeaders);
+        assertThrows(UnsupportedOperationException.class, () -> protocolHeaders.add(null));
+    }
+
+    @Test
+    void indexReusedForSameHeaders() {
+        final RequestHeaderIndex index = RequestHeaderIndex.of(requestContext);
+        assertSame(index, RequestHeaderIndex.of(requestContext));
+
+        headersMap.put("X-Process-Id", Collections.singletonList("test-process"));
+        final RequestHeaderIndex updated = RequestHeaderIndex.of(requestContext);
+        assertNotSame(index, updated);
+        assertEquals(Optional.of("test-process"), updated.getFirst("x-process-id"));
+
+        final RequestContext nextRequest = Mockito.mock(RequestContext.class);
+        Mockito.when(nextRequest.getAllRequestHeaders()).thenReturn(new LinkedHashMap<>(headersMap));
+        assertNotSame(updated, RequestHeaderIndex.of(nextRequest));
+    }
+
+    @Test
+    void indexScopedToRequestContext() {
+        final RequestHeaderIndex index = RequestHeaderIndex.of(requestContext);
+
+        // another request served on the same thread neither sees nor replaces this request's index
+        final RequestContext nextRequest = Mockito.mock(RequestContext.class);
+        Mockito.when(nextRequest.getAllRequestHeaders())
+                .thenReturn(Collections.singletonMap("Authorization", Collections.singletonList("next")));
+        final RequestHeaderIndex nextIndex = RequestHeaderIndex.of(nextRequest);
+        assertEquals(Optional.empty(), nextIndex.getFirst("X-Forwarded-For"));
+        assertSame(index, RequestHeaderIndex.of(requestContext));
+        assertEquals(Optional.empty(), index.getFirst("Authorization"));
+    }
+
+    @Test
+    void noHeaders() {
+        Mockito.when(requestContext.getAllRequestHeaders()).thenReturn(null);
+        final RequestHeaderIndex index = RequestHeaderIndex.of(requestContext);
+        assertTrue(index.getProtocolHeaders().isEmpty());
+        assertEquals(Optional.empty(), index.getFirst("X-Forwarded-For"));
+    }
+}
@@ -56,4 +56,15 @@ public class ThreadLocalContextCollectorTest {
         assertEquals(headersMap.get("X-Forwarded-Proto").get(0), contextMap.get("protocol_type"));
 
     }
+
+    @Test
+    void getCurrentThreadContextCaseInsensitiveHeadersTest() {
+        headersMap.put("x-forwarded-for", Collections.singletonList("10.0.0.1"));
+        headersMap.put("X-PROCESS-ID", Collections.singletonList("test-process"));
+        Map<String, Object> contextMap = mockThreadLocalContextCollector
+                .getCurrentThreadContext(this.getClass().getName(), requestContext);
+        assertEquals("10.0.0.1", contextMap.get("client_ip_address"));
+        assertEquals("test-process", contextMap.get("process_id"));
+        assertEquals(3, ((List<?>) contextMap.get("protocol_headers")).size());
+    }
 }
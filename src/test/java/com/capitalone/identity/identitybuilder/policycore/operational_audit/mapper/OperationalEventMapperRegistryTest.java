@@ -0,0 +1,128 @@
+package com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper;
+
+import com.capitalone.identity.identitybuilder.policycore.operational_audit.OperationalAudit;
+import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.OperationalEventOccurred;
+import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.type.OperationalEventType;
+import lombok.NonNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationalEventMapperRegistryTest {
+
+    // Object under test
+    private OperationalEventMapperRegistry registry;
+
+    @BeforeEach
+    void setup() {
+        registry = new OperationalEventMapperRegistry(Collections.emptyList());
+    }
+
+    @Test
+    void aspectEventFactoryBeanUsed() {
+        // Arrange
+        final DecisionEvaluatedEventMapper.Factory bean = new DecisionEvaluatedEventMapper.Factory(true, true);
+        registry = new OperationalEventMapperRegistry(Collections.singletonList(bean));
+
+        // Act
+        registry.registerAuditedMethods(DecisionAudited.class);
+
+        // Assert
+        assertSame(bean, registry.getAspectEventFactory(DecisionEvaluatedEventMapper.Factory.class));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    void auditedMethodFactoriesCreatedOnce() {
+        // Act
+        registry.registerAuditedMethods(Audited.class);
+
+        // Assert
+        assertEquals(1, registry.size());
+        final OperationalEventMapper.AspectEventFactory factory =
+                registry.getAspectEventFactory(FileUploadEventMapper.Factory.class);
+        assertSame(factory, registry.getAspectEventFactory(FileUploadEventMapper.Factory.class));
+    }
+
+    @Test
+    void auditedMethodFactoryInstantiationFailure() {
+        assertThrows(IllegalStateException.class, () -> registry.registerAuditedMethods(FailedInstantiationAudited.class));
+    }
+
+    @Test
+    void notificationEventFactoriesRegisteredFromPackage() {
+        // Act
+        registry.registerNotificationEventFactories(OperationalEventMapper.class.getPackage().getName());
+
+        // Assert
+        assertTrue(registry.size() >= 8);
+        final OperationalEventMapper.NotificationEventFactory factory =
+                registry.getNotificationEventFactory(PollingConfigEventMapper.Factory.class);
+        assertSame(factory, registry.getNotificationEventFactory(PollingConfigEventMapper.Factory.class));
+    }
+
+    @Test
+    void unregisteredFactoryRegisteredOnFirstLookup() {
+        // Act
+        final OperationalEventMapper.NotificationEventFactory factory =
+                registry.getNotificationEventFactory(ExampleFactory.class);
+
+        // Assert
+        assertSame(factory, registry.getNotificationEventFactory(ExampleFactory.class));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    void unregisteredFactoryInstantiationFailure() {
+        assertThrows(IllegalStateException.class,
+                () -> registry.getNotificationEventFactory(FailedInstantiationFactory.class));
+        assertEquals(0, registry.size());
+    }
+
+    /**
+     * Supporting Test-Only Audited Types
+     */
+    static class Audited {
+        @OperationalAudit(eventType = OperationalEventType.FILE_UPLOAD_PROCESS, mapperFactory = FileUploadEventMapper.Factory.class)
+        public void upload() {
+        }
+
+        @OperationalAudit(eventType = OperationalEventType.FILE_UPLOAD_PROCESS, mapperFactory = FileUploadEventMapper.Factory.class)
+        public void uploadAgain() {
+        }
+    }
+
+    static class DecisionAudited {
+        @OperationalAudit(eventType = OperationalEventType.DECISION_EVALUATED, mapperFactory = DecisionEvaluatedEventMapper.Factory.class)
+        public void decide() {
+        }
+    }
+
+    static class FailedInstantiationAudited {
+        @OperationalAudit(eventType = OperationalEventType.DECISION_EVALUATED, mapperFactory = FailedInstantiationAspectFactory.class)
+        public void audited() {
+        }
+    }
+
+    static class ExampleFactory implements OperationalEventMapper.NotificationEventFactory {
+        @Override public @NonNull OperationalEventMapper create(final OperationalEventOccurred operationalEventOccurred) {
+            return Mockito.mock(OperationalEventMapper.class);
+        }
+    }
+
+    static class FailedInstantiationFactory extends ExampleFactory {
+        private FailedInstantiationFactory() {}
+    }
+
+    static class FailedInstantiationAspectFactory implements OperationalEventMapper.AspectEventFactory {
+        private FailedInstantiationAspectFactory() {}
+
+        @Override public @NonNull OperationalEventMapper create(final Object request, final Object response) {
+            return Mockito.mock(OperationalEventMapper.class);
+        }
+    }
+}
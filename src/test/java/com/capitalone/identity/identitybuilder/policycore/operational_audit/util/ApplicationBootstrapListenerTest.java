@@ -8,6 +8,7 @@ import com.capitalone.identity.identitybuilder.policycore.operational_audit.Oper
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.cyber.AWSHostContextCollector;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.HealthCheckEvaluatedMapper;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventEnricher;
+import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventMapperRegistry;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.OperationalEvent;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.OperationalSupplementalAttribute;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.OperationalSystemContext;
@@ -39,6 +40,7 @@ import org.springframework.test.context.TestPropertySource;
 
 import java.lang.management.ManagementFactory;
 import java.time.Instant;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -87,7 +89,8 @@ public class ApplicationBootstrapListenerTest {
                 new OperationalAuditor.OperationalAuditDispatcher(
                         new OperationalEventEnricher(operationalSystemContext, true),
                         new OperationalAuditPublisher(auditPublisher, producerProperties.getSchemaName()),
-                        mockAWSHostContextCollector));
+                        mockAWSHostContextCollector,
+                        new OperationalEventMapperRegistry(Collections.emptyList())));
         applicationBootstrapListener = new ApplicationBootstrapListener();
         auditEventArgumentCaptor = ArgumentCaptor.forClass(AuditEvent.class);
         healthCheckPublisher = new HealthCheckEvaluatedMapper.HealthCheckPublisher(operationalAuditor);
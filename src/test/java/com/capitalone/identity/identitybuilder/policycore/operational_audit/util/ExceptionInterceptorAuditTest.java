@@ -10,6 +10,7 @@ import com.capitalone.identity.identitybuilder.policycore.operational_audit.cybe
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.ChassisStatusCodeResolver;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.ExceptionInterceptedEventMapper;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventEnricher;
+import com.capitalone.identity.identitybuilder.policycore.operational_audit.mapper.OperationalEventMapperRegistry;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.OperationalEvent;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.OperationalSystemContext;
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.event_models.ExceptionIntercepted_Publisher;
@@ -25,6 +26,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.test.context.ContextConfiguration;
 
+import java.util.Collections;
 import java.util.ArrayList;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -65,7 +67,8 @@ class ExceptionInterceptorAuditTest {
                 new OperationalAuditor.OperationalAuditDispatcher(
                         new OperationalEventEnricher(operationalSystemContext, true),
                         new OperationalAuditPublisher(auditPublisher, producerProperties.getSchemaName()),
-                        mockAWSHostContextCollector));
+                        mockAWSHostContextCollector,
+                        new OperationalEventMapperRegistry(Collections.emptyList())));
 
         exceptionPublisher = new ExceptionInterceptedEventMapper.ExceptionInterceptPublisher(operationalAuditor);
         exceptionInterceptor = new ExceptionInterceptor(chassisStatusCodeResolver, exceptionPublisher);
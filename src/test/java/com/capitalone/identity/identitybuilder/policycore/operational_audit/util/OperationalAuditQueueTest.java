@@ -0,0 +1,232 @@
+package com.capitalone.identity.identitybuilder.policycore.operational_audit.util;
+
+import com.capitalone.chassis.engine.model.context.RequestContext;
+import com.capitalone.chassis.engine.model.context.RequestContextHolder;
+import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.OperationalEvent;
+import org.apache.logging.log4j.CloseableThreadContext;
+import org.apache.logging.log4j.ThreadContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationalAuditQueueTest {
+
+    private final List<OperationalEvent> published = new CopyOnWriteArrayList<>();
+    private final List<Map<String, Object>> publishedSpilled = new CopyOnWriteArrayList<>();
+    private final List<OperationalAuditQueue> queues = new ArrayList<>();
+
+    @TempDir
+    Path spillDirectory;
+
+    @AfterEach
+    void tearDown() {
+        queues.forEach(OperationalAuditQueue::close);
+    }
+
+    private OperationalAuditQueue queue(final OperationalAuditQueue.Settings settings) {
+        final OperationalAuditQueue queue = new OperationalAuditQueue(settings, published::add, publishedSpilled::add);
+        queues.add(queue);
+        return queue;
+    }
+
+    private static OperationalEvent event(final String operationId) {
+        return OperationalEvent.builder().eventOperationId(operationId).build();
+    }
+
+    @Test
+    void publishesOnWorkerWithCallerContext() throws InterruptedException {
+        final OperationalAuditQueue queue = queue(OperationalAuditQueue.Settings.builder().workerThreads(1).build());
+        final RequestContext requestContext = new MockRequestContext().MockRequestContext();
+        final RequestContext previousContext = RequestContextHolder.getRequestContextOrDefault();
+        final AtomicReference<String> workerThread = new AtomicReference<>();
+        final AtomicReference<String> workerMessageId = new AtomicReference<>();
+        final AtomicReference<String> workerOperationId = new AtomicReference<>();
+        final CountDownLatch built = new CountDownLatch(1);
+
+        RequestContextHolder.put(requestContext);
+        try (final CloseableThreadContext.Instance ignored = CloseableThreadContext.put("eventOperationId", "op-1")) {
+            queue.submit(() -> {
+                workerThread.set(Thread.currentThread().getName());
+                workerMessageId.set(RequestContextHolder.getRequestContextOrDefault().getMessageId());
+                workerOperationId.set(ThreadContext.get("eventOperationId"));
+                built.countDown();
+                return event("op-1");
+            });
+        } finally {
+            RequestContextHolder.put(previousContext);
+        }
+
+        assertTrue(built.await(5, TimeUnit.SECONDS));
+        queue.close();
+        assertTrue(workerThread.get().startsWith("operational-audit-"));
+        assertEquals(MockRequestContext.MOCK_MESSAGE_ID, workerMessageId.get());
+        assertEquals("op-1", workerOperationId.get());
+        assertEquals(1, published.size());
+    }
+
+    @Test
+    void cancelledAndFailedAuditsNotPublished() {
+        final OperationalAuditQueue queue = queue(OperationalAuditQueue.Settings.builder().workerThreads(1).build());
+        queue.submit(() -> null);
+        queue.submit(() -> {
+            throw new IllegalStateException("test");
+        });
+        queue.submit(() -> event("op-3"));
+        queue.close();
+
+        assertEquals(1, published.size());
+        assertEquals("op-3", published.get(0).getEventOperationId());
+    }
+
+    @Test
+    void dropWhenFull() {
+        final OperationalAuditQueue queue = queue(OperationalAuditQueue.Settings.builder()
+                .capacity(1).workerThreads(0).build());
+        queue.submit(() -> event("op-1"));
+        queue.submit(() -> event("op-2"));
+        queue.submit(() -> event("op-3"));
+
+        assertEquals(1, queue.size());
+        assertEquals(2, queue.getDroppedCount());
+    }
+
+    @Test
+    void blockWaitsForRoomThenDrops() {
+        final OperationalAuditQueue queue = queue(OperationalAuditQueue.Settings.builder()
+                .capacity(1).workerThreads(0)
+                .backpressurePolicy(OperationalAuditQueue.BackpressurePolicy.BLOCK)
+                .blockTimeout(Duration.ofMillis(50))
+                .build());
+        queue.submit(() -> event("op-1"));
+
+        final long start = System.nanoTime();
+        queue.submit(() -> event("op-2"));
+
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(1, queue.getDroppedCount());
+    }
+
+    @Test
+    void spillWhenFullAndDrain() {
+        final OperationalAuditSpillFile spillFile = new OperationalAuditSpillFile(spillDirectory, 1024 * 1024);
+        final OperationalAuditQueue queue = queue(OperationalAuditQueue.Settings.builder()
+                .capacity(1).workerThreads(0)
+                .backpressurePolicy(OperationalAuditQueue.BackpressurePolicy.SPILL)
+                .spillFile(spillFile)
+                .build());
+        queue.submit(() -> event("op-1"));
+        queue.submit(() -> event("op-2"));
+        queue.submit(() -> event("op-3"));
+
+        assertEquals(2, queue.getSpilledCount());
+        assertEquals(0, queue.getDroppedCount());
+        assertTrue(spillFile.sizeInBytes() > 0);
+
+        spillFile.drain(publishedSpilled::add);
+        assertEquals(2, publishedSpilled.size());
+        assertEquals("op-2", publishedSpilled.get(0).get("event_operation_id"));
+        assertEquals("op-3", publishedSpilled.get(1).get("event_operation_id"));
+        assertEquals(0, spillFile.sizeInBytes());
+
+        spillFile.drain(publishedSpilled::add);
+        assertEquals(2, publishedSpilled.size());
+    }
+
+    @Test
+    void drainSkipsEventsThePublisherFailsOn() {
+        final OperationalAuditSpillFile spillFile = new OperationalAuditSpillFile(spillDirectory, 1024 * 1024);
+        spillFile.append(event("op-1"));
+        spillFile.append(event("op-2"));
+        spillFile.append(event("op-3"));
+
+        spillFile.drain(event -> {
+            if ("op-2".equals(event.get("event_operation_id"))) {
+                throw new IllegalStateException("publish failed");
+            }
+            publishedSpilled.add(event);
+        });
+        assertEquals(2, publishedSpilled.size());
+        assertEquals("op-3", publishedSpilled.get(1).get("event_operation_id"));
+        assertFalse(Files.exists(spillDirectory.resolve("operational-audit.spill.draining")));
+    }
+
+    @Test
+    void interruptedDrainResumesAfterPublishedEvents() {
+        final OperationalAuditSpillFile spillFile = new OperationalAuditSpillFile(spillDirectory, 1024 * 1024);
+        spillFile.append(event("op-1"));
+        spillFile.append(event("op-2"));
+        spillFile.append(event("op-3"));
+
+        assertThrows(AssertionError.class, () -> spillFile.drain(event -> {
+            if ("op-2".equals(event.get("event_operation_id"))) {
+                throw new AssertionError("worker died");
+            }
+            publishedSpilled.add(event);
+        }));
+        assertEquals(1, publishedSpilled.size());
+
+        spillFile.append(event("op-4"));
+        spillFile.drain(publishedSpilled::add);
+        assertEquals(3, publishedSpilled.size());
+        assertEquals("op-2", publishedSpilled.get(1).get("event_operation_id"));
+        assertEquals("op-3", publishedSpilled.get(2).get("event_operation_id"));
+
+        spillFile.drain(publishedSpilled::add);
+        assertEquals(4, publishedSpilled.size());
+        assertEquals("op-4", publishedSpilled.get(3).get("event_operation_id"));
+    }
+
+    @Test
+    void spillFileFullDrops() {
+        final OperationalAuditSpillFile spillFile = new OperationalAuditSpillFile(spillDirectory, 1);
+        final OperationalAuditQueue queue = queue(OperationalAuditQueue.Settings.builder()
+                .capacity(1).workerThreads(0)
+                .backpressurePolicy(OperationalAuditQueue.BackpressurePolicy.SPILL)
+                .spillFile(spillFile)
+                .build());
+        queue.submit(() -> event("op-1"));
+        queue.submit(() -> event("op-2"));
+        queue.submit(() -> event("op-3"));
+
+        assertEquals(1, queue.getSpilledCount());
+        assertEquals(1, queue.getDroppedCount());
+    }
+
+    @Test
+    void workersDrainSpillFileWhenIdle() throws InterruptedException {
+        final OperationalAuditSpillFile spillFile = new OperationalAuditSpillFile(spillDirectory, 1024 * 1024);
+        spillFile.append(event("op-1"));
+        queue(OperationalAuditQueue.Settings.builder()
+                .workerThreads(1)
+                .backpressurePolicy(OperationalAuditQueue.BackpressurePolicy.SPILL)
+                .spillFile(spillFile)
+                .build());
+
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (publishedSpilled.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(1, publishedSpilled.size());
+    }
+
+    @Test
+    void spillRequiresSpillFile() {
+        final OperationalAuditQueue.Settings settings = OperationalAuditQueue.Settings.builder()
+                .backpressurePolicy(OperationalAuditQueue.BackpressurePolicy.SPILL)
+                .build();
+        assertThrows(IllegalArgumentException.class, () -> queue(settings));
+    }
+}
@@ -2,6 +2,7 @@
 package com.capitalone.identity.identitybuilder.policycore.rest.config;
 
 import com.capitalone.identity.identitybuilder.policycore.schema.SchemaManager;
+import com.capitalone.identity.identitybuilder.policycore.service.PolicyExecutionPlanRegistry;
 import org.apache.camel.CamelContext;
 import org.apache.camel.impl.DefaultCamelContext;
 import org.apache.camel.spring.boot.CamelContextConfiguration;
@@ -37,6 +38,9 @@ public class SpringConfigTest {
 	@Mock
 	private SchemaManager schemaManager;
 
+	@Mock
+	private PolicyExecutionPlanRegistry policyExecutionPlanRegistry;
+
 	@Mock
 	private JAXBContext jaxbContext;
 
@@ -83,7 +87,7 @@ public class SpringConfigTest {
 
 	@Test
 	public void testWebClientCreation(){
-		SpringConfig springConfig = new SpringConfig(schemaManager);
+		SpringConfig springConfig = new SpringConfig(schemaManager, policyExecutionPlanRegistry);
 		WebClient webClient = springConfig.oauth2Client(
 				new InMemoryReactiveClientRegistrationRepository(ClientRegistration
 						.withRegistrationId("masterbuilder-client")
@@ -96,7 +100,7 @@ public class SpringConfigTest {
 
 	@Test
 	public void reactiveClientRegistrationRepository(){
-		SpringConfig springConfig = new SpringConfig(schemaManager);
+		SpringConfig springConfig = new SpringConfig(schemaManager, policyExecutionPlanRegistry);
 
 		OAuth2ClientProperties.Registration registration = new OAuth2ClientProperties.Registration();
 		registration.setClientId("masterbuilder");
@@ -0,0 +1,151 @@
+package com.capitalone.identity.identitybuilder.policycore.service;
+
+import com.capitalone.identity.identitybuilder.policycore.schema.SchemaManager;
+import com.capitalone.identity.identitybuilder.policycore.service.util.MockPolicyVersion;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.networknt.schema.JsonSchema;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Endpoint;
+import org.apache.camel.Exchange;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.model.RouteDefinition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PolicyExecutionPlanRegistryTest {
+
+    private static final MockPolicyVersion POLICY = MockPolicyVersion.create("us_consumers/sub_lob/policy_a/1.0.2");
+    private static final String ROUTE_NAME = "policy_a_1.0.2";
+
+    @Mock
+    private CamelContext camelContext;
+
+    @Mock
+    private SchemaManager schemaManager;
+
+    @Mock
+    private Endpoint endpoint;
+
+    @Mock
+    private ProducerTemplate producerTemplate;
+
+    @Mock
+    private JsonSchema jsonSchema;
+
+    private PolicyExecutionPlanRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new PolicyExecutionPlanRegistry(camelContext, schemaManager);
+    }
+
+    @Test
+    void getPlanUnknownRoute() {
+        when(camelContext.hasEndpoint(anyString())).thenReturn(null);
+        assertNull(registry.getPlan(POLICY, null));
+        verify(camelContext, never()).createProducerTemplate();
+    }
+
+    @Test
+    void getPlanResolvesOnce() {
+        when(camelContext.hasEndpoint("policy:" + ROUTE_NAME + "-step2")).thenReturn(endpoint);
+        when(camelContext.createProducerTemplate()).thenReturn(producerTemplate);
+
+        PolicyExecutionPlanRegistry.PolicyExecutionPlan plan = registry.getPlan(POLICY, "step2");
+        assertNotNull(plan);
+        assertSame(plan, registry.getPlan(POLICY, "step2"));
+        assertEquals(ROUTE_NAME + "-step2", plan.getPolicyRouteName());
+        assertEquals("policy:" + ROUTE_NAME + "-step2", plan.getPolicyFullyQualifiedName());
+        assertEquals("policy_a", plan.getAuthResource().getPolicyName());
+        assertEquals(1, plan.getAuthResource().getPolicyMajorVersion());
+
+        verify(camelContext, times(1)).hasEndpoint(anyString());
+        verify(camelContext, times(1)).createProducerTemplate();
+    }
+
+    @Test
+    void planSendsThroughSharedProducer() {
+        Exchange exchange = mock(Exchange.class);
+        when(camelContext.hasEndpoint(anyString())).thenReturn(endpoint);
+        when(camelContext.createProducerTemplate()).thenReturn(producerTemplate);
+
+        registry.getPlan(POLICY, null).send(exchange);
+        registry.getPlan(POLICY, "step2").send(exchange);
+
+        verify(producerTemplate, times(2)).send(endpoint, exchange);
+        verify(camelContext, times(1)).createProducerTemplate();
+    }
+
+    @Test
+    void planCompilesSchemaOnce() {
+        JsonNode body = JsonNodeFactory.instance.objectNode();
+        when(camelContext.hasEndpoint(anyString())).thenReturn(endpoint);
+        when(camelContext.createProducerTemplate()).thenReturn(producerTemplate);
+        when(schemaManager.getEntry(ROUTE_NAME)).thenReturn(new SchemaManager.Entry(ROUTE_NAME, "{}", jsonSchema));
+
+        PolicyExecutionPlanRegistry.PolicyExecutionPlan plan = registry.getPlan(POLICY, null);
+        plan.validate(body);
+        plan.validate(body);
+
+        verify(schemaManager, times(1)).getEntry(ROUTE_NAME);
+        verify(jsonSchema, times(2)).validate(body);
+    }
+
+    @Test
+    void planSchemaFailureNotCached() {
+        JsonNode body = JsonNodeFactory.instance.objectNode();
+        when(camelContext.hasEndpoint(anyString())).thenReturn(endpoint);
+        when(camelContext.createProducerTemplate()).thenReturn(producerTemplate);
+        when(schemaManager.getEntry(ROUTE_NAME)).thenThrow(new IllegalStateException("test"));
+
+        PolicyExecutionPlanRegistry.PolicyExecutionPlan plan = registry.getPlan(POLICY, null);
+        assertThrows(IllegalStateException.class, () -> plan.validate(body));
+        assertThrows(IllegalStateException.class, () -> plan.validate(body));
+        verify(schemaManager, times(2)).getEntry(ROUTE_NAME);
+    }
+
+    @Test
+    void registerAndEvict() {
+        List<RouteDefinition> routes = Collections.singletonList(new RouteDefinition("policy:" + ROUTE_NAME));
+        when(camelContext.hasEndpoint("policy:" + ROUTE_NAME)).thenReturn(endpoint);
+        when(camelContext.createProducerTemplate()).thenReturn(producerTemplate);
+
+        registry.register(POLICY, routes);
+        PolicyExecutionPlanRegistry.PolicyExecutionPlan plan = registry.getPlan(POLICY, null);
+        assertNotNull(plan);
+        verify(camelContext, times(1)).hasEndpoint(anyString());
+
+        registry.evict(routes);
+        when(camelContext.hasEndpoint("policy:" + ROUTE_NAME)).thenReturn(null);
+        assertNull(registry.getPlan(POLICY, null));
+    }
+
+    @Test
+    void registerIgnoresNonPolicyRoutes() {
+        registry.register(POLICY, Collections.singletonList(new RouteDefinition("direct:" + ROUTE_NAME + "-schema")));
+        verify(camelContext, never()).hasEndpoint(any());
+    }
+
+    @Test
+    void closeStopsProducer() throws Exception {
+        when(camelContext.hasEndpoint(anyString())).thenReturn(endpoint);
+        when(camelContext.createProducerTemplate()).thenReturn(producerTemplate);
+        registry.getPlan(POLICY, null);
+
+        registry.close();
+        verify(producerTemplate).close();
+    }
+}
@@ -23,6 +23,7 @@ import com.capitalone.identity.identitybuilder.policycore.operational_audit.mode
 import com.capitalone.identity.identitybuilder.policycore.policytopolicy.camel.PolicyToPolicyException;
 import com.capitalone.identity.identitybuilder.policycore.rest.v1.ExecutionContext;
 import com.capitalone.identity.identitybuilder.policycore.schema.SchemaManager;
+import com.capitalone.identity.identitybuilder.policycore.service.cache.CachedPolicyState;
 import com.capitalone.identity.identitybuilder.policycore.service.constants.ApplicationConstants;
 import com.capitalone.identity.identitybuilder.policycore.service.dao.impl.DevExchangeDAOImpl;
 import com.capitalone.identity.identitybuilder.policycore.service.exception.PolicyCacheException;
@@ -131,6 +132,8 @@ class PolicyServiceTest {
     private CamelContext camelContext;
     @Mock
     private SchemaManager schemaManager;
+    @Mock(lenient = true)
+    private JsonSchema jsonSchema;
     @Mock
     private PolicyStateCacheService policyStateCacheService;
     @Mock
@@ -194,9 +197,12 @@ class PolicyServiceTest {
     }
 
     private void createDefaultPolicyService() {
+        Mockito.lenient().when(schemaManager.getEntry(anyString()))
+                .thenReturn(new SchemaManager.Entry("schema", "{}", jsonSchema));
         processMetadataHelper = new PolicyService.ProcessMetadataHelper(policyStateCacheService);
-        policyExecutionHelper = Mockito.spy(new PolicyService.PolicyExecutionHelper(false, schemaManager, camelContext,
-                processMetadataHelper, camelCacheUtil, authorizationEnforcer, true, policyVersionService, false, ""));
+        policyExecutionHelper = Mockito.spy(new PolicyService.PolicyExecutionHelper(false, camelContext,
+                processMetadataHelper, camelCacheUtil, authorizationEnforcer, true, policyVersionService,
+                new PolicyExecutionPlanRegistry(camelContext, schemaManager), false, ""));
         policyServiceExecutor = new PolicyServiceExecutor(auditLogger, policyEvaluatedAuditor,
                 conversionService, policyExecutionHelper);
         policyService = new PolicyService(policyServiceExecutor, APP_NAME, schemaManager, policyStateCacheService,
@@ -289,7 +295,7 @@ class PolicyServiceTest {
     void testExecutePolicySchemaNotFound() {
         // Have the schema validator mock throw an exception.
         RuntimeException runtimeException = new RuntimeException("test exception");
-        when(schemaManager.validate(anyString(), any(JsonNode.class))).thenThrow(runtimeException);
+        when(jsonSchema.validate(any(JsonNode.class))).thenThrow(runtimeException);
         Exception error = assertThrows(RuntimeException.class, () -> policyExecutionHelper.executePolicy(policyRequest));
         assertEquals(runtimeException, error);
 
@@ -316,7 +322,7 @@ class PolicyServiceTest {
         ValidationMessage msg = ValidationMessage.of("foo", ValidatorTypeCode.FALSE, "$.some.path");
         Set<ValidationMessage> set = new HashSet<>();
         set.add(msg);
-        when(schemaManager.validate(anyString(), any(JsonNode.class))).thenReturn(set);
+        when(jsonSchema.validate(any(JsonNode.class))).thenReturn(set);
 
         PolicyService.Result result = policyExecutionHelper.executePolicy(policyRequest).getResult();
         PolicyResponse resp = result.getPolicyResponse();
@@ -470,7 +476,7 @@ class PolicyServiceTest {
         AbacResponse abacResponseExpected = new AbacResponse(false, true, null, null);
 
         when(policyStateCacheService.retrieveFromCache(anyString())).thenReturn(policyState);
-        when(policyStateCacheService.getStepExpiration(anyString())).thenReturn(stepExpiration);
+        when(policyStateCacheService.retrieveWithExpiration(anyString())).thenReturn(new CachedPolicyState(policyState, stepExpiration));
         when(authorizationEnforcer.authorize(any(), any(), any())).thenReturn(abacResponseExpected);
 
         APIRequest apiRequest1 = new APIRequest(API_KEY, null, CCID, CUSTOMER_IP, null, CHANNEL_TYPE,
@@ -512,7 +518,7 @@ class PolicyServiceTest {
         Map<String, Object> resultMapExpected = expectedResult(policyRequest, "success_1.0.0-step2");
 
         when(policyStateCacheService.retrieveFromCache(anyString())).thenReturn(policyState);
-        when(policyStateCacheService.getStepExpiration(anyString())).thenReturn(stepExpiration);
+        when(policyStateCacheService.retrieveWithExpiration(anyString())).thenReturn(new CachedPolicyState(policyState, stepExpiration));
         when(authorizationEnforcer.authorize(any(), any(), any())).thenReturn(abacResponseExpected);
 
         APIRequest apiRequest1 = new APIRequest(API_KEY, null, CCID, CUSTOMER_IP, null, CHANNEL_TYPE,
@@ -764,8 +770,7 @@ class PolicyServiceTest {
         policyState.setEffectiveNextStep("step2");
 
         String resourceId = "sampleResourceId";
-        when(policyStateCacheService.retrieveFromCache(resourceId)).thenReturn(policyState);
-        when(policyStateCacheService.getStepExpiration(resourceId)).thenReturn(LocalDateTime.MAX);
+        when(policyStateCacheService.retrieveWithExpiration(resourceId)).thenReturn(new CachedPolicyState(policyState, LocalDateTime.MAX));
 
         ProcessMetadata processMetadata = policyService.getProcessMetadata(resourceId);
         assertEquals(resourceId, processMetadata.getResourceId());
@@ -780,26 +785,7 @@ class PolicyServiceTest {
     @Test
     void getProcessMetadataNullPolicyState() {
         String resourceId = "sampleResourceId";
-        when(policyStateCacheService.retrieveFromCache(resourceId)).thenReturn(null);
-        when(policyStateCacheService.getStepExpiration(resourceId)).thenReturn(LocalDateTime.MAX);
-        NotFoundException notFoundException = assertThrows(NotFoundException.class, () -> policyService.getProcessMetadata(resourceId));
-        assertEquals(String.format(ApplicationConstants.RESOURCE_ID_NOT_FOUND, resourceId), notFoundException.getMessage());
-    }
-
-    @Test
-    void getProcessMetadataNullStepExpiration() {
-        PolicyState policyState = new PolicyState();
-        String policyName = "success";
-        String policyVersion = "1.0";
-        policyState.setPolicyName(policyName);
-        policyState.setPolicyVersion(policyVersion);
-        policyState.getAvailableNextSteps().add("step2");
-        policyState.getStepsCompleted().add("start");
-        policyState.getStepsCompleted().add("step2");
-
-        String resourceId = "sampleResourceId";
-        when(policyStateCacheService.retrieveFromCache(resourceId)).thenReturn(policyState);
-        when(policyStateCacheService.getStepExpiration(resourceId)).thenReturn(null);
+        when(policyStateCacheService.retrieveWithExpiration(resourceId)).thenReturn(null);
         NotFoundException notFoundException = assertThrows(NotFoundException.class, () -> policyService.getProcessMetadata(resourceId));
         assertEquals(String.format(ApplicationConstants.RESOURCE_ID_NOT_FOUND, resourceId), notFoundException.getMessage());
     }
@@ -826,8 +812,7 @@ class PolicyServiceTest {
         policyState.setEffectiveNextStep(null);
 
         String resourceId = "sampleResourceId";
-        when(policyStateCacheService.retrieveFromCache(resourceId)).thenReturn(policyState);
-        when(policyStateCacheService.getStepExpiration(resourceId)).thenReturn(LocalDateTime.MAX);
+        when(policyStateCacheService.retrieveWithExpiration(resourceId)).thenReturn(new CachedPolicyState(policyState, LocalDateTime.MAX));
 
         ProcessMetadata processMetadata = policyService.getProcessMetadata(resourceId);
         assertEquals(resourceId, processMetadata.getResourceId());
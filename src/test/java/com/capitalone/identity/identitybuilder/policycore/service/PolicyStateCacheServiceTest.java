@@ -4,8 +4,11 @@ import com.capitalone.chassis.engine.model.exception.ChassisSystemException;
 import com.capitalone.dsd.elasticache.client.cluster.ElasticCacheService;
 import com.capitalone.dsd.elasticache.client.constants.ClientConstants;
 import com.capitalone.identity.identitybuilder.policycore.model.PolicyState;
+import com.capitalone.identity.identitybuilder.policycore.service.cache.CachedPolicyState;
+import com.capitalone.identity.identitybuilder.policycore.service.cache.JsonPolicyStateCodec;
+import com.capitalone.identity.identitybuilder.policycore.service.cache.PolicyStateReadResult;
 import com.capitalone.identity.identitybuilder.policycore.service.constants.ApplicationConstants;
-import com.capitalone.identity.identitybuilder.policycore.service.util.ApplicationUtil;
+import com.github.benmanes.caffeine.cache.Ticker;
 import org.apache.http.HttpStatus;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -24,11 +27,16 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,7 +53,7 @@ public class PolicyStateCacheServiceTest {
     private final String cacheExpiration = "PT15M";
 
     @Spy
-    private final ApplicationUtil applicationUtil = new ApplicationUtil();
+    private final JsonPolicyStateCodec codec = new JsonPolicyStateCodec();
 
     @Mock
     private ElasticCacheService elasticCacheService;
@@ -65,7 +73,7 @@ public class PolicyStateCacheServiceTest {
         policyState.getAvailableNextSteps().add("step2");
         policyState.getAvailableNextSteps().add("step2a");
 
-        cacheValue = applicationUtil.convertObjectToString(policyState);
+        cacheValue = codec.encode(policyState);
     }
 
     @Test
@@ -108,6 +116,14 @@ public class PolicyStateCacheServiceTest {
         assertNull(policyStateCacheService.retrieveFromCache(resourceId));
     }
 
+    @Test
+    public void testReadTypedResult() {
+        when(elasticCacheService.get(resourceId)).thenReturn(cacheValue, "KEY_NOT_FOUND", ClientConstants.TIMEOUT_ERROR);
+        assertEquals(PolicyStateReadResult.hit(policyState), policyStateCacheService.read(resourceId));
+        assertEquals(PolicyStateReadResult.miss("KEY_NOT_FOUND"), policyStateCacheService.read(resourceId));
+        assertEquals(PolicyStateReadResult.Status.FAILURE, policyStateCacheService.read(resourceId).getStatus());
+    }
+
     @Test
     public void testReadCacheTokenExpired() {
         when(elasticCacheService.get(resourceId)).thenReturn("TOKEN_EXPIRED");
@@ -151,6 +167,52 @@ public class PolicyStateCacheServiceTest {
         assertNull(policyStateCacheService.getStepExpiration(resourceId));
     }
 
+    @Test
+    public void testRetrieveWithExpiration() {
+        when(elasticCacheService.get(resourceId)).thenReturn(cacheValue);
+        when(elasticCacheService.getKeyTTL(resourceId)).thenReturn(300L);
+        LocalDateTime expectedTTL = LocalDateTime.now().plusSeconds(300);
+
+        CachedPolicyState cached = policyStateCacheService.retrieveWithExpiration(resourceId);
+        assertEquals(policyState, cached.getPolicyState());
+        assertTrue(Duration.between(expectedTTL, cached.getStepExpiration()).getSeconds() < 1);
+        verify(elasticCacheService, times(1)).get(resourceId);
+        verify(elasticCacheService, times(1)).getKeyTTL(resourceId);
+    }
+
+    @Test
+    public void testRetrieveWithExpirationMissSkipsTTL() {
+        when(elasticCacheService.get(resourceId)).thenReturn("KEY_NOT_FOUND");
+        assertNull(policyStateCacheService.retrieveWithExpiration(resourceId));
+        verify(elasticCacheService, never()).getKeyTTL(anyString());
+    }
+
+    @Test
+    public void testRetrieveWithExpirationExpiredBetweenReads() {
+        when(elasticCacheService.get(resourceId)).thenReturn(cacheValue);
+        when(elasticCacheService.getKeyTTL(resourceId)).thenReturn(-2L);
+        assertNull(policyStateCacheService.retrieveWithExpiration(resourceId));
+    }
+
+    @Test
+    public void testRetrieveWithExpirationFailure() {
+        when(elasticCacheService.get(resourceId)).thenReturn("CONNECTION_ERROR");
+        assertThrows(ChassisSystemException.class, () -> policyStateCacheService.retrieveWithExpiration(resourceId));
+        verify(elasticCacheService, never()).getKeyTTL(anyString());
+    }
+
+    @Test
+    public void testRetrieveWithExpirationFromNearCache() {
+        PolicyStateCacheService service = new PolicyStateCacheService(elasticCacheService, codec,
+                new PolicyStateNearCache(10, Duration.ofMinutes(5), Ticker.systemTicker()));
+        when(elasticCacheService.put(resourceId, cacheValue)).thenReturn(HttpStatus.SC_OK);
+
+        service.populateCache(resourceId, policyState, null);
+        assertEquals(new CachedPolicyState(policyState, LocalDateTime.MAX), service.retrieveWithExpiration(resourceId));
+        verify(elasticCacheService, never()).get(anyString());
+        verify(elasticCacheService, never()).getKeyTTL(anyString());
+    }
+
     @Test
     public void testDeleteCache() {
         when(elasticCacheService.delete(resourceId)).thenReturn(HttpStatus.SC_OK);
@@ -162,4 +224,52 @@ public class PolicyStateCacheServiceTest {
         when(elasticCacheService.delete(resourceId)).thenReturn(HttpStatus.SC_BAD_REQUEST);
         assertDoesNotThrow(() -> policyStateCacheService.deleteFromCache(resourceId));
     }
+
+    @Test
+    public void testNearCacheWriteThroughSkipsRemoteReads() {
+        AtomicLong time = new AtomicLong();
+        PolicyStateCacheService service = new PolicyStateCacheService(elasticCacheService, codec,
+                new PolicyStateNearCache(10, Duration.ofMinutes(5), time::get));
+        when(elasticCacheService.putWithExpiry(eq(resourceId), eq(cacheValue), anyLong())).thenReturn(HttpStatus.SC_OK);
+
+        service.populateCache(resourceId, policyState, cacheExpiration);
+        assertEquals(policyState, service.retrieveFromCache(resourceId));
+        LocalDateTime expectedTTL = LocalDateTime.now().plusMinutes(15);
+        assertTrue(Duration.between(expectedTTL, service.getStepExpiration(resourceId)).getSeconds() < 1);
+
+        verify(elasticCacheService, never()).get(anyString());
+        verify(elasticCacheService, never()).getKeyTTL(anyString());
+
+        // near-cache entries are capped by max-ttl, after which reads go to the remote cache again
+        time.addAndGet(Duration.ofMinutes(5).toNanos());
+        when(elasticCacheService.get(resourceId)).thenReturn(cacheValue);
+        assertEquals(policyState, service.retrieveFromCache(resourceId));
+        verify(elasticCacheService).get(resourceId);
+    }
+
+    @Test
+    public void testNearCacheInvalidatedOnDelete() {
+        PolicyStateCacheService service = new PolicyStateCacheService(elasticCacheService, codec,
+                new PolicyStateNearCache(10, Duration.ofMinutes(5), Ticker.systemTicker()));
+        when(elasticCacheService.put(resourceId, cacheValue)).thenReturn(HttpStatus.SC_OK);
+        when(elasticCacheService.delete(resourceId)).thenReturn(HttpStatus.SC_OK);
+        when(elasticCacheService.get(resourceId)).thenReturn("KEY_NOT_FOUND");
+
+        service.populateCache(resourceId, policyState, null);
+        assertEquals(LocalDateTime.MAX, service.getStepExpiration(resourceId));
+        service.deleteFromCache(resourceId);
+        assertNull(service.retrieveFromCache(resourceId));
+    }
+
+    @Test
+    public void testNearCacheInvalidatedOnWriteFailure() {
+        PolicyStateCacheService service = new PolicyStateCacheService(elasticCacheService, codec,
+                new PolicyStateNearCache(10, Duration.ofMinutes(5), Ticker.systemTicker()));
+        when(elasticCacheService.put(resourceId, cacheValue)).thenReturn(HttpStatus.SC_OK, HttpStatus.SC_BAD_REQUEST);
+        when(elasticCacheService.get(resourceId)).thenReturn(ClientConstants.TIMEOUT_ERROR);
+
+        service.populateCache(resourceId, policyState, null);
+        assertThrows(ChassisSystemException.class, () -> service.populateCache(resourceId, policyState, null));
+        assertThrows(ChassisSystemException.class, () -> service.retrieveFromCache(resourceId));
+    }
 }
@@ -0,0 +1,29 @@
+package com.capitalone.identity.identitybuilder.policycore.service.cache;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PolicyStateReadResultTest {
+
+    @ParameterizedTest
+    @NullSource
+    @ValueSource(strings = {"KEY_NOT_FOUND", "TOKEN_EXPIRED", " key_not_found ", "Token_Expired"})
+    void classifyMiss(String value) {
+        assertEquals(PolicyStateReadResult.Status.MISS, PolicyStateReadResult.classify(value));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"CONNECTION_ERROR", "TIMEOUT_ERROR", "timeout_error\n"})
+    void classifyFailure(String value) {
+        assertEquals(PolicyStateReadResult.Status.FAILURE, PolicyStateReadResult.classify(value));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"{}", "PS1S:AAAA", "{\"policyName\":\"KEY_NOT_FOUND\"}"})
+    void classifyHit(String value) {
+        assertEquals(PolicyStateReadResult.Status.HIT, PolicyStateReadResult.classify(value));
+    }
+}
@@ -0,0 +1,82 @@
+package com.capitalone.identity.identitybuilder.policycore.service.cache;
+
+import com.capitalone.chassis.engine.model.exception.ChassisSystemException;
+import com.capitalone.identity.identitybuilder.policycore.model.PolicyState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SmilePolicyStateCodecTest {
+
+    private final SmilePolicyStateCodec codec = new SmilePolicyStateCodec();
+    private final JsonPolicyStateCodec legacyCodec = new JsonPolicyStateCodec();
+
+    private PolicyState policyState;
+
+    @BeforeEach
+    void setup() {
+        Map<String, Serializable> state = new HashMap<>();
+        state.put("firstName", "John");
+        state.put("count", 3);
+        policyState = new PolicyState();
+        policyState.setPolicyState(state);
+        policyState.setPolicyName("success");
+        policyState.setPolicyVersion("1.0");
+        policyState.getStepsCompleted().add("start");
+        policyState.getAvailableNextSteps().add("step2");
+    }
+
+    @Test
+    void roundTripSmall() {
+        String encoded = codec.encode(policyState);
+        assertTrue(encoded.startsWith(SmilePolicyStateCodec.HEADER_SMILE));
+        assertEquals(policyState, codec.decode(encoded));
+    }
+
+    @Test
+    void roundTripCompressed() {
+        ArrayList<String> items = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            items.add("item-value-" + i);
+        }
+        policyState.getPolicyState().put("items", items);
+
+        String encoded = codec.encode(policyState);
+        assertTrue(encoded.startsWith(SmilePolicyStateCodec.HEADER_SMILE_GZIP));
+        assertTrue(encoded.length() < legacyCodec.encode(policyState).length());
+        assertEquals(policyState, codec.decode(encoded));
+    }
+
+    @Test
+    void decodesLegacyJson() {
+        assertEquals(policyState, codec.decode(legacyCodec.encode(policyState)));
+    }
+
+    @Test
+    void legacyCodecDecodesSmile() {
+        assertEquals(policyState, legacyCodec.decode(codec.encode(policyState)));
+
+        ArrayList<String> items = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            items.add("item-value-" + i);
+        }
+        policyState.getPolicyState().put("items", items);
+        String compressed = codec.encode(policyState);
+        assertTrue(compressed.startsWith(SmilePolicyStateCodec.HEADER_SMILE_GZIP));
+        assertEquals(policyState, legacyCodec.decode(compressed));
+    }
+
+    @Test
+    void decodeCorruptValue() {
+        assertThrows(ChassisSystemException.class, () -> codec.decode(SmilePolicyStateCodec.HEADER_SMILE + "not base64!"));
+        assertThrows(ChassisSystemException.class, () -> codec.decode("{not json"));
+        assertThrows(ChassisSystemException.class, () -> legacyCodec.decode(SmilePolicyStateCodec.HEADER_SMILE_GZIP + "AAAA"));
+        assertThrows(ChassisSystemException.class, () -> legacyCodec.decode("{not json"));
+    }
+}
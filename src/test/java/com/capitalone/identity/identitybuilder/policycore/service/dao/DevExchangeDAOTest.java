@@ -1,6 +1,8 @@
 package com.capitalone.identity.identitybuilder.policycore.service.dao;
 
 import com.capitalone.chassis.engine.core.health.impl.HealthCheckableDiscoveryService;
+import com.capitalone.identity.identitybuilder.policycore.model.DevExchangeRequest;
+import com.capitalone.identity.identitybuilder.policycore.model.DevExchangeResponse;
 import com.capitalone.identity.identitybuilder.policycore.service.dao.impl.DevExchangeDAOImpl;
 import com.capitalone.identity.identitybuilder.policycore.service.dao.impl.DevExchangeDAOWebImpl;
 import com.capitalone.identity.identitybuilder.policycore.service.dao.impl.DevExchangeRestTemplateFactory;
@@ -15,6 +17,11 @@ import org.springframework.core.convert.ConversionService;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestPropertySource;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
@@ -35,6 +42,26 @@ public class DevExchangeDAOTest {
         assertTrue(devExchangeDAO instanceof DevExchangeDAOImpl);
     }
 
+    @Test
+    public void testDefaultAsyncWrapsSyncCall() {
+        DevExchangeResponse response = new DevExchangeResponse();
+        DevExchangeDAO dao = request -> response;
+        CompletableFuture<DevExchangeResponse> future = dao.invokeDxAPIAsync(new DevExchangeRequest());
+        assertTrue(future.isDone());
+        assertSame(response, future.join());
+    }
+
+    @Test
+    public void testDefaultAsyncFailsWithSyncError() {
+        IllegalStateException error = new IllegalStateException("downstream");
+        DevExchangeDAO dao = request -> {
+            throw error;
+        };
+        CompletableFuture<DevExchangeResponse> future = dao.invokeDxAPIAsync(new DevExchangeRequest());
+        assertTrue(future.isCompletedExceptionally());
+        assertSame(error, assertThrows(CompletionException.class, future::join).getCause());
+    }
+
     @Configuration
     @ComponentScan(basePackages = {"com.capitalone.identity.identitybuilder.policycore.service.dao.impl"},
     basePackageClasses = {DevExchangeDAOWebImpl.class, DevExchangeDAOImpl.class})
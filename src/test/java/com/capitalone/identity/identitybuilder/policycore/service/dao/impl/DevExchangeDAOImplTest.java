@@ -13,7 +13,6 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.core.env.Environment;
@@ -44,7 +43,8 @@ public class DevExchangeDAOImplTest {
     @Mock
     private Environment env;
 
-    @InjectMocks
+    private DevExchangeFieldMasks fieldMasks;
+
     private DevExchangeDAOImpl devExchangeDao;
 
     private DevExchangeRequest dxRequest;
@@ -76,6 +76,8 @@ public class DevExchangeDAOImplTest {
         lenient().when(devExchangeRestTemplateFactory.getDevExchangeRestTemplate(any(), any())).thenReturn(oAuth2RestTemplate);
         lenient().when(oAuth2RestTemplate.exchange(any(URI.class), any(HttpMethod.class), any(), eq(String.class))).thenReturn(new ResponseEntity<>(RESPONSE_BODY, HttpStatus.OK));
         lenient().when(env.getActiveProfiles()).thenReturn(new String[]{"devint-test"});
+        fieldMasks = new DevExchangeFieldMasks(env, "");
+        devExchangeDao = new DevExchangeDAOImpl(devExchangeRestTemplateFactory, env, fieldMasks);
     }
 
     @AfterEach
@@ -117,7 +119,7 @@ public class DevExchangeDAOImplTest {
         dxRequest.setHttpMethod(HttpMethod.POST);
         oldLogLevel = setTargetLogLevel(Level.INFO);
         System.setProperty("core.dxtrace", "pretty");
-        devExchangeDao = new DevExchangeDAOImpl(devExchangeRestTemplateFactory, env);
+        devExchangeDao = new DevExchangeDAOImpl(devExchangeRestTemplateFactory, env, fieldMasks);
 
         DevExchangeResponse dxResponse = devExchangeDao.invokeDxAPI(dxRequest);
         assertEquals(RESPONSE_BODY, dxResponse.getDxResponse(), "We get response body ");
@@ -129,7 +131,7 @@ public class DevExchangeDAOImplTest {
     public void testDevExchangeSuccessRawLogging() {
         oldLogLevel = setTargetLogLevel(Level.INFO);
         System.setProperty("core.dxtrace", "");
-        devExchangeDao = new DevExchangeDAOImpl(devExchangeRestTemplateFactory, env);
+        devExchangeDao = new DevExchangeDAOImpl(devExchangeRestTemplateFactory, env, fieldMasks);
 
         DevExchangeResponse dxResponse = devExchangeDao.invokeDxAPI(dxRequest);
         assertEquals(RESPONSE_BODY, dxResponse.getDxResponse(), "We get response body ");
@@ -141,7 +143,7 @@ public class DevExchangeDAOImplTest {
     public void testDevExchangeSuccessPrettyLogging() {
         oldLogLevel = setTargetLogLevel(Level.INFO);
         System.setProperty("core.dxtrace", "pretty");
-        devExchangeDao = new DevExchangeDAOImpl(devExchangeRestTemplateFactory, env);
+        devExchangeDao = new DevExchangeDAOImpl(devExchangeRestTemplateFactory, env, fieldMasks);
 
         DevExchangeResponse dxResponse = devExchangeDao.invokeDxAPI(dxRequest);
         assertEquals(RESPONSE_BODY, dxResponse.getDxResponse(), "We get response body ");
@@ -153,7 +155,7 @@ public class DevExchangeDAOImplTest {
     public void testDevExchangeSuccessPrettyRespLogging() {
         oldLogLevel = setTargetLogLevel(Level.INFO);
         System.setProperty("core.dxtrace", "prettyresp");
-        devExchangeDao = new DevExchangeDAOImpl(devExchangeRestTemplateFactory, env);
+        devExchangeDao = new DevExchangeDAOImpl(devExchangeRestTemplateFactory, env, fieldMasks);
 
         DevExchangeResponse dxResponse = devExchangeDao.invokeDxAPI(dxRequest);
         assertEquals(RESPONSE_BODY, dxResponse.getDxResponse(), "We get response body ");
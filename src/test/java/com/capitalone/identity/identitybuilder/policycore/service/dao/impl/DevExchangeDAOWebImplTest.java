@@ -3,9 +3,11 @@ package com.capitalone.identity.identitybuilder.policycore.service.dao.impl;
 import com.capitalone.identity.identitybuilder.policycore.model.DevExchangeRequest;
 import com.capitalone.identity.identitybuilder.policycore.model.DevExchangeResponse;
 import com.capitalone.identity.identitybuilder.policycore.service.constants.ApplicationConstants;
+import org.apache.logging.log4j.CloseableThreadContext;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.ThreadContext;
 import org.apache.logging.log4j.core.config.LoggerConfig;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -32,9 +34,13 @@ import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -60,7 +66,10 @@ public class DevExchangeDAOWebImplTest {
 
     @Mock
     private Environment env;
-    @InjectMocks
+    @Spy
+    private DevExchangeDownstreamCallAudit downstreamCallAudit = new DevExchangeDownstreamCallAudit();
+    private DevExchangeFieldMasks fieldMasks;
+
     private DevExchangeDAOWebImpl devExchangeDao;
 
     private DevExchangeRequest dxRequest;
@@ -105,6 +114,18 @@ public class DevExchangeDAOWebImplTest {
         when(requestHeadersMock.retrieve()).thenReturn(responseMock);
         lenient().when(env.getActiveProfiles()).thenReturn(new String[]{"devint-test"});
         lenient().when(responseMock.toEntity(eq(String.class))).thenReturn(Mono.just(new ResponseEntity<>(RESPONSE_BODY, HttpStatus.OK)));
+        fieldMasks = new DevExchangeFieldMasks(env, "");
+        devExchangeDao = new DevExchangeDAOWebImpl(devExchangeWebClientFactory, env, fieldMasks, downstreamCallAudit);
+    }
+
+    @Test
+    public void testDevExchangeAuditMasksServiceFields() {
+        when(env.getProperty(ApplicationConstants.CLIENT_PROPS_MASK_PREFIX + "foobar")).thenReturn("key");
+
+        assertEquals("{\"key\":\"XXXXXX\"}", devExchangeDao.invokeDxAPI(dxRequest).getDxResponseAudit());
+        assertEquals("{\"key\":\"XXXXXX\"}", devExchangeDao.invokeDxAPI(dxRequest).getDxResponseAudit());
+        assertEquals(RESPONSE_BODY, devExchangeDao.invokeDxAPI(dxRequest).getDxResponse());
+        verify(env, times(1)).getProperty(ApplicationConstants.CLIENT_PROPS_MASK_PREFIX + "foobar");
     }
 
     @AfterEach
@@ -139,7 +160,7 @@ public class DevExchangeDAOWebImplTest {
         dxRequest.setHttpMethod(HttpMethod.POST);
         oldLogLevel = setTargetLogLevel(Level.INFO);
         System.setProperty("core.dxtrace", "pretty");
-        devExchangeDao = new DevExchangeDAOWebImpl(devExchangeWebClientFactory, env);
+        devExchangeDao = new DevExchangeDAOWebImpl(devExchangeWebClientFactory, env, fieldMasks, downstreamCallAudit);
 
         DevExchangeResponse dxResponse = devExchangeDao.invokeDxAPI(dxRequest);
         assertEquals(RESPONSE_BODY, dxResponse.getDxResponse(), "We get response body ");
@@ -152,7 +173,7 @@ public class DevExchangeDAOWebImplTest {
     public void testDevExchangeSuccessLogging(String propertyInfo) {
         oldLogLevel = setTargetLogLevel(Level.INFO);
         System.setProperty("core.dxtrace", propertyInfo);
-        devExchangeDao = new DevExchangeDAOWebImpl(devExchangeWebClientFactory, env);
+        devExchangeDao = new DevExchangeDAOWebImpl(devExchangeWebClientFactory, env, fieldMasks, downstreamCallAudit);
 
         DevExchangeResponse dxResponse = devExchangeDao.invokeDxAPI(dxRequest);
         assertEquals(RESPONSE_BODY, dxResponse.getDxResponse(), "We get response body ");
@@ -219,6 +240,60 @@ public class DevExchangeDAOWebImplTest {
 
     }
 
+    @Test
+    public void testDevExchangeAsyncSuccess() {
+        ReflectionTestUtils.setField(devExchangeDao, "asyncEnabled", true);
+        assertTrue(devExchangeDao.isAsyncSupported());
+
+        DevExchangeResponse dxResponse = devExchangeDao.invokeDxAPIAsync(dxRequest).join();
+        assertEquals(RESPONSE_BODY, dxResponse.getDxResponse());
+        assertEquals(RESPONSE_BODY, dxResponse.getDxResponseAudit());
+        assertEquals(HttpStatus.OK.value(), dxResponse.getHttpStatus());
+        verify(responseMock, times(1)).toEntity(String.class);
+        verify(downstreamCallAudit, times(1)).audit(dxRequest, dxResponse);
+    }
+
+    @Test
+    public void testDevExchangeAsyncCompletesWithCallerThreadContext() {
+        AtomicReference<String> auditedCorrelationId = new AtomicReference<>();
+        doAnswer(invocation -> {
+            auditedCorrelationId.set(ThreadContext.get("correlationId"));
+            return invocation.callRealMethod();
+        }).when(downstreamCallAudit).audit(any(), any());
+        when(responseMock.toEntity(eq(String.class))).thenReturn(
+                Mono.delay(Duration.ofMillis(10)).map(i -> new ResponseEntity<>(RESPONSE_BODY, HttpStatus.OK)));
+
+        CompletableFuture<DevExchangeResponse> pending;
+        try (CloseableThreadContext.Instance ignored = CloseableThreadContext.put("correlationId", "test-correlation-id")) {
+            pending = devExchangeDao.invokeDxAPIAsync(dxRequest);
+        }
+        assertEquals(RESPONSE_BODY, pending.join().getDxResponse());
+        assertEquals("test-correlation-id", auditedCorrelationId.get());
+    }
+
+    @Test
+    public void testDevExchangeAsyncErrorResponse() {
+        HttpHeaders responseHeader = new HttpHeaders();
+        responseHeader.add("Content-Type", "application/json");
+        WebClientResponseException webClientResponseException = new WebClientResponseException(HttpStatus.NOT_FOUND.value(), "status", responseHeader, RESPONSE_BODY.getBytes(), Charset.defaultCharset());
+        when(responseMock.toEntity(eq(String.class))).thenReturn(Mono.error(webClientResponseException));
+
+        DevExchangeResponse dxResponse = devExchangeDao.invokeDxAPIAsync(dxRequest).join();
+        assertEquals(RESPONSE_BODY, dxResponse.getDxResponse());
+        assertEquals(HttpStatus.NOT_FOUND.value(), dxResponse.getHttpStatus());
+        verify(downstreamCallAudit, times(1)).audit(dxRequest, dxResponse);
+    }
+
+    @Test
+    public void testDevExchangeAsyncClientException() {
+        WebClientException webClientException = Mockito.mock(WebClientException.class);
+        when(requestHeadersMock.retrieve()).thenThrow(webClientException);
+
+        DevExchangeResponse dxResponse = devExchangeDao.invokeDxAPIAsync(dxRequest).join();
+        assertEquals(SERVICE_UNAVAILABLE, dxResponse.getDxResponse());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), dxResponse.getHttpStatus());
+    }
+
     /**
      * Sets the target log level and returns the old log level so it
      * can be reset at the end of the tests.
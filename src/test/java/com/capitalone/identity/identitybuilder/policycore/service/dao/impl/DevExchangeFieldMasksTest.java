@@ -0,0 +1,78 @@
+package com.capitalone.identity.identitybuilder.policycore.service.dao.impl;
+
+import com.capitalone.identity.identitybuilder.policycore.service.util.JsonFieldMasker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.env.Environment;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DevExchangeFieldMasksTest {
+
+    @Mock
+    private Environment env;
+
+    private DevExchangeFieldMasks fieldMasks;
+
+    @BeforeEach
+    void setUp() {
+        fieldMasks = new DevExchangeFieldMasks(env, "ssn,dob");
+    }
+
+    @Test
+    void combinesGlobalClientAndServiceFields() {
+        when(env.getProperty("audit.filter.props.")).thenReturn("accountNumber");
+        when(env.getProperty("audit.filter.props.foobar")).thenReturn("pin, cvv");
+
+        JsonFieldMasker masker = fieldMasks.getMasker("foobar");
+        assertEquals(new HashSet<>(Arrays.asList("ssn", "dob", "accountnumber", "pin", "cvv")), masker.getFieldNames());
+    }
+
+    @Test
+    void resolvesOncePerService() {
+        JsonFieldMasker masker = fieldMasks.getMasker("foobar");
+        assertSame(masker, fieldMasks.getMasker("foobar"));
+        assertEquals(new HashSet<>(Arrays.asList("ssn", "dob")), fieldMasks.getMasker("other").getFieldNames());
+        assertEquals(2, fieldMasks.size());
+
+        verify(env, times(2)).getProperty("audit.filter.props.");
+        verify(env, times(1)).getProperty("audit.filter.props.foobar");
+    }
+
+    @Test
+    void nullServiceUsesSharedFields() {
+        assertEquals(new HashSet<>(Arrays.asList("ssn", "dob")), fieldMasks.getMasker(null).getFieldNames());
+        verify(env, times(1)).getProperty("audit.filter.props.");
+        verifyNoMoreInteractions(env);
+    }
+
+    @Test
+    void refreshRereadsConfiguration() {
+        fieldMasks.getMasker("foobar");
+        fieldMasks.refresh();
+        assertEquals(0, fieldMasks.size());
+
+        when(env.getProperty("audit.filter.props.foobar")).thenReturn("pin");
+        assertTrue(fieldMasks.getMasker("foobar").getFieldNames().contains("pin"));
+        assertEquals(1, fieldMasks.size());
+    }
+
+    @Test
+    void fieldCountMetricPerService() {
+        assertEquals("Custom/DevExchange/AuditMaskedFieldCount/foobar", DevExchangeFieldMasks.getFieldCountMetric("foobar"));
+        assertEquals("Custom/DevExchange/AuditMaskedFieldCount/none", DevExchangeFieldMasks.getFieldCountMetric(""));
+    }
+
+    @Test
+    void noFieldsConfigured() {
+        assertTrue(new DevExchangeFieldMasks(env, null).getMasker("foobar").isEmpty());
+    }
+}
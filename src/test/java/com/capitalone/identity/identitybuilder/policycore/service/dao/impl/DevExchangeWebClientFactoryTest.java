@@ -10,9 +10,18 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
 
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.eq;
@@ -22,6 +31,7 @@ import static org.mockito.Mockito.*;
 public class DevExchangeWebClientFactoryTest {
 	static EndpointLocator endpointLocator;
 	private DevExchangeWebClientFactory devExchangeWebClientFactory;
+	private MockEnvironment env;
 
 	@Mock(answer = Answers.RETURNS_DEEP_STUBS)
 	WebClient dxClient;
@@ -32,7 +42,8 @@ public class DevExchangeWebClientFactoryTest {
 	@BeforeEach
 	public void setUp() {
 		endpointLocator = Mockito.mock(EndpointLocator.class);
-		this.devExchangeWebClientFactory = new DevExchangeWebClientFactory(dxClient, pdxClient, endpointLocator, 7000, 7000);
+		env = new MockEnvironment();
+		this.devExchangeWebClientFactory = new DevExchangeWebClientFactory(dxClient, pdxClient, endpointLocator, 7000, 7000, env);
 		devExchangeWebClientFactory.init();
 	}
 
@@ -77,4 +88,73 @@ public class DevExchangeWebClientFactoryTest {
 		verify(mockedEndpointProperties, atLeastOnce()).getConnectTimeout();
 		verify(mockedEndpointProperties, atLeastOnce()).getRequestTimeout();
 	}
+
+	@Test
+	public void concurrentCallsCreateOneWebClient() {
+		List<CompletableFuture<WebClient>> futures = IntStream.range(0, 16)
+				.mapToObj(i -> CompletableFuture.supplyAsync(() -> devExchangeWebClientFactory.getDevExchangeWebClient("govid-sendalert", "dx")))
+				.collect(Collectors.toList());
+		futures.forEach(CompletableFuture::join);
+
+		verify(dxClient, times(1)).mutate();
+	}
+
+	@Test
+	public void servicesShareDefaultPool() {
+		env.setProperty(DevExchangeWebClientFactory.POOL_PROPERTY_PREFIX + "max-connections", "50");
+		env.setProperty(DevExchangeWebClientFactory.POOL_PROPERTY_PREFIX + "max-idle-time", "PT30S");
+
+		DevExchangeWebClientFactory.PoolSettings settings = devExchangeWebClientFactory.getPoolSettings("govid-sendalert");
+		assertEquals(DevExchangeWebClientFactory.SHARED_POOL_NAME, settings.getName());
+		assertEquals(Integer.valueOf(50), settings.getMaxConnections());
+		assertNull(settings.getPendingAcquireMaxCount());
+		assertEquals(Duration.ofSeconds(30), settings.getMaxIdleTime());
+		assertNull(settings.getMaxLifeTime());
+		assertEquals(settings, devExchangeWebClientFactory.getPoolSettings("prove-trustv2"));
+	}
+
+	@Test
+	public void configuredServiceGetsDedicatedPool() {
+		env.setProperty(DevExchangeWebClientFactory.POOL_PROPERTY_PREFIX + "max-connections", "50");
+		env.setProperty(DevExchangeWebClientFactory.POOL_PROPERTY_PREFIX + "pending-acquire-max-count", "100");
+		env.setProperty(DevExchangeWebClientFactory.POOL_PROPERTY_PREFIX + "services.govid-sendalert.max-connections", "200");
+		env.setProperty(DevExchangeWebClientFactory.POOL_PROPERTY_PREFIX + "services.govid-sendalert.max-life-time", "PT5M");
+
+		DevExchangeWebClientFactory.PoolSettings settings = devExchangeWebClientFactory.getPoolSettings("govid-sendalert");
+		assertEquals(DevExchangeWebClientFactory.SHARED_POOL_NAME + "-govid-sendalert", settings.getName());
+		assertEquals(Integer.valueOf(200), settings.getMaxConnections());
+		assertEquals(Integer.valueOf(100), settings.getPendingAcquireMaxCount());
+		assertEquals(Duration.ofMinutes(5), settings.getMaxLifeTime());
+		assertEquals(DevExchangeWebClientFactory.SHARED_POOL_NAME, devExchangeWebClientFactory.getPoolSettings("prove-trustv2").getName());
+	}
+
+	@Test
+	public void reactorDefaultsWhenNotConfigured() {
+		DevExchangeWebClientFactory.PoolSettings settings = devExchangeWebClientFactory.getPoolSettings("govid-sendalert");
+		assertNull(settings.getMaxConnections());
+		assertNull(settings.getPendingAcquireMaxCount());
+	}
+
+	@Test
+	public void poolMetricsKeyedByPoolIdUntilDeregistered() {
+		InetSocketAddress address = InetSocketAddress.createUnresolved("api.example.com", 443);
+		ConnectionProvider.MeterRegistrar registrar = devExchangeWebClientFactory.new PoolMetricsRegistrar();
+		registrar.registerMetrics("devexchange", "1", address, mock(ConnectionPoolMetrics.class));
+		registrar.registerMetrics("devexchange", "2", address, mock(ConnectionPoolMetrics.class));
+		assertEquals(2, devExchangeWebClientFactory.getPoolMetrics().size());
+
+		registrar.deRegisterMetrics("devexchange", "1", address);
+		assertEquals(1, devExchangeWebClientFactory.getPoolMetrics().size());
+		assertTrue(devExchangeWebClientFactory.getPoolMetrics()
+				.containsKey(DevExchangeWebClientFactory.poolMetricsKey("devexchange", "2", address)));
+	}
+
+	@Test
+	public void sharedEventLoop() {
+		env.setProperty(DevExchangeWebClientFactory.POOL_PROPERTY_PREFIX + "event-loop-threads", "2");
+		devExchangeWebClientFactory.init();
+
+		assertNotNull(devExchangeWebClientFactory.getDevExchangeWebClient("govid-sendalert", "dx"));
+		devExchangeWebClientFactory.destroy();
+	}
 }
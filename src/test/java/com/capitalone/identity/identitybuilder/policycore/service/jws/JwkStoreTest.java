@@ -0,0 +1,151 @@
+package com.capitalone.identity.identitybuilder.policycore.service.jws;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwkStoreTest {
+
+    private static final Duration EXPIRE = Duration.ofHours(8);
+    private static final Duration REFRESH = Duration.ofHours(1);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private JwkStore store(Function<String, String> loader, long maxSize) {
+        Function<String, String> counting = kid -> {
+            loads.incrementAndGet();
+            return loader.apply(kid);
+        };
+        return new JwkStore(counting, maxSize, EXPIRE, REFRESH, "pinned"::equals, nanos::get, Runnable::run);
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    @Test
+    void loadsOnceAndRecordsStats() {
+        JwkStore store = store(kid -> "jwk-" + kid, 10);
+        assertEquals("jwk-a", store.get("a"));
+        assertEquals("jwk-a", store.get("a"));
+        assertNull(store.getIfPresent("b"));
+
+        assertEquals(1, loads.get());
+        assertEquals(1, store.stats().missCount());
+        assertEquals(1, store.stats().hitCount());
+    }
+
+    @Test
+    void missingKidNotStored() {
+        JwkStore store = store(kid -> null, 10);
+        assertNull(store.get("a"));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void concurrentMissesLoadOnce() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        JwkStore store = store(kid -> {
+            loading.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "jwk-" + kid;
+        }, 10);
+
+        List<CompletableFuture<String>> futures = IntStream.range(0, 8)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> store.get("a")))
+                .collect(Collectors.toList());
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        release.countDown();
+
+        for (CompletableFuture<String> future : futures) {
+            assertEquals("jwk-a", future.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void boundedBySize() {
+        JwkStore store = store(kid -> "jwk-" + kid, 2);
+        IntStream.range(0, 20).forEach(i -> store.get("kid" + i));
+        store.cleanUp();
+
+        assertTrue(store.size() <= 2);
+        assertTrue(store.stats().evictionCount() >= 18);
+    }
+
+    @Test
+    void expiresAfterWrite() {
+        JwkStore store = store(kid -> "jwk-" + kid, 10);
+        store.put("a", "stored");
+        advance(EXPIRE.plusSeconds(1));
+
+        assertNull(store.getIfPresent("a"));
+        assertEquals("jwk-a", store.get("a"));
+    }
+
+    @Test
+    void refreshesKidInUse() {
+        AtomicReference<String> current = new AtomicReference<>("v1");
+        JwkStore store = store(kid -> current.get(), 10);
+        assertEquals("v1", store.get("a"));
+
+        current.set("v2");
+        advance(REFRESH.plusSeconds(1));
+        store.get("a");
+
+        assertEquals("v2", store.get("a"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void refreshKeepsValueWhenNotFound() {
+        JwkStore store = store(kid -> null, 10);
+        store.put("a", "stored");
+        advance(REFRESH.plusSeconds(1));
+
+        assertEquals("stored", store.get("a"));
+        assertEquals("stored", store.get("a"));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void refreshKeepsValueWhenLoadFails() {
+        JwkStore store = store(kid -> {
+            throw new IllegalStateException("test");
+        }, 10);
+        store.put("a", "stored");
+        advance(REFRESH.plusSeconds(1));
+
+        assertEquals("stored", store.get("a"));
+        assertEquals("stored", store.get("a"));
+    }
+
+    @Test
+    void pinnedValueNotReloaded() {
+        JwkStore store = store(kid -> "jwk-" + kid, 10);
+        store.put("a", "pinned");
+        advance(REFRESH.plusSeconds(1));
+
+        assertEquals("pinned", store.get("a"));
+        assertEquals("pinned", store.get("a"));
+        assertEquals(0, loads.get());
+    }
+}
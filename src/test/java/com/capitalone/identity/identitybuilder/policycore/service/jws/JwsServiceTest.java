@@ -6,6 +6,7 @@ import com.capitalone.identity.identitybuilder.policycore.operational_audit.mode
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
 import com.nimbusds.jose.Algorithm;
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWSAlgorithm;
@@ -35,11 +36,12 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import static com.capitalone.identity.identitybuilder.policycore.service.jws.JWTExtractionException.JwsExceptionType.JWS_INVALID_CLAIMS;
 import static com.capitalone.identity.identitybuilder.policycore.service.jws.JWTExtractionException.JwsExceptionType.JWT_INVALID_KEY;
 import static com.capitalone.identity.identitybuilder.policycore.service.jws.JWTExtractionException.JwsExceptionType.JWT_INVALID_SIGNATURE;
+import static com.capitalone.identity.identitybuilder.policycore.service.jws.JWTExtractionException.JwsExceptionType.JWT_MALFORMED_TOKEN;
+import static com.capitalone.identity.identitybuilder.policycore.service.jws.JWTExtractionException.JwsExceptionType.JWT_MISSING_CERTIFICATE;
 import static com.capitalone.identity.identitybuilder.policycore.service.jws.JWTExtractionException.JwsExceptionType.JWT_NULL_TOKEN;
 import static com.capitalone.identity.identitybuilder.policycore.service.jws.JWTExtractionException.JwsExceptionType.JWT_PUBLIC_KEY_EXPIRED;
 import static com.capitalone.identity.identitybuilder.policycore.service.jws.JwsService.ENV_NON_PROD;
@@ -48,8 +50,10 @@ import static java.time.ZoneOffset.UTC;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -143,7 +147,7 @@ class JwsServiceTest {
 
         JWTExtractionException jwtExtractionException = assertThrows(JWTExtractionException.class, () -> jwsService.validate(null,null,false));
         assertEquals(JWT_NULL_TOKEN.toString(), jwtExtractionException.getMessage());
-        verify(jwsService, never()).verifyTokenSignature(anyString(), anyString());
+        verify(jwsService, never()).verifyTokenSignature(anyString(), anyString(), any(JwsToken.class));
         verify(jwtPublicKeyRetrievalService, never()).obtainJWKFromExchange(anyString());
         verifyNoInteractions(webClient);
     }
@@ -163,7 +167,7 @@ class JwsServiceTest {
         JWTExtractionException jwtExtractionException = assertThrows(JWTExtractionException.class, () -> jwsService.validate(jwsToken.serialize(),testProductId,false));
         assertEquals(JWT_INVALID_KEY.toString(), jwtExtractionException.getMessage());
 
-        verify(jwsService, never()).verifyTokenSignature(anyString(), anyString());
+        verify(jwsService, never()).verifyTokenSignature(anyString(), anyString(), any(JwsToken.class));
         verify(jwtPublicKeyRetrievalService, never()).obtainJWKFromExchange(anyString());
     }
 
@@ -188,7 +192,7 @@ class JwsServiceTest {
         JWTExtractionException jwtExtractionException = assertThrows(JWTExtractionException.class, () -> jwsService.validate(jwsToken.serialize(),testProductId,false));
         assertEquals(JWS_INVALID_CLAIMS.toString(), jwtExtractionException.getMessage());
 
-        verify(jwsService, never()).verifyTokenSignature(anyString(), anyString());
+        verify(jwsService, never()).verifyTokenSignature(anyString(), anyString(), any(JwsToken.class));
         verify(jwtPublicKeyRetrievalService, never()).obtainJWKFromExchange(anyString());
     }
 
@@ -206,7 +210,7 @@ class JwsServiceTest {
 
         assertEquals(response().toString(), jwsService.validate(aToken.serialize(),testProductId,false).toString());
 
-        verify(jwsService).verifyTokenSignature(anyString(), anyString());
+        verify(jwsService).verifyTokenSignature(anyString(), anyString(), any(JwsToken.class));
     }
 
     @Test
@@ -225,7 +229,7 @@ class JwsServiceTest {
 
         assertEquals(JWT_INVALID_SIGNATURE.toString(), jwtExtractionException.getMessage());
 
-        verify(jwsService, times(1)).verifyTokenSignature(anyString(), anyString());
+        verify(jwsService, times(1)).verifyTokenSignature(anyString(), anyString(), any(JwsToken.class));
     }
 
     @SneakyThrows
@@ -246,7 +250,7 @@ class JwsServiceTest {
 
         assertEquals(JWT_INVALID_SIGNATURE.toString(), jwtExtractionException.getMessage());
 
-        verify(jwsService).verifyTokenSignature(anyString(), anyString());
+        verify(jwsService).verifyTokenSignature(anyString(), anyString(), any(JwsToken.class));
     }
 
     @Test
@@ -370,11 +374,9 @@ class JwsServiceTest {
     @Test
     public void testExpiredJWK(){
 
-        Map<String, String> testKidToJWK = new ConcurrentHashMap<>();
-        testKidToJWK.put(testKeyPairKid,JWK_KEY_JSON_STRING);
         jwsService1.storeKeyModel(testKeyModel);
         String token = jwsService1.generate("testProcessId",null,"300");
-        setField(jwsService1,"kidToJWK",testKidToJWK);
+        jwsService1.storeJwkToMap(testKeyPairKid,JWK_KEY_JSON_STRING);
         JWTExtractionException jwtExtractionException = assertThrows(JWTExtractionException.class, () -> jwsService1.validate(token,testProductId,false));
         assertEquals(JWT_PUBLIC_KEY_EXPIRED.toString(), jwtExtractionException.getMessage());
     }
@@ -403,19 +405,16 @@ class JwsServiceTest {
         setField(jwsService1, "jwkValidatedPublisher", jwkValidationPublisher1);
     }
 
-    @SuppressWarnings("unchecked")
     @Test
     public void testStoreJwkToMap(){
-        Map<String, String> kidToJWK = (Map<String,String>) ReflectionTestUtils.getField(jwsService1, "kidToJWK");
         jwsService1.storeJwkToMap("testKid","testJwk");
-        assertNotNull(kidToJWK);
-        assertEquals("testJwk",kidToJWK.get("testKid"));
+        assertEquals("testJwk",jwsService1.getStoredJwk("testKid"));
     }
 
     @Test
     public void testStoreKeyModel(){
         jwsService1.storeKeyModel(testKeyModel);
-        JwtKeyModel keyModel = (JwtKeyModel) ReflectionTestUtils.getField(jwsService1, "jwtKeyModel");
+        JwtKeyModel keyModel = jwsService1.getKeyModel();
         assertNotNull(keyModel);
         assertEquals("testKeyPairKid",keyModel.getKeyPairKid());
     }
@@ -509,4 +508,82 @@ class JwsServiceTest {
         doReturn(testJwtPublicKeyRetrievalResponse).when(jwtPublicKeyRetrievalService1).fetchJwtPublicKey(anyString());
         assertTrue(jwsService1.validate(token,"wrongTestProductId",false).result());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testVerifierReusedForKid() {
+        jwsService1.storeKeyModel(testKeyModel);
+        doReturn(testJwtPublicKeyRetrievalResponse).when(jwtPublicKeyRetrievalService1).fetchJwtPublicKey(anyString());
+
+        Cache<?, ?> verifiers = (Cache<?, ?>) ReflectionTestUtils.getField(jwsService1, "verifiers");
+        jwsService1.validate(jwsService1.generate("testProcessId", null, "300"), testProductId, false);
+        Object verifier = verifiers.getIfPresent(testKeyPairKid);
+        assertNotNull(verifier);
+        jwsService1.validate(jwsService1.generate("testProcessId2", null, "300"), testProductId, false);
+
+        assertSame(verifier, verifiers.getIfPresent(testKeyPairKid));
+        verify(jwtPublicKeyRetrievalService1, times(1)).fetchJwtPublicKey(testKeyPairKid);
+        verify(jwsService1, times(2)).verifyTokenSignature(anyString(), anyString(), any(JwsToken.class));
+        verify(jwsService1, never()).verifyTokenSignature(anyString(), anyString());
+        assertEquals(1, jwsService1.getJwkStoreStats().missCount());
+        assertEquals(1, jwsService1.getJwkStoreStats().hitCount());
+    }
+
+    @Test
+    public void testVerifierRebuiltWhenJwkChanges() throws JOSEException {
+        jwsService1.storeKeyModel(testKeyModel);
+        jwsService1.storeJwkToMap(testKeyPairKid, testTransformedPublicJWK);
+        String token = jwsService1.generate("testProcessId", null, "300");
+        assertNotNull(jwsService1.validate(token, testProductId, false));
+
+        RSAKey otherKeyPair = generateRSAKeyPair();
+        jwsService1.storeJwkToMap(testKeyPairKid, testTransformedPublicJWK.replace(
+                testKeyPair.getModulus().toString(), otherKeyPair.getModulus().toString()));
+        JWTExtractionException exception = assertThrows(JWTExtractionException.class, () -> jwsService1.validate(token, testProductId, false));
+        assertEquals(JWT_INVALID_SIGNATURE.toString(), exception.getMessage());
+    }
+
+    @Test
+    public void testUnknownKidNotLookedUpAgain() {
+        jwsService1.storeKeyModel(testKeyModel);
+        String token = jwsService1.generate("testProcessId", null, "300");
+        doReturn(new JwtPublicKeyRetrievalResponse(404, null, "test")).when(jwtPublicKeyRetrievalService1).fetchJwtPublicKey(anyString());
+
+        for (int i = 0; i < 3; i++) {
+            JWTExtractionException exception = assertThrows(JWTExtractionException.class, () -> jwsService1.validate(token, testProductId, false));
+            assertEquals(JWT_MISSING_CERTIFICATE.toString(), exception.getMessage());
+        }
+        verify(jwtPublicKeyRetrievalService1, times(1)).fetchJwtPublicKey(testKeyPairKid);
+
+        jwsService1.storeJwkToMap(testKeyPairKid, testTransformedPublicJWK);
+        assertNotNull(jwsService1.validate(token, testProductId, false));
+    }
+
+    @Test
+    public void testMalformedToken() {
+        JWTExtractionException exception = assertThrows(JWTExtractionException.class, () -> jwsService1.validate("not_a_token", testProductId, false));
+        assertEquals(JWT_MALFORMED_TOKEN.toString(), exception.getMessage());
+        verifyNoInteractions(jwtPublicKeyRetrievalService1);
+    }
+
+    @Test
+    public void testSignerSwappedOnRotation() throws JOSEException {
+        jwsService1.storeKeyModel(testKeyModel);
+        Object signingKey = ReflectionTestUtils.getField(jwsService1, "signingKey");
+        String token = jwsService1.generate("testProcessId", null, "300");
+        assertSame(signingKey, ReflectionTestUtils.getField(jwsService1, "signingKey"));
+
+        RSAKey rotatedKeyPair = new RSAKeyGenerator(2048).keyID("rotatedKid").generate();
+        jwsService1.storeKeyModel(JwtKeyModel.builder()
+                .jwtKeyPair(rotatedKeyPair)
+                .keyPairExp(testKeyPairExp)
+                .transformedPublicJWK(testTransformedPublicJWK)
+                .keyPairKid("rotatedKid")
+                .build());
+        String rotatedToken = jwsService1.generate("testProcessId", null, "300");
+
+        assertEquals(testKeyPairKid, jwsService1.parseKeyId(token));
+        assertEquals("rotatedKid", jwsService1.parseKeyId(rotatedToken));
+        assertTrue(jwsService1.verifyTokenSignature(rotatedKeyPair.toPublicJWK().toJSONString(), rotatedToken));
+        assertFalse(jwsService1.verifyTokenSignature(testKeyPair.toPublicJWK().toJSONString(), rotatedToken));
+    }
+}
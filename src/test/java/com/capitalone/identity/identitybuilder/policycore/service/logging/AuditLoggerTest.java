@@ -17,6 +17,7 @@ import com.capitalone.identity.identitybuilder.policycore.operational_audit.Poli
 import com.capitalone.identity.identitybuilder.policycore.operational_audit.model.policy.PolicyRequestType;
 import com.capitalone.identity.identitybuilder.policycore.rest.v1.ExecutionContext;
 import com.capitalone.identity.identitybuilder.policycore.schema.SchemaManager;
+import com.capitalone.identity.identitybuilder.policycore.service.PolicyExecutionPlanRegistry;
 import com.capitalone.identity.identitybuilder.policycore.service.PolicyService;
 import com.capitalone.identity.identitybuilder.policycore.service.PolicyStateCacheService;
 import com.capitalone.identity.identitybuilder.policycore.service.jws.JwsService;
@@ -24,6 +25,7 @@ import com.capitalone.identity.identitybuilder.policycore.service.jws.JwsService
 import com.capitalone.identity.identitybuilder.policycore.service.util.MockPolicyVersion;
 import com.capitalone.identity.identitybuilder.policycore.service.versions.PolicyVersionService;
 import com.capitalone.identity.identitybuilder.policycore.utils.CamelSpringBootContextAwareTest;
+import com.networknt.schema.JsonSchema;
 import org.apache.camel.CamelContext;
 import org.apache.camel.Exchange;
 import org.apache.camel.ProducerTemplate;
@@ -68,6 +70,8 @@ public class AuditLoggerTest {
 
     @Mock
     private SchemaManager schemaManager;
+    @Mock(lenient = true)
+    private JsonSchema jsonSchema;
     @Mock
     private PolicyStateCacheService policyStateCacheService;
     @Mock
@@ -128,9 +132,12 @@ public class AuditLoggerTest {
     }
 
     private void createDefaultPolicyService() {
+        Mockito.lenient().when(schemaManager.getEntry(anyString()))
+                .thenReturn(new SchemaManager.Entry("schema", "{}", jsonSchema));
         processMetadataHelper = new PolicyService.ProcessMetadataHelper(policyStateCacheService);
-        policyExecutionHelper = Mockito.spy(new PolicyService.PolicyExecutionHelper(false, schemaManager, camelContext,
-                processMetadataHelper, camelCacheUtil, authorizationEnforcer, true, policyVersionService, false, ""));
+        policyExecutionHelper = Mockito.spy(new PolicyService.PolicyExecutionHelper(false, camelContext,
+                processMetadataHelper, camelCacheUtil, authorizationEnforcer, true, policyVersionService,
+                new PolicyExecutionPlanRegistry(camelContext, schemaManager), false, ""));
         policyServiceExecutor = new PolicyServiceExecutor(auditLogger, Mockito.mock(PolicyEvaluatedAuditor.class),
                 conversionService, policyExecutionHelper);
     }
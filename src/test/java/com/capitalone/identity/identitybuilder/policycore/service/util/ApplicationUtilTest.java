@@ -1,16 +1,11 @@
 package com.capitalone.identity.identitybuilder.policycore.service.util;
 
 import com.capitalone.chassis.engine.model.exception.ChassisSystemException;
-import com.capitalone.identity.identitybuilder.policycore.model.PolicyState;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.io.Serializable;
-import java.util.HashMap;
-import java.util.Map;
-
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -21,48 +16,6 @@ public class ApplicationUtilTest {
 	@InjectMocks
 	ApplicationUtil applicationUtil;
 	
-	@Test
-	public void convertObjectToString() {
-		Map<String, Object> testDataMap = new HashMap<>();
-		testDataMap.put("key", "value");
-		String string = applicationUtil.convertObjectToString(testDataMap);
-		assertEquals("{\"key\":\"value\"}", string);
-	}
-
-	@Test
-	public void convertObjectToStringFailure() {
-		assertThrows(ChassisSystemException.class, () -> applicationUtil.convertObjectToString(new Object()));
-	}
-
-	@Test
-	public void convertStringToPolicyState() {
-		PolicyState policyState = new PolicyState();
-		String policyName = "redis";
-		policyState.setPolicyName(policyName);
-
-		String policyVersion = "1.0";
-		policyState.setPolicyVersion(policyVersion);
-
-		Map<String, Serializable> policyStateMap = new HashMap<>();
-		policyStateMap.put("firstName", "john");
-		policyState.setPolicyState(policyStateMap);
-
-		policyState.getAvailableNextSteps().add("step2");
-		policyState.getAvailableNextSteps().add("back");
-
-		policyState.getStepsCompleted().add("start");
-
-		String s = "{\"policyName\":\"" + policyName + "\",\"policyVersion\":\"" + policyVersion + "\",\"policyState\":{\"firstName\":\"john\"},\"availableNextSteps\":[\"step2\",\"back\"],\"stepsCompleted\":[\"start\"]}";
-		PolicyState actualPolicyState = applicationUtil.convertStringToPolicyState(s);
-
-		assertEquals(policyState, actualPolicyState);
-	}
-	
-	@Test
-	public void convertStringToObjectFailure() {
-		assertThrows(ChassisSystemException.class, () -> applicationUtil.convertStringToPolicyState("foo"));
-	}
-
 	@Test
 	public void testExtractSorId() {
 		int sorId = applicationUtil.extractSorId("accountId=123456789~~sorId=5");
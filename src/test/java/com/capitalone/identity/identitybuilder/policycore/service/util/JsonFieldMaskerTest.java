@@ -0,0 +1,79 @@
+package com.capitalone.identity.identitybuilder.policycore.service.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonFieldMaskerTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final JsonFactory factory = objectMapper.getFactory();
+
+    @Test
+    void parsesFieldList() {
+        JsonFieldMasker masker = JsonFieldMasker.of(" firstName, ,LastName ,");
+        assertEquals(new HashSet<>(Arrays.asList("firstname", "lastname")), masker.getFieldNames());
+        assertThrows(UnsupportedOperationException.class, () -> masker.getFieldNames().add("ssn"));
+        assertTrue(JsonFieldMasker.of((String) null).isEmpty());
+        assertTrue(JsonFieldMasker.of(Collections.singletonList(" ")).isEmpty());
+    }
+
+    @Test
+    void masksValuesOfAnyType() throws IOException {
+        String json = "{\"a\":{\"b\":[1,2]},\"c\":[{\"a\":null}],\"d\":1.5,\"e\":true,\"f\":\"keep\"}";
+        assertEquals("{\"a\":\"XXXXXX\",\"c\":[{\"a\":\"XXXXXX\"}],\"d\":\"XXXXXX\",\"e\":true,\"f\":\"keep\"}",
+                JsonFieldMasker.of("a,d").mask(json, factory));
+    }
+
+    @Test
+    void matchesCaseInsensitively() throws IOException {
+        assertEquals("{\"SSN\":\"XXXXXX\",\"ssn\":\"XXXXXX\",\"Name\":\"n\"}",
+                JsonFieldMasker.of("Ssn").mask("{\"SSN\":\"1\",\"ssn\":\"2\",\"Name\":\"n\"}", factory));
+    }
+
+    @Test
+    void copiesUnmaskedDocumentCompactly() throws IOException {
+        String json = "{ \"a\" : [ 1, 2.25, -3, 12345678901234, \"x\\\"y\", null ], \"b\" : { } }";
+        assertEquals(objectMapper.readTree(json).toString(), JsonFieldMasker.of("").mask(json, factory));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"\"text\"", "42", "[]", "[{\"a\":1}]"})
+    void copiesRootValues(String json) throws IOException {
+        assertEquals(objectMapper.readTree(json).toString(), JsonFieldMasker.of("b").mask(json, factory));
+    }
+
+    @Test
+    void readsFirstValueOnly() throws IOException {
+        assertEquals("{\"a\":\"XXXXXX\"}", JsonFieldMasker.of("a").mask("{\"a\":1} {\"a\":2}", factory));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"blah", "{\"a\":", "{\"a\":[1,2}"})
+    void rejectsInvalidJson(String json) {
+        JsonFieldMasker masker = JsonFieldMasker.of("a");
+        assertThrows(JsonProcessingException.class, () -> masker.mask(json, factory));
+    }
+
+    @Test
+    void masksSerializedValue() throws IOException {
+        Map<String, Object> inner = new LinkedHashMap<>();
+        inner.put("result", Collections.singletonMap("decision", true));
+        inner.put("status", "SUCCESS");
+        Map<String, Object> value = Collections.singletonMap("policyRequest", inner);
+        assertEquals("{\"policyRequest\":{\"result\":\"XXXXXX\",\"status\":\"SUCCESS\"}}",
+                JsonFieldMasker.of("result").mask(value, objectMapper));
+    }
+}
@@ -111,4 +111,10 @@ public class JsonUtilTest {
 		final String actual = JsonUtil.getFilteredResponse(new Object() {public final String hello = "world";}, null);
 		Assertions.assertEquals(expected, actual);
 	}
+
+	@Test
+	void testFieldMaskerReused() {
+		assertSame(JsonUtil.getFieldMasker("requestBody,result"), JsonUtil.getFieldMasker("requestBody,result"));
+		assertTrue("blank field list masks nothing", JsonUtil.getFieldMasker(" ").isEmpty());
+	}
 }
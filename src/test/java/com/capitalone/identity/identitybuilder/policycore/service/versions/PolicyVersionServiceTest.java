@@ -9,6 +9,7 @@ import org.junit.jupiter.params.provider.ValueSource;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -231,4 +232,41 @@ class PolicyVersionServiceTest {
         assertEquals(MockPolicyVersion.create("a/b/c/1.1"), MockPolicyVersion.create(service.getPolicyVersion("c", "1")));
     }
 
+    @Test
+    void concurrentUpdatesDoNotAffectStableVersions() throws InterruptedException {
+        PolicyVersionService service = new PolicyVersionService(true);
+        MockPolicyVersion stable = MockPolicyVersion.create("a/b/c/1.0");
+        service.set(stable, EntityActivationStatus.ACTIVE);
+
+        AtomicBoolean failed = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 1000; i++) {
+                MockPolicyVersion other = MockPolicyVersion.create("a/b/c/2." + i);
+                service.set(other, EntityActivationStatus.ACTIVE);
+                service.remove(other);
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            if (!stable.equals(MockPolicyVersion.create(service.getPolicyVersion("c", "1")))
+                    || !stable.equals(MockPolicyVersion.create(service.getPolicyVersion("c", "1.0")))) {
+                failed.set(true);
+            }
+        }
+        writer.join();
+
+        assertFalse(failed.get());
+        assertNull(service.getPolicyVersion("c", "2"));
+    }
+
+    @Test
+    void shortNamesDoNotCollideWithVersions() {
+        PolicyVersionService service = new PolicyVersionService(true);
+        service.set(MockPolicyVersion.create("a/b/c1/1.0"), EntityActivationStatus.ACTIVE);
+
+        assertNull(service.getPolicyVersion("c", "11"));
+        assertNull(service.getPolicyVersion("c", "11.0"));
+        assertEquals(MockPolicyVersion.create("a/b/c1/1.0"), MockPolicyVersion.create(service.getPolicyVersion("c1", "1")));
+    }
+
 }